@@ -4,16 +4,21 @@ import org.gbif.api.model.common.DOI;
 import org.gbif.api.model.common.paging.Pageable;
 import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.DataPackageFacet;
 import org.gbif.datarepo.api.model.DataPackageFile;
 import org.gbif.datarepo.api.model.FileInputContent;
 import org.gbif.datarepo.api.model.Identifier;
 import org.gbif.datarepo.api.model.RepositoryStats;
+import org.gbif.datarepo.api.model.TagMode;
 
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 
 /**
@@ -74,12 +79,41 @@ public interface DataRepository {
    */
   Optional<DataPackage> getByAlternativeIdentifier(String identifier);
 
+  /**
+   * Gets a DataPackage by its key, DOI or alternative identifier, in that order of precedence.
+   */
+  Optional<DataPackage> getByIdentifier(String identifier);
+
+  /**
+   * Gets many DataPackages by their keys, DOIs or alternative identifiers, the result has one element per identifier
+   * in the same order, empty if the identifier is not found.
+   */
+  List<Optional<DataPackage>> getByIdentifiers(List<String> identifiers);
+
   /**
    * List data packages optionally filtered by user and dates.
+   * Data packages having any of the tags are listed unless tagMode is ALL.
+   * If facets are requested, the response is a FacetedPagingResponse with, at most, facetLimit counts per facet.
+   */
+  PagingResponse<DataPackage> list(@Nullable String user, @Nullable Pageable page, @Nullable Date fromDate,
+                                   @Nullable Date toDate, Boolean deleted, @Nullable List<String> tags,
+                                   @Nullable TagMode tagMode, @Nullable String q, @Nullable String formatId,
+                                   @Nullable Set<DataPackageFacet> facets, int facetLimit);
+
+  /**
+   * Same listing as list, but the data packages of the page are passed to a consumer as they are read instead of
+   * being collected. The returned response holds the count and the facets, its results are empty.
    */
   PagingResponse<DataPackage> list(@Nullable String user, @Nullable Pageable page, @Nullable Date fromDate,
                                    @Nullable Date toDate, Boolean deleted, @Nullable List<String> tags,
-                                   @Nullable String q, @Nullable String formatId);
+                                   @Nullable TagMode tagMode, @Nullable String q, @Nullable String formatId,
+                                   @Nullable Set<DataPackageFacet> facets, int facetLimit,
+                                   Consumer<DataPackage> consumer);
+
+  /**
+   * Streams all the data packages exposed by this repository, optionally modified since a date, to a consumer.
+   */
+  void export(@Nullable Date modifiedSince, Consumer<DataPackage> consumer);
 
   /**
    * Page through AlternativeIdentifiers, optionally filtered by user and dates.
@@ -91,6 +125,18 @@ public interface DataRepository {
                                   @Nullable Identifier.RelationType relationType,
                                   @Nullable Date created);
 
+  /**
+   * Same listing as listIdentifiers, but the identifiers of the page are passed to a consumer as they are read.
+   * The returned response holds the count, its results are empty.
+   */
+  PagingResponse<Identifier> listIdentifiers(@Nullable String user, @Nullable Pageable page,
+                                             @Nullable String identifier,
+                                             @Nullable UUID dataPackageKey,
+                                             @Nullable Identifier.Type type,
+                                             @Nullable Identifier.RelationType relationType,
+                                             @Nullable Date created,
+                                             Consumer<Identifier> consumer);
+
   /**
    * Gets a file contained in a data package referenced by a DOI.
    */
@@ -106,9 +152,24 @@ public interface DataRepository {
    */
   RepositoryStats getStats();
 
+  /**
+   * Recalculates the repository statistics from the stored data packages.
+   */
+  RepositoryStats rebuildStats();
+
+  /**
+   * Re-creates the full text search index from the stored data packages, returns the number of indexed packages.
+   */
+  long rebuildSearchIndex();
+
   /**
    * Utility method to validate if an identifier has been  used as alternative identifier for another data package.
    */
   boolean isAlternativeIdentifierInUse(Identifier alternativeIdentifier);
 
+  /**
+   * Returns the identifiers that are already used as alternative identifiers by other data packages.
+   */
+  Set<Identifier> getAlternativeIdentifiersInUse(Collection<Identifier> identifiers);
+
 }
@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
@@ -96,12 +97,18 @@ public class DataPackage {
   @JsonProperty
   private String citation;
 
+  @JsonIgnore
+  private String citationTemplate;
+
   @JsonIgnore
   private String publishedIn;
 
   @JsonProperty
   private Set<String> shareIn;
 
+  @JsonProperty
+  private List<String> highlights;
+
   private final String baseUrl;
 
   /**
@@ -316,6 +323,17 @@ public class DataPackage {
     this.citation = citation;
   }
 
+  /**
+   * Citation stored when the data package is written, it lacks the access date that is added when it's read.
+   */
+  public String getCitationTemplate() {
+    return citationTemplate;
+  }
+
+  public void setCitationTemplate(String citationTemplate) {
+    this.citationTemplate = citationTemplate;
+  }
+
   public String getPublishedIn() {
     return publishedIn;
   }
@@ -338,6 +356,17 @@ public class DataPackage {
     this.shareIn = shareIn;
   }
 
+  /**
+   * Fragments of the title and description matching a full text search, only set in search results.
+   */
+  public List<String> getHighlights() {
+    return highlights;
+  }
+
+  public void setHighlights(List<String> highlights) {
+    this.highlights = highlights;
+  }
+
   /**
    * Adds a new file to the list from containing files.
    * The baseUrl is prepend to the file name.
@@ -468,9 +497,11 @@ public class DataPackage {
     dataPackage.setTags(tags);
     dataPackage.setCreators(creators);
     dataPackage.setCitation(citation);
+    dataPackage.setCitationTemplate(citationTemplate);
     dataPackage.setLicense(license);
     dataPackage.setPublishedIn(publishedIn);
     dataPackage.setShareIn(shareIn);
+    dataPackage.setHighlights(highlights);
     return dataPackage;
   }
 
@@ -0,0 +1,40 @@
+package org.gbif.datarepo.api.model;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Fields of a data package that can be used to compute facet counts.
+ */
+public enum DataPackageFacet {
+
+  TAG("tag"),
+
+  FORMAT("format"),
+
+  CREATED_BY("createdBy"),
+
+  LICENSE("license"),
+
+  YEAR("year");
+
+  private final String paramName;
+
+  DataPackageFacet(String paramName) {
+    this.paramName = paramName;
+  }
+
+  /**
+   * Name used to request the facet, e.g.: facet=createdBy.
+   */
+  public String getParamName() {
+    return paramName;
+  }
+
+  /**
+   * Gets the facet requested by its parameter name, the comparison is case insensitive.
+   */
+  public static Optional<DataPackageFacet> fromParamName(String paramName) {
+    return Arrays.stream(values()).filter(facet -> facet.paramName.equalsIgnoreCase(paramName)).findFirst();
+  }
+}
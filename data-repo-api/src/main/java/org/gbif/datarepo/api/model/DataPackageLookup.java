@@ -0,0 +1,88 @@
+package org.gbif.datarepo.api.model;
+
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Result of looking up a data package by one of its identifiers, the data package is null if it wasn't found.
+ */
+public class DataPackageLookup {
+
+  @JsonProperty
+  private String identifier;
+
+  @JsonProperty
+  private boolean found;
+
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private DataPackage dataPackage;
+
+  /**
+   * Default constructor, use for serialization.
+   */
+  public DataPackageLookup() {
+    //NOP
+  }
+
+  /**
+   * Full constructor.
+   */
+  public DataPackageLookup(String identifier, DataPackage dataPackage) {
+    this.identifier = identifier;
+    this.dataPackage = dataPackage;
+    found = dataPackage != null;
+  }
+
+  /**
+   * Key, DOI or alternative identifier requested.
+   */
+  public String getIdentifier() {
+    return identifier;
+  }
+
+  public void setIdentifier(String identifier) {
+    this.identifier = identifier;
+  }
+
+  public boolean isFound() {
+    return found;
+  }
+
+  public void setFound(boolean found) {
+    this.found = found;
+  }
+
+  public DataPackage getDataPackage() {
+    return dataPackage;
+  }
+
+  public void setDataPackage(DataPackage dataPackage) {
+    this.dataPackage = dataPackage;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DataPackageLookup that = (DataPackageLookup) o;
+    return found == that.found && Objects.equals(identifier, that.identifier)
+           && Objects.equals(dataPackage, that.dataPackage);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(identifier, found, dataPackage);
+  }
+
+  @Override
+  public String toString() {
+    return "{\"identifier\": \"" + identifier + "\", \"found\": " + found + "}";
+  }
+}
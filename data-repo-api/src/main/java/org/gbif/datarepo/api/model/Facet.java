@@ -0,0 +1,129 @@
+package org.gbif.datarepo.api.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Most frequent values of a data package field and the number of data packages that have each value.
+ */
+public class Facet {
+
+  /**
+   * Number of data packages that have a value.
+   */
+  public static class Count {
+
+    @JsonProperty
+    private String name;
+
+    @JsonProperty
+    private Long count;
+
+    /**
+     * Default constructor, use for serialization.
+     */
+    public Count() {
+      //NOP
+    }
+
+    /**
+     * Full constructor.
+     */
+    public Count(String name, Long count) {
+      this.name = name;
+      this.count = count;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public Long getCount() {
+      return count;
+    }
+
+    public void setCount(Long count) {
+      this.count = count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Count that = (Count) o;
+      return Objects.equals(name, that.name) && Objects.equals(count, that.count);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, count);
+    }
+  }
+
+  @JsonProperty
+  private DataPackageFacet field;
+
+  @JsonProperty
+  private List<Count> counts = new ArrayList<>();
+
+  /**
+   * Default constructor, use for serialization.
+   */
+  public Facet() {
+    //NOP
+  }
+
+  /**
+   * Field constructor.
+   */
+  public Facet(DataPackageFacet field) {
+    this.field = field;
+  }
+
+  public DataPackageFacet getField() {
+    return field;
+  }
+
+  public void setField(DataPackageFacet field) {
+    this.field = field;
+  }
+
+  /**
+   * Counts sorted by descending number of data packages.
+   */
+  public List<Count> getCounts() {
+    return counts;
+  }
+
+  public void setCounts(List<Count> counts) {
+    this.counts = counts;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    Facet that = (Facet) o;
+    return field == that.field && Objects.equals(counts, that.counts);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(field, counts);
+  }
+}
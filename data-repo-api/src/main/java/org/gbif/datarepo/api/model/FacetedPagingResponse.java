@@ -0,0 +1,41 @@
+package org.gbif.datarepo.api.model;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Paging response that also contains the facet counts computed over all the matching elements.
+ */
+public class FacetedPagingResponse<T> extends PagingResponse<T> {
+
+  @JsonProperty
+  private List<Facet> facets = new ArrayList<>();
+
+  /**
+   * Default constructor, use for serialization.
+   */
+  public FacetedPagingResponse() {
+    //NOP
+  }
+
+  /**
+   * Full constructor.
+   */
+  public FacetedPagingResponse(Pageable page, Long count, List<T> results, List<Facet> facets) {
+    super(page, count, results);
+    this.facets = facets;
+  }
+
+  public List<Facet> getFacets() {
+    return facets;
+  }
+
+  public void setFacets(List<Facet> facets) {
+    this.facets = facets;
+  }
+}
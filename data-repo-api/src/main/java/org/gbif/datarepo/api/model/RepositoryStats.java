@@ -1,16 +1,86 @@
 package org.gbif.datarepo.api.model;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * General statistics of the repository.
  */
 public class RepositoryStats {
 
+  /**
+   * Counters of a subset of the repository, e.g.: all files of the same format.
+   */
+  public static class Breakdown {
+
+    private Long numOfFiles;
+
+    private Long numOfDataPackages;
+
+    private Long totalSize;
+
+    /**
+     * Default constructor, use for serialization.
+     */
+    public Breakdown() {
+      //NOP
+    }
+
+    /**
+     * Full constructor.
+     */
+    public Breakdown(Long numOfFiles, Long numOfDataPackages, Long totalSize) {
+      this.numOfFiles = numOfFiles;
+      this.numOfDataPackages = numOfDataPackages;
+      this.totalSize = totalSize;
+    }
+
+    /**
+     * Number of active files.
+     */
+    public Long getNumOfFiles() {
+      return numOfFiles;
+    }
+
+    public void setNumOfFiles(Long numOfFiles) {
+      this.numOfFiles = numOfFiles;
+    }
+
+    /**
+     * Number of active data packages.
+     */
+    public Long getNumOfDataPackages() {
+      return numOfDataPackages;
+    }
+
+    public void setNumOfDataPackages(Long numOfDataPackages) {
+      this.numOfDataPackages = numOfDataPackages;
+    }
+
+    /**
+     * Total fileSize in bytes.
+     */
+    public Long getTotalSize() {
+      return totalSize;
+    }
+
+    public void setTotalSize(Long totalSize) {
+      this.totalSize = totalSize;
+    }
+  }
+
   private Integer numOfFiles;
 
   private Long totalSize;
 
   private Long averageFileSize;
 
+  private Long numOfDataPackages;
+
+  private Map<String, Breakdown> formats = new HashMap<>();
+
+  private Map<String, Breakdown> publishedIn = new HashMap<>();
+
   /**
    * Number of active files.
    */
@@ -43,4 +113,37 @@ public class RepositoryStats {
   public void setAverageFileSize(Long averageFileSize) {
     this.averageFileSize = averageFileSize;
   }
+
+  /**
+   * Number of active data packages.
+   */
+  public Long getNumOfDataPackages() {
+    return numOfDataPackages;
+  }
+
+  public void setNumOfDataPackages(Long numOfDataPackages) {
+    this.numOfDataPackages = numOfDataPackages;
+  }
+
+  /**
+   * Counters broken down by file format.
+   */
+  public Map<String, Breakdown> getFormats() {
+    return formats;
+  }
+
+  public void setFormats(Map<String, Breakdown> formats) {
+    this.formats = formats;
+  }
+
+  /**
+   * Counters broken down by the repository that published the data packages.
+   */
+  public Map<String, Breakdown> getPublishedIn() {
+    return publishedIn;
+  }
+
+  public void setPublishedIn(Map<String, Breakdown> publishedIn) {
+    this.publishedIn = publishedIn;
+  }
 }
@@ -0,0 +1,27 @@
+package org.gbif.datarepo.api.model;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * How the tags used to filter data packages are combined.
+ */
+public enum TagMode {
+
+  /**
+   * Data packages having at least one of the tags.
+   */
+  ANY,
+
+  /**
+   * Data packages having all the tags.
+   */
+  ALL;
+
+  /**
+   * Gets the mode by its parameter name, e.g.: tagMode=all, the comparison is case insensitive.
+   */
+  public static Optional<TagMode> fromParamName(String paramName) {
+    return Arrays.stream(values()).filter(tagMode -> tagMode.name().equalsIgnoreCase(paramName)).findFirst();
+  }
+}
@@ -1,5 +1,6 @@
 package org.gbif.datarepo.citation;
 
+import org.gbif.api.vocabulary.Language;
 import org.gbif.datarepo.api.model.Creator;
 import org.gbif.datarepo.api.model.DataPackage;
 
@@ -8,7 +9,9 @@ import java.time.ZoneId;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.StringJoiner;
@@ -17,6 +20,11 @@ import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 
+/**
+ * Generates the citations of data packages.
+ * A citation has two parts: a template with the authors, year, title and DOI, that is generated when the data package
+ * is written, and the access date, that is added in the requested language when the data package is read.
+ */
 public class CitationGenerator {
 
   private static final ZoneId UTC = ZoneId.of("UTC");
@@ -24,6 +32,40 @@ public class CitationGenerator {
   private static final Pattern WHITE_SPACES =  Pattern.compile("\\s+");
   private static final Pattern COMMA_SEPARATE =  Pattern.compile(",");
 
+  /**
+   * Language used when none is requested or the requested one is not supported.
+   */
+  public static final Language DEFAULT_LANGUAGE = Language.ENGLISH;
+
+  //Access date sentences by language, formatted with the ISO date
+  private static final Map<Language, String> ACCESSED_ON = new EnumMap<>(Language.class);
+
+  static {
+    ACCESSED_ON.put(Language.ENGLISH, "accessed via GBIF.org on %s.");
+    ACCESSED_ON.put(Language.SPANISH, "consultado a través de GBIF.org el %s.");
+    ACCESSED_ON.put(Language.FRENCH, "consulté via GBIF.org le %s.");
+    ACCESSED_ON.put(Language.PORTUGUESE, "acessado via GBIF.org em %s.");
+    ACCESSED_ON.put(Language.GERMAN, "abgerufen über GBIF.org am %s.");
+  }
+
+  //Access date sentences of the current day, replaced on the first citation rendered each day
+  private static volatile AccessDate accessDate = new AccessDate(LocalDate.now(UTC));
+
+  /**
+   * Access date sentences of a day in all the supported languages.
+   */
+  private static class AccessDate {
+
+    private final LocalDate date;
+
+    private final Map<Language, String> sentences = new EnumMap<>(Language.class);
+
+    private AccessDate(LocalDate date) {
+      this.date = date;
+      ACCESSED_ON.forEach((language, sentence) -> sentences.put(language, String.format(sentence, date)));
+    }
+  }
+
   /**
    * Utility class
    */
@@ -32,11 +74,24 @@ public class CitationGenerator {
 
   /**
    * Generate a citation for a {@link DataPackage}.
-   * TODO add support for i18n
    * @param dataPackage
    * @return generated citation as {@link String}
    */
   public static String generateCitation(DataPackage dataPackage) {
+    return generateCitation(dataPackage, DEFAULT_LANGUAGE);
+  }
+
+  /**
+   * Generate a citation for a {@link DataPackage} in a language, the default language is used if it isn't supported.
+   */
+  public static String generateCitation(DataPackage dataPackage, Language language) {
+    return renderCitation(generateCitationTemplate(dataPackage), language);
+  }
+
+  /**
+   * Generates the part of the citation that only changes when the data package is modified.
+   */
+  public static String generateCitationTemplate(DataPackage dataPackage) {
 
     Objects.requireNonNull(dataPackage, "DataPackage shall be provided");
 
@@ -65,11 +120,54 @@ public class CitationGenerator {
       joiner.add("{DOI}");
     }
 
-    joiner.add("accessed via GBIF.org on " + LocalDate.now(UTC) + ".");
-
     return joiner.toString();
   }
 
+  /**
+   * Completes a citation template with the current access date.
+   */
+  public static String renderCitation(String citationTemplate, Language language) {
+    return citationTemplate + ' ' + accessedOn(language);
+  }
+
+  /**
+   * Sets the citation of a data package in the default language.
+   * The stored template is used if the data package has one, otherwise it's generated and kept in the data package.
+   */
+  public static DataPackage setCitation(DataPackage dataPackage) {
+    return setCitation(dataPackage, DEFAULT_LANGUAGE);
+  }
+
+  /**
+   * Sets the citation of a data package in a language, see setCitation(DataPackage).
+   */
+  public static DataPackage setCitation(DataPackage dataPackage, Language language) {
+    if (dataPackage != null) {
+      if (dataPackage.getCitationTemplate() == null) {
+        dataPackage.setCitationTemplate(generateCitationTemplate(dataPackage));
+      }
+      dataPackage.setCitation(renderCitation(dataPackage.getCitationTemplate(), language));
+    }
+    return dataPackage;
+  }
+
+  /**
+   * Is there a translation of the citations in the language?
+   */
+  public static boolean isSupported(Language language) {
+    return ACCESSED_ON.containsKey(language);
+  }
+
+  private static String accessedOn(Language language) {
+    LocalDate today = LocalDate.now(UTC);
+    AccessDate current = accessDate;
+    if (!current.date.equals(today)) {
+      current = new AccessDate(today);
+      accessDate = current;
+    }
+    return current.sentences.getOrDefault(language, current.sentences.get(DEFAULT_LANGUAGE));
+  }
+
   /**
    * Given a list of authors, generates a {@link List} of {@link String} representing the creators name.
    *
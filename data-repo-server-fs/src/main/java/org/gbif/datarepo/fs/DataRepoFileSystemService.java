@@ -8,8 +8,12 @@ import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.UUID;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Preconditions;
 import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
@@ -20,10 +24,15 @@ import org.apache.hadoop.fs.RawLocalFileSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static com.codahale.metrics.MetricRegistry.name;
+
 public class DataRepoFileSystemService {
 
   private static final Logger LOG = LoggerFactory.getLogger(DataRepoFileSystemService.class);
 
+  //Directory, under the store path, where the files of asynchronous creations are staged
+  private static final String STAGING_DIR = "_staging";
+
   /**
    * Paths where the files are stored.
    */
@@ -37,12 +46,34 @@ public class DataRepoFileSystemService {
 
   private final FileDownload fileDownload;
 
+  private final Timer storeTimer;
+
+  private final Timer hashTimer;
+
+  private final Timer openTimer;
+
+  private final Counter errors;
+
+  /**
+   * Creates the store directory if it doesn't exist, metrics are not reported.
+   */
   @Inject
   public DataRepoFileSystemService(Path storePath, FileSystem fileSystem) {
+    this(storePath, fileSystem, new MetricRegistry());
+  }
+
+  /**
+   * Full constructor, stores, hashes and opens of files are timed.
+   */
+  public DataRepoFileSystemService(Path storePath, FileSystem fileSystem, MetricRegistry metricRegistry) {
+    storeTimer = metricRegistry.timer(name(DataRepoFileSystemService.class, "store"));
+    hashTimer = metricRegistry.timer(name(DataRepoFileSystemService.class, "hash"));
+    openTimer = metricRegistry.timer(name(DataRepoFileSystemService.class, "open"));
+    errors = metricRegistry.counter(name(DataRepoFileSystemService.class, "errors"));
     try {
       this.storePath = storePath;
       this.fileSystem = fileSystem;
-      fileDownload = new FileDownload(fileSystem);
+      fileDownload = new FileDownload(fileSystem, metricRegistry);
       //Create directory if it doesn't exist
       if (!fileSystem.exists(storePath)) {
         Preconditions.checkState(fileSystem.mkdirs(storePath), "Error creating data directory");
@@ -58,7 +89,7 @@ public class DataRepoFileSystemService {
    * Returns the new path where the file is stored.
    */
   public Path store(UUID dataPackageKey, FileInputContent fileInputContent) {
-    try {
+    try (Timer.Context context = storeTimer.time()) {
       Path dpPath = getPath(dataPackageKey);
       if (!fileSystem.exists(dpPath)) {
         fileSystem.mkdirs(dpPath);
@@ -67,8 +98,12 @@ public class DataRepoFileSystemService {
       fileDownload.copy(fileInputContent, newFilePath, fileSystem);
       return newFilePath;
     } catch (IOException ex) {
+      errors.inc();
       LOG.error("Error storing file {}", fileInputContent.getName(), ex);
       throw new RuntimeException(ex);
+    } catch (RuntimeException ex) {
+      errors.inc();
+      throw ex;
     }
   }
 
@@ -76,10 +111,51 @@ public class DataRepoFileSystemService {
    * Opens an InputStream to the content of a data package file.
    */
   public InputStream openDataPackageFile(UUID dataPackageKey, String fileName) throws IOException {
-    return fileSystem.open(resolve(getPath(dataPackageKey), fileName));
+    try (Timer.Context context = openTimer.time()) {
+      return fileSystem.open(resolve(getPath(dataPackageKey), fileName));
+    } catch (IOException ex) {
+      errors.inc();
+      throw ex;
+    }
   }
 
 
+  /**
+   * Creates, or overwrites, a file in the staging directory of an asynchronous creation job.
+   */
+  public OutputStream createStagedFile(UUID jobKey, String fileName) throws IOException {
+    return fileSystem.create(resolve(getStagingPath(jobKey), fileName), true);
+  }
+
+  /**
+   * Opens an InputStream to the content of a staged file.
+   */
+  public InputStream openStagedFile(UUID jobKey, String fileName) throws IOException {
+    return fileSystem.open(resolve(getStagingPath(jobKey), fileName));
+  }
+
+  /**
+   * Recursively removes the staging directory of a job.
+   */
+  public void deleteStagingDir(UUID jobKey) {
+    try {
+      Path dir = getStagingPath(jobKey);
+      if (fileSystem.exists(dir)) {
+        fileSystem.delete(dir, true);
+      }
+    } catch (IOException ex) {
+      LOG.error("Error deleting staging directory {}", jobKey, ex);
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * Resolves the staging path of a job.
+   */
+  private Path getStagingPath(UUID jobKey) {
+    return new Path(storePath.toString() + '/' + STAGING_DIR + '/' + jobKey + '/');
+  }
+
   /**
    * Resolves a path for a DOI.
    */
@@ -138,7 +214,7 @@ public class DataRepoFileSystemService {
    * Calculates the MD5 hash of local File content.
    */
   public String md5(Path file) {
-    try {
+    try (Timer.Context context = hashTimer.time()) {
       if (fileSystem instanceof RawLocalFileSystem) {
         return md5(new File(file.toUri().getPath()));
       }
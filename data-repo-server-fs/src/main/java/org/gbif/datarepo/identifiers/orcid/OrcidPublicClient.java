@@ -6,6 +6,13 @@ import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.glassfish.jersey.client.ClientProperties;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
 /**
  * Simple Orcid client that validates the existence of a Orcid number.
  */
@@ -18,11 +25,15 @@ public class OrcidPublicClient implements AutoCloseable, OrcidPublicService {
   public static final String APPLICATION_ORCID_JSON = "application/orcid+json";
 
   //Instance of jersey client
-  private Client client;
+  private final Client client;
 
   //Base web target that point to the doi registration url
   private final WebTarget webTarget;
 
+  private final Timer existsTimer;
+
+  private final Counter errors;
+
   /**
    * Api type to contact.
    */
@@ -50,19 +61,55 @@ public class OrcidPublicClient implements AutoCloseable, OrcidPublicService {
    * Builds a Orcid client pointing to the ApiType.url.
    */
   public OrcidPublicClient(ApiType apiType) {
-    client = ClientBuilder.newClient();
-    webTarget = client.target(apiType.apiUrl);
+    this(ClientBuilder.newClient(), apiType.apiUrl, new MetricRegistry());
+  }
+
+  /**
+   * Builds a Orcid client pointing to an api url, requests fail if they exceed the timeouts in milliseconds.
+   */
+  public OrcidPublicClient(String apiUrl, int connectTimeout, int readTimeout) {
+    this(apiUrl, connectTimeout, readTimeout, new MetricRegistry());
+  }
+
+  /**
+   * Builds a Orcid client pointing to an api url, requests fail if they exceed the timeouts in milliseconds.
+   * Requests are timed and failed requests are counted.
+   */
+  public OrcidPublicClient(String apiUrl, int connectTimeout, int readTimeout, MetricRegistry metricRegistry) {
+    this(ClientBuilder.newClient()
+           .property(ClientProperties.CONNECT_TIMEOUT, connectTimeout)
+           .property(ClientProperties.READ_TIMEOUT, readTimeout), apiUrl, metricRegistry);
+  }
+
+  private OrcidPublicClient(Client client, String apiUrl, MetricRegistry metricRegistry) {
+    this.client = client;
+    webTarget = client.target(apiUrl);
+    existsTimer = metricRegistry.timer(name(OrcidPublicClient.class, "exists"));
+    errors = metricRegistry.counter(name(OrcidPublicClient.class, "errors"));
   }
 
   /**
    * Validates if the orcid parameter exists.
+   * @throws IllegalStateException if the Orcid service fails
    */
   @Override
   public boolean exists(String orcid) {
-    return Response.Status.OK.getStatusCode() ==
-           webTarget.path(orcid).path(ORCID_PROFILE_PATH).request()
-             .accept(APPLICATION_ORCID_JSON)
-             .get().getStatus();
+    try (Timer.Context context = existsTimer.time()) {
+      Response response = webTarget.path(orcid).path(ORCID_PROFILE_PATH).request()
+                            .accept(APPLICATION_ORCID_JSON)
+                            .get();
+      try {
+        if (Response.Status.Family.SERVER_ERROR == response.getStatusInfo().getFamily()) {
+          throw new IllegalStateException("Orcid service error " + response.getStatus());
+        }
+        return Response.Status.OK.getStatusCode() == response.getStatus();
+      } finally {
+        response.close();
+      }
+    } catch (RuntimeException ex) {
+      errors.inc();
+      throw ex;
+    }
   }
 
   /**
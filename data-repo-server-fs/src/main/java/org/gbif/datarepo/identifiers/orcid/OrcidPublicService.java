@@ -7,6 +7,7 @@ public interface OrcidPublicService {
 
   /**
    * Does the orcid exists?.
+   * Failures to reach the service are thrown as runtime exceptions.
    */
   boolean exists(String orcid);
 }
@@ -0,0 +1,220 @@
+package org.gbif.datarepo.identifiers.orcid;
+
+import org.gbif.datarepo.api.validation.identifierschemes.OrcidValidator;
+import org.gbif.datarepo.impl.conf.OrcidConfiguration;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Validates that ORCIDs exist using the ORCID public API.
+ * The ORCIDs of a request are looked up concurrently and the results, existing or not, are cached. If the API fails
+ * repeatedly it isn't called for a while and, meanwhile, ORCIDs are only validated by their checksum.
+ */
+public class OrcidValidationService implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OrcidValidationService.class);
+
+  private static final OrcidValidator ORCID_VALIDATOR = new OrcidValidator();
+
+  /**
+   * Stops calling the ORCID API after a number of consecutive failures, once the open interval has elapsed a single
+   * call is allowed to check if the API is back.
+   */
+  private static class CircuitBreaker {
+
+    private final int failureThreshold;
+
+    private final long openIntervalNanos;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private final AtomicBoolean trialRunning = new AtomicBoolean();
+
+    private volatile long openedAt;
+
+    private CircuitBreaker(int failureThreshold, long openIntervalNanos) {
+      this.failureThreshold = failureThreshold;
+      this.openIntervalNanos = openIntervalNanos;
+    }
+
+    private boolean isOpen() {
+      return consecutiveFailures.get() >= failureThreshold;
+    }
+
+    private boolean allowCall() {
+      return !isOpen() || (System.nanoTime() - openedAt >= openIntervalNanos && trialRunning.compareAndSet(false, true));
+    }
+
+    private void onSuccess() {
+      consecutiveFailures.set(0);
+      trialRunning.set(false);
+    }
+
+    private void onFailure() {
+      if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+        openedAt = System.nanoTime();
+        trialRunning.set(false);
+      }
+    }
+  }
+
+  private final OrcidPublicService orcidPublicService;
+
+  private final Cache<String, Boolean> existing;
+
+  private final Cache<String, Boolean> missing;
+
+  private final CircuitBreaker circuitBreaker;
+
+  private final ExecutorService executor;
+
+  //Maximum milliseconds a request waits for its lookups
+  private final long lookupTimeout;
+
+  private final Meter lookups;
+
+  private final Meter cacheHits;
+
+  private final Meter failures;
+
+  private final Meter degraded;
+
+  /**
+   * Full constructor.
+   */
+  public OrcidValidationService(OrcidPublicService orcidPublicService, OrcidConfiguration configuration,
+                                MetricRegistry metricRegistry) {
+    this.orcidPublicService = orcidPublicService;
+    existing = CacheBuilder.newBuilder().maximumSize(configuration.getCacheSize())
+      .expireAfterWrite(configuration.getPositiveTtl(), TimeUnit.MINUTES).build();
+    missing = CacheBuilder.newBuilder().maximumSize(configuration.getCacheSize())
+      .expireAfterWrite(configuration.getNegativeTtl(), TimeUnit.MINUTES).build();
+    circuitBreaker = new CircuitBreaker(configuration.getFailureThreshold(),
+                                        TimeUnit.SECONDS.toNanos(configuration.getOpenInterval()));
+    executor = Executors.newFixedThreadPool(configuration.getParallelism(),
+                                            new ThreadFactoryBuilder().setNameFormat("orcid-lookup-%d")
+                                              .setDaemon(true).build());
+    //a lookup can wait for a connection and a response, plus the same time queued behind other lookups
+    lookupTimeout = 2L * (configuration.getConnectTimeout() + configuration.getReadTimeout());
+    lookups = metricRegistry.meter(name(OrcidValidationService.class, "lookups"));
+    cacheHits = metricRegistry.meter(name(OrcidValidationService.class, "cacheHits"));
+    failures = metricRegistry.meter(name(OrcidValidationService.class, "failures"));
+    degraded = metricRegistry.meter(name(OrcidValidationService.class, "degraded"));
+    metricRegistry.register(name(OrcidValidationService.class, "circuitOpen"), (Gauge<Boolean>) circuitBreaker::isOpen);
+  }
+
+  /**
+   * Validates a set of ORCIDs, with or without the orcid.org scheme.
+   * @return the ORCIDs that don't exist, in the order of the input
+   */
+  public List<String> findMissing(Collection<String> orcids) {
+    Map<String, Future<Boolean>> pending = new LinkedHashMap<>();
+    Map<String, Boolean> results = new LinkedHashMap<>();
+    for (String orcid : orcids) {
+      if (results.containsKey(orcid) || pending.containsKey(orcid)) {
+        continue;
+      }
+      if (!ORCID_VALIDATOR.isValid(orcid)) {
+        results.put(orcid, Boolean.FALSE);
+        continue;
+      }
+      String orcidId = withoutScheme(orcid);
+      if (existing.getIfPresent(orcidId) != null) {
+        cacheHits.mark();
+        results.put(orcid, Boolean.TRUE);
+      } else if (missing.getIfPresent(orcidId) != null) {
+        cacheHits.mark();
+        results.put(orcid, Boolean.FALSE);
+      } else if (circuitBreaker.allowCall()) {
+        pending.put(orcid, executor.submit(() -> lookup(orcidId)));
+      } else {
+        //the checksum has been validated already
+        degraded.mark();
+        results.put(orcid, Boolean.TRUE);
+      }
+    }
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lookupTimeout);
+    pending.forEach((orcid, lookup) -> results.put(orcid, await(orcid, lookup, deadline)));
+    List<String> missingOrcids = new ArrayList<>();
+    results.forEach((orcid, exists) -> {
+      if (!exists) {
+        missingOrcids.add(orcid);
+      }
+    });
+    return missingOrcids;
+  }
+
+  /**
+   * Looks up an ORCID in the ORCID API and caches the result.
+   */
+  private boolean lookup(String orcidId) {
+    lookups.mark();
+    try {
+      boolean exists = orcidPublicService.exists(orcidId);
+      circuitBreaker.onSuccess();
+      (exists ? existing : missing).put(orcidId, Boolean.TRUE);
+      return exists;
+    } catch (RuntimeException ex) {
+      failures.mark();
+      circuitBreaker.onFailure();
+      throw ex;
+    }
+  }
+
+  /**
+   * Result of a lookup, if it fails or times out the ORCID is accepted since its checksum is valid.
+   */
+  private boolean await(String orcid, Future<Boolean> lookup, long deadline) {
+    try {
+      return lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      lookup.cancel(true);
+    } catch (TimeoutException ex) {
+      lookup.cancel(true);
+      failures.mark();
+      circuitBreaker.onFailure();
+      LOG.warn("Lookup of ORCID {} timed out", orcid);
+    } catch (ExecutionException ex) {
+      LOG.warn("Error looking up ORCID {}", orcid, ex.getCause());
+    }
+    degraded.mark();
+    return true;
+  }
+
+  private static String withoutScheme(String orcid) {
+    return orcid.substring(orcid.lastIndexOf('/') + 1);
+  }
+
+  /**
+   * Stops the lookup threads.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,489 @@
+package org.gbif.datarepo.impl;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.DataPackageFacet;
+import org.gbif.datarepo.api.model.DataPackageFile;
+import org.gbif.datarepo.api.model.Facet;
+import org.gbif.datarepo.api.model.FacetedPagingResponse;
+import org.gbif.datarepo.api.model.FileInputContent;
+import org.gbif.datarepo.api.model.Identifier;
+import org.gbif.datarepo.api.model.RepositoryStats;
+import org.gbif.datarepo.api.model.TagMode;
+import org.gbif.datarepo.citation.CitationGenerator;
+import org.gbif.datarepo.impl.conf.DataPackageCacheConfiguration;
+import org.gbif.datarepo.persistence.ReadYourWrites;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * DataRepository decorator that keeps snapshots of the data packages retrieved by key, DOI or alternative identifier.
+ * Packages are cached by key; DOIs and alternative identifiers are resolved to keys through secondary indexes that
+ * are cleaned up when a package leaves the cache. Lookups that don't find a package are remembered for a short
+ * period, unless they were served by a read replica that may not contain the package yet. Callers always receive a copy of the cached snapshot, so they can't alter it.
+ * The facet counts of the unfiltered data package listing are also cached for a short period.
+ */
+public class CachingDataRepository implements DataRepository {
+
+  //Prefixes of the negative cache entries of lookups by String identifiers
+  private static final String ALTERNATIVE_IDENTIFIER_LOOKUP = "alternativeIdentifier:";
+  private static final String IDENTIFIER_LOOKUP = "identifier:";
+
+  //Only the facets are needed when the facet counts are loaded
+  private static final Pageable FACETS_ONLY_PAGE = new PagingRequest(0, 0);
+
+  //Bounds the number of combinations of facets and limits that are cached
+  private static final long MAX_FACETS_ENTRIES = 100;
+
+  private final DataRepository dataRepository;
+
+  private final ReadYourWrites readYourWrites;
+
+  private final Cache<UUID, DataPackage> dataPackages;
+
+  //Lookups (by key, DOI or alternative identifier) that didn't produce any result
+  private final Cache<Object, Boolean> notFound;
+
+  private final ConcurrentMap<DOI, UUID> doiIndex = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, UUID> alternativeIdentifierIndex = new ConcurrentHashMap<>();
+
+  //Identifiers resolved by getByIdentifier, they can be keys, DOIs or alternative identifiers
+  private final ConcurrentMap<String, UUID> identifierIndex = new ConcurrentHashMap<>();
+
+  //Reverse indexes, entries of the secondary indexes by the key of the data package they point to
+  private final ConcurrentMap<UUID, Set<String>> alternativeIdentifiersByKey = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<UUID, Set<String>> identifiersByKey = new ConcurrentHashMap<>();
+
+  //Facet counts of the unfiltered listing by facets and limit, null if the caching of facets is disabled
+  private final Cache<List<Object>, List<Facet>> facetsCache;
+
+  //Incremented on every invalidation, loads that overlap an invalidation are not cached
+  private final AtomicLong generation = new AtomicLong();
+
+  private final Meter hits;
+  private final Meter misses;
+  private final Meter negativeHits;
+
+  /**
+   * Full constructor.
+   */
+  public CachingDataRepository(DataRepository dataRepository, DataPackageCacheConfiguration configuration,
+                               ReadYourWrites readYourWrites, MetricRegistry metricRegistry) {
+    this.dataRepository = dataRepository;
+    this.readYourWrites = readYourWrites;
+    dataPackages = CacheBuilder.newBuilder()
+      .maximumWeight(configuration.getMaximumWeight())
+      .<UUID, DataPackage>weigher((key, dataPackage) -> weight(dataPackage))
+      .expireAfterWrite(configuration.getExpireAfterWrite(), TimeUnit.MINUTES)
+      .<UUID, DataPackage>removalListener(this::onRemoval)
+      .recordStats()
+      .build();
+    notFound = CacheBuilder.newBuilder()
+      .maximumSize(configuration.getNegativeMaximumSize())
+      .expireAfterWrite(configuration.getNegativeTtl(), TimeUnit.SECONDS)
+      .build();
+    facetsCache = configuration.getFacetsTtl() > 0
+      ? CacheBuilder.newBuilder()
+          .maximumSize(MAX_FACETS_ENTRIES)
+          .expireAfterWrite(configuration.getFacetsTtl(), TimeUnit.SECONDS)
+          .<List<Object>, List<Facet>>build()
+      : null;
+    hits = metricRegistry.meter(name(CachingDataRepository.class, "hits"));
+    misses = metricRegistry.meter(name(CachingDataRepository.class, "misses"));
+    negativeHits = metricRegistry.meter(name(CachingDataRepository.class, "negativeHits"));
+    metricRegistry.register(name(CachingDataRepository.class, "evictions"),
+                            (Gauge<Long>) () -> dataPackages.stats().evictionCount());
+    metricRegistry.register(name(CachingDataRepository.class, "size"), (Gauge<Long>) dataPackages::size);
+  }
+
+  /**
+   * Number of database rows a data package was loaded from.
+   */
+  private static int weight(DataPackage dataPackage) {
+    return 1 + dataPackage.getFiles().size() + dataPackage.getRelatedIdentifiers().size()
+           + dataPackage.getTags().size() + dataPackage.getCreators().size();
+  }
+
+  /**
+   * Removes the index entries pointing to a data package that is no longer cached.
+   */
+  private void onRemoval(RemovalNotification<UUID, DataPackage> notification) {
+    UUID key = notification.getKey();
+    Optional.ofNullable(notification.getValue()).map(DataPackage::getDoi)
+      .ifPresent(doi -> doiIndex.remove(doi, key));
+    unindex(alternativeIdentifierIndex, alternativeIdentifiersByKey, key);
+    unindex(identifierIndex, identifiersByKey, key);
+  }
+
+  /**
+   * Adds an entry to a secondary index and to its reverse index.
+   */
+  private static void index(ConcurrentMap<String, UUID> index, ConcurrentMap<UUID, Set<String>> reverseIndex,
+                            String identifier, UUID key) {
+    reverseIndex.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(identifier);
+    index.put(identifier, key);
+  }
+
+  /**
+   * Removes the entries of a secondary index that still point to a data package, without scanning the whole index.
+   */
+  private static void unindex(ConcurrentMap<String, UUID> index, ConcurrentMap<UUID, Set<String>> reverseIndex,
+                              UUID key) {
+    Optional.ofNullable(reverseIndex.remove(key))
+      .ifPresent(identifiers -> identifiers.forEach(identifier -> index.remove(identifier, key)));
+  }
+
+  /**
+   * Copies the cached snapshot, inUrl creates new file instances and the remaining collections are copied so callers
+   * can't modify the cached instance. The citation is rendered again since its access date changes daily.
+   */
+  private static DataPackage copyOf(DataPackage dataPackage) {
+    DataPackage copy = dataPackage.inUrl("");
+    copy.setRelatedIdentifiers(new HashSet<>(dataPackage.getRelatedIdentifiers()));
+    copy.setTags(new HashSet<>(dataPackage.getTags()));
+    copy.setCreators(new HashSet<>(dataPackage.getCreators()));
+    Optional.ofNullable(dataPackage.getShareIn()).ifPresent(shareIn -> copy.setShareIn(new HashSet<>(shareIn)));
+    return CitationGenerator.setCitation(copy);
+  }
+
+  /**
+   * Resolves a lookup from the cache or, if it is not cached, loads and caches it.
+   */
+  private Optional<DataPackage> lookup(Object lookupKey, @Nullable UUID dataPackageKey,
+                                       Supplier<Optional<DataPackage>> loader, Consumer<UUID> indexer) {
+    Optional<DataPackage> cached = getCached(dataPackageKey);
+    if (cached.isPresent()) {
+      return cached;
+    }
+    if (isNotFound(lookupKey)) {
+      return Optional.empty();
+    }
+    misses.mark();
+    long loadGeneration = generation.get();
+    long replicaReads = readYourWrites.getReplicaReads();
+    Optional<DataPackage> dataPackage = loader.get();
+    cache(lookupKey, loadGeneration, dataPackage, indexer, replicaReads != readYourWrites.getReplicaReads());
+    return dataPackage;
+  }
+
+  /**
+   * Copy of the cached data package, if any.
+   */
+  private Optional<DataPackage> getCached(@Nullable UUID dataPackageKey) {
+    if (dataPackageKey != null) {
+      DataPackage cached = dataPackages.getIfPresent(dataPackageKey);
+      if (cached != null) {
+        hits.mark();
+        return Optional.of(copyOf(cached));
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Has the lookup been cached as not found?
+   */
+  private boolean isNotFound(Object lookupKey) {
+    if (notFound.getIfPresent(lookupKey) != null) {
+      negativeHits.mark();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Caches the result of a lookup unless the cache has been invalidated since the load started.
+   * @param fromReplica whether the lookup was served by a read replica, if so a missing package is not cached
+   */
+  private void cache(Object lookupKey, long loadGeneration, Optional<DataPackage> dataPackage,
+                     Consumer<UUID> indexer, boolean fromReplica) {
+    if (loadGeneration == generation.get()) {
+      if (dataPackage.isPresent()) {
+        DataPackage loaded = copyOf(dataPackage.get());
+        dataPackages.put(loaded.getKey(), loaded);
+        Optional.ofNullable(loaded.getDoi()).ifPresent(doi -> doiIndex.put(doi, loaded.getKey()));
+        indexer.accept(loaded.getKey());
+        if (loadGeneration != generation.get()) {
+          //an invalidation happened while the snapshot was being cached
+          dataPackages.invalidate(loaded.getKey());
+        }
+      } else if (!fromReplica) {
+        notFound.put(lookupKey, Boolean.TRUE);
+      }
+    }
+  }
+
+  /**
+   * Removes a data package from the cache, and all the lookups that didn't find a package since they could be
+   * satisfied now.
+   */
+  private void invalidate(@Nullable UUID dataPackageKey) {
+    generation.incrementAndGet();
+    if (dataPackageKey != null) {
+      dataPackages.invalidate(dataPackageKey);
+    }
+    notFound.invalidateAll();
+    if (facetsCache != null) {
+      facetsCache.invalidateAll();
+    }
+  }
+
+  @Override
+  public DataPackage create(DataPackage dataPackage, List<FileInputContent> files, boolean generateDOI) {
+    try {
+      return dataRepository.create(dataPackage, files, generateDOI);
+    } finally {
+      invalidate(dataPackage.getKey());
+    }
+  }
+
+  @Override
+  public DataPackage update(DataPackage dataPackage, List<FileInputContent> files, UpdateMode mode) {
+    try {
+      return dataRepository.update(dataPackage, files, mode);
+    } finally {
+      invalidate(dataPackage.getKey());
+    }
+  }
+
+  @Override
+  public void delete(UUID key) {
+    try {
+      dataRepository.delete(key);
+    } finally {
+      invalidate(key);
+    }
+  }
+
+  @Override
+  public void archive(UUID key) {
+    try {
+      dataRepository.archive(key);
+    } finally {
+      invalidate(key);
+    }
+  }
+
+  @Override
+  public Optional<DataPackage> get(UUID dataPackageKey) {
+    return lookup(dataPackageKey, dataPackageKey, () -> dataRepository.get(dataPackageKey), key -> { });
+  }
+
+  @Override
+  public Optional<DataPackage> get(DOI doi) {
+    //the DOI index is populated from every loaded data package
+    return lookup(doi, doiIndex.get(doi), () -> dataRepository.get(doi), key -> { });
+  }
+
+  @Override
+  public Optional<DataPackage> getByAlternativeIdentifier(String identifier) {
+    return lookup(ALTERNATIVE_IDENTIFIER_LOOKUP + identifier, alternativeIdentifierIndex.get(identifier),
+                  () -> dataRepository.getByAlternativeIdentifier(identifier),
+                  key -> index(alternativeIdentifierIndex, alternativeIdentifiersByKey, identifier, key));
+  }
+
+  @Override
+  public Optional<DataPackage> getByIdentifier(String identifier) {
+    return lookup(IDENTIFIER_LOOKUP + identifier, identifierIndex.get(identifier),
+                  () -> dataRepository.getByIdentifier(identifier),
+                  key -> index(identifierIndex, identifiersByKey, identifier, key));
+  }
+
+  /**
+   * Identifiers found in the cache are served from it, the remaining ones are loaded from the underlying repository
+   * in a single call.
+   */
+  @Override
+  public List<Optional<DataPackage>> getByIdentifiers(List<String> identifiers) {
+    Map<String, Optional<DataPackage>> results = new HashMap<>();
+    Set<String> uncached = new LinkedHashSet<>();
+    for (String identifier : identifiers) {
+      if (!results.containsKey(identifier) && !uncached.contains(identifier)) {
+        Optional<DataPackage> cached = getCached(identifierIndex.get(identifier));
+        if (cached.isPresent() || isNotFound(IDENTIFIER_LOOKUP + identifier)) {
+          results.put(identifier, cached);
+        } else {
+          uncached.add(identifier);
+        }
+      }
+    }
+    if (!uncached.isEmpty()) {
+      misses.mark(uncached.size());
+      long loadGeneration = generation.get();
+      long replicaReads = readYourWrites.getReplicaReads();
+      List<String> toLoad = new ArrayList<>(uncached);
+      List<Optional<DataPackage>> loaded = dataRepository.getByIdentifiers(toLoad);
+      boolean fromReplica = replicaReads != readYourWrites.getReplicaReads();
+      for (int i = 0; i < toLoad.size(); i++) {
+        String identifier = toLoad.get(i);
+        cache(IDENTIFIER_LOOKUP + identifier, loadGeneration, loaded.get(i),
+              key -> index(identifierIndex, identifiersByKey, identifier, key), fromReplica);
+        results.put(identifier, loaded.get(i));
+      }
+    }
+    //repeated identifiers get their own copies so callers can modify each result
+    Set<String> returned = new HashSet<>();
+    return identifiers.stream()
+      .map(identifier -> returned.add(identifier) ? results.get(identifier)
+                                                   : results.get(identifier).map(CachingDataRepository::copyOf))
+      .collect(Collectors.toList());
+  }
+
+  @Override
+  public PagingResponse<DataPackage> list(@Nullable String user, @Nullable Pageable page, @Nullable Date fromDate,
+                                          @Nullable Date toDate, Boolean deleted, @Nullable List<String> tags,
+                                          @Nullable TagMode tagMode, @Nullable String q, @Nullable String formatId,
+                                          @Nullable Set<DataPackageFacet> facets, int facetLimit) {
+    if (facetsCache == null || facets == null || facets.isEmpty()
+        || !isUnfiltered(user, fromDate, toDate, deleted, tags, q, formatId)) {
+      return dataRepository.list(user, page, fromDate, toDate, deleted, tags, tagMode, q, formatId, facets,
+                                 facetLimit);
+    }
+    PagingResponse<DataPackage> response = dataRepository.list(null, page, null, null, deleted, null, null, null, null,
+                                                               null, facetLimit);
+    return new FacetedPagingResponse<>(response, response.getCount(), response.getResults(),
+                                       unfilteredFacets(EnumSet.copyOf(facets), facetLimit));
+  }
+
+  @Override
+  public PagingResponse<DataPackage> list(@Nullable String user, @Nullable Pageable page, @Nullable Date fromDate,
+                                          @Nullable Date toDate, Boolean deleted, @Nullable List<String> tags,
+                                          @Nullable TagMode tagMode, @Nullable String q, @Nullable String formatId,
+                                          @Nullable Set<DataPackageFacet> facets, int facetLimit,
+                                          Consumer<DataPackage> consumer) {
+    if (facetsCache == null || facets == null || facets.isEmpty()
+        || !isUnfiltered(user, fromDate, toDate, deleted, tags, q, formatId)) {
+      return dataRepository.list(user, page, fromDate, toDate, deleted, tags, tagMode, q, formatId, facets,
+                                 facetLimit, consumer);
+    }
+    PagingResponse<DataPackage> response = dataRepository.list(null, page, null, null, deleted, null, null, null, null,
+                                                               null, facetLimit, consumer);
+    return new FacetedPagingResponse<>(response, response.getCount(), response.getResults(),
+                                       unfilteredFacets(EnumSet.copyOf(facets), facetLimit));
+  }
+
+  /**
+   * Only the facet counts of listings without filters are cached.
+   */
+  private static boolean isUnfiltered(@Nullable String user, @Nullable Date fromDate, @Nullable Date toDate,
+                                      Boolean deleted, @Nullable List<String> tags, @Nullable String q,
+                                      @Nullable String formatId) {
+    return user == null && fromDate == null && toDate == null && !Boolean.TRUE.equals(deleted)
+           && (tags == null || tags.isEmpty()) && q == null && formatId == null;
+  }
+
+  /**
+   * Facet counts over all the data packages, computed once per combination of facets and limit while they are cached.
+   */
+  private List<Facet> unfilteredFacets(Set<DataPackageFacet> facets, int facetLimit) {
+    List<Object> facetsKey = Arrays.asList(facets, facetLimit);
+    List<Facet> cached = facetsCache.getIfPresent(facetsKey);
+    if (cached != null) {
+      return cached;
+    }
+    long loadGeneration = generation.get();
+    PagingResponse<DataPackage> response = dataRepository.list(null, FACETS_ONLY_PAGE, null, null, false, null, null,
+                                                               null, null, facets, facetLimit);
+    List<Facet> loaded = Collections.unmodifiableList(((FacetedPagingResponse<DataPackage>) response).getFacets());
+    if (loadGeneration == generation.get()) {
+      facetsCache.put(facetsKey, loaded);
+    }
+    return loaded;
+  }
+
+  @Override
+  public void export(@Nullable Date modifiedSince, Consumer<DataPackage> consumer) {
+    dataRepository.export(modifiedSince, consumer);
+  }
+
+  @Override
+  public PagingResponse<Identifier> listIdentifiers(@Nullable String user, @Nullable Pageable page,
+                                                    @Nullable String identifier, @Nullable UUID dataPackageKey,
+                                                    @Nullable Identifier.Type type,
+                                                    @Nullable Identifier.RelationType relationType,
+                                                    @Nullable Date created) {
+    return dataRepository.listIdentifiers(user, page, identifier, dataPackageKey, type, relationType, created);
+  }
+
+  @Override
+  public PagingResponse<Identifier> listIdentifiers(@Nullable String user, @Nullable Pageable page,
+                                                    @Nullable String identifier, @Nullable UUID dataPackageKey,
+                                                    @Nullable Identifier.Type type,
+                                                    @Nullable Identifier.RelationType relationType,
+                                                    @Nullable Date created, Consumer<Identifier> consumer) {
+    return dataRepository.listIdentifiers(user, page, identifier, dataPackageKey, type, relationType, created,
+                                          consumer);
+  }
+
+  @Override
+  public Optional<DataPackageFile> getFile(UUID dataPackageKey, String fileName) {
+    return dataRepository.getFile(dataPackageKey, fileName);
+  }
+
+  @Override
+  public Optional<InputStream> getFileInputStream(UUID dataPackageKey, String fileName) {
+    return dataRepository.getFileInputStream(dataPackageKey, fileName);
+  }
+
+  @Override
+  public RepositoryStats getStats() {
+    return dataRepository.getStats();
+  }
+
+  @Override
+  public RepositoryStats rebuildStats() {
+    return dataRepository.rebuildStats();
+  }
+
+  @Override
+  public long rebuildSearchIndex() {
+    return dataRepository.rebuildSearchIndex();
+  }
+
+  @Override
+  public boolean isAlternativeIdentifierInUse(Identifier alternativeIdentifier) {
+    return dataRepository.isAlternativeIdentifierInUse(alternativeIdentifier);
+  }
+
+  @Override
+  public Set<Identifier> getAlternativeIdentifiersInUse(Collection<Identifier> identifiers) {
+    return dataRepository.getAlternativeIdentifiersInUse(identifiers);
+  }
+}
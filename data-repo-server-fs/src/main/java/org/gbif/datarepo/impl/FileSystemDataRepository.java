@@ -2,22 +2,28 @@ package org.gbif.datarepo.impl;
 
 import org.gbif.api.model.common.DOI;
 import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingRequest;
 import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.datarepo.api.model.DataPackageFacet;
 import org.gbif.datarepo.api.model.DataPackageFile;
+import org.gbif.datarepo.api.model.FacetedPagingResponse;
 import org.gbif.datarepo.api.model.FileInputContent;
 import org.gbif.datarepo.api.model.Identifier;
 import org.gbif.datarepo.api.model.RepositoryStats;
+import org.gbif.datarepo.api.model.TagMode;
 import org.gbif.datarepo.api.model.DataPackage;
 import org.gbif.datarepo.api.DataRepository;
 import org.gbif.datarepo.citation.CitationGenerator;
 import org.gbif.datarepo.fs.DataRepoFileSystemService;
 import org.gbif.datarepo.api.validation.identifierschemes.IdentifierSchemaValidatorFactory;
+import org.gbif.datarepo.impl.search.DataPackageSearchIndex;
 import org.gbif.datarepo.impl.util.MimeTypesUtil;
 import org.gbif.datarepo.persistence.DataRepoPersistenceService;
+import org.gbif.datarepo.persistence.model.DataPackageReference;
+import org.gbif.datarepo.persistence.model.DoiOperation;
 import org.gbif.datarepo.impl.metadata.DataCiteMetadataGenerator;
 import org.gbif.doi.service.InvalidMetadataException;
 import org.gbif.registry.doi.DoiType;
-import org.gbif.registry.doi.registration.DoiRegistration;
 import org.gbif.registry.doi.registration.DoiRegistrationService;
 
 import java.io.ByteArrayInputStream;
@@ -25,21 +31,29 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.function.Function;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.hash.Hashing;
 import org.apache.commons.io.IOUtils;
 import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static com.codahale.metrics.MetricRegistry.name;
+
 /**
  * Stores archives in a files system repository.
  */
@@ -55,6 +69,28 @@ public class FileSystemDataRepository implements DataRepository {
 
   private final String dataRepoName;
 
+  //Full text index used by searches, null if searches are resolved by the database
+  @Nullable
+  private final DataPackageSearchIndex searchIndex;
+
+  private final Timer createTimer;
+
+  private final Timer updateTimer;
+
+  private final Timer doiGenerationTimer;
+
+  private final Timer mimeDetectionTimer;
+
+  private final Timer metadataTimer;
+
+  private final Timer persistTimer;
+
+  private final Timer searchIndexTimer;
+
+  private final Counter createErrors;
+
+  private final Counter updateErrors;
+
   /**
    * Default constructor: requires a path to an existing directory.
    */
@@ -62,10 +98,44 @@ public class FileSystemDataRepository implements DataRepository {
                                   DataRepoPersistenceService persistenceService,
                                   DataRepoFileSystemService fileSystemService,
                                   String dataRepoName) {
+    this(doiRegistrationService, persistenceService, fileSystemService, dataRepoName, null);
+  }
+
+  /**
+   * The search index is kept up to date with the changes made through this repository, metrics are not reported.
+   */
+  public FileSystemDataRepository(DoiRegistrationService doiRegistrationService,
+                                  DataRepoPersistenceService persistenceService,
+                                  DataRepoFileSystemService fileSystemService,
+                                  String dataRepoName, @Nullable DataPackageSearchIndex searchIndex) {
+    this(doiRegistrationService, persistenceService, fileSystemService, dataRepoName, searchIndex,
+         new MetricRegistry());
+  }
+
+  /**
+   * Full constructor, the search index is kept up to date with the changes made through this repository.
+   * Creations and updates are timed per stage: DOI generation, MIME type detection, metadata storage, persistence and
+   * indexing. Storing and hashing the files are timed by the DataRepoFileSystemService.
+   */
+  public FileSystemDataRepository(DoiRegistrationService doiRegistrationService,
+                                  DataRepoPersistenceService persistenceService,
+                                  DataRepoFileSystemService fileSystemService,
+                                  String dataRepoName, @Nullable DataPackageSearchIndex searchIndex,
+                                  MetricRegistry metricRegistry) {
     this.persistenceService = persistenceService;
     this.doiRegistrationService = doiRegistrationService;
     this.fileSystemService = fileSystemService;
     this.dataRepoName = dataRepoName;
+    this.searchIndex = searchIndex;
+    createTimer = metricRegistry.timer(name(FileSystemDataRepository.class, "create"));
+    updateTimer = metricRegistry.timer(name(FileSystemDataRepository.class, "update"));
+    doiGenerationTimer = metricRegistry.timer(name(FileSystemDataRepository.class, "doiGeneration"));
+    mimeDetectionTimer = metricRegistry.timer(name(FileSystemDataRepository.class, "mimeDetection"));
+    metadataTimer = metricRegistry.timer(name(FileSystemDataRepository.class, "metadata"));
+    persistTimer = metricRegistry.timer(name(FileSystemDataRepository.class, "persist"));
+    searchIndexTimer = metricRegistry.timer(name(FileSystemDataRepository.class, "searchIndex"));
+    createErrors = metricRegistry.counter(name(FileSystemDataRepository.class, "create", "errors"));
+    updateErrors = metricRegistry.counter(name(FileSystemDataRepository.class, "update", "errors"));
   }
 
 
@@ -89,21 +159,48 @@ public class FileSystemDataRepository implements DataRepository {
    * Can this repository expose this data package.
    */
   private boolean canShareIt(DataPackage dataPackage) {
-    return dataRepoName.equalsIgnoreCase(dataPackage.getPublishedIn()) ||
-           (dataPackage.getShareIn() != null && dataPackage.getShareIn().contains(dataRepoName));
+    return canShareIt(dataPackage.getPublishedIn(), dataPackage.getShareIn());
   }
 
   /**
-   * Deletes the entire directory and its contents from a DOI.
+   * Can this repository expose a data package published in and shared with the specified repositories.
+   */
+  private boolean canShareIt(String publishedIn, @Nullable Set<String> shareIn) {
+    return dataRepoName.equalsIgnoreCase(publishedIn) || (shareIn != null && shareIn.contains(dataRepoName));
+  }
+
+  /**
+   * Re-indexes a data package from its stored state, packages deleted or not exposed by this repository are removed
+   * from the index. Errors are logged but not propagated, the index can be rebuilt from the database.
+   */
+  private void updateSearchIndex(UUID dataPackageKey) {
+    if (searchIndex != null) {
+      try (Timer.Context context = searchIndexTimer.time()) {
+        DataPackage dataPackage = persistenceService.getDataPackage(dataPackageKey);
+        if (dataPackage == null || dataPackage.getDeleted() != null || !canShareIt(dataPackage)) {
+          searchIndex.delete(dataPackageKey);
+        } else {
+          searchIndex.index(dataPackage, persistenceService.getRelatedIdentifiers(dataPackageKey));
+        }
+        searchIndex.refresh();
+      } catch (Exception ex) {
+        LOG.error("Error updating the search index of data package {}", dataPackageKey, ex);
+      }
+    }
+  }
+
+  /**
+   * Deletes the entire directory and its contents from a DOI, the deletion of the DOI is added to the outbox.
    */
   @Override
   public void delete(UUID key) {
     DataPackage dataPackage = persistenceService.getDataPackage(key);
     checkOwnership(dataPackage);
-    persistenceService.deleteDataPackage(key);
-    Optional.ofNullable(dataPackage.getDoi())
-      .ifPresent(doi ->  doiRegistrationService.delete(doi.getPrefix(), doi.getSuffix()));
+    persistenceService.deleteDataPackage(key, Optional.ofNullable(dataPackage.getDoi())
+      .map(doi -> new DoiOperation(key, doi, DoiOperation.Type.DELETE, null, dataPackage.getCreatedBy()))
+      .orElse(null));
     fileSystemService.deleteDataPackage(key);
+    updateSearchIndex(key);
   }
 
   /**
@@ -112,6 +209,7 @@ public class FileSystemDataRepository implements DataRepository {
   @Override
   public void archive(UUID key) {
     persistenceService.archiveDataPackage(key);
+    updateSearchIndex(key);
   }
 
   private DataPackage prePersist(DataPackage dataPackage, Collection<FileInputContent> newFiles, UUID dataPackageKey) {
@@ -131,10 +229,12 @@ public class FileSystemDataRepository implements DataRepository {
     newFiles.forEach(fileInputContent -> {
       Path newFilePath = fileSystemService.store(dataPackageKey, fileInputContent);
       long fileLength = fileSystemService.fileSize(newFilePath);
-      DataPackageFile dataPackageFile = new DataPackageFile(newFilePath.getName(),
-                                                            MimeTypesUtil.detectDataOneFormat(newFilePath.getName()),
-                                                            fileSystemService.md5(newFilePath),
-                                                            fileLength);
+      String format;
+      try (Timer.Context context = mimeDetectionTimer.time()) {
+        format = MimeTypesUtil.detectDataOneFormat(newFilePath.getName());
+      }
+      DataPackageFile dataPackageFile = new DataPackageFile(newFilePath.getName(), format,
+                                                            fileSystemService.md5(newFilePath), fileLength);
       newDataPackage.setSize(newDataPackage.getSize() + fileLength);
       newDataPackage.addFile(dataPackageFile);
     });
@@ -169,20 +269,68 @@ public class FileSystemDataRepository implements DataRepository {
    */
   @Override
   public boolean isAlternativeIdentifierInUse(Identifier alternativeIdentifier) {
-    return persistenceService.listIdentifiers(null, null, alternativeIdentifier.getIdentifier(), null, null,
-                                              Identifier.RelationType.IsAlternativeOf, null, dataRepoName)
-             .getCount() > 0;
+    return !getAlternativeIdentifiersInUse(Collections.singleton(alternativeIdentifier)).isEmpty();
+  }
+
+  /**
+   * Returns the identifiers that are already used as alternative identifiers by other data packages.
+   */
+  @Override
+  public Set<Identifier> getAlternativeIdentifiersInUse(Collection<Identifier> identifiers) {
+    Set<String> identifiersInUse = persistenceService.getAlternativeIdentifiersInUse(identifiers.stream()
+                                                                                      .map(Identifier::getIdentifier)
+                                                                                      .collect(Collectors.toList()),
+                                                                                     dataRepoName);
+    return identifiers.stream()
+      .filter(identifier -> identifiersInUse.contains(identifier.getIdentifier()))
+      .collect(Collectors.toSet());
   }
 
   /**
    * Creates a new DataPackage containing the metadata and files specified.
+   * If a DOI has to be generated, it is reserved before the files are stored and registered asynchronously. The
+   * reserved DOI is released, through the DOI outbox, if the data package can't be created.
    */
   @Override
   public DataPackage create(DataPackage dataPackage, List<FileInputContent> files, boolean generateDOI) {
-    try (InputStream xmlMetadata = new ByteArrayInputStream(DataCiteMetadataGenerator.toXmlDataCiteMetadata(dataPackage).getBytes())) {
-      return create(dataPackage, xmlMetadata, files, generateDOI);
-    } catch (InvalidMetadataException | IOException  ex) {
-      throw new IllegalStateException(ex);
+    DOI reservedDoi = null;
+    try (Timer.Context context = createTimer.time()) {
+      if (generateDOI && dataPackage.getDoi() == null) {
+        if (dataPackage.getKey() == null) {
+          dataPackage.setKey(UUID.randomUUID());
+        }
+        try (Timer.Context doiContext = doiGenerationTimer.time()) {
+          reservedDoi = doiRegistrationService.generate(DoiType.DATA_PACKAGE);
+          dataPackage.setDoi(reservedDoi);
+        }
+      }
+      try (InputStream xmlMetadata = new ByteArrayInputStream(DataCiteMetadataGenerator
+                                                                .toXmlDataCiteMetadata(dataPackage).getBytes())) {
+        return create(dataPackage, xmlMetadata, files, generateDOI);
+      } catch (InvalidMetadataException | IOException  ex) {
+        throw new IllegalStateException(ex);
+      }
+    } catch (RuntimeException ex) {
+      if (reservedDoi != null) {
+        releaseDoi(dataPackage, reservedDoi);
+      }
+      createErrors.inc();
+      throw ex;
+    }
+  }
+
+  /**
+   * Deletes a DOI reserved for a data package that hasn't been created, a new DOI is reserved if its creation is
+   * attempted again, e.g. by a resumed create job.
+   */
+  private void releaseDoi(DataPackage dataPackage, DOI reservedDoi) {
+    dataPackage.setDoi(null);
+    try {
+      persistenceService.enqueueDoiOperation(new DoiOperation(dataPackage.getKey(), reservedDoi,
+                                                              DoiOperation.Type.DELETE, null,
+                                                              dataPackage.getCreatedBy()));
+    } catch (Exception ex) {
+      LOG.error("Error releasing the DOI {} reserved for data package {}", reservedDoi, dataPackage.getKey(), ex);
     }
   }
 
@@ -192,31 +340,29 @@ public class FileSystemDataRepository implements DataRepository {
   private DataPackage create(DataPackage dataPackage, InputStream metadata, List<FileInputContent> files,
                              boolean generateDOI) {
 
-    if (dataPackage.getRelatedIdentifiers() != null && dataPackage.getRelatedIdentifiers()
-                                                         .stream()
-                                                         .anyMatch(this::isAlternativeIdentifierInUse)) {
+    if (dataPackage.getRelatedIdentifiers() != null
+        && !getAlternativeIdentifiersInUse(dataPackage.getRelatedIdentifiers()).isEmpty()) {
       throw new IllegalStateException("An identifier has been used as alternative identifier in other data package");
     }
     UUID dataPackageKey  = dataPackage.getKey() != null ? dataPackage.getKey() : UUID.randomUUID();
-    //Generates a DataCiteMetadata object for further validation/manipulation
+    DataPackage createdDataPackage;
     try {
       DataPackage newDataPackage = prePersist(dataPackage, files, dataPackageKey);
-      newDataPackage.setDoi(handleMetadata(metadata, dataCiteMetadata ->
-                                           generateDOI? doiRegistrationService
-                                             .register(DoiRegistration.builder()
-                                                         .withType(DoiType.DATA_PACKAGE)
-                                                         .withMetadata(dataCiteMetadata)
-                                                         .withUser(dataPackage.getCreatedBy())
-                                                         .withDoi(dataPackage.getDoi()).build()) : dataPackage.getDoi(),
-                                           dataPackageKey));
-      //Persist data package info
-      return setCitation(persistenceService.create(newDataPackage));
+      String dataCiteMetadata = handleMetadata(metadata, dataPackageKey);
+      //Persist data package info and the DOI registration in the same transaction
+      try (Timer.Context context = persistTimer.time()) {
+        createdDataPackage = setCitation(persistenceService.create(newDataPackage, generateDOI ?
+          new DoiOperation(dataPackageKey, newDataPackage.getDoi(), DoiOperation.Type.REGISTER, dataCiteMetadata,
+                           dataPackage.getCreatedBy()) : null));
+      }
     } catch (Exception ex) {
-      LOG.error("Error registering a DOI", ex);
-      //Deletes all data created to this DOI in case from error
-      delete(dataPackageKey);
+      LOG.error("Error creating data package {}", dataPackageKey, ex);
+      //Nothing has been persisted, deletes the stored files
+      fileSystemService.deleteDataPackage(dataPackageKey);
       throw new RuntimeException(ex);
     }
+    updateSearchIndex(dataPackageKey);
+    return createdDataPackage;
   }
 
 
@@ -231,17 +377,14 @@ public class FileSystemDataRepository implements DataRepository {
 
     DataPackage preparedDataPackage = prePersist(dataPackage, files, dataPackage.getKey());
     get(dataPackage.getKey()).ifPresent(this::checkOwnership);
-    persistenceService.update(dataPackage, mode);
-    handleMetadata(metadata, dataCiteMetadata -> preparedDataPackage.getDoi() != null ?
-                                                    doiRegistrationService.update(DoiRegistration.builder()
-                                                                                  .withType(DoiType.DATA_PACKAGE)
-                                                                                  .withMetadata(dataCiteMetadata)
-                                                                                  .withUser(preparedDataPackage
-                                                                                              .getCreatedBy())
-                                                                                  .withDoi(preparedDataPackage
-                                                                                             .getDoi())
-                                                                                  .build()):null,
-                   dataPackage.getKey());
+    String dataCiteMetadata = handleMetadata(metadata, dataPackage.getKey());
+    //The DOI metadata update is delivered once the data package update has been committed
+    try (Timer.Context context = persistTimer.time()) {
+      persistenceService.update(dataPackage, mode, preparedDataPackage.getDoi() != null ?
+        new DoiOperation(dataPackage.getKey(), preparedDataPackage.getDoi(), DoiOperation.Type.UPDATE,
+                         dataCiteMetadata, preparedDataPackage.getCreatedBy()) : null);
+    }
+    updateSearchIndex(dataPackage.getKey());
     return preparedDataPackage;
   }
 
@@ -250,27 +393,32 @@ public class FileSystemDataRepository implements DataRepository {
    */
   @Override
   public DataPackage update(DataPackage dataPackage, List<FileInputContent> files, UpdateMode mode) {
-    try (InputStream xmlMetadata = new ByteArrayInputStream(DataCiteMetadataGenerator
+    try (Timer.Context context = updateTimer.time();
+         InputStream xmlMetadata = new ByteArrayInputStream(DataCiteMetadataGenerator
                                                               .toXmlDataCiteMetadata(dataPackage).getBytes())) {
       return update(dataPackage, xmlMetadata, files, mode);
     } catch (InvalidMetadataException | IOException  ex) {
+      updateErrors.inc();
       throw new IllegalStateException(ex);
+    } catch (RuntimeException ex) {
+      updateErrors.inc();
+      throw ex;
     }
   }
 
   /**
-   * Read, store and a register the supplied metadata.
+   * Reads and stores the supplied metadata.
+   * @return the DataCite metadata, used in the DOI registration
    */
-  private DOI handleMetadata(InputStream metadata, Function<String, DOI> registrationHandler,
-                             UUID dataPackageKey) {
-    try (ByteArrayInputStream  metadataInputStream = new ByteArrayInputStream(IOUtils.toByteArray(metadata))) {
+  private String handleMetadata(InputStream metadata, UUID dataPackageKey) {
+    try (Timer.Context context = metadataTimer.time();
+         ByteArrayInputStream  metadataInputStream = new ByteArrayInputStream(IOUtils.toByteArray(metadata))) {
       metadataInputStream.mark(0);
       String dataCiteMetadata = IOUtils.toString(metadataInputStream);
-      DOI doi = registrationHandler.apply(dataCiteMetadata);
       //Store metadata.xml file
       metadataInputStream.reset(); //reset the input stream
       storeMetadata(dataPackageKey, metadataInputStream);
-      return doi;
+      return dataCiteMetadata;
     } catch (IOException ex) {
       LOG.error("Error reading data package metadata", ex);
       throw new RuntimeException(ex);
@@ -302,11 +450,40 @@ public class FileSystemDataRepository implements DataRepository {
       .filter(this::canShareIt);
   }
 
+  /**
+   * Retrieves the DataPackage associated to a key, DOI or alternative identifier.
+   * The data package is loaded only if it can be exposed by this repository.
+   */
+  @Override
+  public Optional<DataPackage> getByIdentifier(String identifier) {
+    return Optional.ofNullable(persistenceService.resolveDataPackage(identifier))
+      .filter(reference -> canShareIt(reference.getPublishedIn(), reference.getShareIn()))
+      .map(reference -> setCitation(persistenceService.getDataPackage(reference.getKey())));
+  }
+
+  /**
+   * Retrieves the DataPackages associated to many keys, DOIs or alternative identifiers.
+   * The identifiers are resolved with a single query and all the data packages exposed by this repository are loaded
+   * together.
+   */
+  @Override
+  public List<Optional<DataPackage>> getByIdentifiers(List<String> identifiers) {
+    Map<String, DataPackageReference> references = persistenceService.resolveDataPackages(identifiers);
+    List<UUID> keys = references.values().stream()
+      .filter(reference -> canShareIt(reference.getPublishedIn(), reference.getShareIn()))
+      .map(DataPackageReference::getKey)
+      .distinct()
+      .collect(Collectors.toList());
+    Map<UUID, DataPackage> dataPackages = persistenceService.getDataPackages(keys).stream()
+      .collect(Collectors.toMap(DataPackage::getKey, FileSystemDataRepository::setCitation));
+    return identifiers.stream()
+      .map(identifier -> Optional.ofNullable(references.get(identifier))
+        .map(reference -> dataPackages.get(reference.getKey())))
+      .collect(Collectors.toList());
+  }
+
   private static DataPackage setCitation(DataPackage dataPackage) {
-    if (dataPackage != null) {
-      dataPackage.setCitation(CitationGenerator.generateCitation(dataPackage));
-    }
-    return dataPackage;
+    return CitationGenerator.setCitation(dataPackage);
   }
 
   /**
@@ -316,9 +493,69 @@ public class FileSystemDataRepository implements DataRepository {
   public PagingResponse<DataPackage> list(String user, @Nullable Pageable page,
                                           @Nullable Date fromDate, @Nullable Date toDate,
                                           @Nullable Boolean deleted, @Nullable List<String> tags,
-                                          @Nullable String q, @Nullable String formatId) {
-    return persistenceService.listDataPackages(user, page, fromDate, toDate, deleted, tags, dataRepoName, dataRepoName,
-                                               q, formatId);
+                                          @Nullable TagMode tagMode, @Nullable String q, @Nullable String formatId,
+                                          @Nullable Set<DataPackageFacet> facets, int facetLimit) {
+    if (searchIndex != null && q != null && !Boolean.TRUE.equals(deleted)) {
+      return search(user, page, fromDate, toDate, tags, tagMode, q, formatId, facets, facetLimit);
+    }
+    return persistenceService.listDataPackages(user, page, fromDate, toDate, deleted, tags, tagMode, dataRepoName,
+                                               dataRepoName, q, formatId, facets, facetLimit);
+  }
+
+  /**
+   * Streams a page of data packages from the database. Search results are already bounded by the page and are
+   * passed to the consumer once loaded.
+   */
+  @Override
+  public PagingResponse<DataPackage> list(String user, @Nullable Pageable page,
+                                          @Nullable Date fromDate, @Nullable Date toDate,
+                                          @Nullable Boolean deleted, @Nullable List<String> tags,
+                                          @Nullable TagMode tagMode, @Nullable String q, @Nullable String formatId,
+                                          @Nullable Set<DataPackageFacet> facets, int facetLimit,
+                                          Consumer<DataPackage> consumer) {
+    if (searchIndex != null && q != null && !Boolean.TRUE.equals(deleted)) {
+      PagingResponse<DataPackage> response = search(user, page, fromDate, toDate, tags, tagMode, q, formatId, facets,
+                                                    facetLimit);
+      response.getResults().forEach(consumer);
+      response.setResults(Collections.emptyList());
+      return response;
+    }
+    return persistenceService.streamDataPackages(user, page, fromDate, toDate, deleted, tags, tagMode, dataRepoName,
+                                                 dataRepoName, q, formatId, facets, facetLimit, consumer);
+  }
+
+  /**
+   * Full text search of live data packages using the search index, only the page of results is loaded from the
+   * database. Facets are counted by the search index over the same matches.
+   */
+  private PagingResponse<DataPackage> search(String user, @Nullable Pageable page,
+                                             @Nullable Date fromDate, @Nullable Date toDate,
+                                             @Nullable List<String> tags, @Nullable TagMode tagMode, String q,
+                                             @Nullable String formatId,
+                                             @Nullable Set<DataPackageFacet> facets, int facetLimit) {
+    Pageable pagingRequest = Optional.ofNullable(page).orElse(new PagingRequest());
+    Set<DataPackageFacet> requestedFacets = Optional.ofNullable(facets).orElse(Collections.emptySet());
+    DataPackageSearchIndex.SearchResult searchResult = searchIndex.search(q, pagingRequest, user, fromDate, toDate,
+                                                                          tags, tagMode, formatId, requestedFacets,
+                                                                          facetLimit);
+    List<DataPackage> dataPackages = persistenceService.getDataPackages(searchResult.getKeys());
+    dataPackages.forEach(dataPackage -> {
+      setCitation(dataPackage);
+      dataPackage.setHighlights(searchResult.getHighlights().get(dataPackage.getKey()));
+    });
+    if (requestedFacets.isEmpty()) {
+      return new PagingResponse<>(pagingRequest, searchResult.getCount(), dataPackages);
+    }
+    return new FacetedPagingResponse<>(pagingRequest, searchResult.getCount(), dataPackages,
+                                       searchResult.getFacets());
+  }
+
+  /**
+   * Streams all the data packages exposed by this repository, optionally modified since a date, to a consumer.
+   */
+  @Override
+  public void export(@Nullable Date modifiedSince, Consumer<DataPackage> consumer) {
+    persistenceService.exportDataPackages(modifiedSince, dataRepoName, consumer);
   }
 
   /**
@@ -335,6 +572,21 @@ public class FileSystemDataRepository implements DataRepository {
                                               dataRepoName);
   }
 
+  /**
+   * Streams a page of AlternativeIdentifiers, optionally filtered by user and dates.
+   */
+  @Override
+  public PagingResponse<Identifier> listIdentifiers(@Nullable String user, @Nullable Pageable page,
+                                                    @Nullable String identifier,
+                                                    @Nullable UUID dataPackageKey,
+                                                    @Nullable Identifier.Type type,
+                                                    @Nullable Identifier.RelationType relationType,
+                                                    @Nullable Date created,
+                                                    Consumer<Identifier> consumer) {
+    return persistenceService.streamIdentifiers(user, page, identifier, dataPackageKey, type, relationType, created,
+                                                dataRepoName, consumer);
+  }
+
 
   /**
    * Gets the file, if it exists.
@@ -366,4 +618,30 @@ public class FileSystemDataRepository implements DataRepository {
     return persistenceService.getRepositoryStats();
   }
 
+  @Override
+  public RepositoryStats rebuildStats() {
+    return persistenceService.rebuildRepositoryStats();
+  }
+
+  /**
+   * Re-creates the search index from all the live data packages exposed by this repository, the related identifiers
+   * of each exported chunk are loaded with a single query.
+   */
+  @Override
+  public long rebuildSearchIndex() {
+    if (searchIndex == null) {
+      throw new IllegalStateException("The search index is not enabled");
+    }
+    long indexed = searchIndex.rebuild(indexer ->
+      persistenceService.exportDataPackageChunks(null, dataRepoName, chunk -> {
+        Map<UUID, List<Identifier>> relatedIdentifiers = persistenceService.getRelatedIdentifiers(
+          chunk.stream().map(DataPackage::getKey).collect(Collectors.toList()));
+        chunk.forEach(dataPackage -> indexer.accept(dataPackage,
+                                                    relatedIdentifiers.getOrDefault(dataPackage.getKey(),
+                                                                                    Collections.emptyList())));
+      }));
+    LOG.info("Search index rebuilt with {} data packages", indexed);
+    return indexed;
+  }
+
 }
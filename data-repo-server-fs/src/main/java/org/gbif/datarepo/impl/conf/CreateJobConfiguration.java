@@ -0,0 +1,66 @@
+package org.gbif.datarepo.impl.conf;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Settings of the workers that run the asynchronous data package creations.
+ */
+public class CreateJobConfiguration {
+
+  @Min(1)
+  private int workers = 2;
+
+  @Min(1)
+  private long pollInterval = 1000;
+
+  @Min(1)
+  private long staleTimeout = 300;
+
+  @Min(1)
+  private int maxAttempts = 3;
+
+  /**
+   * Maximum number of jobs run concurrently by this instance.
+   */
+  public int getWorkers() {
+    return workers;
+  }
+
+  public void setWorkers(int workers) {
+    this.workers = workers;
+  }
+
+  /**
+   * Milliseconds between checks of the queue while there are idle workers.
+   */
+  public long getPollInterval() {
+    return pollInterval;
+  }
+
+  public void setPollInterval(long pollInterval) {
+    this.pollInterval = pollInterval;
+  }
+
+  /**
+   * Seconds without progress after which a running job is considered abandoned, e.g. by a restarted instance, and it
+   * is queued again.
+   */
+  public long getStaleTimeout() {
+    return staleTimeout;
+  }
+
+  public void setStaleTimeout(long staleTimeout) {
+    this.staleTimeout = staleTimeout;
+  }
+
+  /**
+   * Number of times an abandoned job is attempted before it fails.
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public void setMaxAttempts(int maxAttempts) {
+    this.maxAttempts = maxAttempts;
+  }
+}
@@ -0,0 +1,80 @@
+package org.gbif.datarepo.impl.conf;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Settings of the in-memory cache of data packages.
+ */
+public class DataPackageCacheConfiguration {
+
+  @Min(0)
+  private long maximumWeight = 10000;
+
+  @Min(1)
+  private long expireAfterWrite = 60;
+
+  @Min(1)
+  private long negativeTtl = 30;
+
+  @Min(1)
+  private long negativeMaximumSize = 10000;
+
+  @Min(0)
+  private long facetsTtl = 300;
+
+  /**
+   * Maximum weight of the cache, a data package weighs 1 plus the number of its files, identifiers, tags and
+   * creators. 0 disables the cache.
+   */
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  public void setMaximumWeight(long maximumWeight) {
+    this.maximumWeight = maximumWeight;
+  }
+
+  /**
+   * Minutes a data package is kept in the cache since it was loaded.
+   */
+  public long getExpireAfterWrite() {
+    return expireAfterWrite;
+  }
+
+  public void setExpireAfterWrite(long expireAfterWrite) {
+    this.expireAfterWrite = expireAfterWrite;
+  }
+
+  /**
+   * Seconds a lookup that didn't find a data package is remembered.
+   */
+  public long getNegativeTtl() {
+    return negativeTtl;
+  }
+
+  public void setNegativeTtl(long negativeTtl) {
+    this.negativeTtl = negativeTtl;
+  }
+
+  /**
+   * Maximum number of lookups that didn't find a data package remembered at the same time.
+   */
+  public long getNegativeMaximumSize() {
+    return negativeMaximumSize;
+  }
+
+  public void setNegativeMaximumSize(long negativeMaximumSize) {
+    this.negativeMaximumSize = negativeMaximumSize;
+  }
+
+  /**
+   * Seconds the facet counts of the unfiltered data package listing are cached, 0 disables the caching of facets.
+   */
+  public long getFacetsTtl() {
+    return facetsTtl;
+  }
+
+  public void setFacetsTtl(long facetsTtl) {
+    this.facetsTtl = facetsTtl;
+  }
+}
@@ -3,6 +3,8 @@ package org.gbif.datarepo.impl.conf;
 import java.io.IOException;
 import java.util.Properties;
 import javax.annotation.Nullable;
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import org.apache.hadoop.conf.Configuration;
@@ -38,9 +40,54 @@ public class DataRepoConfiguration  {
   @NotNull
   private Properties dbConfig;
 
+  @Nullable
+  private Properties replicaDbConfig;
+
+  @Min(0)
+  private long readYourWritesWindow = 5;
+
   @NotNull
   private ApplicationKeyConfiguration appKey;
 
+  private long statsReconciliationInterval = 60;
+
+  private long usageStatsRollupInterval = 5;
+
+  @Min(1)
+  private int facetLimit = 10;
+
+  @Min(1)
+  private int ingestParallelism = 4;
+
+  @Min(1)
+  private int batchLimit = 1000;
+
+  @Nullable
+  private String searchIndexPath;
+
+  @Min(1)
+  private long searchIndexCommitInterval = 60;
+
+  @Valid
+  @NotNull
+  private DataPackageCacheConfiguration dataPackageCache = new DataPackageCacheConfiguration();
+
+  @Valid
+  @NotNull
+  private EventLogConfiguration eventLog = new EventLogConfiguration();
+
+  @Valid
+  @NotNull
+  private CreateJobConfiguration createJobs = new CreateJobConfiguration();
+
+  @Valid
+  @NotNull
+  private OrcidConfiguration orcid = new OrcidConfiguration();
+
+  @Valid
+  @NotNull
+  private DoiOutboxConfiguration doiOutbox = new DoiOutboxConfiguration();
+
   /**
    * Repository name, used to set ownership and sharing of data packages.
    * All repositories with the same name can manage (CRUD ops) data packages created from that repository.
@@ -113,6 +160,29 @@ public class DataRepoConfiguration  {
     this.dbConfig = dbConfig;
   }
 
+  /**
+   * Configuration of an optional read replica of the data packages database, it serves the read only operations.
+   */
+  public Properties getReplicaDbConfig() {
+    return replicaDbConfig;
+  }
+
+  public void setReplicaDbConfig(Properties replicaDbConfig) {
+    this.replicaDbConfig = replicaDbConfig;
+  }
+
+  /**
+   * Seconds that a client, i.e. an authenticated user, reads from the primary database after writing to it, instead of
+   * reading from the replica.
+   */
+  public long getReadYourWritesWindow() {
+    return readYourWritesWindow;
+  }
+
+  public void setReadYourWritesWindow(long readYourWritesWindow) {
+    this.readYourWritesWindow = readYourWritesWindow;
+  }
+
   /**
    * Application key/secret used to communicate with other GBIF services.
    */
@@ -124,6 +194,140 @@ public class DataRepoConfiguration  {
     this.appKey = appKey;
   }
 
+  /**
+   * Minutes between full recalculations of the repository statistics, 0 disables the periodic reconciliation.
+   */
+  public long getStatsReconciliationInterval() {
+    return statsReconciliationInterval;
+  }
+
+  public void setStatsReconciliationInterval(long statsReconciliationInterval) {
+    this.statsReconciliationInterval = statsReconciliationInterval;
+  }
+
+  /**
+   * Minutes between the rollups of logged events into the usage counters, 0 disables the periodic rollup.
+   */
+  public long getUsageStatsRollupInterval() {
+    return usageStatsRollupInterval;
+  }
+
+  public void setUsageStatsRollupInterval(long usageStatsRollupInterval) {
+    this.usageStatsRollupInterval = usageStatsRollupInterval;
+  }
+
+  /**
+   * Local directory of the full text search index, if it is not set full text searches are resolved by the database.
+   */
+  public String getSearchIndexPath() {
+    return searchIndexPath;
+  }
+
+  public void setSearchIndexPath(String searchIndexPath) {
+    this.searchIndexPath = searchIndexPath;
+  }
+
+  /**
+   * Seconds between commits of the search index, changes are searchable as soon as they are written but only
+   * committed changes survive a crash.
+   */
+  public long getSearchIndexCommitInterval() {
+    return searchIndexCommitInterval;
+  }
+
+  public void setSearchIndexCommitInterval(long searchIndexCommitInterval) {
+    this.searchIndexCommitInterval = searchIndexCommitInterval;
+  }
+
+  /**
+   * Default maximum number of counts returned per facet of the data package listing.
+   */
+  public int getFacetLimit() {
+    return facetLimit;
+  }
+
+  public void setFacetLimit(int facetLimit) {
+    this.facetLimit = facetLimit;
+  }
+
+  /**
+   * Number of data packages created at once by a bulk ingest, the database pool should have at least as many
+   * connections.
+   */
+  public int getIngestParallelism() {
+    return ingestParallelism;
+  }
+
+  public void setIngestParallelism(int ingestParallelism) {
+    this.ingestParallelism = ingestParallelism;
+  }
+
+  /**
+   * Maximum number of identifiers accepted by a batch retrieval of data packages.
+   */
+  public int getBatchLimit() {
+    return batchLimit;
+  }
+
+  public void setBatchLimit(int batchLimit) {
+    this.batchLimit = batchLimit;
+  }
+
+  /**
+   * Settings of the cache used for data package lookups.
+   */
+  public DataPackageCacheConfiguration getDataPackageCache() {
+    return dataPackageCache;
+  }
+
+  public void setDataPackageCache(DataPackageCacheConfiguration dataPackageCache) {
+    this.dataPackageCache = dataPackageCache;
+  }
+
+  /**
+   * Settings of the asynchronous writer of data package events.
+   */
+  public EventLogConfiguration getEventLog() {
+    return eventLog;
+  }
+
+  public void setEventLog(EventLogConfiguration eventLog) {
+    this.eventLog = eventLog;
+  }
+
+  /**
+   * Settings of the workers of asynchronous data package creations.
+   */
+  public CreateJobConfiguration getCreateJobs() {
+    return createJobs;
+  }
+
+  public void setCreateJobs(CreateJobConfiguration createJobs) {
+    this.createJobs = createJobs;
+  }
+
+  /**
+   * Settings of the validation of the ORCIDs of creators.
+   */
+  public OrcidConfiguration getOrcid() {
+    return orcid;
+  }
+
+  public void setOrcid(OrcidConfiguration orcid) {
+    this.orcid = orcid;
+  }
+
+  /**
+   * Settings of the delivery of DOI operations to the DOI registry.
+   */
+  public DoiOutboxConfiguration getDoiOutbox() {
+    return doiOutbox;
+  }
+
+  public void setDoiOutbox(DoiOutboxConfiguration doiOutbox) {
+    this.doiOutbox = doiOutbox;
+  }
+
   @Nullable
   public String getHdfsNameNode() {
     return hdfsNameNode;
@@ -0,0 +1,108 @@
+package org.gbif.datarepo.impl.conf;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Settings of the dispatcher that delivers the DOI operations of the outbox to the DOI registry.
+ */
+public class DoiOutboxConfiguration {
+
+  @Min(1)
+  private long pollInterval = 1000;
+
+  @Min(1)
+  private int batchSize = 50;
+
+  @Min(1)
+  private long lease = 60;
+
+  @Min(1)
+  private int maxAttempts = 10;
+
+  @Min(1)
+  private long retryBackoff = 5;
+
+  @Min(1)
+  private long maxRetryBackoff = 3600;
+
+  @Min(1)
+  private int retention = 30;
+
+  /**
+   * Milliseconds between checks of the outbox once it has been emptied.
+   */
+  public long getPollInterval() {
+    return pollInterval;
+  }
+
+  public void setPollInterval(long pollInterval) {
+    this.pollInterval = pollInterval;
+  }
+
+  /**
+   * Maximum number of operations claimed at once.
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Seconds a claimed batch is reserved to this instance, operations of a batch that is not delivered in this time,
+   * e.g. because the instance was stopped, are claimed again.
+   */
+  public long getLease() {
+    return lease;
+  }
+
+  public void setLease(long lease) {
+    this.lease = lease;
+  }
+
+  /**
+   * Number of attempts after which an operation is marked as failed.
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public void setMaxAttempts(int maxAttempts) {
+    this.maxAttempts = maxAttempts;
+  }
+
+  /**
+   * Seconds before the first retry of a failed operation, doubled on each retry.
+   */
+  public long getRetryBackoff() {
+    return retryBackoff;
+  }
+
+  public void setRetryBackoff(long retryBackoff) {
+    this.retryBackoff = retryBackoff;
+  }
+
+  /**
+   * Maximum seconds between retries of a failed operation.
+   */
+  public long getMaxRetryBackoff() {
+    return maxRetryBackoff;
+  }
+
+  public void setMaxRetryBackoff(long maxRetryBackoff) {
+    this.maxRetryBackoff = maxRetryBackoff;
+  }
+
+  /**
+   * Days delivered operations are kept in the outbox.
+   */
+  public int getRetention() {
+    return retention;
+  }
+
+  public void setRetention(int retention) {
+    this.retention = retention;
+  }
+}
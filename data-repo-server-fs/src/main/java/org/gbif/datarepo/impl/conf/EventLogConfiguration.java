@@ -0,0 +1,68 @@
+package org.gbif.datarepo.impl.conf;
+
+import org.gbif.datarepo.logging.EventLogQueue;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Settings of the asynchronous pipeline that writes data package events into the events log.
+ */
+public class EventLogConfiguration {
+
+  @Min(1)
+  private int capacity = 10000;
+
+  @Min(1)
+  private int batchSize = 500;
+
+  @Min(1)
+  private long flushInterval = 1000;
+
+  @NotNull
+  private EventLogQueue.OverflowPolicy overflowPolicy = EventLogQueue.OverflowPolicy.DROP;
+
+  /**
+   * Maximum number of events waiting to be written.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public void setCapacity(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Maximum number of events written in a single transaction, a write starts as soon as a batch is complete.
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Milliseconds between writes of incomplete batches.
+   */
+  public long getFlushInterval() {
+    return flushInterval;
+  }
+
+  public void setFlushInterval(long flushInterval) {
+    this.flushInterval = flushInterval;
+  }
+
+  /**
+   * What to do with the events logged while the queue is full.
+   */
+  public EventLogQueue.OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  public void setOverflowPolicy(EventLogQueue.OverflowPolicy overflowPolicy) {
+    this.overflowPolicy = overflowPolicy;
+  }
+}
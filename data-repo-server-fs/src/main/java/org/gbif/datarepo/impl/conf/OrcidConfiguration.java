@@ -0,0 +1,136 @@
+package org.gbif.datarepo.impl.conf;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Settings of the validation of ORCIDs against the ORCID public API.
+ */
+public class OrcidConfiguration {
+
+  @NotNull
+  private String apiUrl = "http://pub.orcid.org/v1.2";
+
+  @Min(1)
+  private int connectTimeout = 2000;
+
+  @Min(1)
+  private int readTimeout = 3000;
+
+  @Min(1)
+  private int parallelism = 8;
+
+  @Min(1)
+  private int cacheSize = 10000;
+
+  @Min(1)
+  private long positiveTtl = 1440;
+
+  @Min(1)
+  private long negativeTtl = 10;
+
+  @Min(1)
+  private int failureThreshold = 5;
+
+  @Min(1)
+  private long openInterval = 30;
+
+  /**
+   * URL of the ORCID public API.
+   */
+  public String getApiUrl() {
+    return apiUrl;
+  }
+
+  public void setApiUrl(String apiUrl) {
+    this.apiUrl = apiUrl;
+  }
+
+  /**
+   * Milliseconds to wait for a connection to the ORCID API.
+   */
+  public int getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public void setConnectTimeout(int connectTimeout) {
+    this.connectTimeout = connectTimeout;
+  }
+
+  /**
+   * Milliseconds to wait for the response of a lookup.
+   */
+  public int getReadTimeout() {
+    return readTimeout;
+  }
+
+  public void setReadTimeout(int readTimeout) {
+    this.readTimeout = readTimeout;
+  }
+
+  /**
+   * Maximum number of concurrent lookups.
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Maximum number of lookup results cached.
+   */
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  public void setCacheSize(int cacheSize) {
+    this.cacheSize = cacheSize;
+  }
+
+  /**
+   * Minutes an existing ORCID is cached.
+   */
+  public long getPositiveTtl() {
+    return positiveTtl;
+  }
+
+  public void setPositiveTtl(long positiveTtl) {
+    this.positiveTtl = positiveTtl;
+  }
+
+  /**
+   * Minutes a non existing ORCID is cached.
+   */
+  public long getNegativeTtl() {
+    return negativeTtl;
+  }
+
+  public void setNegativeTtl(long negativeTtl) {
+    this.negativeTtl = negativeTtl;
+  }
+
+  /**
+   * Consecutive failed lookups after which the ORCID API is no longer called and only checksums are validated.
+   */
+  public int getFailureThreshold() {
+    return failureThreshold;
+  }
+
+  public void setFailureThreshold(int failureThreshold) {
+    this.failureThreshold = failureThreshold;
+  }
+
+  /**
+   * Seconds without calls to the ORCID API after it fails, then a single lookup is tried.
+   */
+  public long getOpenInterval() {
+    return openInterval;
+  }
+
+  public void setOpenInterval(long openInterval) {
+    this.openInterval = openInterval;
+  }
+}
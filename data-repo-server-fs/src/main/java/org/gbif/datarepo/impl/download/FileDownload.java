@@ -14,6 +14,8 @@ import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletResponse;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.github.rholder.retry.RetryException;
 import com.github.rholder.retry.Retryer;
 import com.github.rholder.retry.RetryerBuilder;
@@ -22,6 +24,7 @@ import com.github.rholder.retry.WaitStrategies;
 import com.google.common.collect.Sets;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPFile;
 import org.apache.commons.net.ftp.FTPReply;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
@@ -29,11 +32,16 @@ import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static com.codahale.metrics.MetricRegistry.name;
+
 /**
  * Utility class to read files form external sources: http, https, ftp and hdfs.
  */
 public class FileDownload {
 
+  //Length of the files that don't exist
+  public static final long NOT_FOUND = -1L;
+
   //Default timeout for HTTP and FTP connections
   private static final int DEFAULT_TO =  60;
 
@@ -51,20 +59,33 @@ public class FileDownload {
   //HTTP HEAD request
   private static final String HTTP_HEAD_METHOD = "HEAD";
 
+  //Metrics source of the uploaded files and other streamed content
+  private static final String MULTIPART_SOURCE = "multipart";
+
   //Cached hadoop configuration
   private final FileSystem hdfs;
 
+  private final MetricRegistry metricRegistry;
+
   /**
-   * Uri to the HDFS name node or name service.
+   * Uri to the HDFS name node or name service, metrics are not reported.
    */
   public FileDownload(FileSystem hdfs) {
+    this(hdfs, new MetricRegistry());
+  }
+
+  /**
+   * Full constructor, the probes and copies of each source scheme are timed and the bytes copied are measured.
+   */
+  public FileDownload(FileSystem hdfs, MetricRegistry metricRegistry) {
     this.hdfs = hdfs;
+    this.metricRegistry = metricRegistry;
   }
 
   /**
-   * Does a file exists in the FTP server?.
+   * Length of a file in the FTP server, NOT_FOUND if it doesn't exist.
    */
-  private static boolean ftpFileExists(URI uri) throws IOException {
+  private static long ftpFileLength(URI uri) throws IOException {
     FTPClient ftpClient = new FTPClient();
     ftpClient.setDefaultTimeout(DEFAULT_TO);
     try {
@@ -81,13 +102,14 @@ public class FileDownload {
       }
       //Can connect?
       if(!FTPReply.isPositiveCompletion(ftpClient.getReplyCode())) {
-        return false;
+        return NOT_FOUND;
       }
       ftpClient.enterLocalPassiveMode();
-      return ftpClient.listFiles(uri.getPath()).length > 0;
+      FTPFile[] files = ftpClient.listFiles(uri.getPath());
+      return files.length > 0 ? Math.max(0L, files[0].getSize()) : NOT_FOUND;
     } catch (Exception ex) {
       LOG.error("Error connecting to {}", uri);
-      return false;
+      return NOT_FOUND;
     } finally {
       ftpClient.disconnect();
     }
@@ -95,26 +117,31 @@ public class FileDownload {
   }
 
   /**
-   * Does the file exist in HDFS?.
+   * Length of a file in HDFS, NOT_FOUND if it doesn't exist.
    */
-  private boolean hdfsFileExists(URI uri) throws IOException {
-      return hdfs.exists(new Path(uri));
+  private long hdfsFileLength(URI uri) throws IOException {
+    Path path = new Path(uri);
+    return hdfs.exists(path) ? hdfs.getFileStatus(path).getLen() : NOT_FOUND;
   }
 
   /**
-   * Does the file exists in the HTTP server?.
+   * Length of a file in the HTTP server from the Content-Length of a HEAD request, NOT_FOUND if it doesn't exist.
    */
-  private static boolean httpFileExist(URI uri) {
+  private static long httpFileLength(URI uri) {
     try {
       HttpURLConnection httpConnection = (HttpURLConnection)uri.toURL().openConnection();
       httpConnection.setReadTimeout(DEFAULT_TO);
       httpConnection.setRequestMethod(HTTP_HEAD_METHOD);
       httpConnection.connect();
-      httpConnection.disconnect();
-      return HttpServletResponse.SC_OK == httpConnection.getResponseCode();
+      try {
+        return HttpServletResponse.SC_OK == httpConnection.getResponseCode() ?
+          Math.max(0L, httpConnection.getContentLengthLong()) : NOT_FOUND;
+      } finally {
+        httpConnection.disconnect();
+      }
     } catch (Exception ex){
       LOG.error("Error connecting to {}", uri);
-      return false;
+      return NOT_FOUND;
     }
   }
 
@@ -147,22 +174,36 @@ public class FileDownload {
    * Check if the file exists in a remote HDFS, FTP or HTTP server.
    */
   public boolean exists(String fileLocation) throws IOException {
+    return length(fileLocation) != NOT_FOUND;
+  }
+
+  /**
+   * Length in bytes of a file in a remote HDFS, FTP or HTTP server.
+   * @return NOT_FOUND if the file doesn't exist, 0 if its length is unknown
+   */
+  public long length(String fileLocation) throws IOException {
     //Parse URI
     URI uri = URI.create(fileLocation);
     String scheme = uri.getScheme();
+    String source = String.valueOf(scheme).toLowerCase();
+    try (Timer.Context context = metricRegistry.timer(name(FileDownload.class, source, "probe")).time()) {
+      return length(uri, scheme);
+    }
+  }
 
+  private long length(URI uri, String scheme) throws IOException {
     //it's an external URL
     if (HTTP_SCHEMES.contains(scheme)) {
-      return httpFileExist(uri);
+      return httpFileLength(uri);
     }
     //HDFS
     if (HDFS_SCHEME .equalsIgnoreCase(scheme)) {
-      return hdfsFileExists(uri);
+      return hdfsFileLength(uri);
     }
 
     //FTP
     if (FTP_SCHEMES.contains(scheme)) {
-      return ftpFileExists(uri);
+      return ftpFileLength(uri);
     }
     throw new IllegalArgumentException("Scheme not supported");
   }
@@ -172,21 +213,35 @@ public class FileDownload {
    *  @return the number of bytes copied
    */
   public int copy(FileInputContent fileInputContent, Path destination, FileSystem fs) {
-    Retryer<Integer> retryer = RetryerBuilder.<Integer>newBuilder()
+    Retryer<Long> retryer = RetryerBuilder.<Long>newBuilder()
       .retryIfExceptionOfType(IOException.class)
       .withStopStrategy(StopStrategies.stopAfterAttempt(3))
       .withWaitStrategy(WaitStrategies.fibonacciWait(10, 10, TimeUnit.SECONDS))
       .build();
-    try {
-      return retryer.call(() -> {
+    String source = source(fileInputContent);
+    try (Timer.Context context = metricRegistry.timer(name(FileDownload.class, source, "copy")).time()) {
+      long bytes = retryer.call(() -> {
         try (FSDataOutputStream fos = fs.create(destination, true);
              InputStream inputStream = open(fileInputContent)) {
-          return IOUtils.copy(inputStream, fos);
+          return IOUtils.copyLarge(inputStream, fos);
         }
       });
+      metricRegistry.meter(name(FileDownload.class, source, "bytes")).mark(bytes);
+      metricRegistry.histogram(name(FileDownload.class, source, "fileSize")).update(bytes);
+      //Same result as IOUtils.copy for files larger than 2GB
+      return bytes > Integer.MAX_VALUE ? -1 : (int) bytes;
     } catch (ExecutionException | RetryException ex) {
+      metricRegistry.counter(name(FileDownload.class, source, "errors")).inc();
       LOG.error("Error fetching fileInput {} ", fileInputContent, ex);
       throw new RuntimeException(ex);
     }
   }
+
+  /**
+   * Name of the source of a file in the metrics: the scheme of its location or multipart for streamed content.
+   */
+  private static String source(FileInputContent fileInputContent) {
+    return fileInputContent.getInputStream() != null || fileInputContent.getFileLocation() == null ?
+      MULTIPART_SOURCE : String.valueOf(fileInputContent.getFileLocation().getScheme()).toLowerCase();
+  }
 }
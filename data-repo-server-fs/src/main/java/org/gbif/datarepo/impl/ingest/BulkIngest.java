@@ -0,0 +1,249 @@
+package org.gbif.datarepo.impl.ingest;
+
+import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.FileInputContent;
+import org.gbif.datarepo.impl.download.FileDownload;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the data packages of a manifest using a pool of workers.
+ * Every entry has a stable data package key: the key of its metadata or a key derived from the creator and the entry
+ * id, so an entry is created only once no matter how many times the manifest is ingested. The workers share the
+ * repository, its database pool and the connections to the file locations, and at most two entries per worker are read
+ * ahead of the workers.
+ * Each entry can be admitted before its data package is created, using the length of its files probed by the worker.
+ */
+public class BulkIngest {
+
+  /**
+   * Admits the creation of the data package of an entry, e.g. to limit the creations and bytes in flight of a user.
+   */
+  @FunctionalInterface
+  public interface Admission {
+
+    /**
+     * Admits a creation, the permit is closed once the data package has been created or has failed.
+     * @param createdBy user that creates the data package
+     * @param bytes length of the files of the entry, files of unknown length count as 0 bytes
+     * @throws RuntimeException if the creation isn't admitted, the entry fails
+     */
+    AutoCloseable admit(String createdBy, long bytes);
+  }
+
+  private static final Logger LOG = LoggerFactory.getLogger(BulkIngest.class);
+
+  //Entries read ahead per worker
+  private static final int ENTRIES_PER_WORKER = 2;
+
+  private final DataRepository dataRepository;
+
+  private final int parallelism;
+
+  private final Consumer<DataPackage> validator;
+
+  //Null if the file locations are not probed
+  private final FileDownload fileDownload;
+
+  private final Admission admission;
+
+  /**
+   * Creates an ingest that runs at most parallelism creations at once, the number of database connections should not be
+   * lower. Entries are created without probing their files nor being admitted.
+   * @param validator called by the workers with the metadata of each entry that doesn't exist yet, throws an
+   *                  IllegalArgumentException if it is invalid
+   */
+  public BulkIngest(DataRepository dataRepository, int parallelism, Consumer<DataPackage> validator) {
+    this(dataRepository, parallelism, validator, null, (createdBy, bytes) -> () -> { });
+  }
+
+  /**
+   * Full constructor.
+   * @param fileDownload probes the files of each entry before it's admitted, unreachable files fail the entry
+   * @param admission admits each entry that doesn't exist yet, the workers wait for it
+   */
+  public BulkIngest(DataRepository dataRepository, int parallelism, Consumer<DataPackage> validator,
+                    @Nullable FileDownload fileDownload, Admission admission) {
+    Preconditions.checkArgument(parallelism > 0, "Parallelism must be greater than 0");
+    this.dataRepository = dataRepository;
+    this.parallelism = parallelism;
+    this.validator = validator;
+    this.fileDownload = fileDownload;
+    this.admission = admission;
+  }
+
+  /**
+   * Key of the data package of an entry.
+   */
+  public static UUID dataPackageKey(IngestEntry entry, String createdBy) {
+    if (entry.getDataPackage().getKey() != null) {
+      return entry.getDataPackage().getKey();
+    }
+    return UUID.nameUUIDFromBytes((createdBy + ':' + entry.getId()).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Ingests the entries, the result of each entry is passed to the results consumer in the calling thread as soon as
+   * it's available.
+   * @return number of entries processed
+   */
+  public long ingest(Iterator<IngestEntry> entries, String createdBy, Consumer<IngestResult> results) {
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+                                                                            .setNameFormat("bulk-ingest-%d").build());
+    CompletionService<IngestResult> completionService = new ExecutorCompletionService<>(executor);
+    Set<UUID> keys = new HashSet<>();
+    long processed = 0;
+    int inFlight = 0;
+    try {
+      while (entries.hasNext()) {
+        IngestEntry entry = entries.next();
+        processed++;
+        String error = validate(entry);
+        if (error == null) {
+          UUID key = dataPackageKey(entry, createdBy);
+          if (keys.add(key)) {
+            if (inFlight == parallelism * ENTRIES_PER_WORKER) {
+              results.accept(take(completionService));
+              inFlight--;
+            }
+            completionService.submit(() -> ingest(entry, key, createdBy));
+            inFlight++;
+          } else {
+            results.accept(failed(entry, key, "Duplicated entry"));
+          }
+        } else {
+          results.accept(failed(entry, null, error));
+        }
+      }
+      for (; inFlight > 0; inFlight--) {
+        results.accept(take(completionService));
+      }
+      return processed;
+    } finally {
+      //Entries being created when the ingest is interrupted are completed
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Validates an entry before its data package key is derived.
+   */
+  private String validate(IngestEntry entry) {
+    if (entry.getError() != null) {
+      return entry.getError();
+    }
+    if (entry.getDataPackage() == null) {
+      return "The entry has no data package metadata";
+    }
+    if (entry.getId() == null && entry.getDataPackage().getKey() == null) {
+      return "The entry requires an id or a data package key";
+    }
+    if (entry.getFileUrls() == null || entry.getFileUrls().isEmpty()) {
+      return "The entry has no files";
+    }
+    return null;
+  }
+
+  private static IngestResult take(CompletionService<IngestResult> completionService) {
+    try {
+      return completionService.take().get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Bulk ingest interrupted", ex);
+    } catch (ExecutionException ex) {
+      //ingest handles all the errors of an entry
+      throw Throwables.propagate(ex.getCause());
+    }
+  }
+
+  /**
+   * Creates the data package of an entry unless it already exists, its metadata is validated and its files probed by
+   * the worker since both may call remote services. The creation holds a permit of the admission.
+   */
+  private IngestResult ingest(IngestEntry entry, UUID key, String createdBy) {
+    try {
+      Optional<DataPackage> existing = dataRepository.get(key);
+      if (existing.isPresent()) {
+        return result(entry, existing.get(), IngestResult.Status.EXISTS);
+      }
+      DataPackage dataPackage = entry.getDataPackage();
+      try {
+        validator.accept(dataPackage);
+      } catch (IllegalArgumentException ex) {
+        return failed(entry, key, ex.getMessage());
+      }
+      long length = 0L;
+      if (fileDownload != null) {
+        for (String fileUrl : entry.getFileUrls()) {
+          long fileLength = fileDownload.length(fileUrl);
+          if (fileLength == FileDownload.NOT_FOUND) {
+            return failed(entry, key, "File location is not reachable " + fileUrl);
+          }
+          length += fileLength;
+        }
+      }
+      AutoCloseable permit;
+      try {
+        permit = admission.admit(createdBy, length);
+      } catch (RuntimeException ex) {
+        return failed(entry, key, "The entry was not admitted, it can be ingested again later: " + ex.getMessage());
+      }
+      try (AutoCloseable createPermit = permit) {
+        dataPackage.setKey(key);
+        dataPackage.setCreatedBy(createdBy);
+        List<FileInputContent> files = entry.getFileUrls().stream().map(fileUrl -> {
+          URI uri = URI.create(fileUrl);
+          return FileInputContent.from(Paths.get(uri.getPath()).getFileName().toString(), uri);
+        }).collect(Collectors.toList());
+        DataPackage created = dataRepository.create(dataPackage, files, dataPackage.getDoi() == null);
+        return result(entry, created, IngestResult.Status.CREATED);
+      }
+    } catch (Exception ex) {
+      LOG.error("Error ingesting the entry {} at line {}", entry.getId(), entry.getLine(), ex);
+      return failed(entry, key, Throwables.getRootCause(ex).getMessage());
+    }
+  }
+
+  private static IngestResult result(IngestEntry entry, DataPackage dataPackage, IngestResult.Status status) {
+    IngestResult result = new IngestResult();
+    result.setLine(entry.getLine());
+    result.setId(entry.getId());
+    result.setKey(dataPackage.getKey());
+    result.setDoi(dataPackage.getDoi() == null ? null : dataPackage.getDoi().getDoiName());
+    result.setStatus(status);
+    return result;
+  }
+
+  private static IngestResult failed(IngestEntry entry, UUID key, String error) {
+    IngestResult result = new IngestResult();
+    result.setLine(entry.getLine());
+    result.setId(entry.getId());
+    result.setKey(key);
+    result.setStatus(IngestResult.Status.FAILED);
+    result.setError(error);
+    return result;
+  }
+}
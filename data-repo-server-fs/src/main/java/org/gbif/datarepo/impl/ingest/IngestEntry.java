@@ -0,0 +1,113 @@
+package org.gbif.datarepo.impl.ingest;
+
+import org.gbif.datarepo.api.model.DataPackage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Entry of a bulk ingest manifest: the metadata of a data package and the URLs of its files.
+ * The id identifies the entry across runs of the same manifest, the data package key is derived from it unless the
+ * metadata has a key.
+ */
+public class IngestEntry {
+
+  private long line;
+
+  private String id;
+
+  private DataPackage dataPackage;
+
+  private List<String> fileUrls = new ArrayList<>();
+
+  private String error;
+
+  /**
+   * Line of the manifest where the entry is defined.
+   */
+  @JsonIgnore
+  public long getLine() {
+    return line;
+  }
+
+  public void setLine(long line) {
+    this.line = line;
+  }
+
+  /**
+   * Identifier of the entry in the manifest.
+   */
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public DataPackage getDataPackage() {
+    return dataPackage;
+  }
+
+  public void setDataPackage(DataPackage dataPackage) {
+    this.dataPackage = dataPackage;
+  }
+
+  /**
+   * Locations of the data package files: http, https, ftp or hdfs URLs.
+   */
+  public List<String> getFileUrls() {
+    return fileUrls;
+  }
+
+  public void setFileUrls(List<String> fileUrls) {
+    this.fileUrls = fileUrls;
+  }
+
+  /**
+   * Error found reading the entry from the manifest, entries with errors are not ingested.
+   */
+  @JsonIgnore
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    IngestEntry that = (IngestEntry) o;
+    return line == that.line
+           && Objects.equals(id, that.id)
+           && Objects.equals(dataPackage, that.dataPackage)
+           && Objects.equals(fileUrls, that.fileUrls)
+           && Objects.equals(error, that.error);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(line, id, dataPackage, fileUrls, error);
+  }
+
+  @Override
+  public String toString() {
+    return "IngestEntry{"
+           + "line=" + line
+           + ", id='" + id + '\''
+           + ", dataPackage=" + dataPackage
+           + ", fileUrls=" + fileUrls
+           + ", error='" + error + '\''
+           + '}';
+  }
+}
@@ -0,0 +1,137 @@
+package org.gbif.datarepo.impl.ingest;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Outcome of the ingest of a manifest entry.
+ */
+public class IngestResult {
+
+  /**
+   * Status of an ingested entry.
+   */
+  public enum Status {
+    /**
+     * The data package has been created.
+     */
+    CREATED,
+    /**
+     * The data package was created by a previous run of the manifest.
+     */
+    EXISTS,
+    /**
+     * The entry is invalid or the data package couldn't be created.
+     */
+    FAILED
+  }
+
+  private long line;
+
+  private String id;
+
+  private UUID key;
+
+  private String doi;
+
+  private Status status;
+
+  private String error;
+
+  /**
+   * Line of the manifest where the entry is defined.
+   */
+  public long getLine() {
+    return line;
+  }
+
+  public void setLine(long line) {
+    this.line = line;
+  }
+
+  /**
+   * Identifier of the entry in the manifest.
+   */
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  /**
+   * Key of the data package, null if the entry couldn't be read.
+   */
+  public UUID getKey() {
+    return key;
+  }
+
+  public void setKey(UUID key) {
+    this.key = key;
+  }
+
+  /**
+   * DOI of the created or existing data package.
+   */
+  public String getDoi() {
+    return doi;
+  }
+
+  public void setDoi(String doi) {
+    this.doi = doi;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public void setStatus(Status status) {
+    this.status = status;
+  }
+
+  /**
+   * Error message of failed entries.
+   */
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    IngestResult that = (IngestResult) o;
+    return line == that.line
+           && Objects.equals(id, that.id)
+           && Objects.equals(key, that.key)
+           && Objects.equals(doi, that.doi)
+           && status == that.status
+           && Objects.equals(error, that.error);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(line, id, key, doi, status, error);
+  }
+
+  @Override
+  public String toString() {
+    return "IngestResult{"
+           + "line=" + line
+           + ", id='" + id + '\''
+           + ", key=" + key
+           + ", doi='" + doi + '\''
+           + ", status=" + status
+           + ", error='" + error + '\''
+           + '}';
+  }
+}
@@ -0,0 +1,231 @@
+package org.gbif.datarepo.impl.ingest;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.api.vocabulary.License;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.registry.JacksonObjectMapperProvider;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+
+/**
+ * Reads the entries of a bulk ingest manifest one at a time, so manifests of any size can be ingested.
+ * Entries that can't be parsed are returned with an error instead of stopping the ingest.
+ * <ul>
+ *   <li>NDJSON: one object per line with the fields id, dataPackage (the metadata as accepted by the create service)
+ *   and fileUrls.</li>
+ *   <li>CSV: a header row followed by one entry per record, the supported columns are id, key, doi, title,
+ *   description, license, tags and fileUrls; tags and fileUrls are separated by '|'.</li>
+ * </ul>
+ */
+public class ManifestReader implements Iterator<IngestEntry>, Closeable {
+
+  /**
+   * Supported manifest formats.
+   */
+  public enum Format {
+    NDJSON, CSV
+  }
+
+  private static final char CSV_SEPARATOR = ',';
+
+  private static final char CSV_QUOTE = '"';
+
+  private static final Splitter VALUES_SPLITTER = Splitter.on('|').trimResults().omitEmptyStrings();
+
+  private final BufferedReader reader;
+
+  private final Format format;
+
+  private List<String> csvHeader;
+
+  private long lineNumber;
+
+  //Line where the last CSV record starts
+  private long recordLine;
+
+  private IngestEntry next;
+
+  /**
+   * Creates a reader of a manifest, the reader is closed by close.
+   */
+  public ManifestReader(Reader reader, Format format) {
+    this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    this.format = format;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      try {
+        next = format == Format.NDJSON ? readNdjson() : readCsv();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+    return next != null;
+  }
+
+  @Override
+  public IngestEntry next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    IngestEntry entry = next;
+    next = null;
+    return entry;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /**
+   * Reads the next non blank line as a JSON entry.
+   */
+  private IngestEntry readNdjson() throws IOException {
+    String line;
+    do {
+      line = reader.readLine();
+      lineNumber++;
+    } while (line != null && line.trim().isEmpty());
+    if (line == null) {
+      return null;
+    }
+    try {
+      IngestEntry entry = JacksonObjectMapperProvider.MAPPER.readValue(line, IngestEntry.class);
+      entry.setLine(lineNumber);
+      return entry;
+    } catch (IOException ex) {
+      return invalidEntry(lineNumber, "Invalid JSON: " + ex.getMessage());
+    }
+  }
+
+  /**
+   * Reads the next CSV record as an entry, the header is read with the first record.
+   */
+  private IngestEntry readCsv() throws IOException {
+    if (csvHeader == null) {
+      List<String> header = readCsvRecord();
+      if (header == null) {
+        return null;
+      }
+      csvHeader = header.stream().map(String::trim).collect(Collectors.toList());
+    }
+    List<String> record = readCsvRecord();
+    if (record == null) {
+      return null;
+    }
+    Map<String, String> values = new HashMap<>();
+    for (int i = 0; i < Math.min(csvHeader.size(), record.size()); i++) {
+      values.put(csvHeader.get(i), Strings.emptyToNull(record.get(i).trim()));
+    }
+    try {
+      IngestEntry entry = new IngestEntry();
+      entry.setLine(recordLine);
+      entry.setId(values.get("id"));
+      DataPackage dataPackage = new DataPackage();
+      dataPackage.setTitle(values.get("title"));
+      dataPackage.setDescription(values.get("description"));
+      if (values.get("key") != null) {
+        dataPackage.setKey(UUID.fromString(values.get("key")));
+      }
+      if (values.get("doi") != null) {
+        dataPackage.setDoi(new DOI(values.get("doi")));
+      }
+      if (values.get("license") != null) {
+        dataPackage.setLicense(License.valueOf(values.get("license")));
+      }
+      splitValues(values.get("tags")).forEach(dataPackage::addTag);
+      entry.setDataPackage(dataPackage);
+      entry.setFileUrls(splitValues(values.get("fileUrls")));
+      return entry;
+    } catch (IllegalArgumentException ex) {
+      return invalidEntry(recordLine, ex.getMessage());
+    }
+  }
+
+  private static List<String> splitValues(String values) {
+    return values == null ? new ArrayList<>() : VALUES_SPLITTER.splitToList(values);
+  }
+
+  /**
+   * Reads the fields of a CSV record, quoted fields can contain separators, line breaks and escaped quotes ("").
+   * Returns null at the end of the input.
+   */
+  private List<String> readCsvRecord() throws IOException {
+    String line;
+    do {
+      line = reader.readLine();
+      lineNumber++;
+    } while (line != null && line.trim().isEmpty());
+    if (line == null) {
+      return null;
+    }
+    recordLine = lineNumber;
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    int i = 0;
+    while (true) {
+      if (i == line.length()) {
+        if (!quoted) {
+          break;
+        }
+        //The quoted field continues in the next line
+        line = reader.readLine();
+        if (line == null) {
+          break;
+        }
+        lineNumber++;
+        field.append('\n');
+        i = 0;
+        continue;
+      }
+      char c = line.charAt(i++);
+      if (quoted) {
+        if (c == CSV_QUOTE) {
+          if (i < line.length() && line.charAt(i) == CSV_QUOTE) {
+            field.append(CSV_QUOTE);
+            i++;
+          } else {
+            quoted = false;
+          }
+        } else {
+          field.append(c);
+        }
+      } else if (c == CSV_QUOTE) {
+        quoted = true;
+      } else if (c == CSV_SEPARATOR) {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  private static IngestEntry invalidEntry(long line, String error) {
+    IngestEntry entry = new IngestEntry();
+    entry.setLine(line);
+    entry.setError(error);
+    return entry;
+  }
+}
@@ -0,0 +1,394 @@
+package org.gbif.datarepo.impl.jobs;
+
+import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.FileInputContent;
+import org.gbif.datarepo.fs.DataRepoFileSystemService;
+import org.gbif.datarepo.impl.conf.CreateJobConfiguration;
+import org.gbif.datarepo.impl.download.FileDownload;
+import org.gbif.datarepo.persistence.CreateJobService;
+import org.gbif.datarepo.persistence.model.CreateJob;
+import org.gbif.datarepo.persistence.model.CreateJobFile;
+import org.gbif.datarepo.registry.JacksonObjectMapperProvider;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Runs asynchronous data package creations on a pool of workers.
+ * Jobs are queued by submit, which stages the uploaded files, and claimed from the database queue while there are
+ * idle workers, so several instances can share the same queue. A job fetches the files that have a location into its
+ * staging directory, reporting the bytes fetched, and then creates the data package from the staged files.
+ * A running job sends heartbeats, jobs abandoned by a stopped instance are queued again once their heartbeat is
+ * older than the stale timeout and are resumed: completed files are not fetched again and a data package that was
+ * already created is not created twice.
+ */
+public class CreateJobExecutor implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CreateJobExecutor.class);
+
+  private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+  //Bytes fetched between progress reports of a file
+  private static final long PROGRESS_INTERVAL = 8L * 1024L * 1024L;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  //Heartbeats are sent several times within the stale timeout
+  private static final int HEARTBEATS_PER_TIMEOUT = 3;
+
+  private static final String RELATED_IDENTIFIERS_FIELD = "relatedIdentifiers";
+
+  /**
+   * Job being run by a worker, the cancellation is requested by its owner and noticed by the heartbeats.
+   */
+  private static class RunningJob {
+
+    private final CreateJob createJob;
+
+    private volatile boolean cancelRequested;
+
+    RunningJob(CreateJob createJob) {
+      this.createJob = createJob;
+      cancelRequested = createJob.isCancelRequested();
+    }
+  }
+
+  private final CreateJobService createJobService;
+
+  private final DataRepository dataRepository;
+
+  private final DataRepoFileSystemService fileSystemService;
+
+  private final FileDownload fileDownload;
+
+  private final BiConsumer<CreateJob, DataPackage> onCreated;
+
+  private final int workers;
+
+  private final long pollInterval;
+
+  private final long staleTimeout;
+
+  private final int maxAttempts;
+
+  private final Semaphore idleWorkers;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final ExecutorService workersExecutor;
+
+  private volatile boolean closed;
+
+  private final Meter succeeded;
+
+  private final Meter failed;
+
+  private final Meter cancelled;
+
+  /**
+   * Creates the executor, jobs are not claimed until it is started.
+   * @param onCreated called with each created data package, once its job has succeeded
+   */
+  public CreateJobExecutor(CreateJobService createJobService, DataRepository dataRepository,
+                           DataRepoFileSystemService fileSystemService, FileDownload fileDownload,
+                           BiConsumer<CreateJob, DataPackage> onCreated, CreateJobConfiguration configuration,
+                           MetricRegistry metricRegistry) {
+    this.createJobService = createJobService;
+    this.dataRepository = dataRepository;
+    this.fileSystemService = fileSystemService;
+    this.fileDownload = fileDownload;
+    this.onCreated = onCreated;
+    workers = configuration.getWorkers();
+    pollInterval = configuration.getPollInterval();
+    staleTimeout = TimeUnit.SECONDS.toMillis(configuration.getStaleTimeout());
+    maxAttempts = configuration.getMaxAttempts();
+    idleWorkers = new Semaphore(workers);
+    scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                             .setNameFormat("create-job-scheduler-%d")
+                                                             .setDaemon(true).build());
+    workersExecutor = Executors.newFixedThreadPool(workers, new ThreadFactoryBuilder()
+                                                              .setNameFormat("create-job-worker-%d")
+                                                              .setDaemon(true).build());
+    succeeded = metricRegistry.meter(name(CreateJobExecutor.class, "succeeded"));
+    failed = metricRegistry.meter(name(CreateJobExecutor.class, "failed"));
+    cancelled = metricRegistry.meter(name(CreateJobExecutor.class, "cancelled"));
+    metricRegistry.register(name(CreateJobExecutor.class, "running"),
+                            (Gauge<Integer>) () -> workers - idleWorkers.availablePermits());
+  }
+
+  /**
+   * Starts polling the queue and queueing again the abandoned jobs.
+   */
+  public void start() {
+    scheduler.scheduleWithFixedDelay(this::poll, 0, pollInterval, TimeUnit.MILLISECONDS);
+    scheduler.scheduleWithFixedDelay(this::requeueStale, staleTimeout, staleTimeout, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Queues the creation of a data package. Uploaded files are staged before the job is queued, files with a location
+   * are fetched by the job.
+   */
+  public CreateJob submit(DataPackage dataPackage, List<FileInputContent> files) throws IOException {
+    CreateJob createJob = new CreateJob();
+    createJob.setKey(UUID.randomUUID());
+    createJob.setDataPackageKey(Optional.ofNullable(dataPackage.getKey()).orElseGet(UUID::randomUUID));
+    createJob.setDataPackage(toJson(dataPackage));
+    createJob.setCreatedBy(dataPackage.getCreatedBy());
+    try {
+      for (FileInputContent file : files) {
+        if (file.getInputStream() == null) {
+          createJob.getFiles().add(new CreateJobFile(file.getName(), file.getFileLocation().toString(), 0L, false));
+        } else {
+          try (InputStream input = file.getInputStream();
+               OutputStream output = fileSystemService.createStagedFile(createJob.getKey(), file.getName())) {
+            createJob.getFiles().add(new CreateJobFile(file.getName(), null, ByteStreams.copy(input, output), true));
+          }
+        }
+      }
+      createJobService.enqueue(createJob);
+    } catch (IOException | RuntimeException ex) {
+      fileSystemService.deleteStagingDir(createJob.getKey());
+      throw ex;
+    }
+    return createJobService.get(createJob.getKey());
+  }
+
+  /**
+   * The related identifiers are not serialized by DataPackage, they are added explicitly.
+   */
+  private static String toJson(DataPackage dataPackage) throws IOException {
+    ObjectNode jsonNode = JacksonObjectMapperProvider.MAPPER.valueToTree(dataPackage);
+    jsonNode.set(RELATED_IDENTIFIERS_FIELD,
+                 JacksonObjectMapperProvider.MAPPER.valueToTree(dataPackage.getRelatedIdentifiers()));
+    return JacksonObjectMapperProvider.MAPPER.writeValueAsString(jsonNode);
+  }
+
+  /**
+   * Claims queued jobs while there are idle workers.
+   */
+  private void poll() {
+    try {
+      while (!closed && idleWorkers.tryAcquire()) {
+        CreateJob createJob = null;
+        try {
+          createJob = createJobService.claim();
+        } finally {
+          if (createJob == null) {
+            idleWorkers.release();
+          }
+        }
+        if (createJob == null) {
+          return;
+        }
+        execute(createJob);
+      }
+    } catch (Exception ex) {
+      //Exceptions would cancel the next executions of the polling
+      LOG.error("Error claiming data package creation jobs", ex);
+    }
+  }
+
+  /**
+   * Runs a claimed job in a worker, the job is queued again if the executor is being closed.
+   */
+  private void execute(CreateJob createJob) {
+    try {
+      workersExecutor.execute(() -> {
+        try {
+          run(new RunningJob(createJob));
+        } finally {
+          idleWorkers.release();
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      idleWorkers.release();
+      createJobService.requeue(createJob.getKey());
+    }
+  }
+
+  /**
+   * Queues again, fails or cancels the jobs abandoned by their workers.
+   */
+  private void requeueStale() {
+    try {
+      int requeued = createJobService.requeueStale(staleTimeout, maxAttempts);
+      if (requeued > 0) {
+        LOG.warn("{} abandoned data package creation jobs have been queued again or finished", requeued);
+      }
+    } catch (Exception ex) {
+      LOG.error("Error queueing again abandoned data package creation jobs", ex);
+    }
+  }
+
+  /**
+   * Runs a job until it succeeds, fails or is cancelled. If the executor is closed while the job is running, the job
+   * is queued again and its staged files are kept.
+   */
+  private void run(RunningJob runningJob) {
+    UUID jobKey = runningJob.createJob.getKey();
+    long heartbeatInterval = Math.max(1L, staleTimeout / HEARTBEATS_PER_TIMEOUT);
+    ScheduledFuture<?> heartbeats = scheduler.scheduleWithFixedDelay(() -> heartbeat(runningJob), heartbeatInterval,
+                                                                     heartbeatInterval, TimeUnit.MILLISECONDS);
+    try {
+      //The data package could have been created by a previous attempt that was interrupted
+      Optional<DataPackage> created = dataRepository.get(runningJob.createJob.getDataPackageKey());
+      DataPackage dataPackage = created.isPresent() ? created.get() : create(runningJob);
+      if (createJobService.finish(jobKey, CreateJob.Status.SUCCEEDED, null)) {
+        succeeded.mark();
+        onCreated.accept(runningJob.createJob, dataPackage);
+      }
+      fileSystemService.deleteStagingDir(jobKey);
+    } catch (CancellationException ex) {
+      LOG.info("Data package creation job {} cancelled", jobKey);
+      createJobService.finish(jobKey, CreateJob.Status.CANCELLED, null);
+      cancelled.mark();
+      fileSystemService.deleteStagingDir(jobKey);
+    } catch (Exception ex) {
+      if (closed) {
+        LOG.info("Data package creation job {} interrupted, it will be resumed", jobKey);
+        createJobService.requeue(jobKey);
+        return;
+      }
+      LOG.error("Error running data package creation job {}", jobKey, ex);
+      createJobService.finish(jobKey, CreateJob.Status.FAILED, Throwables.getRootCause(ex).getMessage());
+      failed.mark();
+      fileSystemService.deleteStagingDir(jobKey);
+    } finally {
+      heartbeats.cancel(false);
+    }
+  }
+
+  /**
+   * Records that the job is alive and checks if it has been cancelled.
+   */
+  private void heartbeat(RunningJob runningJob) {
+    try {
+      if (createJobService.heartbeat(runningJob.createJob.getKey())) {
+        runningJob.cancelRequested = true;
+      }
+    } catch (Exception ex) {
+      LOG.error("Error sending the heartbeat of data package creation job {}", runningJob.createJob.getKey(), ex);
+    }
+  }
+
+  /**
+   * Fetches the pending files and creates the data package from the staged files.
+   */
+  private DataPackage create(RunningJob runningJob) throws IOException {
+    CreateJob createJob = runningJob.createJob;
+    for (CreateJobFile file : createJob.getFiles()) {
+      if (!file.isCompleted()) {
+        fetch(runningJob, file);
+      }
+    }
+    checkCancelled(runningJob);
+    DataPackage dataPackage = JacksonObjectMapperProvider.MAPPER.readValue(createJob.getDataPackage(),
+                                                                           DataPackage.class);
+    dataPackage.setKey(createJob.getDataPackageKey());
+    dataPackage.setCreatedBy(createJob.getCreatedBy());
+    List<FileInputContent> files = new ArrayList<>();
+    try {
+      for (CreateJobFile file : createJob.getFiles()) {
+        files.add(FileInputContent.from(file.getFileName(),
+                                        fileSystemService.openStagedFile(createJob.getKey(), file.getFileName())));
+      }
+      return dataRepository.create(dataPackage, files, true);
+    } finally {
+      for (FileInputContent file : files) {
+        Closeables.closeQuietly(file.getInputStream());
+      }
+    }
+  }
+
+  /**
+   * Fetches a file into the staging directory of the job, the bytes fetched are reported every PROGRESS_INTERVAL
+   * bytes. Incomplete files are fetched again from the beginning.
+   */
+  private void fetch(RunningJob runningJob, CreateJobFile file) throws IOException {
+    UUID jobKey = runningJob.createJob.getKey();
+    file.setBytes(0L);
+    long reported = 0L;
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (InputStream input = fileDownload.openStream(URI.create(file.getFileLocation()));
+         OutputStream output = fileSystemService.createStagedFile(jobKey, file.getFileName())) {
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        output.write(buffer, 0, read);
+        file.setBytes(file.getBytes() + read);
+        if (file.getBytes() - reported >= PROGRESS_INTERVAL) {
+          reported = file.getBytes();
+          reportProgress(runningJob, file);
+        }
+      }
+    }
+    file.setCompleted(true);
+    reportProgress(runningJob, file);
+  }
+
+  /**
+   * Reports the progress of a file, stops the job if it has been cancelled or the executor is being closed.
+   */
+  private void reportProgress(RunningJob runningJob, CreateJobFile file) throws InterruptedIOException {
+    if (createJobService.reportProgress(runningJob.createJob.getKey(), file)) {
+      runningJob.cancelRequested = true;
+    }
+    checkCancelled(runningJob);
+  }
+
+  private void checkCancelled(RunningJob runningJob) throws InterruptedIOException {
+    if (closed) {
+      throw new InterruptedIOException("Data package creation job interrupted");
+    }
+    if (runningJob.cancelRequested) {
+      throw new CancellationException("Data package creation job cancelled");
+    }
+  }
+
+  /**
+   * Stops claiming jobs and waits for the running jobs, jobs interrupted while fetching files are queued again.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    scheduler.shutdownNow();
+    workersExecutor.shutdown();
+    try {
+      if (!workersExecutor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOG.warn("Data package creation jobs didn't finish in {} seconds", CLOSE_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
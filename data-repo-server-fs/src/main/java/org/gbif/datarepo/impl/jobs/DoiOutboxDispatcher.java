@@ -0,0 +1,207 @@
+package org.gbif.datarepo.impl.jobs;
+
+import org.gbif.datarepo.impl.conf.DoiOutboxConfiguration;
+import org.gbif.datarepo.persistence.DoiOutboxService;
+import org.gbif.datarepo.persistence.model.DoiOperation;
+import org.gbif.registry.doi.DoiType;
+import org.gbif.registry.doi.registration.DoiRegistration;
+import org.gbif.registry.doi.registration.DoiRegistrationService;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Delivers the DOI operations of the outbox to the DOI registry from a background thread.
+ * Operations are claimed in batches while the outbox has deliverable operations, failed operations are retried with an
+ * exponential backoff until the maximum number of attempts is reached. Several instances can share the same outbox,
+ * the operations of a DOI are delivered one at a time and in the order they were added. The lease of each operation
+ * is renewed right before it's delivered, an operation whose lease expired while the operations before it in the
+ * batch were delivered is skipped if another instance has claimed it.
+ */
+public class DoiOutboxDispatcher implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DoiOutboxDispatcher.class);
+
+  private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+  private static final long CLEANUP_INTERVAL_HOURS = 1;
+
+  //Limits the exponential backoff shift, the maximum backoff applies long before
+  private static final int MAX_BACKOFF_SHIFT = 30;
+
+  private final DoiOutboxService doiOutboxService;
+
+  private final DoiRegistrationService doiRegistrationService;
+
+  private final long pollInterval;
+
+  private final int batchSize;
+
+  private final long lease;
+
+  private final int maxAttempts;
+
+  private final long retryBackoff;
+
+  private final long maxRetryBackoff;
+
+  private final long retention;
+
+  private final ScheduledExecutorService scheduler;
+
+  private volatile boolean closed;
+
+  //Pending operations counted after the last dispatch, the outbox is not queried on each metrics report
+  private volatile long pending;
+
+  private final Meter sent;
+
+  private final Meter retried;
+
+  private final Meter failed;
+
+  /**
+   * Creates the dispatcher, operations are not delivered until it is started.
+   */
+  public DoiOutboxDispatcher(DoiOutboxService doiOutboxService, DoiRegistrationService doiRegistrationService,
+                             DoiOutboxConfiguration configuration, MetricRegistry metricRegistry) {
+    this.doiOutboxService = doiOutboxService;
+    this.doiRegistrationService = doiRegistrationService;
+    pollInterval = configuration.getPollInterval();
+    batchSize = configuration.getBatchSize();
+    lease = TimeUnit.SECONDS.toMillis(configuration.getLease());
+    maxAttempts = configuration.getMaxAttempts();
+    retryBackoff = TimeUnit.SECONDS.toMillis(configuration.getRetryBackoff());
+    maxRetryBackoff = TimeUnit.SECONDS.toMillis(configuration.getMaxRetryBackoff());
+    retention = TimeUnit.DAYS.toMillis(configuration.getRetention());
+    scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                             .setNameFormat("doi-outbox-%d")
+                                                             .setDaemon(true).build());
+    sent = metricRegistry.meter(name(DoiOutboxDispatcher.class, "sent"));
+    retried = metricRegistry.meter(name(DoiOutboxDispatcher.class, "retried"));
+    failed = metricRegistry.meter(name(DoiOutboxDispatcher.class, "failed"));
+    metricRegistry.register(name(DoiOutboxDispatcher.class, "pending"), (Gauge<Long>) () -> pending);
+  }
+
+  /**
+   * Starts polling the outbox and deleting the delivered operations older than the retention period.
+   */
+  public void start() {
+    scheduler.scheduleWithFixedDelay(this::dispatch, 0, pollInterval, TimeUnit.MILLISECONDS);
+    scheduler.scheduleWithFixedDelay(this::deleteSent, CLEANUP_INTERVAL_HOURS, CLEANUP_INTERVAL_HOURS,
+                                     TimeUnit.HOURS);
+  }
+
+  /**
+   * Delivers batches of operations until there are no deliverable operations left.
+   */
+  void dispatch() {
+    try {
+      List<DoiOperation> batch;
+      do {
+        batch = doiOutboxService.claim(batchSize, lease);
+        batch.forEach(this::deliver);
+      } while (!closed && batch.size() == batchSize);
+      pending = doiOutboxService.countPending();
+    } catch (Exception ex) {
+      //Exceptions would cancel the next executions of the polling
+      LOG.error("Error dispatching DOI operations", ex);
+    }
+  }
+
+  /**
+   * Sends an operation to the DOI registry and records the outcome. Operations claimed while the dispatcher is being
+   * closed are released for other instances.
+   */
+  private void deliver(DoiOperation doiOperation) {
+    if (closed) {
+      doiOutboxService.retry(doiOperation, doiOperation.getError(), 0L);
+      return;
+    }
+    if (!doiOutboxService.renewLease(doiOperation, lease)) {
+      LOG.debug("DOI operation {} claimed again after its lease expired", doiOperation);
+      return;
+    }
+    try {
+      switch (doiOperation.getType()) {
+        case REGISTER:
+          doiRegistrationService.register(toRegistration(doiOperation));
+          break;
+        case UPDATE:
+          doiRegistrationService.update(toRegistration(doiOperation));
+          break;
+        case DELETE:
+          doiRegistrationService.delete(doiOperation.getDoi().getPrefix(), doiOperation.getDoi().getSuffix());
+          break;
+        default:
+          throw new IllegalStateException("Unsupported DOI operation " + doiOperation.getType());
+      }
+      doiOutboxService.markSent(doiOperation);
+      sent.mark();
+      LOG.debug("DOI operation {} delivered", doiOperation);
+    } catch (Exception ex) {
+      Throwable rootCause = Throwables.getRootCause(ex);
+      String error = rootCause.getMessage() != null ? rootCause.getMessage() : rootCause.toString();
+      if (doiOperation.getAttempts() >= maxAttempts) {
+        LOG.error("DOI operation {} failed after {} attempts", doiOperation, doiOperation.getAttempts(), ex);
+        doiOutboxService.fail(doiOperation, error);
+        failed.mark();
+      } else {
+        long delay = Math.min(maxRetryBackoff,
+                              retryBackoff << Math.min(MAX_BACKOFF_SHIFT, doiOperation.getAttempts() - 1));
+        LOG.warn("Error delivering DOI operation {}, retrying in {} ms", doiOperation, delay, ex);
+        doiOutboxService.retry(doiOperation, error, delay);
+        retried.mark();
+      }
+    }
+  }
+
+  private static DoiRegistration toRegistration(DoiOperation doiOperation) {
+    return DoiRegistration.builder()
+            .withType(DoiType.DATA_PACKAGE)
+            .withMetadata(doiOperation.getMetadata())
+            .withUser(doiOperation.getCreatedBy())
+            .withDoi(doiOperation.getDoi()).build();
+  }
+
+  /**
+   * Deletes the delivered operations older than the retention period.
+   */
+  private void deleteSent() {
+    try {
+      int deleted = doiOutboxService.deleteSent(retention);
+      LOG.debug("{} delivered DOI operations deleted from the outbox", deleted);
+    } catch (Exception ex) {
+      LOG.error("Error deleting delivered DOI operations", ex);
+    }
+  }
+
+  /**
+   * Stops polling the outbox and waits for the operation being delivered.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    scheduler.shutdown();
+    try {
+      if (!scheduler.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOG.warn("DOI operations weren't delivered in {} seconds", CLOSE_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
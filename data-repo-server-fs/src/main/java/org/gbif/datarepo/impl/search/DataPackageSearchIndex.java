@@ -0,0 +1,585 @@
+package org.gbif.datarepo.impl.search;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.datarepo.api.model.Creator;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.DataPackageFacet;
+import org.gbif.datarepo.api.model.DataPackageFile;
+import org.gbif.datarepo.api.model.Facet;
+import org.gbif.datarepo.api.model.Identifier;
+import org.gbif.datarepo.api.model.Tag;
+import org.gbif.datarepo.api.model.TagMode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
+import org.apache.lucene.analysis.core.StopFilterFactory;
+import org.apache.lucene.analysis.custom.CustomAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilterFactory;
+import org.apache.lucene.analysis.standard.StandardTokenizerFactory;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Embedded Lucene index of the live data packages exposed by a repository.
+ * Changes become visible to searches when refresh is called, searches use a near real-time reader so no commit is
+ * needed. Changes are made durable periodically and when the index is closed. Searches match all the words of the
+ * query in the title, description, creators, tags and identifiers, the last word is also matched as a prefix. Results
+ * are ranked by relevance and then by creation date, facets are counted over all the matching data packages.
+ */
+public class DataPackageSearchIndex implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DataPackageSearchIndex.class);
+
+  //Seconds between commits of the pending changes
+  public static final long DEFAULT_COMMIT_INTERVAL = 60L;
+
+  //Fields of the indexed documents
+  private static final String KEY = "key";
+  private static final String TITLE = "title";
+  private static final String DESCRIPTION = "description";
+  private static final String CREATOR = "creator";
+  private static final String TAG = "tag";
+  private static final String TAG_VALUE = "tagValue";
+  private static final String IDENTIFIER = "identifier";
+  private static final String IDENTIFIER_VALUE = "identifierValue";
+  private static final String CREATED_BY = "createdBy";
+  private static final String FORMAT = "format";
+  private static final String CREATED = "created";
+  private static final String MODIFIED = "modified";
+  //Identifies the last rebuild that indexed a document
+  private static final String GENERATION = "generation";
+  //Prefix of the doc values fields used to count facets
+  private static final String FACET_PREFIX = "facet.";
+
+  //Searchable fields and their boosts
+  private static final Map<String, Float> SEARCH_FIELDS = new LinkedHashMap<>();
+  static {
+    SEARCH_FIELDS.put(TITLE, 3f);
+    SEARCH_FIELDS.put(CREATOR, 2f);
+    SEARCH_FIELDS.put(TAG, 2f);
+    SEARCH_FIELDS.put(IDENTIFIER, 2f);
+    SEARCH_FIELDS.put(DESCRIPTION, 1f);
+  }
+
+  //Prefix matches score lower than complete words
+  private static final float PREFIX_BOOST = 0.5f;
+
+  //A query that is exactly an identifier of a data package ranks it first
+  private static final float IDENTIFIER_VALUE_BOOST = 10f;
+
+  private static final int MAX_HIGHLIGHTS = 3;
+
+  private static final Sort SORT = new Sort(SortField.FIELD_SCORE, new SortField(CREATED, SortField.Type.LONG, true));
+
+  private static final Pageable DEFAULT_PAGE = new PagingRequest();
+
+  /**
+   * Keys of the data packages in a page of results, the total number of matches, the highlighted fragments and the
+   * facet counts.
+   */
+  public static class SearchResult {
+
+    private final long count;
+
+    private final List<UUID> keys;
+
+    private final Map<UUID, List<String>> highlights;
+
+    private final List<Facet> facets;
+
+    /**
+     * Full constructor.
+     */
+    public SearchResult(long count, List<UUID> keys, Map<UUID, List<String>> highlights, List<Facet> facets) {
+      this.count = count;
+      this.keys = keys;
+      this.highlights = highlights;
+      this.facets = facets;
+    }
+
+    /**
+     * Total number of data packages matching the search.
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * Keys of the requested page, in ranking order.
+     */
+    public List<UUID> getKeys() {
+      return keys;
+    }
+
+    /**
+     * Fragments of the title and description that match the query, by data package key.
+     */
+    public Map<UUID, List<String>> getHighlights() {
+      return highlights;
+    }
+
+    /**
+     * Counts of the requested facets over all the matching data packages, in the requested order.
+     */
+    public List<Facet> getFacets() {
+      return facets;
+    }
+  }
+
+  private final Directory directory;
+
+  private final Analyzer analyzer;
+
+  private final IndexWriter indexWriter;
+
+  private final SearcherManager searcherManager;
+
+  private final ScheduledExecutorService committer;
+
+  //Set to every document indexed, a rebuild changes it to detect the documents it didn't re-index
+  private volatile String generation = UUID.randomUUID().toString();
+
+  /**
+   * Opens, or creates if doesn't exist, the index stored in a local directory, changes are committed every
+   * DEFAULT_COMMIT_INTERVAL seconds.
+   */
+  public DataPackageSearchIndex(Path indexPath) {
+    this(indexPath, DEFAULT_COMMIT_INTERVAL);
+  }
+
+  /**
+   * Opens, or creates if doesn't exist, the index stored in a local directory.
+   * @param commitInterval seconds between commits of the pending changes
+   */
+  public DataPackageSearchIndex(Path indexPath, long commitInterval) {
+    try {
+      directory = FSDirectory.open(indexPath);
+      analyzer = CustomAnalyzer.builder()
+        .withTokenizer(StandardTokenizerFactory.class)
+        .addTokenFilter(LowerCaseFilterFactory.class)
+        .addTokenFilter(ASCIIFoldingFilterFactory.class)
+        .addTokenFilter(StopFilterFactory.class)
+        .build();
+      indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                                                 .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+      searcherManager = new SearcherManager(indexWriter, null);
+    } catch (IOException ex) {
+      throw new IllegalStateException("Error opening search index " + indexPath, ex);
+    }
+    committer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                             .setNameFormat("search-index-committer")
+                                                             .setDaemon(true).build());
+    committer.scheduleWithFixedDelay(this::commitPendingChanges, commitInterval, commitInterval, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Adds or replaces the document of a data package.
+   */
+  public void index(DataPackage dataPackage, Collection<Identifier> identifiers) {
+    try {
+      indexWriter.updateDocument(new Term(KEY, dataPackage.getKey().toString()), toDocument(dataPackage, identifiers));
+    } catch (IOException ex) {
+      throw new IllegalStateException("Error indexing data package " + dataPackage.getKey(), ex);
+    }
+  }
+
+  /**
+   * Removes a data package from the index.
+   */
+  public void delete(UUID dataPackageKey) {
+    try {
+      indexWriter.deleteDocuments(new Term(KEY, dataPackageKey.toString()));
+    } catch (IOException ex) {
+      throw new IllegalStateException("Error removing data package " + dataPackageKey + " from the search index", ex);
+    }
+  }
+
+  /**
+   * Re-indexes all the data packages supplied by a source and then removes the documents that were not re-indexed.
+   * The index remains searchable during the rebuild, documents indexed concurrently by other writes are kept.
+   */
+  public long rebuild(Consumer<BiConsumer<DataPackage, Collection<Identifier>>> source) {
+    String rebuildGeneration = UUID.randomUUID().toString();
+    generation = rebuildGeneration;
+    AtomicLong indexed = new AtomicLong();
+    source.accept((dataPackage, identifiers) -> {
+      index(dataPackage, identifiers);
+      indexed.incrementAndGet();
+    });
+    try {
+      indexWriter.deleteDocuments(new BooleanQuery.Builder()
+                                    .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                                    .add(new TermQuery(new Term(GENERATION, rebuildGeneration)),
+                                         BooleanClause.Occur.MUST_NOT)
+                                    .build());
+    } catch (IOException ex) {
+      throw new IllegalStateException("Error removing stale documents from the search index", ex);
+    }
+    commit();
+    return indexed.get();
+  }
+
+  /**
+   * Makes the changes visible to new searches, the reader is reopened from the writer without a commit.
+   */
+  public void refresh() {
+    try {
+      searcherManager.maybeRefreshBlocking();
+    } catch (IOException ex) {
+      throw new IllegalStateException("Error refreshing the search index", ex);
+    }
+  }
+
+  /**
+   * Persists the pending changes and makes them visible to new searches.
+   */
+  public void commit() {
+    try {
+      indexWriter.commit();
+      searcherManager.maybeRefreshBlocking();
+    } catch (IOException ex) {
+      throw new IllegalStateException("Error committing the search index", ex);
+    }
+  }
+
+  /**
+   * Periodic commit, errors are logged and the changes are committed in the next run.
+   */
+  private void commitPendingChanges() {
+    try {
+      if (indexWriter.hasUncommittedChanges()) {
+        indexWriter.commit();
+      }
+    } catch (Exception ex) {
+      LOG.error("Error committing the search index", ex);
+    }
+  }
+
+  /**
+   * Has the index any document.
+   */
+  public boolean isEmpty() {
+    try {
+      IndexSearcher searcher = searcherManager.acquire();
+      try {
+        return searcher.getIndexReader().numDocs() == 0;
+      } finally {
+        searcherManager.release(searcher);
+      }
+    } catch (IOException ex) {
+      throw new IllegalStateException("Error reading the search index", ex);
+    }
+  }
+
+  /**
+   * Searches the data packages matching a query and the optional filters, without facets.
+   */
+  public SearchResult search(String q, @Nullable Pageable page, @Nullable String user, @Nullable Date fromDate,
+                             @Nullable Date toDate, @Nullable List<String> tags, @Nullable TagMode tagMode,
+                             @Nullable String formatId) {
+    return search(q, page, user, fromDate, toDate, tags, tagMode, formatId, Collections.emptySet(), 0);
+  }
+
+  /**
+   * Searches the data packages matching a query and the optional filters, the filters and facets have the same
+   * semantics as the ones of the database listing.
+   */
+  public SearchResult search(String q, @Nullable Pageable page, @Nullable String user, @Nullable Date fromDate,
+                             @Nullable Date toDate, @Nullable List<String> tags, @Nullable TagMode tagMode,
+                             @Nullable String formatId, Set<DataPackageFacet> facets, int facetLimit) {
+    Pageable pagingRequest = Optional.ofNullable(page).orElse(DEFAULT_PAGE);
+    Query matchQuery = matchQuery(q);
+    BooleanQuery.Builder query = new BooleanQuery.Builder().add(matchQuery, BooleanClause.Occur.MUST);
+    Optional.ofNullable(user)
+      .ifPresent(createdBy -> query.add(new TermQuery(new Term(CREATED_BY, createdBy)), BooleanClause.Occur.FILTER));
+    if (fromDate != null || toDate != null) {
+      query.add(LongPoint.newRangeQuery(MODIFIED,
+                                        fromDate != null ? fromDate.getTime() : Long.MIN_VALUE,
+                                        toDate != null ? toDate.getTime() - 1 : Long.MAX_VALUE),
+                BooleanClause.Occur.FILTER);
+    }
+    if (tags != null && !tags.isEmpty()) {
+      BooleanQuery.Builder tagsQuery = new BooleanQuery.Builder();
+      BooleanClause.Occur tagOccur = TagMode.ALL == tagMode ? BooleanClause.Occur.FILTER : BooleanClause.Occur.SHOULD;
+      tags.forEach(tag -> tagsQuery.add(new TermQuery(new Term(TAG_VALUE, tag)), tagOccur));
+      query.add(tagsQuery.build(), BooleanClause.Occur.FILTER);
+    }
+    Optional.ofNullable(formatId)
+      .ifPresent(format -> query.add(new TermQuery(new Term(FORMAT, format)), BooleanClause.Occur.FILTER));
+    try {
+      IndexSearcher searcher = searcherManager.acquire();
+      try {
+        int offset = (int) pagingRequest.getOffset();
+        Query searchQuery = query.build();
+        TopFieldDocs topDocs = searcher.search(searchQuery, Math.max(offset + pagingRequest.getLimit(), 1), SORT,
+                                               true, false);
+        Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter(), new QueryScorer(matchQuery));
+        List<UUID> keys = new ArrayList<>();
+        Map<UUID, List<String>> highlights = new HashMap<>();
+        ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+        for (int i = offset; i < scoreDocs.length && keys.size() < pagingRequest.getLimit(); i++) {
+          Document document = searcher.doc(scoreDocs[i].doc);
+          UUID key = UUID.fromString(document.get(KEY));
+          keys.add(key);
+          highlights.put(key, highlight(highlighter, document));
+        }
+        List<Facet> facetCounts = facets.isEmpty() ? Collections.emptyList()
+          : countFacets(searcher, searchQuery, facets, facetLimit);
+        return new SearchResult(topDocs.totalHits, keys, highlights, facetCounts);
+      } finally {
+        searcherManager.release(searcher);
+      }
+    } catch (IOException ex) {
+      throw new IllegalStateException("Error searching data packages", ex);
+    }
+  }
+
+  /**
+   * Counts the values of the facets over all the documents matching a query, each facet keeps its facetLimit values
+   * with the highest counts, ties are sorted by value.
+   */
+  private static List<Facet> countFacets(IndexSearcher searcher, Query query, Set<DataPackageFacet> facets,
+                                         int facetLimit) throws IOException {
+    Map<DataPackageFacet, Map<String, Long>> counts = new EnumMap<>(DataPackageFacet.class);
+    facets.forEach(facet -> counts.put(facet, new HashMap<>()));
+    searcher.search(query, new SimpleCollector() {
+
+      private final Map<DataPackageFacet, SortedSetDocValues> docValues = new EnumMap<>(DataPackageFacet.class);
+
+      @Override
+      protected void doSetNextReader(LeafReaderContext context) throws IOException {
+        for (DataPackageFacet facet : facets) {
+          docValues.put(facet, DocValues.getSortedSet(context.reader(), FACET_PREFIX + facet.name()));
+        }
+      }
+
+      @Override
+      public void collect(int doc) {
+        for (Map.Entry<DataPackageFacet, SortedSetDocValues> facetValues : docValues.entrySet()) {
+          SortedSetDocValues values = facetValues.getValue();
+          Map<String, Long> facetCounts = counts.get(facetValues.getKey());
+          values.setDocument(doc);
+          for (long ord = values.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values.nextOrd()) {
+            facetCounts.merge(values.lookupOrd(ord).utf8ToString(), 1L, Long::sum);
+          }
+        }
+      }
+
+      @Override
+      public boolean needsScores() {
+        return false;
+      }
+    });
+    return facets.stream().map(facet -> {
+      Facet facetCounts = new Facet(facet);
+      counts.get(facet).entrySet().stream()
+        .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+        .limit(facetLimit)
+        .forEach(count -> facetCounts.getCounts().add(new Facet.Count(count.getKey(), count.getValue())));
+      return facetCounts;
+    }).collect(Collectors.toList());
+  }
+
+  /**
+   * Query that requires all the words of the search in any of the searchable fields, or an exact identifier.
+   */
+  private Query matchQuery(String q) {
+    List<String> words = analyze(q);
+    BooleanQuery.Builder wordsQuery = new BooleanQuery.Builder();
+    for (int i = 0; i < words.size(); i++) {
+      String word = words.get(i);
+      boolean isLast = i == words.size() - 1;
+      BooleanQuery.Builder wordQuery = new BooleanQuery.Builder();
+      SEARCH_FIELDS.forEach((field, boost) -> {
+        wordQuery.add(new BoostQuery(new TermQuery(new Term(field, word)), boost), BooleanClause.Occur.SHOULD);
+        if (isLast) {
+          wordQuery.add(new BoostQuery(new PrefixQuery(new Term(field, word)), boost * PREFIX_BOOST),
+                        BooleanClause.Occur.SHOULD);
+        }
+      });
+      wordsQuery.add(wordQuery.build(), BooleanClause.Occur.MUST);
+    }
+    return new BooleanQuery.Builder()
+      .add(wordsQuery.build(), BooleanClause.Occur.SHOULD)
+      .add(new BoostQuery(new TermQuery(new Term(IDENTIFIER_VALUE, normalizeIdentifier(q))), IDENTIFIER_VALUE_BOOST),
+           BooleanClause.Occur.SHOULD)
+      .build();
+  }
+
+  /**
+   * Splits a text into the terms produced by the index analyzer.
+   */
+  private List<String> analyze(String text) {
+    List<String> terms = new ArrayList<>();
+    try (TokenStream tokenStream = analyzer.tokenStream(TITLE, text)) {
+      CharTermAttribute term = tokenStream.addAttribute(CharTermAttribute.class);
+      tokenStream.reset();
+      while (tokenStream.incrementToken()) {
+        terms.add(term.toString());
+      }
+      tokenStream.end();
+    } catch (IOException ex) {
+      throw new IllegalStateException("Error analyzing query " + text, ex);
+    }
+    return terms;
+  }
+
+  /**
+   * Best fragments of the title and description that match the query.
+   */
+  private List<String> highlight(Highlighter highlighter, Document document) throws IOException {
+    List<String> fragments = new ArrayList<>();
+    try {
+      for (String field : Arrays.asList(TITLE, DESCRIPTION)) {
+        String text = document.get(field);
+        if (text != null) {
+          fragments.addAll(Arrays.asList(highlighter.getBestFragments(analyzer, field, text, MAX_HIGHLIGHTS)));
+        }
+      }
+    } catch (InvalidTokenOffsetsException ex) {
+      throw new IllegalStateException("Error highlighting data package " + document.get(KEY), ex);
+    }
+    return fragments;
+  }
+
+  private static String normalizeIdentifier(String identifier) {
+    return identifier.trim().toLowerCase(Locale.ENGLISH);
+  }
+
+  /**
+   * Converts a data package into a Lucene document.
+   */
+  private Document toDocument(DataPackage dataPackage, Collection<Identifier> identifiers) {
+    Document document = new Document();
+    document.add(new StringField(KEY, dataPackage.getKey().toString(), Field.Store.YES));
+    document.add(new StringField(GENERATION, generation, Field.Store.NO));
+    Optional.ofNullable(dataPackage.getTitle())
+      .ifPresent(title -> document.add(new TextField(TITLE, title, Field.Store.YES)));
+    Optional.ofNullable(dataPackage.getDescription())
+      .ifPresent(description -> document.add(new TextField(DESCRIPTION, description, Field.Store.YES)));
+    Optional.ofNullable(dataPackage.getCreatedBy())
+      .ifPresent(createdBy -> document.add(new StringField(CREATED_BY, createdBy, Field.Store.NO)));
+    Optional.ofNullable(dataPackage.getCreated())
+      .ifPresent(created -> document.add(new NumericDocValuesField(CREATED, created.getTime())));
+    Optional.ofNullable(dataPackage.getModified())
+      .ifPresent(modified -> document.add(new LongPoint(MODIFIED, modified.getTime())));
+    for (Creator creator : dataPackage.getCreators()) {
+      Optional.ofNullable(creator.getName())
+        .ifPresent(name -> document.add(new TextField(CREATOR, name, Field.Store.NO)));
+      Optional.ofNullable(creator.getIdentifier())
+        .ifPresent(identifier -> document.add(new TextField(CREATOR, identifier, Field.Store.NO)));
+    }
+    for (Tag tag : dataPackage.getTags()) {
+      document.add(new TextField(TAG, tag.getValue(), Field.Store.NO));
+      document.add(new StringField(TAG_VALUE, tag.getValue(), Field.Store.NO));
+      addFacet(document, DataPackageFacet.TAG, tag.getValue());
+    }
+    Optional.ofNullable(dataPackage.getDoi()).ifPresent(doi -> addIdentifier(document, doi.getDoiName()));
+    identifiers.forEach(identifier -> addIdentifier(document, identifier.getIdentifier()));
+    dataPackage.getFiles().stream().map(DataPackageFile::getFormat).filter(format -> format != null).distinct()
+      .forEach(format -> {
+        document.add(new StringField(FORMAT, format, Field.Store.NO));
+        addFacet(document, DataPackageFacet.FORMAT, format);
+      });
+    Optional.ofNullable(dataPackage.getCreatedBy())
+      .ifPresent(createdBy -> addFacet(document, DataPackageFacet.CREATED_BY, createdBy));
+    Optional.ofNullable(dataPackage.getLicense())
+      .ifPresent(license -> addFacet(document, DataPackageFacet.LICENSE, license.name()));
+    Optional.ofNullable(dataPackage.getCreated())
+      .ifPresent(created -> addFacet(document, DataPackageFacet.YEAR,
+                                     Integer.toString(created.toInstant().atZone(ZoneOffset.UTC).getYear())));
+    return document;
+  }
+
+  /**
+   * Facet values are indexed as doc values, a document counts once per distinct value.
+   */
+  private static void addFacet(Document document, DataPackageFacet facet, String value) {
+    document.add(new SortedSetDocValuesField(FACET_PREFIX + facet.name(), new BytesRef(value)));
+  }
+
+  /**
+   * Identifiers are searchable by their words and by their complete value.
+   */
+  private static void addIdentifier(Document document, String identifier) {
+    document.add(new TextField(IDENTIFIER, identifier, Field.Store.NO));
+    document.add(new StringField(IDENTIFIER_VALUE, normalizeIdentifier(identifier), Field.Store.NO));
+  }
+
+  /**
+   * Commits the pending changes and closes the index.
+   */
+  @Override
+  public void close() throws IOException {
+    committer.shutdownNow();
+    searcherManager.close();
+    indexWriter.close();
+    directory.close();
+  }
+}
@@ -10,6 +10,7 @@ import org.gbif.datarepo.impl.FileSystemDataRepository;
 import org.gbif.datarepo.impl.conf.DataRepoConfiguration;
 import org.gbif.registry.doi.registration.DoiRegistrationService;
 
+import java.util.concurrent.TimeUnit;
 import javax.ws.rs.client.Client;
 
 import com.codahale.metrics.MetricRegistry;
@@ -40,8 +41,11 @@ public class DataRepoFsModule {
                           HealthCheckRegistry healthCheckRegistry) {
     this.configuration = configuration;
     injector = Guice.createInjector(new DataPackageMyBatisModule(configuration.getDbConfig(),
-                                                                                     metricRegistry,
-                                                                                     healthCheckRegistry));
+                                                                 configuration.getReplicaDbConfig(),
+                                                                 TimeUnit.SECONDS
+                                                                   .toMillis(configuration.getReadYourWritesWindow()),
+                                                                 metricRegistry,
+                                                                 healthCheckRegistry));
   }
 
   /**
@@ -0,0 +1,225 @@
+package org.gbif.datarepo.logging;
+
+import org.gbif.datarepo.impl.conf.EventLogConfiguration;
+import org.gbif.datarepo.persistence.model.EventLogEntry;
+
+import java.io.Closeable;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Bounded queue of data package events written in batches by a background thread, logging an event costs the caller
+ * an enqueue only.
+ * Events are written when a batch is complete or, at the latest, after the flush interval. Events logged while the
+ * queue is full are handled according to the overflow policy.
+ * Batches are written one at a time, including the ones written by the calling threads, so the writes of the queue
+ * don't compete with each other for the events log.
+ */
+public class EventLogQueue implements Closeable {
+
+  /**
+   * Handling of the events logged while the queue is full.
+   */
+  public enum OverflowPolicy {
+    /**
+     * The event is discarded and counted in the dropped meter.
+     */
+    DROP,
+    /**
+     * The event is written by the calling thread, slowing down producers until the writer catches up.
+     */
+    CALLER_WRITES
+  }
+
+  private static final Logger LOG = LoggerFactory.getLogger(EventLogQueue.class);
+
+  private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+  //Lock-free queue, its size is tracked separately since ConcurrentLinkedQueue.size() traverses the queue
+  private final Queue<EventLogEntry> queue = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger size = new AtomicInteger();
+
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+  private final Consumer<List<EventLogEntry>> writer;
+
+  //Serializes the writes of the writer thread and the calling threads
+  private final Object writeLock = new Object();
+
+  private final int capacity;
+
+  private final int batchSize;
+
+  private final OverflowPolicy overflowPolicy;
+
+  private final ScheduledExecutorService executor;
+
+  private volatile boolean closed;
+
+  private final Meter enqueued;
+
+  private final Meter dropped;
+
+  private final Meter written;
+
+  private final Meter failed;
+
+  private final Timer writes;
+
+  /**
+   * Creates the queue and starts its writer thread.
+   * @param writer writes a batch of events, it is called by the writer thread and, with the CALLER_WRITES policy, by
+   *               the threads that log events while the queue is full, but never concurrently
+   */
+  public EventLogQueue(Consumer<List<EventLogEntry>> writer, EventLogConfiguration configuration,
+                       MetricRegistry metricRegistry) {
+    this.writer = writer;
+    capacity = configuration.getCapacity();
+    batchSize = configuration.getBatchSize();
+    overflowPolicy = configuration.getOverflowPolicy();
+    enqueued = metricRegistry.meter(name(EventLogQueue.class, "enqueued"));
+    dropped = metricRegistry.meter(name(EventLogQueue.class, "dropped"));
+    written = metricRegistry.meter(name(EventLogQueue.class, "written"));
+    failed = metricRegistry.meter(name(EventLogQueue.class, "failed"));
+    writes = metricRegistry.timer(name(EventLogQueue.class, "writes"));
+    metricRegistry.register(name(EventLogQueue.class, "size"), (Gauge<Integer>) size::get);
+    executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("event-log-writer-%d")
+                                                            .setDaemon(true).build());
+    executor.scheduleWithFixedDelay(this::drain, configuration.getFlushInterval(), configuration.getFlushInterval(),
+                                    TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Logs an event of a data package.
+   * @param principal authenticated user, if any
+   * @param bytes bytes served, if the event is a download
+   * @param latency milliseconds spent serving the request
+   */
+  public void log(Logger logger, LoggingEvent event, @Nullable Principal principal, String identifier,
+                  @Nullable Long bytes, @Nullable Long latency) {
+    EventLogEntry entry = new EventLogEntry();
+    entry.setTimestamp(System.currentTimeMillis());
+    entry.setLoggerName(logger.getName());
+    entry.setThreadName(Thread.currentThread().getName());
+    entry.setMessage(event.getMessage());
+    entry.setEvent(event.name());
+    entry.setIdentifier(identifier);
+    entry.setSubject(principal == null ? null : principal.getName());
+    entry.setBytes(bytes);
+    entry.setLatency(latency);
+    offer(entry);
+  }
+
+  /**
+   * Adds an event to the queue, once the queue is closed events are written by the calling thread.
+   * @return false if the event has been dropped
+   */
+  public boolean offer(EventLogEntry entry) {
+    if (closed) {
+      write(Collections.singletonList(entry));
+      return true;
+    }
+    if (size.incrementAndGet() > capacity) {
+      size.decrementAndGet();
+      if (overflowPolicy == OverflowPolicy.CALLER_WRITES) {
+        write(Collections.singletonList(entry));
+        return true;
+      }
+      dropped.mark();
+      return false;
+    }
+    queue.offer(entry);
+    enqueued.mark();
+    if (size.get() >= batchSize && drainScheduled.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::drain);
+      } catch (RejectedExecutionException ex) {
+        //The queue is being closed and will be drained by close()
+        drainScheduled.set(false);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Number of events waiting to be written.
+   */
+  public int size() {
+    return size.get();
+  }
+
+  /**
+   * Writes all the queued events in batches.
+   */
+  private void drain() {
+    drainScheduled.set(false);
+    List<EventLogEntry> batch = new ArrayList<>(batchSize);
+    EventLogEntry entry;
+    while ((entry = queue.poll()) != null) {
+      size.decrementAndGet();
+      batch.add(entry);
+      if (batch.size() == batchSize) {
+        write(batch);
+        batch = new ArrayList<>(batchSize);
+      }
+    }
+    if (!batch.isEmpty()) {
+      write(batch);
+    }
+  }
+
+  /**
+   * Writes a batch of events, failed batches are discarded and counted in the failed meter.
+   */
+  private void write(List<EventLogEntry> batch) {
+    try (Timer.Context ignored = writes.time()) {
+      synchronized (writeLock) {
+        writer.accept(batch);
+      }
+      written.mark(batch.size());
+    } catch (Exception ex) {
+      failed.mark(batch.size());
+      LOG.error("Error writing {} events into the events log", batch.size(), ex);
+    }
+  }
+
+  /**
+   * Stops the writer thread and writes the remaining events.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOG.warn("Events log writer didn't finish in {} seconds", CLOSE_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    drain();
+  }
+}
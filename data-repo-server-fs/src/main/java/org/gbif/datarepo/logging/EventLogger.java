@@ -7,7 +7,8 @@ import java.security.Principal;
 import java.util.Optional;
 
 /**
- * Utility class that logs data packages relevant events.
+ * Utility class that logs data packages relevant events synchronously through the MDC.
+ * The web services use the asynchronous EventLogQueue instead.
  */
 public class EventLogger {
 
@@ -24,12 +25,12 @@ public class EventLogger {
     /**
      * Writes an event into the events log.
      */
-    private static void log(Logger logger, Principal principal, String identifier, String event, String message) {
+    private static void log(Logger logger, Principal principal, String identifier, LoggingEvent event) {
         Optional.ofNullable(principal).ifPresent(userPrincipal -> MDC.put("subject", principal.getName()));
-        MDC.put("event", event);
+        MDC.put("event", event.name());
         MDC.put("identifier", identifier);
         MDC.put("type", LOG_TYPE);
-        logger.info(message);
+        logger.info(event.getMessage());
         MDC.clear();
     }
 
@@ -38,42 +39,42 @@ public class EventLogger {
      * Writes an CREATE event into the events log.
      */
     public static void logCreate(Logger logger, Principal principal, String identifier) {
-        log(logger, principal, identifier, LoggingEvent.CREATE.name(),"Resource created");
+        log(logger, principal, identifier, LoggingEvent.CREATE);
     }
 
     /**
      * Writes an UPDATE event into the events log.
      */
     public static void logUpdate(Logger logger, Principal principal, String identifier) {
-        log(logger, principal, identifier, LoggingEvent.UPDATE.name(),"Resource updated");
+        log(logger, principal, identifier, LoggingEvent.UPDATE);
     }
 
     /**
      * Writes an DELETE event into the events log.
      */
     public static void logDelete(Logger logger, Principal principal, String identifier) {
-        log(logger, principal, identifier, LoggingEvent.DELETE.name(),"Resource deleted");
+        log(logger, principal, identifier, LoggingEvent.DELETE);
     }
 
     /**
      * Writes an READ event into the events log.
      */
     public static void logRead(Logger logger, Principal principal, String identifier) {
-        log(logger, principal, identifier, LoggingEvent.READ.name(),"Resource read");
+        log(logger, principal, identifier, LoggingEvent.READ);
     }
 
     /**
      * Writes an READ event into the events log.
      */
     public static void logRead(Logger logger, String identifier) {
-        log(logger, null, identifier, LoggingEvent.READ.name(),"Resource read");
+        log(logger, null, identifier, LoggingEvent.READ);
     }
 
     /**
      * Writes an LIST event into the events log.
      */
     public static void logList(Logger logger, Principal principal, String identifier) {
-        log(logger, principal, identifier, LoggingEvent.LIST.name(),"Listing resources");
+        log(logger, principal, identifier, LoggingEvent.LIST);
     }
 
 }
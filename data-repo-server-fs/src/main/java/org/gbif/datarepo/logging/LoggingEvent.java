@@ -4,5 +4,22 @@ package org.gbif.datarepo.logging;
  * Tipyes of logging events.
  */
 public enum LoggingEvent {
-    CREATE, DELETE, READ, LIST, UPDATE;
+    CREATE("Resource created"),
+    DELETE("Resource deleted"),
+    READ("Resource read"),
+    LIST("Listing resources"),
+    UPDATE("Resource updated");
+
+    private final String message;
+
+    LoggingEvent(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Message logged for this type of event.
+     */
+    public String getMessage() {
+        return message;
+    }
 }
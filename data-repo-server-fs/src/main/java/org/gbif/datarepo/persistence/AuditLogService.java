@@ -0,0 +1,118 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.datarepo.persistence.mappers.LoggingMapper;
+import org.gbif.datarepo.persistence.model.AuditLogPage;
+import org.gbif.datarepo.persistence.model.DBLoggingEvent;
+import org.gbif.datarepo.persistence.model.LoggingEventProperty;
+import org.gbif.datarepo.persistence.model.LoggingEventTraceLine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Queries the audit log written by the DBAppender.
+ * Events are paged using a keyset cursor on (timestamp, event id) and the MDC properties and stack traces of a page
+ * are loaded with one query each.
+ */
+public class AuditLogService {
+
+  /**
+   * Maximum number of events per page.
+   */
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  private static final String CURSOR_SEPARATOR = ":";
+
+  private final LoggingMapper loggingMapper;
+
+  @Inject
+  public AuditLogService(LoggingMapper loggingMapper) {
+    this.loggingMapper = loggingMapper;
+  }
+
+  /**
+   * Lists a page of events, optionally filtered by a time range in milliseconds and MDC entries.
+   * @param cursor position after which the page starts, null to start from the first event
+   * @throws IllegalArgumentException if the cursor is not valid
+   */
+  public AuditLogPage list(@Nullable Long fromDate, @Nullable Long toDate, @Nullable Map<String, String> mdc,
+                           @Nullable String cursor, int limit) {
+    Preconditions.checkArgument(limit > 0 && limit <= MAX_PAGE_SIZE, "Limit must be between 1 and %s",
+                                MAX_PAGE_SIZE);
+    Long afterTimestamp = null;
+    Long afterEventId = null;
+    if (cursor != null) {
+      String[] position = cursor.split(CURSOR_SEPARATOR);
+      Preconditions.checkArgument(position.length == 2, "Invalid cursor %s", cursor);
+      try {
+        afterTimestamp = Long.parseLong(position[0]);
+        afterEventId = Long.parseLong(position[1]);
+      } catch (NumberFormatException ex) {
+        throw new IllegalArgumentException("Invalid cursor " + cursor, ex);
+      }
+    }
+    List<DBLoggingEvent> events = listAfter(fromDate, toDate, mdc, afterTimestamp, afterEventId, limit);
+    return new AuditLogPage(events, events.size() < limit ? null : toCursor(events.get(events.size() - 1)));
+  }
+
+  /**
+   * Streams all the events of a time range, in pages of MAX_PAGE_SIZE events, to a consumer.
+   */
+  public void stream(@Nullable Long fromDate, @Nullable Long toDate, @Nullable Map<String, String> mdc,
+                     Consumer<DBLoggingEvent> consumer) {
+    Long afterTimestamp = null;
+    Long afterEventId = null;
+    List<DBLoggingEvent> events;
+    do {
+      events = listAfter(fromDate, toDate, mdc, afterTimestamp, afterEventId, MAX_PAGE_SIZE);
+      events.forEach(consumer);
+      if (!events.isEmpty()) {
+        DBLoggingEvent last = events.get(events.size() - 1);
+        afterTimestamp = last.getTimestamp();
+        afterEventId = last.getEventId();
+      }
+    } while (events.size() == MAX_PAGE_SIZE);
+  }
+
+  private static String toCursor(DBLoggingEvent event) {
+    return event.getTimestamp() + CURSOR_SEPARATOR + event.getEventId();
+  }
+
+  /**
+   * Lists the events following a position and loads their MDC properties and stack traces.
+   */
+  private List<DBLoggingEvent> listAfter(@Nullable Long fromDate, @Nullable Long toDate,
+                                         @Nullable Map<String, String> mdc, @Nullable Long afterTimestamp,
+                                         @Nullable Long afterEventId, int limit) {
+    List<DBLoggingEvent> events = loggingMapper.listAfter(fromDate, toDate, mdc == null || mdc.isEmpty() ? null : mdc,
+                                                          afterTimestamp, afterEventId, limit);
+    if (events.isEmpty()) {
+      return events;
+    }
+    Set<Long> eventIds = events.stream().map(DBLoggingEvent::getEventId).collect(Collectors.toSet());
+    Map<Long, Set<DBLoggingEvent.MDCEntry>> properties = new HashMap<>();
+    for (LoggingEventProperty property : loggingMapper.listProperties(eventIds)) {
+      properties.computeIfAbsent(property.getEventId(), eventId -> new HashSet<>())
+        .add(new DBLoggingEvent.MDCEntry(property.getKey(), property.getValue()));
+    }
+    Map<Long, List<String>> stackTraces = new HashMap<>();
+    for (LoggingEventTraceLine traceLine : loggingMapper.listTraceLines(eventIds)) {
+      stackTraces.computeIfAbsent(traceLine.getEventId(), eventId -> new ArrayList<>()).add(traceLine.getTraceLine());
+    }
+    events.forEach(event -> {
+      event.setMdc(properties.getOrDefault(event.getEventId(), new HashSet<>()));
+      event.setStackTrace(stackTraces.getOrDefault(event.getEventId(), new ArrayList<>()));
+    });
+    return events;
+  }
+}
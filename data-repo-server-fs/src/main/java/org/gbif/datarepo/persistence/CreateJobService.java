@@ -0,0 +1,110 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.datarepo.persistence.mappers.CreateJobMapper;
+import org.gbif.datarepo.persistence.model.CreateJob;
+import org.gbif.datarepo.persistence.model.CreateJobFile;
+
+import java.util.Date;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import org.mybatis.guice.transactional.Transactional;
+
+/**
+ * Durable work queue of asynchronous data package creations.
+ * Workers claim jobs with claim(), report the progress of each file and finish them. Jobs of workers that stopped
+ * reporting progress, e.g. because the service was restarted, are queued again by requeueStale.
+ */
+public class CreateJobService {
+
+  private final CreateJobMapper createJobMapper;
+
+  @Inject
+  public CreateJobService(CreateJobMapper createJobMapper) {
+    this.createJobMapper = createJobMapper;
+  }
+
+  /**
+   * Queues a job and its files.
+   */
+  @Transactional
+  public void enqueue(CreateJob createJob) {
+    createJobMapper.create(createJob);
+    createJob.getFiles().forEach(file -> createJobMapper.createFile(createJob.getKey(), file));
+  }
+
+  /**
+   * Gets a job and its files, null if it doesn't exist.
+   */
+  @Nullable
+  public CreateJob get(UUID key) {
+    return createJobMapper.get(key);
+  }
+
+  /**
+   * Claims the oldest queued job, concurrent claims get different jobs.
+   * @return the claimed job, already in the RUNNING status, or null if there are no queued jobs
+   */
+  @Nullable
+  @Transactional
+  public CreateJob claim() {
+    UUID key = createJobMapper.lockNextQueued();
+    if (key == null) {
+      return null;
+    }
+    createJobMapper.markRunning(key);
+    return createJobMapper.get(key);
+  }
+
+  /**
+   * Records the progress of a file and the heartbeat of the job.
+   * @return true if the owner of the job has asked to cancel it
+   */
+  @Transactional
+  public boolean reportProgress(UUID key, CreateJobFile file) {
+    createJobMapper.updateFile(key, file.getFileName(), file.getBytes(), file.isCompleted());
+    return heartbeat(key);
+  }
+
+  /**
+   * Records the heartbeat of a job.
+   * @return true if the owner of the job has asked to cancel it
+   */
+  @Transactional
+  public boolean heartbeat(UUID key) {
+    createJobMapper.heartbeat(key);
+    return createJobMapper.isCancelRequested(key);
+  }
+
+  /**
+   * Moves a running job to a final status.
+   * @return false if the job wasn't running, e.g.: it was queued again after being considered stale
+   */
+  public boolean finish(UUID key, CreateJob.Status status, @Nullable String error) {
+    return createJobMapper.finish(key, status, error) > 0;
+  }
+
+  /**
+   * Moves a running job back to the queue, used when a worker is stopped before completing the job.
+   */
+  public boolean requeue(UUID key) {
+    return createJobMapper.requeue(key) > 0;
+  }
+
+  /**
+   * Cancels a job, running jobs are cancelled by their worker.
+   * @return false if the job had already finished
+   */
+  public boolean cancel(UUID key) {
+    return createJobMapper.cancel(key) > 0;
+  }
+
+  /**
+   * Queues again the running jobs that haven't reported progress in the last staleTimeout milliseconds.
+   * @return the number of jobs queued again, failed or cancelled
+   */
+  public int requeueStale(long staleTimeout, int maxAttempts) {
+    return createJobMapper.requeueStale(new Date(System.currentTimeMillis() - staleTimeout), maxAttempts);
+  }
+}
@@ -8,35 +8,90 @@ import org.gbif.datarepo.api.model.DataPackage;
 import org.gbif.datarepo.api.model.DataPackageFile;
 import org.gbif.datarepo.api.model.RepositoryStats;
 import org.gbif.datarepo.api.model.Tag;
+import org.gbif.datarepo.persistence.mappers.CreateJobMapper;
 import org.gbif.datarepo.persistence.mappers.IdentifierMapper;
 import org.gbif.datarepo.persistence.mappers.CreatorMapper;
 import org.gbif.datarepo.persistence.mappers.DataPackageFileMapper;
 import org.gbif.datarepo.persistence.mappers.DataPackageMapper;
+import org.gbif.datarepo.persistence.mappers.DoiOutboxMapper;
 import org.gbif.datarepo.persistence.mappers.LoggingMapper;
 import org.gbif.datarepo.persistence.mappers.RepositoryStatsMapper;
 import org.gbif.datarepo.persistence.mappers.TagMapper;
+import org.gbif.datarepo.persistence.mappers.UsageStatsMapper;
+import org.gbif.datarepo.persistence.model.CreateJob;
+import org.gbif.datarepo.persistence.model.CreateJobFile;
 import org.gbif.datarepo.persistence.model.DBLoggingEvent;
+import org.gbif.datarepo.persistence.model.DataPackageMatch;
+import org.gbif.datarepo.persistence.model.DataPackageReference;
+import org.gbif.datarepo.persistence.model.DoiOperation;
+import org.gbif.datarepo.persistence.model.DoiSyncStatus;
+import org.gbif.datarepo.persistence.model.EventLogEntry;
+import org.gbif.datarepo.persistence.model.FacetEntry;
+import org.gbif.datarepo.persistence.model.KeyedDataPackageFile;
+import org.gbif.datarepo.persistence.model.LoggingEventProperty;
+import org.gbif.datarepo.persistence.model.LoggingEventTraceLine;
+import org.gbif.datarepo.persistence.model.RepositoryStatsEntry;
+import org.gbif.datarepo.persistence.model.UsageStatsEntry;
 import org.gbif.datarepo.persistence.type.DoiTypeHandler;
 import org.gbif.datarepo.persistence.type.TextArrayToListTypeHandler;
 import org.gbif.datarepo.persistence.type.TextArrayToSetTypeHandler;
 import org.gbif.datarepo.persistence.type.UuidTypeHandler;
 import org.gbif.mybatis.guice.MyBatisModule;
 
+import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
 
 import ch.qos.logback.classic.spi.LoggingEvent;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.health.HealthCheckRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.AbstractModule;
+import com.google.inject.Binding;
+import com.google.inject.Key;
 import com.google.inject.PrivateModule;
+import com.google.inject.Provider;
+import com.google.inject.Scopes;
+import com.google.inject.matcher.AbstractMatcher;
+import com.google.inject.matcher.Matchers;
+import com.google.inject.name.Names;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.Elements;
+import org.apache.ibatis.session.SqlSessionManager;
 
 /**
  * Persistence MyBatis module. Exposes MyBatis mappers and type required to persist and query DataPackages instances.
+ * If a read replica is configured, the ReadOnly methods of DataRepoPersistenceService are served by it.
  */
-public class DataPackageMyBatisModule extends PrivateModule {
+public class DataPackageMyBatisModule extends AbstractModule {
+
+  /**
+   * Name of the bindings that use the read replica.
+   */
+  public static final String REPLICA = "replica";
+
+  private static final List<Class<?>> MAPPERS = ImmutableList.of(DataPackageMapper.class,
+                                                                 DataPackageFileMapper.class,
+                                                                 RepositoryStatsMapper.class,
+                                                                 IdentifierMapper.class,
+                                                                 TagMapper.class,
+                                                                 CreatorMapper.class,
+                                                                 LoggingMapper.class,
+                                                                 UsageStatsMapper.class,
+                                                                 CreateJobMapper.class,
+                                                                 DoiOutboxMapper.class);
 
   private final InternalDataPackageModule internalModule;
 
+  @Nullable
+  private final InternalDataPackageModule replicaModule;
+
+  private final long readYourWritesWindow;
+
   /**
    * Internal module, it is used to avoid exposing data sources and other MyBatis elements.
    */
@@ -61,6 +116,11 @@ public class DataPackageMyBatisModule extends PrivateModule {
       addAlias("DataPackage").to(DataPackage.class);
       addAlias("DataPackageFile").to(DataPackageFile.class);
       addAlias("RepositoryStats").to(RepositoryStats.class);
+      addAlias("RepositoryStatsEntry").to(RepositoryStatsEntry.class);
+      addAlias("DataPackageReference").to(DataPackageReference.class);
+      addAlias("DataPackageMatch").to(DataPackageMatch.class);
+      addAlias("KeyedDataPackageFile").to(KeyedDataPackageFile.class);
+      addAlias("FacetEntry").to(FacetEntry.class);
       addAlias("DOI").to(DOI.class);
       addAlias("Pageable").to(Pageable.class);
       addAlias("Identifier").to(Identifier.class);
@@ -69,14 +129,16 @@ public class DataPackageMyBatisModule extends PrivateModule {
       addAlias("uuid").to(UUID.class);
       addAlias("DBLoggingEvent").to(DBLoggingEvent.class);
       addAlias("MDCEntry").to(DBLoggingEvent.MDCEntry.class);
+      addAlias("LoggingEventProperty").to(LoggingEventProperty.class);
+      addAlias("LoggingEventTraceLine").to(LoggingEventTraceLine.class);
+      addAlias("EventLogEntry").to(EventLogEntry.class);
+      addAlias("UsageStatsEntry").to(UsageStatsEntry.class);
+      addAlias("CreateJob").to(CreateJob.class);
+      addAlias("CreateJobFile").to(CreateJobFile.class);
+      addAlias("DoiOperation").to(DoiOperation.class);
+      addAlias("DoiSyncStatus").to(DoiSyncStatus.class);
       //Mappers
-      addMapperClass(DataPackageMapper.class);
-      addMapperClass(DataPackageFileMapper.class);
-      addMapperClass(RepositoryStatsMapper.class);
-      addMapperClass(IdentifierMapper.class);
-      addMapperClass(TagMapper.class);
-      addMapperClass(CreatorMapper.class);
-      addMapperClass(LoggingMapper.class);
+      MAPPERS.forEach(this::addMapperClass);
     }
 
     /**
@@ -97,6 +159,134 @@ public class DataPackageMyBatisModule extends PrivateModule {
     }
   }
 
+  /**
+   * Primary database, it exposes the mappers and services used by the application.
+   */
+  private static class PrimaryModule extends PrivateModule {
+
+    private final InternalDataPackageModule internalModule;
+
+    //Null if there is no read replica
+    @Nullable
+    private final ReadYourWrites readYourWrites;
+
+    PrimaryModule(InternalDataPackageModule internalModule, @Nullable ReadYourWrites readYourWrites) {
+      this.internalModule = internalModule;
+      this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected void configure() {
+      if (readYourWrites != null) {
+        ReadReplicaInterceptor readReplicaInterceptor = new ReadReplicaInterceptor(readYourWrites);
+        requestInjection(readReplicaInterceptor);
+        //Bound before the MyBatis interceptors so routed reads don't open sessions in the primary database
+        bindInterceptor(Matchers.subclassesOf(DataRepoPersistenceService.class), new AbstractMatcher<Method>() {
+          @Override
+          public boolean matches(Method method) {
+            return method.getDeclaringClass() == DataRepoPersistenceService.class;
+          }
+        }, readReplicaInterceptor);
+      }
+      install(internalModule);
+      expose(DataPackageMapper.class);
+      expose(DataPackageFileMapper.class);
+      expose(RepositoryStatsMapper.class);
+      expose(IdentifierMapper.class);
+      expose(TagMapper.class);
+      expose(CreatorMapper.class);
+      expose(LoggingMapper.class);
+      bind(DataRepoPersistenceService.class);
+      expose(DataRepoPersistenceService.class);
+      bind(AuditLogService.class);
+      expose(AuditLogService.class);
+      bind(EventLogService.class);
+      expose(EventLogService.class);
+      bind(UsageStatsService.class);
+      expose(UsageStatsService.class);
+      bind(CreateJobService.class);
+      expose(CreateJobService.class);
+      bind(DoiOutboxService.class);
+      expose(DoiOutboxService.class);
+    }
+  }
+
+  /**
+   * Read replica, it exposes the DataRepoPersistenceService named REPLICA.
+   * The mappers of the primary database are exposed without annotations, so the replica mappers are bound with the
+   * REPLICA name instead.
+   */
+  private static class ReplicaModule extends PrivateModule {
+
+    private final InternalDataPackageModule replicaModule;
+
+    ReplicaModule(InternalDataPackageModule replicaModule) {
+      this.replicaModule = replicaModule;
+    }
+
+    @Override
+    protected void configure() {
+      for (Element element : Elements.getElements(replicaModule)) {
+        if (!(element instanceof Binding && isMapperKey(((Binding<?>) element).getKey()))) {
+          element.applyTo(binder());
+        }
+      }
+      MAPPERS.forEach(this::bindMapper);
+      bind(DataRepoPersistenceService.class).annotatedWith(Names.named(REPLICA)).to(ReplicaPersistenceService.class);
+      expose(DataRepoPersistenceService.class).annotatedWith(Names.named(REPLICA));
+    }
+
+    private static boolean isMapperKey(Key<?> key) {
+      return key.getAnnotationType() == null && MAPPERS.contains(key.getTypeLiteral().getRawType());
+    }
+
+    private <T> void bindMapper(Class<T> mapperClass) {
+      bind(Key.get(mapperClass, Names.named(REPLICA))).toProvider(new ReplicaMapperProvider<>(mapperClass))
+        .in(Scopes.SINGLETON);
+    }
+  }
+
+  /**
+   * Mapper that uses the MyBatis session manager of the read replica.
+   */
+  private static class ReplicaMapperProvider<T> implements Provider<T> {
+
+    private final Class<T> mapperClass;
+
+    private SqlSessionManager sqlSessionManager;
+
+    ReplicaMapperProvider(Class<T> mapperClass) {
+      this.mapperClass = mapperClass;
+    }
+
+    @Inject
+    void setSqlSessionManager(SqlSessionManager sqlSessionManager) {
+      this.sqlSessionManager = sqlSessionManager;
+    }
+
+    @Override
+    public T get() {
+      return sqlSessionManager.getMapper(mapperClass);
+    }
+  }
+
+  /**
+   * DataRepoPersistenceService that uses the mappers of the read replica.
+   */
+  static class ReplicaPersistenceService extends DataRepoPersistenceService {
+
+    @Inject
+    ReplicaPersistenceService(@Named(REPLICA) DataPackageMapper dataPackageMapper,
+                              @Named(REPLICA) DataPackageFileMapper dataPackageFileMapper,
+                              @Named(REPLICA) IdentifierMapper identifierMapper,
+                              @Named(REPLICA) RepositoryStatsMapper repositoryStatsMapper,
+                              @Named(REPLICA) TagMapper tagMapper, @Named(REPLICA) CreatorMapper creatorMapper,
+                              DoiOutboxService doiOutboxService) {
+      super(dataPackageMapper, dataPackageFileMapper, identifierMapper, repositoryStatsMapper, tagMapper, creatorMapper,
+            doiOutboxService);
+    }
+  }
+
   /**
    * Full constructor.
    * @param props configuration settings
@@ -105,21 +295,51 @@ public class DataPackageMyBatisModule extends PrivateModule {
    */
   public DataPackageMyBatisModule(Properties props, MetricRegistry metricRegistry,
                                   HealthCheckRegistry healthCheckRegistry) {
+    this(props, null, 0L, metricRegistry, healthCheckRegistry);
+  }
+
+  /**
+   * Creates a module that routes reads to a replica database.
+   * @param props configuration settings of the primary database
+   * @param replicaProps configuration settings of the read replica, if it is null all the traffic goes to the primary
+   * @param readYourWritesWindow milliseconds that a client reads from the primary after writing to it
+   * @param metricRegistry dropwizard metrics registry
+   * @param healthCheckRegistry dropwizard health check registry
+   */
+  public DataPackageMyBatisModule(Properties props, @Nullable Properties replicaProps, long readYourWritesWindow,
+                                  MetricRegistry metricRegistry, HealthCheckRegistry healthCheckRegistry) {
     //Creates the module using provided parameters
     internalModule = new InternalDataPackageModule(props, metricRegistry, healthCheckRegistry);
+    replicaModule = replicaProps == null ? null :
+      new InternalDataPackageModule(replicaProperties(props, replicaProps), metricRegistry, healthCheckRegistry);
+    this.readYourWritesWindow = readYourWritesWindow;
   }
 
+  /**
+   * Copy of the replica settings, the pool name must differ from the primary one since it names the data source
+   * binding and its metrics.
+   */
+  private static Properties replicaProperties(Properties props, Properties replicaProps) {
+    Properties replicaProperties = new Properties();
+    replicaProperties.putAll(replicaProps);
+    String poolName = props.getProperty("poolName");
+    if (poolName != null && poolName.equals(replicaProperties.getProperty("poolName", poolName))) {
+      replicaProperties.setProperty("poolName", poolName + "Replica");
+    }
+    return replicaProperties;
+  }
+
+  /**
+   * The primary and the replica databases are configured in sibling private modules since both bind the same MyBatis
+   * elements. ReadYourWrites is exposed to set the client of each request.
+   */
   @Override
   protected void configure() {
-    install(internalModule);
-    expose(DataPackageMapper.class);
-    expose(DataPackageFileMapper.class);
-    expose(RepositoryStatsMapper.class);
-    expose(IdentifierMapper.class);
-    expose(TagMapper.class);
-    expose(CreatorMapper.class);
-    expose(LoggingMapper.class);
-    bind(DataRepoPersistenceService.class);
-    expose(DataRepoPersistenceService.class);
+    ReadYourWrites readYourWrites = new ReadYourWrites(readYourWritesWindow);
+    bind(ReadYourWrites.class).toInstance(readYourWrites);
+    if (replicaModule != null) {
+      install(new ReplicaModule(replicaModule));
+    }
+    install(new PrimaryModule(internalModule, replicaModule == null ? null : readYourWrites));
   }
 }
@@ -6,9 +6,13 @@ import org.gbif.api.model.common.paging.PagingRequest;
 import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.datarepo.api.DataRepository;
 import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.DataPackageFacet;
 import org.gbif.datarepo.api.model.DataPackageFile;
+import org.gbif.datarepo.api.model.Facet;
+import org.gbif.datarepo.api.model.FacetedPagingResponse;
 import org.gbif.datarepo.api.model.Identifier;
 import org.gbif.datarepo.api.model.RepositoryStats;
+import org.gbif.datarepo.api.model.TagMode;
 import org.gbif.datarepo.citation.CitationGenerator;
 import org.gbif.datarepo.persistence.mappers.CreatorMapper;
 import org.gbif.datarepo.persistence.mappers.DataPackageFileMapper;
@@ -16,20 +20,61 @@ import org.gbif.datarepo.persistence.mappers.DataPackageMapper;
 import org.gbif.datarepo.persistence.mappers.IdentifierMapper;
 import org.gbif.datarepo.persistence.mappers.RepositoryStatsMapper;
 import org.gbif.datarepo.persistence.mappers.TagMapper;
+import org.gbif.datarepo.persistence.model.DataPackageReference;
+import org.gbif.datarepo.persistence.model.DoiOperation;
+import org.gbif.datarepo.persistence.model.FacetEntry;
+import org.gbif.datarepo.persistence.model.RepositoryStatsEntry;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 
+import com.google.common.collect.Iterables;
+import org.mybatis.guice.transactional.Transactional;
+
 public class DataRepoPersistenceService {
 
   private static final PagingRequest EMPTY_PAGE = new PagingRequest(0,0);
 
+  //Signs used to add/subtract the contribution of a data package to the repository stats
+  private static final int ADD_STATS = 1;
+  private static final int SUBTRACT_STATS = -1;
+
+  //Max number of identifiers sent in each alternative identifiers check
+  private static final int IDENTIFIERS_CHUNK_SIZE = 1000;
+
+  //Number of data packages read, with their files, tags and creators, before they are passed to a consumer
+  private static final int EXPORT_CHUNK_SIZE = 500;
+
+  //Number of citation templates generated in each transaction of backfillCitations
+  private static final int CITATION_CHUNK_SIZE = 500;
+
+  //Priorities of the matches produced by resolveAll
+  private static final int KEY_MATCH = 1;
+  private static final int DOI_MATCH = 2;
+  private static final int ALTERNATIVE_IDENTIFIER_MATCH = 3;
+
+  private static final Pattern UUID_PATTERN =
+    Pattern.compile("^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
+
   private final DataPackageMapper dataPackageMapper;
 
   private final DataPackageFileMapper dataPackageFileMapper;
@@ -42,6 +87,8 @@ public class DataRepoPersistenceService {
 
   private final CreatorMapper creatorMapper;
 
+  private final DoiOutboxService doiOutboxService;
+
   /**
    * Executes the listing operation if the page is not null and the pageable.limit > 0.
    */
@@ -53,39 +100,109 @@ public class DataRepoPersistenceService {
     return new PagingResponse<>(pagingRequest, countSupplier.get(), result);
   }
 
+  /**
+   * Like asPageableResponse, but the results are streamed by the streamer instead of being part of the response.
+   * The streamer receives the requested page or the default page if none was requested.
+   */
+  private static <L> PagingResponse<L> asStreamedResponse(Pageable pageable, Supplier<Long> countSupplier,
+                                                          Consumer<Pageable> streamer) {
+    Pageable pagingRequest = Optional.ofNullable(pageable).orElse(EMPTY_PAGE);
+    if (pagingRequest.getLimit() > 0) {
+      streamer.accept(pagingRequest);
+    }
+    return new PagingResponse<>(pagingRequest, countSupplier.get(), Collections.emptyList());
+  }
+
   @Inject
   public DataRepoPersistenceService(DataPackageMapper dataPackageMapper, DataPackageFileMapper dataPackageFileMapper,
                                     IdentifierMapper identifierMapper, RepositoryStatsMapper repositoryStatsMapper,
-                                    TagMapper tagMapper, CreatorMapper creatorMapper) {
+                                    TagMapper tagMapper, CreatorMapper creatorMapper,
+                                    DoiOutboxService doiOutboxService) {
     this.dataPackageMapper = dataPackageMapper;
     this.dataPackageFileMapper = dataPackageFileMapper;
     this.identifierMapper = identifierMapper;
     this.repositoryStatsMapper = repositoryStatsMapper;
     this.tagMapper = tagMapper;
     this.creatorMapper = creatorMapper;
+    this.doiOutboxService = doiOutboxService;
   }
 
-  public DataPackage create(DataPackage dataPackage) {
+  /**
+   * Persists a new data package, the DOI operation, if any, is added to the outbox in the same transaction.
+   */
+  @Transactional
+  public DataPackage create(DataPackage dataPackage, @Nullable DoiOperation doiOperation) {
     //Persist data package info
     dataPackageMapper.create(dataPackage);
     dataPackage.getFiles()
       .forEach(dataPackageFile -> dataPackageFileMapper.create(dataPackage.getKey(), dataPackageFile));
     dataPackage.getRelatedIdentifiers().forEach(identifierMapper::create);
     dataPackage.getTags().forEach(tagMapper::create);
+    if (!dataPackage.getTags().isEmpty()) {
+      dataPackageMapper.updateTags(dataPackage.getKey());
+    }
     dataPackage.getCreators().forEach(creatorMapper::create);
-    return getDataPackage(dataPackage.getKey());
+    applyStats(dataPackage.getKey(), ADD_STATS);
+    enqueue(doiOperation);
+    return updateCitation(getDataPackage(dataPackage.getKey()));
+  }
+
+  /**
+   * Generates and stores the citation template of a data package that has been written, so reads only add the access
+   * date.
+   */
+  private DataPackage updateCitation(DataPackage dataPackage) {
+    dataPackage.setCitationTemplate(CitationGenerator.generateCitationTemplate(dataPackage));
+    dataPackageMapper.updateCitation(dataPackage.getKey(), dataPackage.getCitationTemplate());
+    return dataPackage;
+  }
+
+  /**
+   * Generates and stores the citation templates of the data packages that don't have one: data packages written
+   * before templates were stored and data packages whose creators have been deleted. Each chunk of CITATION_CHUNK_SIZE
+   * data packages is stored in its own transaction.
+   * @return number of citation templates stored
+   */
+  public long backfillCitations() {
+    long backfilled = 0;
+    List<DataPackage> chunk;
+    UUID afterKey = null;
+    do {
+      chunk = backfillCitations(afterKey);
+      if (!chunk.isEmpty()) {
+        afterKey = chunk.get(chunk.size() - 1).getKey();
+        backfilled += chunk.size();
+      }
+    } while (chunk.size() == CITATION_CHUNK_SIZE);
+    return backfilled;
+  }
+
+  /**
+   * Stores the citation templates of the next chunk of data packages without one.
+   */
+  @Transactional
+  List<DataPackage> backfillCitations(@Nullable UUID afterKey) {
+    List<DataPackage> chunk = loadChildren(dataPackageMapper.listWithoutCitation(afterKey, CITATION_CHUNK_SIZE));
+    chunk.forEach(this::updateCitation);
+    return chunk;
   }
 
   public void createDataPackageFile(UUID dataPackageKey, DataPackageFile dataPackageFile) {
     dataPackageFileMapper.create(dataPackageKey, dataPackageFile);
   }
 
-  public DataPackage update(DataPackage dataPackage, DataRepository.UpdateMode updateMode) {
+  /**
+   * Updates a data package, the DOI operation, if any, is added to the outbox in the same transaction.
+   */
+  @Transactional
+  public DataPackage update(DataPackage dataPackage, DataRepository.UpdateMode updateMode,
+                            @Nullable DoiOperation doiOperation) {
     //deletes existing associated elements
     UUID dataPackageKey = dataPackage.getKey();
     DataPackage existingDataPackage = getDataPackage(dataPackageKey);
-    existingDataPackage.getRelatedIdentifiers()
-      .forEach(alternativeIdentifier -> identifierMapper.delete(alternativeIdentifier.getKey()));
+    applyStats(dataPackageKey, SUBTRACT_STATS);
+    //related identifiers are not loaded with the data package
+    identifierMapper.deleteByDataPackage(dataPackageKey);
     existingDataPackage.getTags().forEach(tag -> tagMapper.delete(tag.getKey()));
     existingDataPackage.getCreators().forEach(creator -> creatorMapper.delete(creator.getKey()));
 
@@ -106,28 +223,221 @@ public class DataRepoPersistenceService {
     //re-create associated elements
     dataPackage.getRelatedIdentifiers().forEach(identifierMapper::create);
     dataPackage.getTags().forEach(tagMapper::create);
+    dataPackageMapper.updateTags(dataPackageKey);
     dataPackage.getCreators().forEach(creatorMapper::create);
     dataPackage.getFiles().forEach(dataPackageFile -> dataPackageFileMapper.create(dataPackageKey, dataPackageFile));
-    return getDataPackage(dataPackageKey);
+    applyStats(dataPackageKey, ADD_STATS);
+    enqueue(doiOperation);
+    return updateCitation(getDataPackage(dataPackageKey));
+  }
+
+  /**
+   * Adds or subtracts the contribution of a data package to the counters, holding the locks of its counters until the
+   * transaction ends so concurrent writers neither lose updates nor insert the same counter twice.
+   */
+  private void applyStats(UUID dataPackageKey, int sign) {
+    repositoryStatsMapper.lock(dataPackageKey);
+    repositoryStatsMapper.apply(dataPackageKey, sign);
   }
 
+  /**
+   * Adds a DOI operation that isn't part of a data package change to the outbox, e.g. the deletion of a DOI reserved
+   * for a data package that couldn't be created.
+   */
+  public void enqueueDoiOperation(DoiOperation doiOperation) {
+    doiOutboxService.enqueue(doiOperation);
+  }
+
+  private void enqueue(@Nullable DoiOperation doiOperation) {
+    if (doiOperation != null) {
+      doiOutboxService.enqueue(doiOperation);
+    }
+  }
+
+  @ReadOnly
   public DataPackage getDataPackage(UUID dataPackageKey) {
     return dataPackageMapper.getByKey(dataPackageKey);
   }
 
+  @ReadOnly
   public DataPackage getDataPackage(DOI dataPackageDoi) {
     return dataPackageMapper.getByDOI(dataPackageDoi.getDoiName());
   }
 
+  @ReadOnly
   public DataPackage getDataPackageByAlternativeIdentifier(String alternativeIdentifier) {
     return dataPackageMapper.getByAlternativeIdentifier(alternativeIdentifier);
   }
 
-  public void deleteDataPackage(UUID dataPackageKey) {
+  /**
+   * Retrieves the data packages of a list of keys, the result follows the order of the keys.
+   * The files, tags and creators of all the data packages are loaded with one query each.
+   */
+  @ReadOnly
+  public List<DataPackage> getDataPackages(List<UUID> dataPackageKeys) {
+    if (dataPackageKeys.isEmpty()) {
+      return Collections.emptyList();
+    }
+    Set<UUID> keys = new LinkedHashSet<>(dataPackageKeys);
+    Map<UUID, DataPackage> dataPackages = loadChildren(dataPackageMapper.listFieldsByKeys(keys)).stream()
+      .collect(Collectors.toMap(DataPackage::getKey, dataPackage -> dataPackage));
+    return dataPackageKeys.stream().map(dataPackages::get).filter(Objects::nonNull).collect(Collectors.toList());
+  }
+
+  /**
+   * Loads the files, tags and creators of data packages read without them, using one query each.
+   */
+  private List<DataPackage> loadChildren(List<DataPackage> dataPackages) {
+    if (!dataPackages.isEmpty()) {
+      Map<UUID, DataPackage> dataPackagesByKey = dataPackages.stream()
+        .collect(Collectors.toMap(DataPackage::getKey, dataPackage -> dataPackage));
+      Set<UUID> keys = dataPackagesByKey.keySet();
+      dataPackageMapper.listFilesByKeys(keys)
+        .forEach(file -> dataPackagesByKey.get(file.getDataPackageKey()).getFiles().add(file.getFile()));
+      dataPackageMapper.listTagsByKeys(keys)
+        .forEach(tag -> dataPackagesByKey.get(tag.getDataPackageKey()).getTags().add(tag));
+      dataPackageMapper.listCreatorsByKeys(keys)
+        .forEach(creator -> dataPackagesByKey.get(creator.getDataPackageKey()).getCreators().add(creator));
+    }
+    return dataPackages;
+  }
+
+  /**
+   * Completes a chunk of data packages with their files, tags, creators and citation. Chunks are passed to consumers
+   * once all their queries have finished, so no connection is held while a consumer writes to a client.
+   */
+  private List<DataPackage> completeChunk(List<DataPackage> chunk) {
+    loadChildren(chunk).forEach(CitationGenerator::setCitation);
+    return chunk;
+  }
+
+  /**
+   * Resolves many identifiers at once, as resolveDataPackage does for one identifier.
+   * @return the reference of each identifier that matches a data package
+   */
+  @ReadOnly
+  public Map<String, DataPackageReference> resolveDataPackages(Collection<String> identifiers) {
+    if (identifiers.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Set<UUID> keys = new HashSet<>();
+    Set<String> doiNames = new HashSet<>();
+    for (String identifier : identifiers) {
+      toKey(identifier).ifPresent(keys::add);
+      Optional.ofNullable(toDoiName(identifier)).ifPresent(doiNames::add);
+    }
+    //Matches by priority and matched value
+    Map<Integer, Map<String, DataPackageReference>> matches = new HashMap<>();
+    dataPackageMapper.resolveAll(keys, doiNames, new HashSet<>(identifiers))
+      .forEach(match -> matches.computeIfAbsent(match.getPriority(), priority -> new HashMap<>())
+        .put(match.getIdentifier(), match.getReference()));
+    Map<String, DataPackageReference> keyMatches = matches.getOrDefault(KEY_MATCH, Collections.emptyMap());
+    Map<String, DataPackageReference> doiMatches = matches.getOrDefault(DOI_MATCH, Collections.emptyMap());
+    Map<String, DataPackageReference> alternativeMatches = matches.getOrDefault(ALTERNATIVE_IDENTIFIER_MATCH,
+                                                                                 Collections.emptyMap());
+    Map<String, DataPackageReference> resolved = new LinkedHashMap<>();
+    for (String identifier : identifiers) {
+      DataPackageReference reference = toKey(identifier).map(key -> keyMatches.get(key.toString())).orElse(null);
+      if (reference == null) {
+        reference = doiMatches.get(toDoiName(identifier));
+      }
+      if (reference == null) {
+        reference = alternativeMatches.get(identifier);
+      }
+      if (reference != null) {
+        resolved.put(identifier, reference);
+      }
+    }
+    return resolved;
+  }
+
+  private static Optional<UUID> toKey(String identifier) {
+    return UUID_PATTERN.matcher(identifier).matches() ? Optional.of(UUID.fromString(identifier)) : Optional.empty();
+  }
+
+  /**
+   * Lists all the identifiers related to a data package.
+   */
+  @ReadOnly
+  public List<Identifier> getRelatedIdentifiers(UUID dataPackageKey) {
+    return identifierMapper.list(null, null, null, dataPackageKey, null, null, null, null);
+  }
+
+  /**
+   * Lists the identifiers related to many data packages with a single query, grouped by data package key.
+   */
+  @ReadOnly
+  public Map<UUID, List<Identifier>> getRelatedIdentifiers(Collection<UUID> dataPackageKeys) {
+    if (dataPackageKeys.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    return identifierMapper.listByDataPackageKeys(dataPackageKeys).stream()
+      .collect(Collectors.groupingBy(Identifier::getDataPackageKey));
+  }
+
+  /**
+   * Streams the live data packages visible in a repository, optionally modified since a date, to a consumer.
+   * Data packages are read in chunks of EXPORT_CHUNK_SIZE ordered by key, each chunk starts after the last key of the
+   * previous one, so memory usage doesn't depend on the number of exported data packages and no transaction is kept
+   * open during the export.
+   */
+  @ReadOnly
+  public void exportDataPackages(@Nullable Date modifiedSince, String repository, Consumer<DataPackage> consumer) {
+    exportDataPackageChunks(modifiedSince, repository, chunk -> chunk.forEach(consumer));
+  }
+
+  /**
+   * Like exportDataPackages, but each chunk is passed as a whole so the consumer can load more data of all its data
+   * packages at once.
+   */
+  @ReadOnly
+  public void exportDataPackageChunks(@Nullable Date modifiedSince, String repository,
+                                      Consumer<List<DataPackage>> chunkConsumer) {
+    List<DataPackage> chunk;
+    UUID afterKey = null;
+    do {
+      chunk = completeChunk(dataPackageMapper.export(modifiedSince, repository, afterKey, EXPORT_CHUNK_SIZE));
+      if (!chunk.isEmpty()) {
+        afterKey = chunk.get(chunk.size() - 1).getKey();
+        chunkConsumer.accept(chunk);
+      }
+    } while (chunk.size() == EXPORT_CHUNK_SIZE);
+  }
+
+  /**
+   * Resolves an identifier, that can be a data package key, a DOI or an alternative identifier, to the key and sharing
+   * settings of a data package using a single query. The data package itself is not loaded.
+   */
+  @ReadOnly
+  public DataPackageReference resolveDataPackage(String identifier) {
+    return dataPackageMapper.resolve(toKey(identifier).orElse(null), toDoiName(identifier), identifier);
+  }
+
+  /**
+   * Gets the DOI name, i.e.: prefix/suffix, if the identifier is a DOI.
+   */
+  @Nullable
+  private static String toDoiName(String identifier) {
+    try {
+      return new DOI(identifier).getDoiName();
+    } catch (IllegalArgumentException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Deletes a data package, the DOI operation, if any, is added to the outbox in the same transaction.
+   */
+  @Transactional
+  public void deleteDataPackage(UUID dataPackageKey, @Nullable DoiOperation doiOperation) {
+    applyStats(dataPackageKey, SUBTRACT_STATS);
     dataPackageMapper.delete(dataPackageKey);
+    enqueue(doiOperation);
   }
 
+  @Transactional
   public void archiveDataPackage(UUID dataPackageKey) {
+    applyStats(dataPackageKey, SUBTRACT_STATS);
     dataPackageMapper.archive(dataPackageKey);
   }
 
@@ -136,17 +446,18 @@ public class DataRepoPersistenceService {
   }
 
   public void deleteTag(Integer tagKey) {
-    tagMapper.delete(tagKey);
+    tagMapper.deleteAndUpdateTags(tagKey);
   }
 
   public void deleteCreator(Integer creatorKey) {
-    creatorMapper.delete(creatorKey);
+    creatorMapper.deleteAndResetCitation(creatorKey);
   }
 
   public void deleteIdentifier(Integer identifierKey) {
     identifierMapper.delete(identifierKey);
   }
 
+  @ReadOnly
   public DataPackageFile getDataPackageFile(UUID dataPackageKey, String fileName) {
     return dataPackageFileMapper.get(dataPackageKey, fileName);
   }
@@ -159,24 +470,111 @@ public class DataRepoPersistenceService {
 
   private static List<DataPackage> setCitation(List<DataPackage> dataPackages) {
     if (dataPackages !=null) {
-      dataPackages.forEach(dp -> dp.setCitation(CitationGenerator.generateCitation(dp)));
+      dataPackages.forEach(CitationGenerator::setCitation);
     }
     return dataPackages;
   }
 
+  @ReadOnly
   public PagingResponse<DataPackage> listDataPackages(String user, @Nullable Pageable page,
                                                       @Nullable Date fromDate, @Nullable Date toDate,
                                                       @Nullable Boolean deleted, @Nullable List<String> tags,
-                                                      @Nullable String publishedIn, @Nullable String shareIn,
-                                                      @Nullable String q, @Nullable String formatId) {
-    return asPageableResponse(page,
-                              () -> dataPackageMapper.count(user, fromDate, toDate, deleted, tags, publishedIn, shareIn, q, formatId),
-                              () -> setCitation(dataPackageMapper.list(user, page, fromDate, toDate, deleted, tags, publishedIn, shareIn, q, formatId)));
+                                                      @Nullable TagMode tagMode, @Nullable String publishedIn,
+                                                      @Nullable String shareIn,
+                                                      @Nullable String q, @Nullable String formatId,
+                                                      @Nullable Set<DataPackageFacet> facets, int facetLimit) {
+    PagingResponse<DataPackage> response = asPageableResponse(page,
+                              () -> dataPackageMapper.count(user, fromDate, toDate, deleted, tags, tagMode, publishedIn, shareIn, q, formatId),
+                              () -> setCitation(dataPackageMapper.list(user, page, fromDate, toDate, deleted, tags, tagMode, publishedIn, shareIn, q, formatId)));
+    if (facets == null || facets.isEmpty()) {
+      return response;
+    }
+    return new FacetedPagingResponse<>(response, response.getCount(), response.getResults(),
+                                       listFacets(user, fromDate, toDate, deleted, tags, tagMode, publishedIn, shareIn, q,
+                                                  formatId, facets, facetLimit));
+  }
+
+  /**
+   * Streams the same page of data packages as listDataPackages to a consumer, the page is read in chunks of
+   * EXPORT_CHUNK_SIZE data packages. The response holds the count and the facets, its results are empty.
+   */
+  @ReadOnly
+  public PagingResponse<DataPackage> streamDataPackages(String user, @Nullable Pageable page,
+                                                        @Nullable Date fromDate, @Nullable Date toDate,
+                                                        @Nullable Boolean deleted, @Nullable List<String> tags,
+                                                        @Nullable TagMode tagMode, @Nullable String publishedIn,
+                                                        @Nullable String shareIn,
+                                                        @Nullable String q, @Nullable String formatId,
+                                                        @Nullable Set<DataPackageFacet> facets, int facetLimit,
+                                                        Consumer<DataPackage> consumer) {
+    PagingResponse<DataPackage> response = asStreamedResponse(page,
+                              () -> dataPackageMapper.count(user, fromDate, toDate, deleted, tags, tagMode, publishedIn,
+                                                            shareIn, q, formatId),
+                              pagingRequest -> streamPage(pagingRequest,
+                                                          chunkPage -> dataPackageMapper.listFields(user, chunkPage,
+                                                                                                    fromDate, toDate,
+                                                                                                    deleted, tags,
+                                                                                                    tagMode,
+                                                                                                    publishedIn,
+                                                                                                    shareIn, q,
+                                                                                                    formatId),
+                                                          consumer));
+    if (facets == null || facets.isEmpty()) {
+      return response;
+    }
+    return new FacetedPagingResponse<>(response, response.getCount(), response.getResults(),
+                                       listFacets(user, fromDate, toDate, deleted, tags, tagMode, publishedIn, shareIn, q,
+                                                  formatId, facets, facetLimit));
+  }
+
+  /**
+   * Reads a page in chunks of at most EXPORT_CHUNK_SIZE data packages and passes them to a consumer, it stops at the
+   * first incomplete chunk.
+   */
+  private void streamPage(Pageable page, Function<Pageable, List<DataPackage>> chunkReader,
+                          Consumer<DataPackage> consumer) {
+    long end = page.getOffset() + page.getLimit();
+    for (long offset = page.getOffset(); offset < end; offset += EXPORT_CHUNK_SIZE) {
+      int limit = (int) Math.min(EXPORT_CHUNK_SIZE, end - offset);
+      List<DataPackage> chunk = completeChunk(chunkReader.apply(new PagingRequest(offset, limit)));
+      chunk.forEach(consumer);
+      if (chunk.size() < limit) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Computes the facet counts of the data packages matching the filters.
+   */
+  @ReadOnly
+  public List<Facet> listFacets(String user, @Nullable Date fromDate, @Nullable Date toDate,
+                                @Nullable Boolean deleted, @Nullable List<String> tags, @Nullable TagMode tagMode,
+                                @Nullable String publishedIn, @Nullable String shareIn,
+                                @Nullable String q, @Nullable String formatId,
+                                Set<DataPackageFacet> facets, int facetLimit) {
+    List<FacetEntry> facetEntries = dataPackageMapper.facets(user, fromDate, toDate, deleted, tags, tagMode, publishedIn,
+                                                             shareIn, q, formatId,
+                                                             facets.stream().map(Enum::name).collect(Collectors.toList()),
+                                                             facetLimit);
+    return toFacets(facets, facetEntries);
+  }
+
+  /**
+   * Groups the facet entries by facet, facets are returned in the requested order and entries keep the database order.
+   */
+  private static List<Facet> toFacets(Set<DataPackageFacet> facets, List<FacetEntry> facetEntries) {
+    Map<DataPackageFacet, Facet> facetsByField = new LinkedHashMap<>();
+    facets.forEach(facet -> facetsByField.put(facet, new Facet(facet)));
+    facetEntries.forEach(entry -> facetsByField.get(entry.getFacet()).getCounts()
+                                    .add(new Facet.Count(entry.getName(), entry.getCount())));
+    return new ArrayList<>(facetsByField.values());
   }
 
   /**
    * Page through AlternativeIdentifiers, optionally filtered by user and dates.
    */
+  @ReadOnly
   public PagingResponse<Identifier> listIdentifiers(@Nullable String user, @Nullable Pageable page,
                                                     @Nullable String identifier,
                                                     @Nullable UUID dataPackageKey,
@@ -191,7 +589,116 @@ public class DataRepoPersistenceService {
                                                           created, publishedIn));
   }
 
+  /**
+   * Streams the same page of AlternativeIdentifiers as listIdentifiers to a consumer, the response holds the count
+   * and its results are empty. The page is read in chunks of EXPORT_CHUNK_SIZE identifiers, no connection is held
+   * while the consumer handles a chunk.
+   */
+  @ReadOnly
+  public PagingResponse<Identifier> streamIdentifiers(@Nullable String user, @Nullable Pageable page,
+                                                      @Nullable String identifier,
+                                                      @Nullable UUID dataPackageKey,
+                                                      @Nullable Identifier.Type type,
+                                                      @Nullable Identifier.RelationType relationType,
+                                                      @Nullable Date created,
+                                                      @Nullable String publishedIn,
+                                                      Consumer<Identifier> consumer) {
+    return asStreamedResponse(page,
+                              () -> identifierMapper.count(user, identifier, dataPackageKey, type, relationType,
+                                                           created, publishedIn),
+                              pagingRequest -> streamIdentifierPage(pagingRequest, user, identifier,
+                                                                    dataPackageKey, type, relationType, created,
+                                                                    publishedIn, consumer));
+  }
+
+  /**
+   * Reads a page of identifiers in chunks of at most EXPORT_CHUNK_SIZE, only the first chunk skips the offset of the
+   * page and the next ones start after the last key read. It stops at the first incomplete chunk.
+   */
+  private void streamIdentifierPage(Pageable page, @Nullable String user, @Nullable String identifier,
+                                    @Nullable UUID dataPackageKey, @Nullable Identifier.Type type,
+                                    @Nullable Identifier.RelationType relationType, @Nullable Date created,
+                                    @Nullable String publishedIn, Consumer<Identifier> consumer) {
+    Integer afterKey = null;
+    long offset = page.getOffset();
+    for (long remaining = page.getLimit(); remaining > 0; remaining -= EXPORT_CHUNK_SIZE) {
+      int limit = (int) Math.min(EXPORT_CHUNK_SIZE, remaining);
+      List<Identifier> chunk = identifierMapper.listChunk(user, identifier, dataPackageKey, type, relationType, created,
+                                                          publishedIn, afterKey, offset, limit);
+      chunk.forEach(consumer);
+      if (chunk.size() < limit) {
+        return;
+      }
+      afterKey = chunk.get(chunk.size() - 1).getKey();
+      offset = 0L;
+    }
+  }
+
+  /**
+   * Returns the subset of the identifiers that are already used as alternative identifiers by the data packages of a
+   * repository.
+   * Identifiers are checked in chunks, each chunk is a single probe of the alternative identifiers index.
+   * It is not ReadOnly: conflicts are always checked against the primary database.
+   */
+  public Set<String> getAlternativeIdentifiersInUse(Collection<String> identifiers, String publishedIn) {
+    Set<String> identifiersInUse = new HashSet<>();
+    Iterables.partition(new LinkedHashSet<>(identifiers), IDENTIFIERS_CHUNK_SIZE)
+      .forEach(chunk -> identifiersInUse.addAll(identifierMapper.listAlternativeIdentifiersInUse(chunk,
+                                                                                                 publishedIn)));
+    return identifiersInUse;
+  }
+
+  /**
+   * Reads the incrementally maintained repository counters.
+   */
+  @ReadOnly
   public RepositoryStats getRepositoryStats() {
-    return repositoryStatsMapper.get();
+    return toRepositoryStats(repositoryStatsMapper.list());
+  }
+
+  /**
+   * Discards the maintained counters and recalculates them from the stored data packages. Writers of the counters wait
+   * for the rebuild, otherwise they could update a deleted counter and then insert it again.
+   */
+  @Transactional
+  public RepositoryStats rebuildRepositoryStats() {
+    repositoryStatsMapper.lockAll();
+    repositoryStatsMapper.clear();
+    repositoryStatsMapper.rebuild();
+    return getRepositoryStats();
+  }
+
+  /**
+   * Assembles a RepositoryStats instance from the counter rows.
+   */
+  private static RepositoryStats toRepositoryStats(List<RepositoryStatsEntry> entries) {
+    RepositoryStats repositoryStats = new RepositoryStats();
+    repositoryStats.setNumOfFiles(0);
+    repositoryStats.setNumOfDataPackages(0L);
+    repositoryStats.setTotalSize(0L);
+    repositoryStats.setAverageFileSize(0L);
+    entries.forEach(entry -> {
+      RepositoryStats.Breakdown breakdown = new RepositoryStats.Breakdown(entry.getNumOfFiles(),
+                                                                          entry.getNumOfDataPackages(),
+                                                                          entry.getTotalSize());
+      switch (entry.getDimension()) {
+        case TOTAL:
+          repositoryStats.setNumOfFiles(entry.getNumOfFiles().intValue());
+          repositoryStats.setNumOfDataPackages(entry.getNumOfDataPackages());
+          repositoryStats.setTotalSize(entry.getTotalSize());
+          repositoryStats.setAverageFileSize(entry.getNumOfFiles() > 0 ?
+                                               entry.getTotalSize() / entry.getNumOfFiles() : 0L);
+          break;
+        case FORMAT:
+          repositoryStats.getFormats().put(entry.getValue(), breakdown);
+          break;
+        case PUBLISHED_IN:
+          repositoryStats.getPublishedIn().put(entry.getValue(), breakdown);
+          break;
+        default:
+          break;
+      }
+    });
+    return repositoryStats;
   }
 }
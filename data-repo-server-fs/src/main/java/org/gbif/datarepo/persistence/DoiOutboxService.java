@@ -0,0 +1,113 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.datarepo.persistence.mappers.DoiOutboxMapper;
+import org.gbif.datarepo.persistence.model.DoiOperation;
+import org.gbif.datarepo.persistence.model.DoiSyncStatus;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import org.mybatis.guice.transactional.Transactional;
+
+/**
+ * Outbox of DOI operations. Operations are added in the transactions that change the data packages and claimed in
+ * batches by the dispatchers that deliver them to the DOI registry. A claimed operation is leased: if it's neither
+ * sent nor retried before the lease expires, e.g. because the service was restarted, it is claimed again.
+ * Each claim is a new attempt, the outcome of an attempt is only recorded if the operation hasn't been claimed again.
+ */
+public class DoiOutboxService {
+
+  private final DoiOutboxMapper doiOutboxMapper;
+
+  @Inject
+  public DoiOutboxService(DoiOutboxMapper doiOutboxMapper) {
+    this.doiOutboxMapper = doiOutboxMapper;
+  }
+
+  /**
+   * Adds an operation to the outbox, joining the transaction in progress if there is one.
+   * An UPDATE is merged into the REGISTER or UPDATE of the same DOI that hasn't been claimed yet.
+   */
+  @Transactional
+  public void enqueue(DoiOperation doiOperation) {
+    if (DoiOperation.Type.UPDATE != doiOperation.getType()
+        || doiOutboxMapper.mergeMetadata(doiOperation.getDoi(), doiOperation.getMetadata(),
+                                         doiOperation.getCreatedBy()) == 0) {
+      doiOutboxMapper.create(doiOperation);
+    }
+  }
+
+  /**
+   * Claims the oldest deliverable operations, concurrent claims get different operations.
+   * @param lease milliseconds during which the claimed operations can't be claimed again
+   * @return the claimed operations in the order they must be delivered
+   */
+  @Transactional
+  public List<DoiOperation> claim(int limit, long lease) {
+    List<Long> keys = doiOutboxMapper.lockNextPending(limit);
+    if (keys.isEmpty()) {
+      return Collections.emptyList();
+    }
+    doiOutboxMapper.markClaimed(keys, lease);
+    return doiOutboxMapper.listByKeys(keys);
+  }
+
+  /**
+   * Extends the lease of a claimed operation before it's delivered, so the operations at the end of a batch are not
+   * claimed again while the first ones are being delivered.
+   * @return false if the lease had already expired and the operation has been claimed again, or completed, meanwhile
+   */
+  public boolean renewLease(DoiOperation claimed, long lease) {
+    return doiOutboxMapper.renewLease(claimed.getKey(), claimed.getAttempts(), lease) > 0;
+  }
+
+  /**
+   * Records that a claimed operation has been delivered, unless it has been claimed again.
+   */
+  public void markSent(DoiOperation claimed) {
+    doiOutboxMapper.markSent(claimed.getKey(), claimed.getAttempts());
+  }
+
+  /**
+   * Records a failed attempt of a claimed operation, unless it has been claimed again. The operation is claimed again
+   * after delay milliseconds.
+   */
+  public void retry(DoiOperation claimed, String error, long delay) {
+    doiOutboxMapper.retry(claimed.getKey(), claimed.getAttempts(), error, delay);
+  }
+
+  /**
+   * Records the last failed attempt of a claimed operation, unless it has been claimed again. It won't be attempted
+   * again.
+   */
+  public void fail(DoiOperation claimed, String error) {
+    doiOutboxMapper.fail(claimed.getKey(), claimed.getAttempts(), error);
+  }
+
+  /**
+   * Number of operations waiting to be delivered.
+   */
+  public long countPending() {
+    return doiOutboxMapper.countPending();
+  }
+
+  /**
+   * Synchronization status of the DOI of a data package, null if no operations have been recorded for it.
+   */
+  @Nullable
+  public DoiSyncStatus getSyncStatus(UUID dataPackageKey) {
+    return doiOutboxMapper.getSyncStatus(dataPackageKey);
+  }
+
+  /**
+   * Deletes the operations delivered more than retention milliseconds ago.
+   * @return number of deleted operations
+   */
+  public int deleteSent(long retention) {
+    return doiOutboxMapper.deleteSentBefore(new Date(System.currentTimeMillis() - retention));
+  }
+}
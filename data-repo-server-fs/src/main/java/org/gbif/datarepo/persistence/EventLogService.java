@@ -0,0 +1,69 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.datarepo.persistence.mappers.LoggingMapper;
+import org.gbif.datarepo.persistence.model.EventLogEntry;
+import org.gbif.datarepo.persistence.model.LoggingEventProperty;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.inject.Inject;
+
+import org.mybatis.guice.transactional.Transactional;
+
+/**
+ * Writes structured events into the events log tables using the format of the DBAppender, so they can be queried
+ * through the AuditLogService and aggregated by the UsageStatsService.
+ */
+public class EventLogService {
+
+  //Type field used later by Logstash to route entries into different outputs
+  private static final String LOG_TYPE = "datarepo";
+
+  private final LoggingMapper loggingMapper;
+
+  @Inject
+  public EventLogService(LoggingMapper loggingMapper) {
+    this.loggingMapper = loggingMapper;
+  }
+
+  /**
+   * Writes a batch of events with three statements: one to reserve the event ids and one multi-row insert for the
+   * events and another one for their properties. The ids are reserved under a shared lock, see
+   * UsageStatsService.rollup.
+   */
+  @Transactional
+  public void write(List<EventLogEntry> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    loggingMapper.lockEventIds();
+    Iterator<Long> eventIds = loggingMapper.nextEventIds(events.size()).iterator();
+    List<LoggingEventProperty> properties = new ArrayList<>();
+    for (EventLogEntry event : events) {
+      long eventId = eventIds.next();
+      event.setEventId(eventId);
+      addProperty(properties, eventId, "type", LOG_TYPE);
+      addProperty(properties, eventId, "event", event.getEvent());
+      addProperty(properties, eventId, "identifier", event.getIdentifier());
+      addProperty(properties, eventId, "subject", event.getSubject());
+      addProperty(properties, eventId, "bytes", event.getBytes());
+      addProperty(properties, eventId, "latency", event.getLatency());
+    }
+    loggingMapper.insertEvents(events);
+    loggingMapper.insertProperties(properties);
+  }
+
+  /**
+   * Adds a property if its value is not null.
+   */
+  private static void addProperty(List<LoggingEventProperty> properties, long eventId, String key, Object value) {
+    if (value != null) {
+      LoggingEventProperty property = new LoggingEventProperty();
+      property.setEventId(eventId);
+      property.setKey(key);
+      property.setValue(value.toString());
+      properties.add(property);
+    }
+  }
+}
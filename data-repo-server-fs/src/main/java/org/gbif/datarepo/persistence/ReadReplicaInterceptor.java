@@ -0,0 +1,67 @@
+package org.gbif.datarepo.persistence;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.ibatis.session.SqlSessionManager;
+
+/**
+ * Routes the ReadOnly methods of DataRepoPersistenceService to a service instance backed by a read replica.
+ * Any other method is considered a write: it runs on the primary database and pins the current client, see
+ * ReadYourWrites, to the primary for a time window so it reads its own writes.
+ * Reads executed inside a transaction of the primary database are never routed.
+ */
+class ReadReplicaInterceptor implements MethodInterceptor {
+
+  private final ReadYourWrites readYourWrites;
+
+  private DataRepoPersistenceService replica;
+
+  private SqlSessionManager primarySessionManager;
+
+  /**
+   * Full constructor.
+   * @param readYourWrites clients pinned to the primary database
+   */
+  ReadReplicaInterceptor(ReadYourWrites readYourWrites) {
+    this.readYourWrites = readYourWrites;
+  }
+
+  /**
+   * Service instance that uses the read replica.
+   */
+  @Inject
+  void setReplica(@Named(DataPackageMyBatisModule.REPLICA) DataRepoPersistenceService replica) {
+    this.replica = replica;
+  }
+
+  @Inject
+  void setPrimarySessionManager(SqlSessionManager primarySessionManager) {
+    this.primarySessionManager = primarySessionManager;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    Method method = invocation.getMethod();
+    if (!method.isAnnotationPresent(ReadOnly.class)) {
+      try {
+        return invocation.proceed();
+      } finally {
+        readYourWrites.pin();
+      }
+    }
+    if (readYourWrites.isPinned() || primarySessionManager.isManagedSessionStarted()) {
+      return invocation.proceed();
+    }
+    readYourWrites.replicaRead();
+    try {
+      return method.invoke(replica, invocation.getArguments());
+    } catch (InvocationTargetException ex) {
+      throw ex.getCause();
+    }
+  }
+}
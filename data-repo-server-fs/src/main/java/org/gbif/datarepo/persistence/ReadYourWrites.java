@@ -0,0 +1,96 @@
+package org.gbif.datarepo.persistence;
+
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Tracks which clients have written to the primary database recently, so their reads are not served by a read replica
+ * that may not contain their writes yet.
+ * The client of the current thread, e.g. the user of a request, is set by the caller; writes of threads without a
+ * client pin only the thread. It also counts the reads of each thread served by the replica, so callers can tell
+ * whether a result may be stale.
+ */
+public class ReadYourWrites {
+
+  private final long window;
+
+  //Clients that wrote within the window
+  private final Cache<String, Boolean> pinnedClients;
+
+  private final ThreadLocal<String> client = new ThreadLocal<>();
+
+  //Time until which reads of the current thread are served by the primary database
+  private final ThreadLocal<Long> pinnedUntil = new ThreadLocal<>();
+
+  private final ThreadLocal<long[]> replicaReads = ThreadLocal.withInitial(() -> new long[1]);
+
+  /**
+   * Full constructor.
+   * @param window milliseconds that a client reads from the primary after a write
+   */
+  public ReadYourWrites(long window) {
+    this.window = window;
+    pinnedClients = CacheBuilder.newBuilder().expireAfterWrite(Math.max(window, 1L), TimeUnit.MILLISECONDS).build();
+  }
+
+  /**
+   * Sets the client of the current thread, null if the thread doesn't act on behalf of a known client.
+   * The pin of the thread is cleared, since a pooled thread starts acting on behalf of a new client.
+   */
+  public void setClient(@Nullable String clientId) {
+    pinnedUntil.remove();
+    if (clientId == null) {
+      client.remove();
+    } else {
+      client.set(clientId);
+    }
+  }
+
+  /**
+   * Pins the client of the current thread, or the thread if it has no client, to the primary database.
+   */
+  void pin() {
+    pinnedUntil.set(System.currentTimeMillis() + window);
+    String clientId = client.get();
+    if (clientId != null) {
+      pinnedClients.put(clientId, Boolean.TRUE);
+    }
+  }
+
+  /**
+   * Has the current thread or its client written to the primary database within the window?
+   */
+  boolean isPinned() {
+    String clientId = client.get();
+    if (clientId != null && pinnedClients.getIfPresent(clientId) != null) {
+      return true;
+    }
+    Long until = pinnedUntil.get();
+    if (until == null) {
+      return false;
+    }
+    if (until < System.currentTimeMillis()) {
+      pinnedUntil.remove();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Records a read of the current thread served by the replica.
+   */
+  void replicaRead() {
+    replicaReads.get()[0]++;
+  }
+
+  /**
+   * Number of reads of the current thread served by the replica, the difference between two calls tells whether the
+   * reads in between may have missed recent writes.
+   */
+  public long getReplicaReads() {
+    return replicaReads.get()[0];
+  }
+}
@@ -0,0 +1,69 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.datarepo.persistence.mappers.UsageStatsMapper;
+import org.gbif.datarepo.persistence.model.UsageStatsEntry;
+
+import java.util.Date;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import org.mybatis.guice.transactional.Transactional;
+
+/**
+ * Maintains and queries the daily usage counters of data packages and users.
+ * Counters are rolled up incrementally from the events log using a high-water mark on the event id, so the raw log
+ * tables are read only once.
+ * Event ids are taken before the events are committed, so a rollup waits for the events being written by
+ * EventLogService to be committed before it moves the high-water mark past their ids. Events written by other means,
+ * e.g. the logback DBAppender, are not counted and not waited for.
+ */
+public class UsageStatsService {
+
+  //Max number of logged events aggregated in a single transaction
+  private static final int ROLLUP_BATCH_SIZE = 10000;
+
+  private final UsageStatsMapper usageStatsMapper;
+
+  @Inject
+  public UsageStatsService(UsageStatsMapper usageStatsMapper) {
+    this.usageStatsMapper = usageStatsMapper;
+  }
+
+  /**
+   * Aggregates the events that haven't been aggregated yet.
+   * @return the last event id included in the counters
+   */
+  public long rollup() {
+    Long lastEventId;
+    do {
+      lastEventId = rollupBatch();
+    } while (lastEventId == null);
+    return lastEventId;
+  }
+
+  /**
+   * Aggregates the next batch of events in a single transaction, the events log is not written meanwhile.
+   * @return null if there can be more events to aggregate, otherwise the last aggregated event id
+   */
+  @Transactional
+  Long rollupBatch() {
+    long lastEventId = usageStatsMapper.getLastEventId();
+    usageStatsMapper.waitForEventWriters();
+    Long upperBound = usageStatsMapper.getBatchUpperBound(lastEventId, ROLLUP_BATCH_SIZE);
+    if (upperBound == null || upperBound <= lastEventId) {
+      return lastEventId;
+    }
+    usageStatsMapper.rollup(lastEventId, upperBound);
+    usageStatsMapper.setLastEventId(upperBound);
+    return null;
+  }
+
+  /**
+   * Daily counts per event, optionally filtered by data package identifier, as logged, user and day range.
+   */
+  public List<UsageStatsEntry> list(@Nullable String identifier, @Nullable String user, @Nullable Date fromDate,
+                                    @Nullable Date toDate) {
+    return usageStatsMapper.list(identifier, user, fromDate, toDate);
+  }
+}
@@ -0,0 +1,82 @@
+package org.gbif.datarepo.persistence.mappers;
+
+import org.gbif.datarepo.persistence.model.CreateJob;
+import org.gbif.datarepo.persistence.model.CreateJobFile;
+
+import java.util.Date;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * MyBatis mapper of the work queue of asynchronous data package creations.
+ */
+public interface CreateJobMapper {
+
+  /**
+   * Queues a new job.
+   */
+  void create(CreateJob createJob);
+
+  /**
+   * Adds a file to a job.
+   */
+  void createFile(@Param("jobKey") UUID jobKey, @Param("file") CreateJobFile file);
+
+  /**
+   * Retrieves a job and its files by the job key.
+   */
+  CreateJob get(@Param("key") UUID key);
+
+  /**
+   * Locks the oldest queued job that is not being claimed by another transaction, null if there is none.
+   */
+  UUID lockNextQueued();
+
+  /**
+   * Moves a queued job to the running status and starts a new attempt.
+   */
+  void markRunning(@Param("key") UUID key);
+
+  /**
+   * Updates the number of staged bytes of a file.
+   */
+  void updateFile(@Param("jobKey") UUID jobKey, @Param("fileName") String fileName, @Param("bytes") long bytes,
+                  @Param("completed") boolean completed);
+
+  /**
+   * Records that the worker running the job is alive.
+   */
+  void heartbeat(@Param("key") UUID key);
+
+  /**
+   * Has the owner of the job asked to cancel it?.
+   */
+  boolean isCancelRequested(@Param("key") UUID key);
+
+  /**
+   * Moves a running job to a final status.
+   * @return number of updated jobs, 0 if the job wasn't running
+   */
+  int finish(@Param("key") UUID key, @Param("status") CreateJob.Status status, @Nullable @Param("error") String error);
+
+  /**
+   * Moves a running job back to the queue.
+   * @return number of updated jobs, 0 if the job wasn't running
+   */
+  int requeue(@Param("key") UUID key);
+
+  /**
+   * Cancels a queued job, or asks the worker to cancel it if it is running.
+   * @return number of updated jobs, 0 if the job had finished
+   */
+  int cancel(@Param("key") UUID key);
+
+  /**
+   * Queues again the running jobs without a heartbeat since staleBefore, jobs that have been attempted maxAttempts
+   * times fail and jobs with a pending cancellation are cancelled.
+   * @return number of updated jobs
+   */
+  int requeueStale(@Param("staleBefore") Date staleBefore, @Param("maxAttempts") int maxAttempts);
+}
@@ -13,5 +13,10 @@ public interface CreatorMapper {
 
   void delete(@Param("creatorKey") Integer creatorKey);
 
+  /**
+   * Deletes a creator and resets the stored citation of its data package.
+   */
+  void deleteAndResetCitation(@Param("creatorKey") Integer creatorKey);
+
   List<Creator> listByDataPackageKey(@Param("dataPackageKey") UUID dataPackageKey);
 }
@@ -1,8 +1,16 @@
 package org.gbif.datarepo.persistence.mappers;
 
 import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.datarepo.api.model.Creator;
 import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.Tag;
+import org.gbif.datarepo.api.model.TagMode;
+import org.gbif.datarepo.persistence.model.DataPackageMatch;
+import org.gbif.datarepo.persistence.model.DataPackageReference;
+import org.gbif.datarepo.persistence.model.FacetEntry;
+import org.gbif.datarepo.persistence.model.KeyedDataPackageFile;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
@@ -27,23 +35,103 @@ public interface DataPackageMapper {
 
   DataPackage getByAlternativeIdentifier(@Param("identifier") String identifier);
 
+  /**
+   * Retrieves the DataPackages of a set of keys, in no particular order.
+   */
+  List<DataPackage> listByKeys(@Param("keys") Collection<UUID> keys);
+
+  /**
+   * Retrieves the columns of the DataPackages of a set of keys without their files, tags and creators.
+   */
+  List<DataPackage> listFieldsByKeys(@Param("keys") Collection<UUID> keys);
+
+  /**
+   * Lists the files of a set of data packages.
+   */
+  List<KeyedDataPackageFile> listFilesByKeys(@Param("keys") Collection<UUID> keys);
+
+  /**
+   * Lists the tags of a set of data packages.
+   */
+  List<Tag> listTagsByKeys(@Param("keys") Collection<UUID> keys);
+
+  /**
+   * Lists the creators of a set of data packages.
+   */
+  List<Creator> listCreatorsByKeys(@Param("keys") Collection<UUID> keys);
+
+  /**
+   * Resolves an identifier to the key and sharing settings of a data package, the identifier is matched as key
+   * (if dataPackageKey is not null), DOI (if doi is not null) and alternative identifier, in that order.
+   */
+  DataPackageReference resolve(@Nullable @Param("dataPackageKey") UUID dataPackageKey,
+                               @Nullable @Param("doi") String doiName,
+                               @Param("identifier") String identifier);
+
+  /**
+   * Resolves many identifiers at once, each identifier is matched as key (if it is in keys), DOI name (if it is in
+   * dois) and alternative identifier. An identifier can have one match of each kind.
+   */
+  List<DataPackageMatch> resolveAll(@Nullable @Param("keys") Collection<UUID> keys,
+                                    @Nullable @Param("dois") Collection<String> doiNames,
+                                    @Param("identifiers") Collection<String> identifiers);
+
   /**
    * Page through DataPackages, optionally filtered by user and dates.
    */
   List<DataPackage> list(@Nullable @Param("user") String user, @Nullable @Param("page") Pageable page,
                          @Nullable @Param("fromDate") Date fromDate, @Nullable @Param("toDate") Date toDate,
                          @Nullable @Param("deleted") Boolean deleted, @Nullable @Param("tags") List<String> tags,
-                         @Nullable @Param("publishedIn") String publishedIn, @Nullable @Param("shareIn") String shareIn,
-                         @Nullable @Param("query") String q, @Nullable @Param("formatId") String formatId);
+                         @Nullable @Param("tagMode") TagMode tagMode, @Nullable @Param("publishedIn") String publishedIn,
+                         @Nullable @Param("shareIn") String shareIn, @Nullable @Param("query") String q,
+                         @Nullable @Param("formatId") String formatId);
+
+  /**
+   * Same page of DataPackages as list, without files, tags and creators.
+   */
+  List<DataPackage> listFields(@Nullable @Param("user") String user, @Nullable @Param("page") Pageable page,
+                               @Nullable @Param("fromDate") Date fromDate, @Nullable @Param("toDate") Date toDate,
+                               @Nullable @Param("deleted") Boolean deleted, @Nullable @Param("tags") List<String> tags,
+                               @Nullable @Param("tagMode") TagMode tagMode,
+                               @Nullable @Param("publishedIn") String publishedIn,
+                               @Nullable @Param("shareIn") String shareIn, @Nullable @Param("query") String q,
+                               @Nullable @Param("formatId") String formatId);
+
+  /**
+   * Lists the next live data packages visible in a repository, optionally modified since a date, ordered by key and
+   * without files, tags and creators.
+   * @param afterKey key of the last data package of the previous chunk, null to get the first chunk
+   */
+  List<DataPackage> export(@Nullable @Param("modifiedSince") Date modifiedSince,
+                           @Param("repository") String repository, @Nullable @Param("afterKey") UUID afterKey,
+                           @Param("limit") int limit);
+
+  /**
+   * Lists the next data packages, deleted ones included, that have no citation template, ordered by key and without
+   * files, tags and creators.
+   * @param afterKey key of the last data package of the previous chunk, null to get the first chunk
+   */
+  List<DataPackage> listWithoutCitation(@Nullable @Param("afterKey") UUID afterKey, @Param("limit") int limit);
 
   /**
    * Count data packages, optionally filtered by user.
    */
   Long count(@Nullable @Param("user") String user, @Nullable @Param("fromDate") Date fromDate,
              @Nullable @Param("toDate") Date toDate, @Nullable @Param("deleted") Boolean deleted,
-             @Nullable @Param("tags") List<String> tags, @Nullable @Param("publishedIn") String publishedIn,
-             @Nullable @Param("shareIn") String shareIn, @Nullable @Param("query") String q,
-             @Nullable @Param("formatId") String formatId);
+             @Nullable @Param("tags") List<String> tags, @Nullable @Param("tagMode") TagMode tagMode,
+             @Nullable @Param("publishedIn") String publishedIn, @Nullable @Param("shareIn") String shareIn,
+             @Nullable @Param("query") String q, @Nullable @Param("formatId") String formatId);
+
+  /**
+   * Computes the most frequent values of the requested facets over the data packages matching the filters.
+   */
+  List<FacetEntry> facets(@Nullable @Param("user") String user, @Nullable @Param("fromDate") Date fromDate,
+                          @Nullable @Param("toDate") Date toDate, @Nullable @Param("deleted") Boolean deleted,
+                          @Nullable @Param("tags") List<String> tags, @Nullable @Param("tagMode") TagMode tagMode,
+                          @Nullable @Param("publishedIn") String publishedIn,
+                          @Nullable @Param("shareIn") String shareIn, @Nullable @Param("query") String q,
+                          @Nullable @Param("formatId") String formatId, @Param("facets") List<String> facets,
+                          @Param("facetLimit") int facetLimit);
 
   /**
    * Persists a new data package.
@@ -60,6 +148,16 @@ public interface DataPackageMapper {
    */
   void delete(@Param("dataPackageKey") UUID dataPackageKey);
 
+  /**
+   * Copies the distinct values of the tags of a data package into its tags column, used by the tag filters.
+   */
+  void updateTags(@Param("dataPackageKey") UUID dataPackageKey);
+
+  /**
+   * Stores the citation template of a data package.
+   */
+  void updateCitation(@Param("dataPackageKey") UUID dataPackageKey, @Param("citation") String citation);
+
   /**
    * Deletes a data package by its doi value.
    */
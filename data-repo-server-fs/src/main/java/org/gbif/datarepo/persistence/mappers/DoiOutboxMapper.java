@@ -0,0 +1,89 @@
+package org.gbif.datarepo.persistence.mappers;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.datarepo.persistence.model.DoiOperation;
+import org.gbif.datarepo.persistence.model.DoiSyncStatus;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * MyBatis mapper of the outbox of DOI operations.
+ */
+public interface DoiOutboxMapper {
+
+  /**
+   * Adds an operation to the outbox.
+   */
+  void create(DoiOperation doiOperation);
+
+  /**
+   * Replaces the metadata of the REGISTER or UPDATE operation of a DOI that has not been claimed yet, so consecutive
+   * updates are delivered once.
+   * @return number of updated operations, 0 if there is no such operation
+   */
+  int mergeMetadata(@Param("doi") DOI doi, @Param("metadata") String metadata,
+                    @Param("createdBy") String createdBy);
+
+  /**
+   * Locks the oldest pending operations that can be delivered: their next attempt is due and there are no older pending
+   * operations of the same DOI. Operations locked by other transactions are skipped.
+   */
+  List<Long> lockNextPending(@Param("limit") int limit);
+
+  /**
+   * Starts a new attempt of the operations and leases them for a number of milliseconds.
+   */
+  void markClaimed(@Param("keys") List<Long> keys, @Param("lease") long lease);
+
+  /**
+   * Retrieves operations by their keys, in key order.
+   */
+  List<DoiOperation> listByKeys(@Param("keys") List<Long> keys);
+
+  /**
+   * Extends the lease of an attempt of an operation by a number of milliseconds.
+   * @return 1 if the attempt still holds the operation, 0 if it has been claimed again or completed
+   */
+  int renewLease(@Param("key") long key, @Param("attempts") int attempts, @Param("lease") long lease);
+
+  /**
+   * Records that an attempt of an operation has delivered it.
+   * @return 1 if the attempt still holds the operation, 0 if it has been claimed again or completed
+   */
+  int markSent(@Param("key") long key, @Param("attempts") int attempts);
+
+  /**
+   * Records a failed attempt, the operation can be claimed again after a delay in milliseconds.
+   * @return 1 if the attempt still holds the operation, 0 if it has been claimed again or completed
+   */
+  int retry(@Param("key") long key, @Param("attempts") int attempts, @Param("error") String error,
+            @Param("delay") long delay);
+
+  /**
+   * Records a failed attempt after which the operation is not attempted anymore.
+   * @return 1 if the attempt still holds the operation, 0 if it has been claimed again or completed
+   */
+  int fail(@Param("key") long key, @Param("attempts") int attempts, @Param("error") String error);
+
+  /**
+   * Number of operations waiting to be delivered.
+   */
+  long countPending();
+
+  /**
+   * Synchronization status of the DOI of a data package, null if no operations have been recorded for it.
+   */
+  @Nullable
+  DoiSyncStatus getSyncStatus(@Param("dataPackageKey") UUID dataPackageKey);
+
+  /**
+   * Deletes the operations delivered before a date.
+   * @return number of deleted operations
+   */
+  int deleteSentBefore(@Param("sentBefore") Date sentBefore);
+}
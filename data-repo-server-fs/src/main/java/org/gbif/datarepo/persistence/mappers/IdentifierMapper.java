@@ -3,6 +3,7 @@ package org.gbif.datarepo.persistence.mappers;
 import org.gbif.api.model.common.paging.Pageable;
 import org.gbif.datarepo.api.model.Identifier;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
@@ -31,6 +32,19 @@ public interface IdentifierMapper {
                         @Nullable @Param("created") Date created,
                         @Nullable @Param("publishedIn") String publishedIn);
 
+  /**
+   * Reads a chunk of a page of list, the identifiers after afterKey skipping offset of them.
+   */
+  List<Identifier> listChunk(@Nullable @Param("user") String user,
+                             @Nullable @Param("identifier") String identifier,
+                             @Nullable @Param("dataPackageKey") UUID dataPackageKey,
+                             @Nullable @Param("type") Identifier.Type type,
+                             @Nullable @Param("relationType") Identifier.RelationType relationType,
+                             @Nullable @Param("created") Date created,
+                             @Nullable @Param("publishedIn") String publishedIn,
+                             @Nullable @Param("afterKey") Integer afterKey,
+                             @Param("offset") long offset, @Param("limit") int limit);
+
   /**
    * Count AlternativeIdentifiers, optionally filtered by user.
    */
@@ -43,6 +57,18 @@ public interface IdentifierMapper {
              @Nullable @Param("publishedIn") String publishedIn);
 
 
+  /**
+   * Lists the identifiers related to a set of data packages.
+   */
+  List<Identifier> listByDataPackageKeys(@Param("keys") Collection<UUID> keys);
+
+  /**
+   * Returns the subset of the identifiers that are already used as alternative identifiers by the data packages
+   * published in or shared with a repository.
+   */
+  List<String> listAlternativeIdentifiersInUse(@Param("identifiers") List<String> identifiers,
+                                               @Param("publishedIn") String publishedIn);
+
   /**
    * Persists a new data package file.
    */
@@ -52,4 +78,9 @@ public interface IdentifierMapper {
    * Deletes a data package file by its doi and name.
    */
   void delete(@Param("key") Integer key);
+
+  /**
+   * Deletes all the identifiers of a data package.
+   */
+  void deleteByDataPackage(@Param("dataPackageKey") UUID dataPackageKey);
 }
@@ -2,7 +2,11 @@ package org.gbif.datarepo.persistence.mappers;
 
 import org.gbif.api.model.common.paging.Pageable;
 import org.gbif.datarepo.persistence.model.DBLoggingEvent;
+import org.gbif.datarepo.persistence.model.EventLogEntry;
+import org.gbif.datarepo.persistence.model.LoggingEventProperty;
+import org.gbif.datarepo.persistence.model.LoggingEventTraceLine;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -20,4 +24,46 @@ public interface LoggingMapper {
     Long count(@Nullable @Param("fromDate") Long fromDate,
                @Nullable @Param("toDate") Long toDate,
                @Nullable @Param("mdc") Map<String,String> mdc);
+
+    /**
+     * Lists the events that follow the position (afterTimestamp, afterEventId) ordered by timestamp and event id.
+     * MDC properties and stack traces are not loaded, events must match all the mdc entries.
+     */
+    List<DBLoggingEvent> listAfter(@Nullable @Param("fromDate") Long fromDate,
+                                   @Nullable @Param("toDate") Long toDate,
+                                   @Nullable @Param("mdc") Map<String,String> mdc,
+                                   @Nullable @Param("afterTimestamp") Long afterTimestamp,
+                                   @Nullable @Param("afterEventId") Long afterEventId,
+                                   @Param("limit") int limit);
+
+    /**
+     * Lists the MDC properties of a set of events.
+     */
+    List<LoggingEventProperty> listProperties(@Param("eventIds") Collection<Long> eventIds);
+
+    /**
+     * Lists the stack trace lines of a set of events, ordered by event and line number.
+     */
+    List<LoggingEventTraceLine> listTraceLines(@Param("eventIds") Collection<Long> eventIds);
+
+    /**
+     * Takes a shared lock until the transaction ends, it must be held while event ids are taken and their events are
+     * inserted so the usage stats rollup can wait for the events to be committed.
+     */
+    int lockEventIds();
+
+    /**
+     * Takes count ids from the events sequence.
+     */
+    List<Long> nextEventIds(@Param("count") int count);
+
+    /**
+     * Inserts a batch of events, event ids must have been assigned.
+     */
+    void insertEvents(@Param("events") List<EventLogEntry> events);
+
+    /**
+     * Inserts a batch of MDC properties.
+     */
+    void insertProperties(@Param("properties") List<LoggingEventProperty> properties);
 }
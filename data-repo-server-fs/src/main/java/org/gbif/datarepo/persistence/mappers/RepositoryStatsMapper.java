@@ -1,6 +1,11 @@
 package org.gbif.datarepo.persistence.mappers;
 
-import org.gbif.datarepo.api.model.RepositoryStats;
+import org.gbif.datarepo.persistence.model.RepositoryStatsEntry;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.ibatis.annotations.Param;
 
 /**
  * MyBatis mapper that provides information about the data repository.
@@ -8,7 +13,34 @@ import org.gbif.datarepo.api.model.RepositoryStats;
 public interface RepositoryStatsMapper {
 
   /**
-   * Retrieves the RepositoryStats of active files.
+   * Retrieves all the counters of active data packages and files.
+   */
+  List<RepositoryStatsEntry> list();
+
+  /**
+   * Locks the counters of a data package until the end of the current transaction.
+   * @return the dimensions locked
+   */
+  List<String> lock(@Param("dataPackageKey") UUID dataPackageKey);
+
+  /**
+   * Adds (sign = 1) or subtracts (sign = -1) the contribution of a live data package to the counters, the counters must be
+   * locked first.
+   */
+  void apply(@Param("dataPackageKey") UUID dataPackageKey, @Param("sign") int sign);
+
+  /**
+   * Locks all the counters until the end of the current transaction, reads are not blocked.
+   */
+  void lockAll();
+
+  /**
+   * Removes all counters, they must be locked first.
+   */
+  void clear();
+
+  /**
+   * Recalculates all counters from the data_package and data_package_file tables.
    */
-  RepositoryStats get();
+  void rebuild();
 }
@@ -13,5 +13,10 @@ public interface TagMapper {
 
   void delete(@Param("tagKey") Integer tagKey);
 
+  /**
+   * Deletes a tag and updates the tags column of its data package.
+   */
+  void deleteAndUpdateTags(@Param("tagKey") Integer tagKey);
+
   List<Tag> listByDataPackageKey(@Param("dataPackageKey") UUID dataPackageKey);
 }
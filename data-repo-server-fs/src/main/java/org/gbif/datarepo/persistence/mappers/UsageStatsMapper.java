@@ -0,0 +1,47 @@
+package org.gbif.datarepo.persistence.mappers;
+
+import org.gbif.datarepo.persistence.model.UsageStatsEntry;
+
+import java.util.Date;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * MyBatis mapper of the daily usage counters rolled up from the events log.
+ */
+public interface UsageStatsMapper {
+
+  /**
+   * Gets and locks the high-water mark, i.e. the last event id included in the counters.
+   */
+  long getLastEventId();
+
+  /**
+   * Waits for the events being written to be committed and blocks new writes until the transaction ends, see
+   * LoggingMapper.lockEventIds.
+   */
+  int waitForEventWriters();
+
+  /**
+   * Upper event id of the next batch: the last of the next batchSize events. Null if there are no new events.
+   */
+  Long getBatchUpperBound(@Param("lastEventId") long lastEventId, @Param("batchSize") int batchSize);
+
+  /**
+   * Adds the READ, CREATE and DELETE events in the range (fromEventId, toEventId] to the daily counters.
+   */
+  void rollup(@Param("fromEventId") long fromEventId, @Param("toEventId") long toEventId);
+
+  /**
+   * Moves the high-water mark.
+   */
+  void setLastEventId(@Param("lastEventId") long lastEventId);
+
+  /**
+   * Daily counts per event, optionally filtered by data package identifier, user and day range.
+   */
+  List<UsageStatsEntry> list(@Nullable @Param("identifier") String identifier, @Nullable @Param("user") String user,
+                             @Nullable @Param("fromDate") Date fromDate, @Nullable @Param("toDate") Date toDate);
+}
@@ -0,0 +1,58 @@
+package org.gbif.datarepo.persistence.model;
+
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+/**
+ * Page of audit log events, the next cursor is null when there are no more events.
+ */
+public class AuditLogPage {
+
+  private final List<DBLoggingEvent> results;
+
+  @Nullable
+  private final String next;
+
+  public AuditLogPage(List<DBLoggingEvent> results, @Nullable String next) {
+    this.results = results;
+    this.next = next;
+  }
+
+  public List<DBLoggingEvent> getResults() {
+    return results;
+  }
+
+  /**
+   * Cursor to request the page that follows this one.
+   */
+  @Nullable
+  public String getNext() {
+    return next;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    AuditLogPage that = (AuditLogPage) o;
+    return Objects.equals(results, that.results) && Objects.equals(next, that.next);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(results, next);
+  }
+
+  @Override
+  public String toString() {
+    return "AuditLogPage{"
+           + "results=" + results
+           + ", next='" + next + '\''
+           + '}';
+  }
+}
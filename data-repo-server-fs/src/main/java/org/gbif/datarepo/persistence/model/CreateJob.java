@@ -0,0 +1,223 @@
+package org.gbif.datarepo.persistence.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Asynchronous creation of a data package, jobs are queued in the database and run by a pool of workers.
+ */
+public class CreateJob {
+
+  /**
+   * Status of a job.
+   */
+  public enum Status {
+    QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+    /**
+     * Jobs in a final status are not run anymore.
+     */
+    public boolean isFinished() {
+      return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+  }
+
+  private UUID key;
+  private UUID dataPackageKey;
+  private String dataPackage;
+  private Status status;
+  private boolean cancelRequested;
+  private int attempts;
+  private String error;
+  private String createdBy;
+  private Date created;
+  private Date started;
+  private Date heartbeat;
+  private Date finished;
+  private List<CreateJobFile> files = new ArrayList<>();
+
+  /**
+   * Job key.
+   */
+  public UUID getKey() {
+    return key;
+  }
+
+  public void setKey(UUID key) {
+    this.key = key;
+  }
+
+  /**
+   * Key of the data package, assigned when the job is queued.
+   */
+  public UUID getDataPackageKey() {
+    return dataPackageKey;
+  }
+
+  public void setDataPackageKey(UUID dataPackageKey) {
+    this.dataPackageKey = dataPackageKey;
+  }
+
+  /**
+   * Submitted data package, as JSON.
+   */
+  @JsonIgnore
+  public String getDataPackage() {
+    return dataPackage;
+  }
+
+  public void setDataPackage(String dataPackage) {
+    this.dataPackage = dataPackage;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public void setStatus(Status status) {
+    this.status = status;
+  }
+
+  /**
+   * The job owner asked to cancel the job while it was running.
+   */
+  public boolean isCancelRequested() {
+    return cancelRequested;
+  }
+
+  public void setCancelRequested(boolean cancelRequested) {
+    this.cancelRequested = cancelRequested;
+  }
+
+  /**
+   * Number of times the job has been claimed by a worker.
+   */
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(int attempts) {
+    this.attempts = attempts;
+  }
+
+  /**
+   * Error message of a failed job.
+   */
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public String getCreatedBy() {
+    return createdBy;
+  }
+
+  public void setCreatedBy(String createdBy) {
+    this.createdBy = createdBy;
+  }
+
+  public Date getCreated() {
+    return created;
+  }
+
+  public void setCreated(Date created) {
+    this.created = created;
+  }
+
+  /**
+   * When the last attempt started.
+   */
+  public Date getStarted() {
+    return started;
+  }
+
+  public void setStarted(Date started) {
+    this.started = started;
+  }
+
+  /**
+   * Last time the worker running the job reported progress.
+   */
+  public Date getHeartbeat() {
+    return heartbeat;
+  }
+
+  public void setHeartbeat(Date heartbeat) {
+    this.heartbeat = heartbeat;
+  }
+
+  public Date getFinished() {
+    return finished;
+  }
+
+  public void setFinished(Date finished) {
+    this.finished = finished;
+  }
+
+  /**
+   * Files of the data package and their progress.
+   */
+  public List<CreateJobFile> getFiles() {
+    return files;
+  }
+
+  public void setFiles(List<CreateJobFile> files) {
+    this.files = files;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    CreateJob that = (CreateJob) o;
+    return cancelRequested == that.cancelRequested
+           && attempts == that.attempts
+           && Objects.equals(key, that.key)
+           && Objects.equals(dataPackageKey, that.dataPackageKey)
+           && Objects.equals(dataPackage, that.dataPackage)
+           && status == that.status
+           && Objects.equals(error, that.error)
+           && Objects.equals(createdBy, that.createdBy)
+           && Objects.equals(created, that.created)
+           && Objects.equals(started, that.started)
+           && Objects.equals(heartbeat, that.heartbeat)
+           && Objects.equals(finished, that.finished)
+           && Objects.equals(files, that.files);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(key, dataPackageKey, dataPackage, status, cancelRequested, attempts, error, createdBy, created,
+                        started, heartbeat, finished, files);
+  }
+
+  @Override
+  public String toString() {
+    return "CreateJob{"
+           + "key=" + key
+           + ", dataPackageKey=" + dataPackageKey
+           + ", status=" + status
+           + ", cancelRequested=" + cancelRequested
+           + ", attempts=" + attempts
+           + ", error='" + error + '\''
+           + ", createdBy='" + createdBy + '\''
+           + ", created=" + created
+           + ", started=" + started
+           + ", heartbeat=" + heartbeat
+           + ", finished=" + finished
+           + ", files=" + files
+           + '}';
+  }
+}
@@ -0,0 +1,102 @@
+package org.gbif.datarepo.persistence.model;
+
+import java.util.Objects;
+
+/**
+ * File of an asynchronous data package creation and the progress of its transfer to the staging area.
+ */
+public class CreateJobFile {
+
+  private String fileName;
+  private String fileLocation;
+  private long bytes;
+  private boolean completed;
+
+  /**
+   * Default constructor, used by MyBatis and for serialization.
+   */
+  public CreateJobFile() {
+    //NOP
+  }
+
+  /**
+   * Full constructor.
+   */
+  public CreateJobFile(String fileName, String fileLocation, long bytes, boolean completed) {
+    this.fileName = fileName;
+    this.fileLocation = fileLocation;
+    this.bytes = bytes;
+    this.completed = completed;
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  public void setFileName(String fileName) {
+    this.fileName = fileName;
+  }
+
+  /**
+   * Location the file is fetched from, null for files uploaded with the request.
+   */
+  public String getFileLocation() {
+    return fileLocation;
+  }
+
+  public void setFileLocation(String fileLocation) {
+    this.fileLocation = fileLocation;
+  }
+
+  /**
+   * Bytes staged so far.
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  public void setBytes(long bytes) {
+    this.bytes = bytes;
+  }
+
+  /**
+   * The file has been completely staged, it isn't fetched again if the job is resumed.
+   */
+  public boolean isCompleted() {
+    return completed;
+  }
+
+  public void setCompleted(boolean completed) {
+    this.completed = completed;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    CreateJobFile that = (CreateJobFile) o;
+    return bytes == that.bytes
+           && completed == that.completed
+           && Objects.equals(fileName, that.fileName)
+           && Objects.equals(fileLocation, that.fileLocation);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(fileName, fileLocation, bytes, completed);
+  }
+
+  @Override
+  public String toString() {
+    return "CreateJobFile{"
+           + "fileName='" + fileName + '\''
+           + ", fileLocation='" + fileLocation + '\''
+           + ", bytes=" + bytes
+           + ", completed=" + completed
+           + '}';
+  }
+}
@@ -0,0 +1,70 @@
+package org.gbif.datarepo.persistence.model;
+
+import java.util.Objects;
+
+/**
+ * Data transfer object of an identifier matched as key, DOI or alternative identifier of a data package, used to
+ * resolve many identifiers at once. The priority orders the matches of an identifier: key, DOI and alternative
+ * identifier.
+ */
+public class DataPackageMatch {
+
+  private String identifier;
+  private int priority;
+  private DataPackageReference reference;
+
+  /**
+   * Matched value: the key as text, the DOI name or the alternative identifier.
+   */
+  public String getIdentifier() {
+    return identifier;
+  }
+
+  public void setIdentifier(String identifier) {
+    this.identifier = identifier;
+  }
+
+  public int getPriority() {
+    return priority;
+  }
+
+  public void setPriority(int priority) {
+    this.priority = priority;
+  }
+
+  public DataPackageReference getReference() {
+    return reference;
+  }
+
+  public void setReference(DataPackageReference reference) {
+    this.reference = reference;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DataPackageMatch that = (DataPackageMatch) o;
+    return priority == that.priority
+           && Objects.equals(identifier, that.identifier)
+           && Objects.equals(reference, that.reference);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(identifier, priority, reference);
+  }
+
+  @Override
+  public String toString() {
+    return "DataPackageMatch{"
+           + "identifier='" + identifier + '\''
+           + ", priority=" + priority
+           + ", reference=" + reference
+           + '}';
+  }
+}
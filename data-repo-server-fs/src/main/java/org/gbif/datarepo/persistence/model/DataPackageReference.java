@@ -0,0 +1,76 @@
+package org.gbif.datarepo.persistence.model;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Minimal information of a data package required to decide if it can be exposed: its key and its sharing settings.
+ */
+public class DataPackageReference {
+
+  private UUID key;
+  private String publishedIn;
+  private Set<String> shareIn;
+
+  /**
+   * Data package key.
+   */
+  public UUID getKey() {
+    return key;
+  }
+
+  public void setKey(UUID key) {
+    this.key = key;
+  }
+
+  /**
+   * Repository where the data package was published.
+   */
+  public String getPublishedIn() {
+    return publishedIn;
+  }
+
+  public void setPublishedIn(String publishedIn) {
+    this.publishedIn = publishedIn;
+  }
+
+  /**
+   * Other repositories where the data package is shared.
+   */
+  public Set<String> getShareIn() {
+    return shareIn;
+  }
+
+  public void setShareIn(Set<String> shareIn) {
+    this.shareIn = shareIn;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DataPackageReference that = (DataPackageReference) o;
+    return Objects.equals(key, that.key)
+           && Objects.equals(publishedIn, that.publishedIn)
+           && Objects.equals(shareIn, that.shareIn);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(key, publishedIn, shareIn);
+  }
+
+  @Override
+  public String toString() {
+    return "DataPackageReference{"
+           + "key=" + key
+           + ", publishedIn='" + publishedIn + '\''
+           + ", shareIn=" + shareIn
+           + '}';
+  }
+}
@@ -0,0 +1,220 @@
+package org.gbif.datarepo.persistence.model;
+
+import org.gbif.api.model.common.DOI;
+
+import java.util.Date;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * DOI operation stored in the outbox, it is written in the same transaction as the data package change and delivered
+ * to the DOI registry by a background dispatcher.
+ */
+public class DoiOperation {
+
+  /**
+   * Operation requested to the DOI registry.
+   */
+  public enum Type {
+    REGISTER, UPDATE, DELETE
+  }
+
+  /**
+   * Delivery status of an operation.
+   */
+  public enum Status {
+    PENDING, SENT, FAILED
+  }
+
+  private Long key;
+  private UUID dataPackageKey;
+  private DOI doi;
+  private Type type;
+  private String metadata;
+  private String createdBy;
+  private Status status;
+  private int attempts;
+  private Date nextAttempt;
+  private String error;
+  private Date created;
+  private Date sent;
+
+  /**
+   * Default constructor, used by MyBatis.
+   */
+  public DoiOperation() {
+    //NOP
+  }
+
+  /**
+   * Creates a new operation of a data package DOI.
+   * @param metadata DataCite metadata of REGISTER and UPDATE operations
+   */
+  public DoiOperation(UUID dataPackageKey, DOI doi, Type type, String metadata, String createdBy) {
+    this.dataPackageKey = dataPackageKey;
+    this.doi = doi;
+    this.type = type;
+    this.metadata = metadata;
+    this.createdBy = createdBy;
+  }
+
+  /**
+   * Outbox sequence number, operations of a DOI are delivered in key order.
+   */
+  public Long getKey() {
+    return key;
+  }
+
+  public void setKey(Long key) {
+    this.key = key;
+  }
+
+  public UUID getDataPackageKey() {
+    return dataPackageKey;
+  }
+
+  public void setDataPackageKey(UUID dataPackageKey) {
+    this.dataPackageKey = dataPackageKey;
+  }
+
+  public DOI getDoi() {
+    return doi;
+  }
+
+  public void setDoi(DOI doi) {
+    this.doi = doi;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public void setType(Type type) {
+    this.type = type;
+  }
+
+  /**
+   * DataCite metadata XML, null in DELETE operations.
+   */
+  public String getMetadata() {
+    return metadata;
+  }
+
+  public void setMetadata(String metadata) {
+    this.metadata = metadata;
+  }
+
+  public String getCreatedBy() {
+    return createdBy;
+  }
+
+  public void setCreatedBy(String createdBy) {
+    this.createdBy = createdBy;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public void setStatus(Status status) {
+    this.status = status;
+  }
+
+  /**
+   * Number of times the operation has been claimed by a dispatcher.
+   */
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(int attempts) {
+    this.attempts = attempts;
+  }
+
+  /**
+   * When a pending operation can be claimed, claimed operations are leased until this date.
+   */
+  public Date getNextAttempt() {
+    return nextAttempt;
+  }
+
+  public void setNextAttempt(Date nextAttempt) {
+    this.nextAttempt = nextAttempt;
+  }
+
+  /**
+   * Error of the last failed attempt.
+   */
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public Date getCreated() {
+    return created;
+  }
+
+  public void setCreated(Date created) {
+    this.created = created;
+  }
+
+  /**
+   * When the operation was accepted by the DOI registry.
+   */
+  public Date getSent() {
+    return sent;
+  }
+
+  public void setSent(Date sent) {
+    this.sent = sent;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DoiOperation that = (DoiOperation) o;
+    return attempts == that.attempts
+           && Objects.equals(key, that.key)
+           && Objects.equals(dataPackageKey, that.dataPackageKey)
+           && Objects.equals(doi, that.doi)
+           && type == that.type
+           && Objects.equals(metadata, that.metadata)
+           && Objects.equals(createdBy, that.createdBy)
+           && status == that.status
+           && Objects.equals(nextAttempt, that.nextAttempt)
+           && Objects.equals(error, that.error)
+           && Objects.equals(created, that.created)
+           && Objects.equals(sent, that.sent);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(key, dataPackageKey, doi, type, metadata, createdBy, status, attempts, nextAttempt, error,
+                        created, sent);
+  }
+
+  @Override
+  public String toString() {
+    return "DoiOperation{"
+           + "key=" + key
+           + ", dataPackageKey=" + dataPackageKey
+           + ", doi=" + doi
+           + ", type=" + type
+           + ", createdBy='" + createdBy + '\''
+           + ", status=" + status
+           + ", attempts=" + attempts
+           + ", nextAttempt=" + nextAttempt
+           + ", error='" + error + '\''
+           + ", created=" + created
+           + ", sent=" + sent
+           + '}';
+  }
+}
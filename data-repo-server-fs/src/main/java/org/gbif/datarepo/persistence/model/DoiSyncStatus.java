@@ -0,0 +1,151 @@
+package org.gbif.datarepo.persistence.model;
+
+import org.gbif.api.model.common.DOI;
+
+import java.util.Date;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Synchronization status of the DOI of a data package with the DOI registry, based on its latest DOI operation.
+ */
+public class DoiSyncStatus {
+
+  /**
+   * Status of a DOI.
+   */
+  public enum Status {
+    //There are operations waiting to be delivered
+    PENDING,
+    //All the operations have been delivered
+    SYNCED,
+    //The latest operation couldn't be delivered
+    FAILED
+  }
+
+  private UUID dataPackageKey;
+  private DOI doi;
+  private Status status;
+  private DoiOperation.Type lastOperation;
+  private int attempts;
+  private String error;
+  private Date nextAttempt;
+  private Date synced;
+
+  public UUID getDataPackageKey() {
+    return dataPackageKey;
+  }
+
+  public void setDataPackageKey(UUID dataPackageKey) {
+    this.dataPackageKey = dataPackageKey;
+  }
+
+  public DOI getDoi() {
+    return doi;
+  }
+
+  public void setDoi(DOI doi) {
+    this.doi = doi;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public void setStatus(Status status) {
+    this.status = status;
+  }
+
+  /**
+   * Type of the latest operation, null if the DOI has never been changed through the outbox.
+   */
+  public DoiOperation.Type getLastOperation() {
+    return lastOperation;
+  }
+
+  public void setLastOperation(DoiOperation.Type lastOperation) {
+    this.lastOperation = lastOperation;
+  }
+
+  /**
+   * Delivery attempts of the latest operation.
+   */
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(int attempts) {
+    this.attempts = attempts;
+  }
+
+  /**
+   * Error of the last failed attempt of the latest operation.
+   */
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  /**
+   * When the latest operation will be attempted, null if it's not pending.
+   */
+  public Date getNextAttempt() {
+    return nextAttempt;
+  }
+
+  public void setNextAttempt(Date nextAttempt) {
+    this.nextAttempt = nextAttempt;
+  }
+
+  /**
+   * When the latest operation was delivered.
+   */
+  public Date getSynced() {
+    return synced;
+  }
+
+  public void setSynced(Date synced) {
+    this.synced = synced;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DoiSyncStatus that = (DoiSyncStatus) o;
+    return attempts == that.attempts
+           && Objects.equals(dataPackageKey, that.dataPackageKey)
+           && Objects.equals(doi, that.doi)
+           && status == that.status
+           && lastOperation == that.lastOperation
+           && Objects.equals(error, that.error)
+           && Objects.equals(nextAttempt, that.nextAttempt)
+           && Objects.equals(synced, that.synced);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(dataPackageKey, doi, status, lastOperation, attempts, error, nextAttempt, synced);
+  }
+
+  @Override
+  public String toString() {
+    return "DoiSyncStatus{"
+           + "dataPackageKey=" + dataPackageKey
+           + ", doi=" + doi
+           + ", status=" + status
+           + ", lastOperation=" + lastOperation
+           + ", attempts=" + attempts
+           + ", error='" + error + '\''
+           + ", nextAttempt=" + nextAttempt
+           + ", synced=" + synced
+           + '}';
+  }
+}
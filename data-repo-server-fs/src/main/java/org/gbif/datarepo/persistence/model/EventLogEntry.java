@@ -0,0 +1,167 @@
+package org.gbif.datarepo.persistence.model;
+
+import java.util.Objects;
+
+/**
+ * Structured data package event written to the events log tables by the asynchronous event pipeline.
+ */
+public class EventLogEntry {
+
+  private Long eventId;
+  private long timestamp;
+  private String loggerName;
+  private String threadName;
+  private String message;
+  private String event;
+  private String identifier;
+  private String subject;
+  private Long bytes;
+  private Long latency;
+
+  /**
+   * Id assigned when the event is written.
+   */
+  public Long getEventId() {
+    return eventId;
+  }
+
+  public void setEventId(Long eventId) {
+    this.eventId = eventId;
+  }
+
+  /**
+   * Time in milliseconds when the event happened.
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public void setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+  }
+
+  public String getLoggerName() {
+    return loggerName;
+  }
+
+  public void setLoggerName(String loggerName) {
+    this.loggerName = loggerName;
+  }
+
+  /**
+   * Thread that produced the event.
+   */
+  public String getThreadName() {
+    return threadName;
+  }
+
+  public void setThreadName(String threadName) {
+    this.threadName = threadName;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+  }
+
+  /**
+   * Event type, a LoggingEvent name.
+   */
+  public String getEvent() {
+    return event;
+  }
+
+  public void setEvent(String event) {
+    this.event = event;
+  }
+
+  /**
+   * Identifier of the data package.
+   */
+  public String getIdentifier() {
+    return identifier;
+  }
+
+  public void setIdentifier(String identifier) {
+    this.identifier = identifier;
+  }
+
+  /**
+   * User name of the authenticated user, if any.
+   */
+  public String getSubject() {
+    return subject;
+  }
+
+  public void setSubject(String subject) {
+    this.subject = subject;
+  }
+
+  /**
+   * Bytes served, only set for downloads.
+   */
+  public Long getBytes() {
+    return bytes;
+  }
+
+  public void setBytes(Long bytes) {
+    this.bytes = bytes;
+  }
+
+  /**
+   * Milliseconds spent serving the request.
+   */
+  public Long getLatency() {
+    return latency;
+  }
+
+  public void setLatency(Long latency) {
+    this.latency = latency;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    EventLogEntry that = (EventLogEntry) o;
+    return timestamp == that.timestamp
+           && Objects.equals(eventId, that.eventId)
+           && Objects.equals(loggerName, that.loggerName)
+           && Objects.equals(threadName, that.threadName)
+           && Objects.equals(message, that.message)
+           && Objects.equals(event, that.event)
+           && Objects.equals(identifier, that.identifier)
+           && Objects.equals(subject, that.subject)
+           && Objects.equals(bytes, that.bytes)
+           && Objects.equals(latency, that.latency);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(eventId, timestamp, loggerName, threadName, message, event, identifier, subject, bytes,
+                        latency);
+  }
+
+  @Override
+  public String toString() {
+    return "EventLogEntry{"
+           + "eventId=" + eventId
+           + ", timestamp=" + timestamp
+           + ", loggerName='" + loggerName + '\''
+           + ", threadName='" + threadName + '\''
+           + ", message='" + message + '\''
+           + ", event='" + event + '\''
+           + ", identifier='" + identifier + '\''
+           + ", subject='" + subject + '\''
+           + ", bytes=" + bytes
+           + ", latency=" + latency
+           + '}';
+  }
+}
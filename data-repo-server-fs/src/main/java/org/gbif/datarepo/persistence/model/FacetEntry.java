@@ -0,0 +1,65 @@
+package org.gbif.datarepo.persistence.model;
+
+import org.gbif.datarepo.api.model.DataPackageFacet;
+
+import java.util.Objects;
+
+/**
+ * Data transfer object of a single facet count: facet, value and number of data packages.
+ */
+public class FacetEntry {
+
+  private DataPackageFacet facet;
+  private String name;
+  private Long count;
+
+  public DataPackageFacet getFacet() {
+    return facet;
+  }
+
+  public void setFacet(DataPackageFacet facet) {
+    this.facet = facet;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Long getCount() {
+    return count;
+  }
+
+  public void setCount(Long count) {
+    this.count = count;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FacetEntry that = (FacetEntry) o;
+    return facet == that.facet && Objects.equals(name, that.name) && Objects.equals(count, that.count);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(facet, name, count);
+  }
+
+  @Override
+  public String toString() {
+    return "FacetEntry{"
+           + "facet=" + facet
+           + ", name='" + name + '\''
+           + ", count=" + count
+           + '}';
+  }
+}
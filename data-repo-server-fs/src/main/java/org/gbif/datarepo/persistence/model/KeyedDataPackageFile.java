@@ -0,0 +1,57 @@
+package org.gbif.datarepo.persistence.model;
+
+import org.gbif.datarepo.api.model.DataPackageFile;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Data transfer object of a data package file and the key of its data package, used to load the files of many data
+ * packages at once.
+ */
+public class KeyedDataPackageFile {
+
+  private UUID dataPackageKey;
+  private DataPackageFile file;
+
+  public UUID getDataPackageKey() {
+    return dataPackageKey;
+  }
+
+  public void setDataPackageKey(UUID dataPackageKey) {
+    this.dataPackageKey = dataPackageKey;
+  }
+
+  public DataPackageFile getFile() {
+    return file;
+  }
+
+  public void setFile(DataPackageFile file) {
+    this.file = file;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    KeyedDataPackageFile that = (KeyedDataPackageFile) o;
+    return Objects.equals(dataPackageKey, that.dataPackageKey) && Objects.equals(file, that.file);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(dataPackageKey, file);
+  }
+
+  @Override
+  public String toString() {
+    return "KeyedDataPackageFile{"
+           + "dataPackageKey=" + dataPackageKey
+           + ", file=" + file
+           + '}';
+  }
+}
@@ -0,0 +1,63 @@
+package org.gbif.datarepo.persistence.model;
+
+import java.util.Objects;
+
+/**
+ * Data transfer object of a MDC property of a logging event, used to load the properties of many events at once.
+ */
+public class LoggingEventProperty {
+
+  private Long eventId;
+  private String key;
+  private String value;
+
+  public Long getEventId() {
+    return eventId;
+  }
+
+  public void setEventId(Long eventId) {
+    this.eventId = eventId;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public void setKey(String key) {
+    this.key = key;
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  public void setValue(String value) {
+    this.value = value;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    LoggingEventProperty that = (LoggingEventProperty) o;
+    return Objects.equals(eventId, that.eventId) && Objects.equals(key, that.key) && Objects.equals(value, that.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(eventId, key, value);
+  }
+
+  @Override
+  public String toString() {
+    return "LoggingEventProperty{"
+           + "eventId=" + eventId
+           + ", key='" + key + '\''
+           + ", value='" + value + '\''
+           + '}';
+  }
+}
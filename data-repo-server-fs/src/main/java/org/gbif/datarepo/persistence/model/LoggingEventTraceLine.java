@@ -0,0 +1,53 @@
+package org.gbif.datarepo.persistence.model;
+
+import java.util.Objects;
+
+/**
+ * Data transfer object of a stack trace line of a logging event, used to load the stack traces of many events at once.
+ */
+public class LoggingEventTraceLine {
+
+  private Long eventId;
+  private String traceLine;
+
+  public Long getEventId() {
+    return eventId;
+  }
+
+  public void setEventId(Long eventId) {
+    this.eventId = eventId;
+  }
+
+  public String getTraceLine() {
+    return traceLine;
+  }
+
+  public void setTraceLine(String traceLine) {
+    this.traceLine = traceLine;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    LoggingEventTraceLine that = (LoggingEventTraceLine) o;
+    return Objects.equals(eventId, that.eventId) && Objects.equals(traceLine, that.traceLine);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(eventId, traceLine);
+  }
+
+  @Override
+  public String toString() {
+    return "LoggingEventTraceLine{"
+           + "eventId=" + eventId
+           + ", traceLine='" + traceLine + '\''
+           + '}';
+  }
+}
@@ -0,0 +1,97 @@
+package org.gbif.datarepo.persistence.model;
+
+import java.util.Objects;
+
+/**
+ * Data transfer object of a single counter row of the repository_stats table.
+ */
+public class RepositoryStatsEntry {
+
+  /**
+   * Dimensions in which the repository statistics are broken down.
+   */
+  public enum Dimension {
+    TOTAL, PUBLISHED_IN, FORMAT
+  }
+
+  private Dimension dimension;
+  private String value;
+  private Long numOfFiles;
+  private Long numOfDataPackages;
+  private Long totalSize;
+
+  public Dimension getDimension() {
+    return dimension;
+  }
+
+  public void setDimension(Dimension dimension) {
+    this.dimension = dimension;
+  }
+
+  /**
+   * Dimension value, e.g.: a format name. The TOTAL dimension has an empty value.
+   */
+  public String getValue() {
+    return value;
+  }
+
+  public void setValue(String value) {
+    this.value = value;
+  }
+
+  public Long getNumOfFiles() {
+    return numOfFiles;
+  }
+
+  public void setNumOfFiles(Long numOfFiles) {
+    this.numOfFiles = numOfFiles;
+  }
+
+  public Long getNumOfDataPackages() {
+    return numOfDataPackages;
+  }
+
+  public void setNumOfDataPackages(Long numOfDataPackages) {
+    this.numOfDataPackages = numOfDataPackages;
+  }
+
+  public Long getTotalSize() {
+    return totalSize;
+  }
+
+  public void setTotalSize(Long totalSize) {
+    this.totalSize = totalSize;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    RepositoryStatsEntry that = (RepositoryStatsEntry) o;
+    return dimension == that.dimension
+           && Objects.equals(value, that.value)
+           && Objects.equals(numOfFiles, that.numOfFiles)
+           && Objects.equals(numOfDataPackages, that.numOfDataPackages)
+           && Objects.equals(totalSize, that.totalSize);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(dimension, value, numOfFiles, numOfDataPackages, totalSize);
+  }
+
+  @Override
+  public String toString() {
+    return "RepositoryStatsEntry{"
+           + "dimension=" + dimension
+           + ", value='" + value + '\''
+           + ", numOfFiles=" + numOfFiles
+           + ", numOfDataPackages=" + numOfDataPackages
+           + ", totalSize=" + totalSize
+           + '}';
+  }
+}
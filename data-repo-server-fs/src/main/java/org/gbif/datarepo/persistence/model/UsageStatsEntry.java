@@ -0,0 +1,70 @@
+package org.gbif.datarepo.persistence.model;
+
+import java.util.Date;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * Number of events of a type in a day.
+ */
+public class UsageStatsEntry {
+
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd", timezone = "UTC")
+  private Date day;
+  private String event;
+  private Long count;
+
+  public Date getDay() {
+    return day;
+  }
+
+  public void setDay(Date day) {
+    this.day = day;
+  }
+
+  /**
+   * Event type: READ, CREATE or DELETE.
+   */
+  public String getEvent() {
+    return event;
+  }
+
+  public void setEvent(String event) {
+    this.event = event;
+  }
+
+  public Long getCount() {
+    return count;
+  }
+
+  public void setCount(Long count) {
+    this.count = count;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    UsageStatsEntry that = (UsageStatsEntry) o;
+    return Objects.equals(day, that.day) && Objects.equals(event, that.event) && Objects.equals(count, that.count);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(day, event, count);
+  }
+
+  @Override
+  public String toString() {
+    return "UsageStatsEntry{"
+           + "day=" + day
+           + ", event='" + event + '\''
+           + ", count=" + count
+           + '}';
+  }
+}
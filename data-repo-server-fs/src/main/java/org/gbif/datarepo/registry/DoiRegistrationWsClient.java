@@ -8,6 +8,7 @@ import org.gbif.registry.doi.DoiType;
 import org.gbif.registry.doi.registration.DoiRegistration;
 import org.gbif.registry.doi.registration.DoiRegistrationService;
 
+import java.util.function.Supplier;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
@@ -15,10 +16,14 @@ import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.jackson.JacksonFeature;
 
+import static com.codahale.metrics.MetricRegistry.name;
+
 /**
  * Jersey 2 client implementation for the DoiRegistrationService.
  * This class is implemented here since the available client is implemented for Jersey 1 and bring it to this project
@@ -35,8 +40,33 @@ public class DoiRegistrationWsClient implements DoiRegistrationService {
   //Base web target that point to the doi registration url
   private final WebTarget webTarget;
 
+  private final MetricRegistry metricRegistry;
+
+  /**
+   * Creates a client of the DOI registration service, metrics are not reported.
+   */
   public DoiRegistrationWsClient(WebTarget webTarget) {
+    this(webTarget, new MetricRegistry());
+  }
+
+  /**
+   * Full constructor, each operation is timed and its errors are counted.
+   */
+  public DoiRegistrationWsClient(WebTarget webTarget, MetricRegistry metricRegistry) {
     this.webTarget = webTarget;
+    this.metricRegistry = metricRegistry;
+  }
+
+  /**
+   * Times a call to the registration service and counts its errors.
+   */
+  private <T> T timed(String operation, Supplier<T> call) {
+    try (Timer.Context context = metricRegistry.timer(name(DoiRegistrationWsClient.class, operation)).time()) {
+      return call.get();
+    } catch (RuntimeException ex) {
+      metricRegistry.counter(name(DoiRegistrationWsClient.class, operation, "errors")).inc();
+      throw ex;
+    }
   }
 
   /**
@@ -51,7 +81,8 @@ public class DoiRegistrationWsClient implements DoiRegistrationService {
    */
   @Override
   public DOI generate(DoiType doiType) {
-    return request(webTarget.path(GEN_PATH).path(doiType.name())).post(Entity.json(null), DOI.class);
+    return timed("generate", () -> request(webTarget.path(GEN_PATH).path(doiType.name())).post(Entity.json(null),
+                                                                                                DOI.class));
   }
 
   /**
@@ -59,7 +90,7 @@ public class DoiRegistrationWsClient implements DoiRegistrationService {
    */
   @Override
   public DoiData get(String prefix, String suffix) {
-    return request(webTarget.path(prefix).path(suffix)).get(DoiData.class);
+    return timed("get", () -> request(webTarget.path(prefix).path(suffix)).get(DoiData.class));
   }
 
   /**
@@ -67,7 +98,7 @@ public class DoiRegistrationWsClient implements DoiRegistrationService {
    */
   @Override
   public void delete(String prefix, String suffix) {
-    request(webTarget.path(prefix).path(suffix)).delete();
+    timed("delete", () -> request(webTarget.path(prefix).path(suffix)).delete());
   }
 
   /**
@@ -75,7 +106,7 @@ public class DoiRegistrationWsClient implements DoiRegistrationService {
    */
   @Override
   public DOI register(DoiRegistration doiRegistration) {
-    return request(webTarget).post(Entity.json(doiRegistration), DOI.class);
+    return timed("register", () -> request(webTarget).post(Entity.json(doiRegistration), DOI.class));
   }
 
   /**
@@ -83,7 +114,7 @@ public class DoiRegistrationWsClient implements DoiRegistrationService {
    */
   @Override
   public DOI update(DoiRegistration doiRegistration) {
-    return request(webTarget).put(Entity.json(doiRegistration), DOI.class);
+    return timed("update", () -> request(webTarget).put(Entity.json(doiRegistration), DOI.class));
   }
 
   /**
@@ -0,0 +1,3 @@
+-- Alternative identifiers are unique within the data packages of a repository, not across repositories, so the
+-- conflict checks are backed by a plain index and the uniqueness is enforced by the application
+CREATE INDEX identifier_alternative_of_idx ON identifier(identifier) WHERE relation_type = 'IsAlternativeOf';
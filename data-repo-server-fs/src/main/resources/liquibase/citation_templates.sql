@@ -0,0 +1,3 @@
+-- Citation of each data package without the access date, set by the persistence service when a data package is
+-- written. Data packages written before this column existed have their citation generated when they are read
+ALTER TABLE data_package ADD COLUMN citation text;
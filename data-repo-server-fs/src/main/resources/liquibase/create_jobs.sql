@@ -0,0 +1,29 @@
+-- Work queue of asynchronous data package creations. The submitted data package is stored as JSON and its key is
+-- assigned when the job is queued, so a job resumed after a restart can detect that the data package was created.
+CREATE TABLE create_job (
+  key uuid NOT NULL PRIMARY KEY,
+  data_package_key uuid NOT NULL,
+  data_package text NOT NULL,
+  status varchar(16) NOT NULL DEFAULT 'QUEUED',
+  cancel_requested boolean NOT NULL DEFAULT false,
+  attempts integer NOT NULL DEFAULT 0,
+  error text,
+  created_by varchar(255) NOT NULL,
+  created timestamp with time zone NOT NULL DEFAULT now(),
+  started timestamp with time zone,
+  heartbeat timestamp with time zone,
+  finished timestamp with time zone
+);
+-- Queued jobs are claimed in creation order, running jobs without a recent heartbeat are queued again
+CREATE INDEX create_job_queued_idx ON create_job (created) WHERE status = 'QUEUED';
+CREATE INDEX create_job_running_idx ON create_job (heartbeat) WHERE status = 'RUNNING';
+
+-- Files of a job: uploaded files are staged when the job is queued, files with a location are fetched by the job
+CREATE TABLE create_job_file (
+  job_key uuid NOT NULL REFERENCES create_job(key) ON DELETE CASCADE,
+  file_name text NOT NULL,
+  file_location text,
+  bytes bigint NOT NULL DEFAULT 0,
+  completed boolean NOT NULL DEFAULT false,
+  PRIMARY KEY (job_key, file_name)
+);
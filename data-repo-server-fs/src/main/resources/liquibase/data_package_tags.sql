@@ -0,0 +1,10 @@
+-- Distinct tag values of each data package, kept in sync with the tag table by the persistence service
+ALTER TABLE data_package ADD COLUMN tags text[] NOT NULL DEFAULT '{}';
+
+UPDATE data_package dp SET tags = t.tags
+FROM (SELECT data_package_key, array_agg(DISTINCT value ORDER BY value) AS tags
+      FROM tag GROUP BY data_package_key) t
+WHERE t.data_package_key = dp.key;
+
+-- Tag filters and facets use the array column
+CREATE INDEX data_package_tags_idx ON data_package USING gin(tags);
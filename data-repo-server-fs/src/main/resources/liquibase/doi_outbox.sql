@@ -0,0 +1,20 @@
+-- DOI operations written in the same transaction as the data package changes and delivered to the DOI registry by a
+-- background dispatcher. Operations of a DOI are delivered in key order; claimed operations are leased by moving
+-- next_attempt forward, so operations of a stopped dispatcher are claimed again once their lease expires.
+CREATE TABLE doi_outbox (
+  key bigserial NOT NULL PRIMARY KEY,
+  data_package_key uuid NOT NULL,
+  doi text NOT NULL,
+  operation varchar(16) NOT NULL,
+  metadata text,
+  created_by varchar(255),
+  status varchar(16) NOT NULL DEFAULT 'PENDING',
+  attempts integer NOT NULL DEFAULT 0,
+  next_attempt timestamp with time zone NOT NULL DEFAULT now(),
+  error text,
+  created timestamp with time zone NOT NULL DEFAULT now(),
+  sent timestamp with time zone
+);
+CREATE INDEX doi_outbox_pending_idx ON doi_outbox (doi, key) WHERE status = 'PENDING';
+CREATE INDEX doi_outbox_data_package_idx ON doi_outbox (data_package_key, key);
+CREATE INDEX doi_outbox_sent_idx ON doi_outbox (sent) WHERE status = 'SENT';
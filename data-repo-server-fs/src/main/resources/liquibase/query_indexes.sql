@@ -0,0 +1,24 @@
+-- Indexes backing the filters and sort orders used by the MyBatis mappers, checked by QueryPlanTest.
+-- Indexes are built concurrently so the tables can be written while they are created, this file can't run in a
+-- transaction.
+
+-- Listings of live and deleted data packages, sorted as in DataPackageMapper.list
+CREATE INDEX CONCURRENTLY data_package_live_created_idx ON data_package (created DESC, doi) WHERE deleted IS NULL;
+CREATE INDEX CONCURRENTLY data_package_live_created_by_idx ON data_package (created_by, created DESC, doi)
+  WHERE deleted IS NULL;
+CREATE INDEX CONCURRENTLY data_package_live_modified_idx ON data_package (modified) WHERE deleted IS NULL;
+CREATE INDEX CONCURRENTLY data_package_deleted_created_idx ON data_package (created DESC, doi)
+  WHERE deleted IS NOT NULL;
+
+-- Repositories where a data package is visible, queried using the array operators @> and &&
+CREATE INDEX CONCURRENTLY data_package_repositories_idx ON data_package
+  USING gin ((array_append(share_in, published_in)));
+
+-- Lookups from the filtered values to the data packages, tags are filtered using the array column data_package.tags
+CREATE INDEX CONCURRENTLY data_package_file_format_idx ON data_package_file (format, data_package_key);
+CREATE INDEX CONCURRENTLY creator_data_package_key_idx ON creator (data_package_key);
+CREATE INDEX CONCURRENTLY identifier_identifier_idx ON identifier (identifier);
+
+-- Audit log queries by MDC values and by date range, keyset paging orders events by (timestmp, event_id)
+CREATE INDEX CONCURRENTLY logging_event_timestmp_event_id_idx ON logging_event (timestmp, event_id);
+CREATE INDEX CONCURRENTLY logging_event_property_mapped_idx ON logging_event_property (mapped_key, mapped_value);
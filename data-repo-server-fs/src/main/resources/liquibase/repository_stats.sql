@@ -0,0 +1,37 @@
+-- Contribution of each live data package to the repository statistics.
+-- The dimension TOTAL has a single row per package, PUBLISHED_IN one row per package and FORMAT one row per format
+-- contained in the package.
+CREATE VIEW data_package_stats AS
+  SELECT dp.key AS data_package_key, 'TOTAL'::text AS dimension, ''::text AS value,
+         count(dpf.file_name) AS num_of_files, 1::bigint AS num_of_data_packages,
+         COALESCE(sum(dpf.size), 0)::bigint AS total_size
+  FROM data_package dp LEFT JOIN data_package_file dpf ON dpf.data_package_key = dp.key
+  WHERE dp.deleted IS NULL
+  GROUP BY dp.key
+  UNION ALL
+  SELECT dp.key, 'PUBLISHED_IN'::text, dp.published_in::text,
+         count(dpf.file_name), 1::bigint, COALESCE(sum(dpf.size), 0)::bigint
+  FROM data_package dp LEFT JOIN data_package_file dpf ON dpf.data_package_key = dp.key
+  WHERE dp.deleted IS NULL
+  GROUP BY dp.key, dp.published_in
+  UNION ALL
+  SELECT dp.key, 'FORMAT'::text, dpf.format::text,
+         count(dpf.file_name), 1::bigint, COALESCE(sum(dpf.size), 0)::bigint
+  FROM data_package dp JOIN data_package_file dpf ON dpf.data_package_key = dp.key
+  WHERE dp.deleted IS NULL
+  GROUP BY dp.key, dpf.format;
+
+-- Counters maintained in the same transaction that creates, updates or deletes a data package.
+CREATE TABLE repository_stats (
+  dimension varchar(32) NOT NULL,
+  value text NOT NULL,
+  num_of_files bigint NOT NULL DEFAULT 0,
+  num_of_data_packages bigint NOT NULL DEFAULT 0,
+  total_size bigint NOT NULL DEFAULT 0,
+  PRIMARY KEY (dimension, value)
+);
+
+INSERT INTO repository_stats (dimension, value, num_of_files, num_of_data_packages, total_size)
+SELECT dimension, value, sum(num_of_files), sum(num_of_data_packages), sum(total_size)
+FROM data_package_stats
+GROUP BY dimension, value;
@@ -0,0 +1,19 @@
+-- Daily number of READ, CREATE and DELETE events per data package identifier and user, anonymous events have an
+-- empty subject. The counters are rolled up incrementally from logging_event.
+CREATE TABLE usage_stats (
+  day date NOT NULL,
+  identifier text NOT NULL,
+  subject text NOT NULL,
+  event varchar(16) NOT NULL,
+  count bigint NOT NULL DEFAULT 0,
+  PRIMARY KEY (day, identifier, subject, event)
+);
+CREATE INDEX usage_stats_identifier_idx ON usage_stats (identifier, day);
+CREATE INDEX usage_stats_subject_idx ON usage_stats (subject, day);
+
+-- High-water mark: last logging_event.event_id included in the counters
+CREATE TABLE usage_stats_watermark (
+  id int NOT NULL PRIMARY KEY CHECK (id = 1),
+  last_event_id bigint NOT NULL
+);
+INSERT INTO usage_stats_watermark (id, last_event_id) VALUES (1, 0);
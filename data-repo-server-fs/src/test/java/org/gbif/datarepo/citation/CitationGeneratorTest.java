@@ -0,0 +1,66 @@
+package org.gbif.datarepo.citation;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.api.vocabulary.Language;
+import org.gbif.datarepo.api.model.Creator;
+import org.gbif.datarepo.api.model.DataPackage;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the generation of citation templates and the rendering of citations.
+ */
+public class CitationGeneratorTest {
+
+  private static DataPackage testDataPackage() {
+    DataPackage dataPackage = new DataPackage();
+    dataPackage.setTitle("Birds of Denmark");
+    dataPackage.setDoi(new DOI(DOI.TEST_PREFIX, "citation"));
+    dataPackage.setCreated(Date.from(LocalDate.of(2017, 3, 1).atStartOfDay(ZoneId.of("UTC")).toInstant()));
+    Creator creator = new Creator();
+    creator.setName("Jane Mary Doe");
+    dataPackage.getCreators().add(creator);
+    return dataPackage;
+  }
+
+  /**
+   * The template holds everything but the access date.
+   */
+  @Test
+  public void testTemplate() {
+    DataPackage dataPackage = testDataPackage();
+    Assert.assertEquals("Mary, J. D. (2017). Birds of Denmark. DataPackage " + dataPackage.getDoi().getUrl(),
+                        CitationGenerator.generateCitationTemplate(dataPackage));
+  }
+
+  /**
+   * A stored template is used as it is, the access date is added in the requested language.
+   */
+  @Test
+  public void testRenderStoredTemplate() {
+    DataPackage dataPackage = testDataPackage();
+    dataPackage.setCitationTemplate("Stored citation.");
+    String today = LocalDate.now(ZoneId.of("UTC")).toString();
+    Assert.assertEquals("Stored citation. accessed via GBIF.org on " + today + ".",
+                        CitationGenerator.setCitation(dataPackage).getCitation());
+    Assert.assertEquals("Stored citation. consultado a través de GBIF.org el " + today + ".",
+                        CitationGenerator.setCitation(dataPackage, Language.SPANISH).getCitation());
+    Assert.assertEquals(CitationGenerator.setCitation(dataPackage).getCitation(),
+                        CitationGenerator.setCitation(dataPackage, Language.UNKNOWN).getCitation());
+  }
+
+  /**
+   * Data packages without a stored template get one generated.
+   */
+  @Test
+  public void testMissingTemplate() {
+    DataPackage dataPackage = CitationGenerator.setCitation(testDataPackage());
+    Assert.assertNotNull(dataPackage.getCitationTemplate());
+    Assert.assertTrue(dataPackage.getCitation().startsWith(dataPackage.getCitationTemplate() + " accessed via"));
+  }
+}
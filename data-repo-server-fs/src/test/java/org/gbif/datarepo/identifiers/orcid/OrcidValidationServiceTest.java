@@ -0,0 +1,101 @@
+package org.gbif.datarepo.identifiers.orcid;
+
+import org.gbif.datarepo.impl.conf.OrcidConfiguration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the ORCID validations using a local server that stands in for the ORCID public API.
+ */
+public class OrcidValidationServiceTest {
+
+  private static final String EXISTING_ORCID = "0000-0002-1825-0097";
+
+  private static final String MISSING_ORCID = "http://orcid.org/0000-0001-5109-3700";
+
+  private static final String OTHER_ORCID = "0000-0002-1694-233X";
+
+  private static final String INVALID_CHECKSUM_ORCID = "0000-0002-1825-0098";
+
+  private HttpServer server;
+
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private volatile boolean failing;
+
+  private OrcidPublicClient orcidPublicClient;
+
+  private OrcidValidationService orcidValidationService;
+
+  @Before
+  public void setup() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> {
+      requests.incrementAndGet();
+      int status = failing ? 503 : exchange.getRequestURI().getPath().contains(EXISTING_ORCID) ? 200 : 404;
+      exchange.sendResponseHeaders(status, -1);
+      exchange.close();
+    });
+    server.start();
+    OrcidConfiguration configuration = new OrcidConfiguration();
+    configuration.setApiUrl("http://localhost:" + server.getAddress().getPort());
+    configuration.setFailureThreshold(2);
+    orcidPublicClient = new OrcidPublicClient(configuration.getApiUrl(), configuration.getConnectTimeout(),
+                                              configuration.getReadTimeout());
+    orcidValidationService = new OrcidValidationService(orcidPublicClient, configuration, new MetricRegistry());
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    orcidValidationService.close();
+    orcidPublicClient.close();
+    server.stop(0);
+  }
+
+  /**
+   * Existing and missing ORCIDs are looked up once.
+   */
+  @Test
+  public void testCachedLookups() {
+    Assert.assertEquals(Collections.singletonList(MISSING_ORCID),
+                        orcidValidationService.findMissing(Arrays.asList(EXISTING_ORCID, MISSING_ORCID)));
+    Assert.assertEquals(Collections.singletonList(MISSING_ORCID),
+                        orcidValidationService.findMissing(Arrays.asList(MISSING_ORCID, EXISTING_ORCID)));
+    Assert.assertEquals(2, requests.get());
+  }
+
+  /**
+   * ORCIDs with an invalid checksum are not looked up.
+   */
+  @Test
+  public void testInvalidChecksum() {
+    Assert.assertEquals(Collections.singletonList(INVALID_CHECKSUM_ORCID),
+                        orcidValidationService.findMissing(Collections.singletonList(INVALID_CHECKSUM_ORCID)));
+    Assert.assertEquals(0, requests.get());
+  }
+
+  /**
+   * Once the API fails repeatedly it's no longer called and ORCIDs are validated by their checksum.
+   */
+  @Test
+  public void testCircuitBreaker() {
+    failing = true;
+    Assert.assertTrue(orcidValidationService.findMissing(Arrays.asList(EXISTING_ORCID, MISSING_ORCID)).isEmpty());
+    Assert.assertEquals(2, requests.get());
+    Assert.assertTrue(orcidValidationService.findMissing(Collections.singletonList(OTHER_ORCID)).isEmpty());
+    Assert.assertEquals(Collections.singletonList(INVALID_CHECKSUM_ORCID),
+                        orcidValidationService.findMissing(Collections.singletonList(INVALID_CHECKSUM_ORCID)));
+    Assert.assertEquals(2, requests.get());
+  }
+}
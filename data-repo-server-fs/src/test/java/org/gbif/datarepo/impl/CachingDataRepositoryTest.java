@@ -0,0 +1,160 @@
+package org.gbif.datarepo.impl;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.impl.conf.DataPackageCacheConfiguration;
+import org.gbif.datarepo.persistence.ReadYourWrites;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the caching and invalidation of CachingDataRepository.
+ */
+public class CachingDataRepositoryTest {
+
+  private static final UUID KEY = UUID.randomUUID();
+
+  private static final DOI TEST_DOI = new DOI(DOI.TEST_PREFIX, "cache");
+
+  private DataRepository dataRepository;
+
+  private CachingDataRepository cachingDataRepository;
+
+  private static DataPackage testDataPackage() {
+    DataPackage dataPackage = new DataPackage();
+    dataPackage.setKey(KEY);
+    dataPackage.setDoi(TEST_DOI);
+    dataPackage.setTitle("test");
+    dataPackage.addFile("test.xml", "checksum", "text/xml", 1);
+    return dataPackage;
+  }
+
+  @Before
+  public void setup() {
+    dataRepository = mock(DataRepository.class);
+    cachingDataRepository = new CachingDataRepository(dataRepository, new DataPackageCacheConfiguration(),
+                                                      new ReadYourWrites(0L), new MetricRegistry());
+  }
+
+  /**
+   * Consecutive lookups by key or DOI hit the underlying repository once.
+   */
+  @Test
+  public void testCachedLookups() {
+    when(dataRepository.get(TEST_DOI)).thenReturn(Optional.of(testDataPackage()));
+    Assert.assertEquals(KEY, cachingDataRepository.get(TEST_DOI).get().getKey());
+    Assert.assertEquals(KEY, cachingDataRepository.get(TEST_DOI).get().getKey());
+    Assert.assertEquals(KEY, cachingDataRepository.get(KEY).get().getKey());
+    verify(dataRepository, times(1)).get(TEST_DOI);
+    verify(dataRepository, times(0)).get(KEY);
+  }
+
+  /**
+   * Changes to a returned instance are not visible in the cache.
+   */
+  @Test
+  public void testSnapshotsAreCopied() {
+    when(dataRepository.get(KEY)).thenReturn(Optional.of(testDataPackage()));
+    cachingDataRepository.get(KEY).get().getFiles().clear();
+    Assert.assertEquals(1, cachingDataRepository.get(KEY).get().getFiles().size());
+  }
+
+  /**
+   * Deleting a data package removes it from the cache.
+   */
+  @Test
+  public void testInvalidation() {
+    when(dataRepository.get(KEY)).thenReturn(Optional.of(testDataPackage()));
+    cachingDataRepository.get(KEY);
+    cachingDataRepository.delete(KEY);
+    when(dataRepository.get(KEY)).thenReturn(Optional.empty());
+    Assert.assertFalse(cachingDataRepository.get(KEY).isPresent());
+    Assert.assertFalse(cachingDataRepository.get(KEY).isPresent());
+    verify(dataRepository, times(2)).get(KEY);
+  }
+
+  /**
+   * Lookups that didn't find a data package are bounded by their own size, not by the weight of the data packages.
+   */
+  @Test
+  public void testNegativeLookupsSize() {
+    DataPackageCacheConfiguration configuration = new DataPackageCacheConfiguration();
+    configuration.setMaximumWeight(1);
+    configuration.setNegativeMaximumSize(10);
+    cachingDataRepository = new CachingDataRepository(dataRepository, configuration, new ReadYourWrites(0L),
+                                                      new MetricRegistry());
+    List<UUID> keys = Arrays.asList(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    keys.forEach(key -> when(dataRepository.get(key)).thenReturn(Optional.empty()));
+    keys.forEach(cachingDataRepository::get);
+    keys.forEach(key -> Assert.assertFalse(cachingDataRepository.get(key).isPresent()));
+    keys.forEach(key -> verify(dataRepository, times(1)).get(key));
+  }
+
+  /**
+   * Lookups served by a read replica that didn't find a data package are not cached, the replica may be behind.
+   */
+  @Test
+  public void testReplicaNegativeLookups() {
+    ReadYourWrites readYourWrites = mock(ReadYourWrites.class);
+    when(readYourWrites.getReplicaReads()).thenReturn(0L, 1L, 1L, 2L);
+    cachingDataRepository = new CachingDataRepository(dataRepository, new DataPackageCacheConfiguration(),
+                                                      readYourWrites, new MetricRegistry());
+    when(dataRepository.get(KEY)).thenReturn(Optional.empty());
+    Assert.assertFalse(cachingDataRepository.get(KEY).isPresent());
+    Assert.assertFalse(cachingDataRepository.get(KEY).isPresent());
+    verify(dataRepository, times(2)).get(KEY);
+  }
+
+  /**
+   * Batch lookups load only the identifiers that are not cached, in a single call.
+   */
+  @Test
+  public void testBatchLookups() {
+    when(dataRepository.getByIdentifier(KEY.toString())).thenReturn(Optional.of(testDataPackage()));
+    when(dataRepository.getByIdentifiers(Collections.singletonList("missing")))
+      .thenReturn(Collections.singletonList(Optional.empty()));
+    cachingDataRepository.getByIdentifier(KEY.toString());
+    List<Optional<DataPackage>> results = cachingDataRepository.getByIdentifiers(Arrays.asList(KEY.toString(),
+                                                                                               "missing",
+                                                                                               KEY.toString()));
+    Assert.assertEquals(3, results.size());
+    Assert.assertEquals(KEY, results.get(0).get().getKey());
+    Assert.assertFalse(results.get(1).isPresent());
+    Assert.assertNotSame(results.get(0).get(), results.get(2).get());
+    Assert.assertFalse(cachingDataRepository.getByIdentifiers(Collections.singletonList("missing")).get(0).isPresent());
+    verify(dataRepository, times(1)).getByIdentifiers(Collections.singletonList("missing"));
+  }
+
+  /**
+   * Identifiers that resolved to a data package are resolved again once the data package leaves the cache.
+   */
+  @Test
+  public void testIndexesCleanedOnRemoval() {
+    when(dataRepository.getByAlternativeIdentifier("alternative")).thenReturn(Optional.of(testDataPackage()));
+    when(dataRepository.getByIdentifier("identifier")).thenReturn(Optional.of(testDataPackage()));
+    cachingDataRepository.getByAlternativeIdentifier("alternative");
+    cachingDataRepository.getByIdentifier("identifier");
+    cachingDataRepository.delete(KEY);
+    when(dataRepository.getByAlternativeIdentifier("alternative")).thenReturn(Optional.empty());
+    when(dataRepository.getByIdentifier("identifier")).thenReturn(Optional.empty());
+    Assert.assertFalse(cachingDataRepository.getByAlternativeIdentifier("alternative").isPresent());
+    Assert.assertFalse(cachingDataRepository.getByIdentifier("identifier").isPresent());
+    verify(dataRepository, times(2)).getByAlternativeIdentifier("alternative");
+    verify(dataRepository, times(2)).getByIdentifier("identifier");
+  }
+}
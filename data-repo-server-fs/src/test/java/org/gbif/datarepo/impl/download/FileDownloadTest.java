@@ -0,0 +1,57 @@
+package org.gbif.datarepo.impl.download;
+
+import org.gbif.datarepo.api.model.FileInputContent;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import com.codahale.metrics.MetricRegistry;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Tests the metrics reported by the copies of files from each source.
+ */
+public class FileDownloadTest {
+
+  private static final byte[] CONTENT = "occurrenceID,scientificName".getBytes(StandardCharsets.UTF_8);
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /**
+   * Copies are timed and measured per source, streamed content is reported as multipart.
+   */
+  @Test
+  public void testCopyMetrics() throws Exception {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    FileSystem fileSystem = FileSystem.getLocal(new Configuration());
+    FileDownload fileDownload = new FileDownload(fileSystem, metricRegistry);
+
+    Path uploaded = new Path(temporaryFolder.getRoot().getAbsolutePath(), "uploaded.csv");
+    Assert.assertEquals(CONTENT.length,
+                        fileDownload.copy(FileInputContent.from("uploaded.csv", new ByteArrayInputStream(CONTENT)),
+                                          uploaded, fileSystem));
+    File sourceFile = temporaryFolder.newFile("source.csv");
+    Files.write(sourceFile.toPath(), CONTENT);
+    Path fetched = new Path(temporaryFolder.getRoot().getAbsolutePath(), "fetched.csv");
+    fileDownload.copy(FileInputContent.from("source.csv", sourceFile.toURI()), fetched, fileSystem);
+
+    for (String source : new String[]{"multipart", "file"}) {
+      Assert.assertEquals(1, metricRegistry.timer(name(FileDownload.class, source, "copy")).getCount());
+      Assert.assertEquals(CONTENT.length, metricRegistry.meter(name(FileDownload.class, source, "bytes")).getCount());
+      Assert.assertEquals(CONTENT.length, metricRegistry.histogram(name(FileDownload.class, source, "fileSize"))
+                                            .getSnapshot().getMax());
+    }
+    Assert.assertArrayEquals(CONTENT, Files.readAllBytes(new File(fetched.toUri().getPath()).toPath()));
+  }
+}
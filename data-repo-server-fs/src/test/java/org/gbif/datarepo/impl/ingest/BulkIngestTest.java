@@ -0,0 +1,182 @@
+package org.gbif.datarepo.impl.ingest;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.FileInputContent;
+import org.gbif.datarepo.impl.download.FileDownload;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the reading of manifests and the idempotent ingest of their entries.
+ */
+public class BulkIngestTest {
+
+  private static final String CREATED_BY = "testUser";
+
+  private static final String NDJSON_MANIFEST =
+    "{\"id\":\"dp1\",\"dataPackage\":{\"title\":\"Birds\"},\"fileUrls\":[\"http://example.org/birds.zip\"]}\n"
+    + "\n"
+    + "{\"id\":\"dp2\",\"dataPackage\":{\"title\":\"Fishes\"},\"fileUrls\":[\"http://example.org/fishes.zip\"]}\n"
+    + "{\"id\":\"dp3\",\"dataPackage\":{\"title\":\"No files\"}}\n"
+    + "{\"id\":\"dp1\",\"dataPackage\":{\"title\":\"Birds\"},\"fileUrls\":[\"http://example.org/birds.zip\"]}\n"
+    + "not json\n";
+
+  private static final String CSV_MANIFEST =
+    "id,title,description,tags,fileUrls\n"
+    + "dp1,Birds,\"Birds of Denmark, \"\"Copenhagen\"\"\nand Aarhus\",DataOne|Birds,http://example.org/birds.zip\n"
+    + "dp2,Fishes,,,http://example.org/fishes.zip|http://example.org/meta.xml\n";
+
+  //Length of the files probed by the FileDownload mock
+  private static final long FILE_LENGTH = 100L;
+
+  private static final String UNREACHABLE_FILE_URL = "http://example.org/meta.xml";
+
+  private Map<UUID, DataPackage> created;
+
+  private DataRepository dataRepository;
+
+  private BulkIngest bulkIngest;
+
+  @Before
+  public void setup() {
+    created = new ConcurrentHashMap<>();
+    dataRepository = mock(DataRepository.class);
+    when(dataRepository.get(any(UUID.class)))
+      .thenAnswer(invocation -> Optional.ofNullable(created.get((UUID) invocation.getArguments()[0])));
+    when(dataRepository.create(any(DataPackage.class), anyListOf(FileInputContent.class), anyBoolean()))
+      .thenAnswer(invocation -> {
+        DataPackage dataPackage = (DataPackage) invocation.getArguments()[0];
+        dataPackage.setDoi(new DOI(DOI.TEST_PREFIX, dataPackage.getKey().toString()));
+        created.put(dataPackage.getKey(), dataPackage);
+        return dataPackage;
+      });
+    bulkIngest = new BulkIngest(dataRepository, 2, dataPackage -> {
+      if (dataPackage.getTitle() == null) {
+        throw new IllegalArgumentException("title may not be null");
+      }
+    });
+  }
+
+  private static List<IngestEntry> read(String manifest, ManifestReader.Format format) {
+    List<IngestEntry> entries = new ArrayList<>();
+    new ManifestReader(new StringReader(manifest), format).forEachRemaining(entries::add);
+    return entries;
+  }
+
+  private Map<Long, IngestResult> ingest(Iterator<IngestEntry> entries) {
+    return ingest(bulkIngest, entries);
+  }
+
+  private static Map<Long, IngestResult> ingest(BulkIngest bulkIngest, Iterator<IngestEntry> entries) {
+    List<IngestResult> results = new ArrayList<>();
+    bulkIngest.ingest(entries, CREATED_BY, results::add);
+    return results.stream().collect(Collectors.toMap(IngestResult::getLine, Function.identity()));
+  }
+
+  /**
+   * NDJSON entries are read with their line numbers, invalid lines are returned with an error.
+   */
+  @Test
+  public void testReadNdjson() {
+    List<IngestEntry> entries = read(NDJSON_MANIFEST, ManifestReader.Format.NDJSON);
+    Assert.assertEquals(5, entries.size());
+    Assert.assertEquals("Birds", entries.get(0).getDataPackage().getTitle());
+    Assert.assertEquals(3L, entries.get(1).getLine());
+    Assert.assertNotNull(entries.get(4).getError());
+  }
+
+  /**
+   * CSV fields can be quoted and multivalued columns are split.
+   */
+  @Test
+  public void testReadCsv() {
+    List<IngestEntry> entries = read(CSV_MANIFEST, ManifestReader.Format.CSV);
+    Assert.assertEquals(2, entries.size());
+    Assert.assertEquals("Birds of Denmark, \"Copenhagen\"\nand Aarhus", entries.get(0).getDataPackage().getDescription());
+    Assert.assertEquals(2, entries.get(0).getDataPackage().getTags().size());
+    Assert.assertEquals(4L, entries.get(1).getLine());
+    Assert.assertEquals(2, entries.get(1).getFileUrls().size());
+  }
+
+  /**
+   * Valid entries are created once, a second run reports them as existing.
+   */
+  @Test
+  public void testIngest() {
+    Map<Long, IngestResult> results = ingest(read(NDJSON_MANIFEST, ManifestReader.Format.NDJSON).iterator());
+    Assert.assertEquals(5, results.size());
+    Assert.assertEquals(IngestResult.Status.CREATED, results.get(1L).getStatus());
+    Assert.assertEquals(IngestResult.Status.CREATED, results.get(3L).getStatus());
+    Assert.assertEquals(IngestResult.Status.FAILED, results.get(4L).getStatus());
+    Assert.assertEquals(IngestResult.Status.FAILED, results.get(5L).getStatus());
+    Assert.assertEquals(IngestResult.Status.FAILED, results.get(6L).getStatus());
+    Assert.assertEquals(2, created.size());
+    Assert.assertEquals(CREATED_BY, created.get(results.get(1L).getKey()).getCreatedBy());
+
+    results = ingest(read(NDJSON_MANIFEST, ManifestReader.Format.NDJSON).iterator());
+    Assert.assertEquals(IngestResult.Status.EXISTS, results.get(1L).getStatus());
+    Assert.assertEquals(IngestResult.Status.EXISTS, results.get(3L).getStatus());
+    Assert.assertEquals(2, created.size());
+  }
+
+  /**
+   * Each new entry is admitted on behalf of its creator with the probed length of its files and the permit is released
+   * once it's created. Entries with unreachable files or that are not admitted fail.
+   */
+  @Test
+  public void testIngestAdmission() throws Exception {
+    FileDownload fileDownload = mock(FileDownload.class);
+    when(fileDownload.length(anyString())).thenReturn(FILE_LENGTH);
+    when(fileDownload.length(eq(UNREACHABLE_FILE_URL))).thenReturn(FileDownload.NOT_FOUND);
+    List<Long> admitted = new ArrayList<>();
+    AtomicInteger released = new AtomicInteger();
+    BulkIngest.Admission admission = (createdBy, bytes) -> {
+      Assert.assertEquals(CREATED_BY, createdBy);
+      synchronized (admitted) {
+        admitted.add(bytes);
+      }
+      return released::incrementAndGet;
+    };
+    BulkIngest admittedIngest = new BulkIngest(dataRepository, 2, dataPackage -> { }, fileDownload, admission);
+    Map<Long, IngestResult> results = ingest(admittedIngest, read(CSV_MANIFEST, ManifestReader.Format.CSV).iterator());
+    Assert.assertEquals(IngestResult.Status.CREATED, results.get(2L).getStatus());
+    Assert.assertEquals(IngestResult.Status.FAILED, results.get(4L).getStatus());
+    Assert.assertEquals("File location is not reachable " + UNREACHABLE_FILE_URL, results.get(4L).getError());
+    Assert.assertEquals(1, admitted.size());
+    Assert.assertEquals(FILE_LENGTH, admitted.get(0).longValue());
+    Assert.assertEquals(1, released.get());
+
+    BulkIngest.Admission rejection = (createdBy, bytes) -> {
+      throw new IllegalStateException("Too many ingests");
+    };
+    BulkIngest rejectedIngest = new BulkIngest(dataRepository, 2, dataPackage -> { }, fileDownload, rejection);
+    results = ingest(rejectedIngest, read(NDJSON_MANIFEST, ManifestReader.Format.NDJSON).iterator());
+    Assert.assertEquals(IngestResult.Status.EXISTS, results.get(1L).getStatus());
+    Assert.assertEquals(IngestResult.Status.FAILED, results.get(3L).getStatus());
+    Assert.assertTrue(results.get(3L).getError().endsWith("Too many ingests"));
+  }
+}
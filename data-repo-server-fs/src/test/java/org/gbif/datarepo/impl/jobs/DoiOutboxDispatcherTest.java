@@ -0,0 +1,104 @@
+package org.gbif.datarepo.impl.jobs;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.datarepo.impl.conf.DoiOutboxConfiguration;
+import org.gbif.datarepo.persistence.DoiOutboxService;
+import org.gbif.datarepo.persistence.mappers.BaseMapperTest;
+import org.gbif.datarepo.persistence.model.DoiOperation;
+import org.gbif.datarepo.persistence.model.DoiSyncStatus;
+import org.gbif.registry.doi.registration.DoiRegistration;
+import org.gbif.registry.doi.registration.DoiRegistrationService;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the delivery of the DOI operations of the outbox.
+ */
+public class DoiOutboxDispatcherTest extends BaseMapperTest {
+
+  private static DoiOutboxService doiOutboxService;
+
+  private DoiRegistrationService doiRegistrationService;
+
+  private DoiOutboxDispatcher doiOutboxDispatcher;
+
+  @BeforeClass
+  public static void init() {
+    doiOutboxService = buildInjector().getInstance(DoiOutboxService.class);
+  }
+
+  @Before
+  public void setup() throws SQLException {
+    execute("DELETE FROM doi_outbox");
+    doiRegistrationService = mock(DoiRegistrationService.class);
+    DoiOutboxConfiguration configuration = new DoiOutboxConfiguration();
+    configuration.setMaxAttempts(2);
+    doiOutboxDispatcher = new DoiOutboxDispatcher(doiOutboxService, doiRegistrationService, configuration,
+                                                  new MetricRegistry());
+  }
+
+  private static void execute(String sql) throws SQLException {
+    try (Connection connection = DriverManager.getConnection(getJdbcUrl());
+         Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  /**
+   * Operations are delivered to the DOI registry and marked as sent.
+   */
+  @Test
+  public void testDelivery() {
+    UUID dataPackageKey = UUID.randomUUID();
+    DOI doi = new DOI(DOI.TEST_PREFIX, "dp.sent");
+    doiOutboxService.enqueue(new DoiOperation(dataPackageKey, doi, DoiOperation.Type.REGISTER, "<resource/>",
+                                              "testUser"));
+    doiOutboxService.enqueue(new DoiOperation(dataPackageKey, doi, DoiOperation.Type.DELETE, null, "testUser"));
+    //Each dispatch delivers one operation of the DOI
+    doiOutboxDispatcher.dispatch();
+    doiOutboxDispatcher.dispatch();
+    verify(doiRegistrationService).register(any(DoiRegistration.class));
+    verify(doiRegistrationService).delete(doi.getPrefix(), doi.getSuffix());
+    DoiSyncStatus doiSyncStatus = doiOutboxService.getSyncStatus(dataPackageKey);
+    Assert.assertEquals(DoiSyncStatus.Status.SYNCED, doiSyncStatus.getStatus());
+    Assert.assertEquals(DoiOperation.Type.DELETE, doiSyncStatus.getLastOperation());
+  }
+
+  /**
+   * Failed operations are retried until the maximum number of attempts is reached.
+   */
+  @Test
+  public void testRetries() throws SQLException {
+    when(doiRegistrationService.update(any(DoiRegistration.class)))
+      .thenThrow(new IllegalStateException("registry unavailable"));
+    UUID dataPackageKey = UUID.randomUUID();
+    doiOutboxService.enqueue(new DoiOperation(dataPackageKey, new DOI(DOI.TEST_PREFIX, "dp.failed"),
+                                              DoiOperation.Type.UPDATE, "<resource/>", "testUser"));
+    doiOutboxDispatcher.dispatch();
+    DoiSyncStatus retrying = doiOutboxService.getSyncStatus(dataPackageKey);
+    Assert.assertEquals(DoiSyncStatus.Status.PENDING, retrying.getStatus());
+    Assert.assertEquals("registry unavailable", retrying.getError());
+
+    //The backoff is skipped to attempt the operation again
+    execute("UPDATE doi_outbox SET next_attempt = now()");
+    doiOutboxDispatcher.dispatch();
+    DoiSyncStatus failed = doiOutboxService.getSyncStatus(dataPackageKey);
+    Assert.assertEquals(DoiSyncStatus.Status.FAILED, failed.getStatus());
+    Assert.assertEquals(2, failed.getAttempts());
+  }
+}
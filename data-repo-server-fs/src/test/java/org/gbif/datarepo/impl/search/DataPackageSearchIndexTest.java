@@ -0,0 +1,175 @@
+package org.gbif.datarepo.impl.search;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.datarepo.api.model.Creator;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.DataPackageFacet;
+import org.gbif.datarepo.api.model.Facet;
+import org.gbif.datarepo.api.model.Identifier;
+import org.gbif.datarepo.api.model.TagMode;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the indexing and searching of data packages in DataPackageSearchIndex.
+ */
+public class DataPackageSearchIndexTest {
+
+  private static final UUID KEY = UUID.randomUUID();
+
+  private static final DOI TEST_DOI = new DOI(DOI.TEST_PREFIX, "search");
+
+  private static final String ALTERNATIVE_IDENTIFIER = "urn:uuid:" + UUID.randomUUID();
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private DataPackageSearchIndex searchIndex;
+
+  private static DataPackage testDataPackage(UUID key, String title) {
+    DataPackage dataPackage = new DataPackage();
+    dataPackage.setKey(key);
+    dataPackage.setTitle(title);
+    dataPackage.setDescription("Occurrences of birds in Copenhagen");
+    dataPackage.setCreatedBy("testUser");
+    dataPackage.setCreated(new Date());
+    dataPackage.setModified(new Date());
+    dataPackage.addTag("DataOne");
+    Creator creator = new Creator();
+    creator.setName("Jane Ørsted");
+    dataPackage.addCreator(creator);
+    dataPackage.addFile("occurrence.txt", "checksum", "text/csv", 1);
+    return dataPackage;
+  }
+
+  private static Identifier alternativeIdentifier() {
+    Identifier identifier = new Identifier();
+    identifier.setIdentifier(ALTERNATIVE_IDENTIFIER);
+    identifier.setRelationType(Identifier.RelationType.IsAlternativeOf);
+    return identifier;
+  }
+
+  @Before
+  public void setup() throws IOException {
+    searchIndex = new DataPackageSearchIndex(temporaryFolder.newFolder().toPath());
+    DataPackage dataPackage = testDataPackage(KEY, "Birds of Denmark");
+    dataPackage.setDoi(TEST_DOI);
+    searchIndex.index(dataPackage, Collections.singletonList(alternativeIdentifier()));
+    searchIndex.commit();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    searchIndex.close();
+  }
+
+  /**
+   * Words, prefixes, creators, tags and identifiers match the data package.
+   */
+  @Test
+  public void testSearch() {
+    Assert.assertEquals(Collections.singletonList(KEY),
+                        searchIndex.search("birds denmark", null, null, null, null, null, null, null).getKeys());
+    Assert.assertEquals(1L, searchIndex.search("denm", null, null, null, null, null, null, null).getCount());
+    Assert.assertEquals(1L, searchIndex.search("orsted", null, null, null, null, null, null, null).getCount());
+    Assert.assertEquals(1L, searchIndex.search("dataone", null, null, null, null, null, null, null).getCount());
+    Assert.assertEquals(1L, searchIndex.search(TEST_DOI.getDoiName(), null, null, null, null, null, null, null)
+      .getCount());
+    Assert.assertEquals(1L, searchIndex.search(ALTERNATIVE_IDENTIFIER, null, null, null, null, null, null, null)
+      .getCount());
+    Assert.assertEquals(0L, searchIndex.search("birds sweden", null, null, null, null, null, null, null).getCount());
+  }
+
+  /**
+   * Filters are applied to the matching data packages.
+   */
+  @Test
+  public void testFilters() {
+    Assert.assertEquals(1L, searchIndex.search("birds", null, "testUser", null, null,
+                                               Collections.singletonList("DataOne"), null, "text/csv").getCount());
+    Assert.assertEquals(0L, searchIndex.search("birds", null, "otherUser", null, null, null, null, null).getCount());
+    Assert.assertEquals(0L, searchIndex.search("birds", null, null, null, null,
+                                               Collections.singletonList("NoATag"), null, null).getCount());
+    Assert.assertEquals(0L, searchIndex.search("birds", null, null, null, new Date(0), null, null, null).getCount());
+    List<String> tags = Arrays.asList("DataOne", "NoATag");
+    Assert.assertEquals(1L, searchIndex.search("birds", null, null, null, null, tags, TagMode.ANY, null).getCount());
+    Assert.assertEquals(0L, searchIndex.search("birds", null, null, null, null, tags, TagMode.ALL, null).getCount());
+  }
+
+  /**
+   * The matching words of the title and description are highlighted.
+   */
+  @Test
+  public void testHighlights() {
+    Assert.assertTrue(searchIndex.search("birds", null, null, null, null, null, null, null).getHighlights().get(KEY)
+                        .stream().anyMatch(fragment -> fragment.contains("<B>Birds</B>")));
+  }
+
+  /**
+   * Facets are counted over all the matching data packages, not only over the requested page.
+   */
+  @Test
+  public void testFacets() {
+    DataPackage otherDataPackage = testDataPackage(UUID.randomUUID(), "Birds of Sweden");
+    otherDataPackage.addTag("Birds");
+    searchIndex.index(otherDataPackage, Collections.emptyList());
+    searchIndex.index(testDataPackage(UUID.randomUUID(), "Fishes of Norway"), Collections.emptyList());
+    searchIndex.refresh();
+
+    DataPackageSearchIndex.SearchResult searchResult = searchIndex.search("birds", null, null, null, null, null, null,
+                                                                          null, EnumSet.of(DataPackageFacet.TAG,
+                                                                                           DataPackageFacet.CREATED_BY),
+                                                                          10);
+    Assert.assertEquals(2L, searchResult.getCount());
+    List<Facet> facets = searchResult.getFacets();
+    Assert.assertEquals(DataPackageFacet.TAG, facets.get(0).getField());
+    Assert.assertEquals(Arrays.asList(new Facet.Count("DataOne", 2L), new Facet.Count("Birds", 1L)),
+                        facets.get(0).getCounts());
+    Assert.assertEquals(Collections.singletonList(new Facet.Count("testUser", 2L)), facets.get(1).getCounts());
+    //Facet limit
+    Assert.assertEquals(1, searchIndex.search("birds", null, null, null, null, null, null, null,
+                                              EnumSet.of(DataPackageFacet.TAG), 1).getFacets().get(0).getCounts()
+                             .size());
+  }
+
+  /**
+   * Changes are searchable after a refresh, without a commit.
+   */
+  @Test
+  public void testRefresh() {
+    UUID otherKey = UUID.randomUUID();
+    searchIndex.index(testDataPackage(otherKey, "Fishes of Norway"), Collections.emptyList());
+    searchIndex.refresh();
+    Assert.assertEquals(Collections.singletonList(otherKey),
+                        searchIndex.search("fishes", null, null, null, null, null, null, null).getKeys());
+    searchIndex.delete(otherKey);
+    searchIndex.refresh();
+    Assert.assertEquals(0L, searchIndex.search("fishes", null, null, null, null, null, null, null).getCount());
+  }
+
+  /**
+   * A rebuild removes the data packages that are not supplied again.
+   */
+  @Test
+  public void testRebuild() {
+    UUID otherKey = UUID.randomUUID();
+    long indexed = searchIndex.rebuild(indexer -> indexer.accept(testDataPackage(otherKey, "Birds of Sweden"),
+                                                                 Collections.emptyList()));
+    Assert.assertEquals(1L, indexed);
+    Assert.assertEquals(Collections.singletonList(otherKey),
+                        searchIndex.search("birds", null, null, null, null, null, null, null).getKeys());
+  }
+}
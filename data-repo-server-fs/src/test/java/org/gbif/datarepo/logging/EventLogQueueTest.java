@@ -0,0 +1,129 @@
+package org.gbif.datarepo.logging;
+
+import org.gbif.datarepo.impl.conf.EventLogConfiguration;
+import org.gbif.datarepo.persistence.model.EventLogEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the batching and overflow handling of EventLogQueue.
+ */
+public class EventLogQueueTest {
+
+  //Long enough to prevent the periodic flushes during a test
+  private static final long FLUSH_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+  private static EventLogConfiguration configuration(int capacity, int batchSize,
+                                                     EventLogQueue.OverflowPolicy overflowPolicy) {
+    EventLogConfiguration configuration = new EventLogConfiguration();
+    configuration.setCapacity(capacity);
+    configuration.setBatchSize(batchSize);
+    configuration.setFlushInterval(FLUSH_INTERVAL);
+    configuration.setOverflowPolicy(overflowPolicy);
+    return configuration;
+  }
+
+  private static EventLogEntry entry(String identifier) {
+    EventLogEntry entry = new EventLogEntry();
+    entry.setEvent(LoggingEvent.READ.name());
+    entry.setIdentifier(identifier);
+    return entry;
+  }
+
+  /**
+   * A complete batch is written without waiting for the flush interval.
+   */
+  @Test
+  public void testCompleteBatchIsWritten() throws InterruptedException {
+    List<List<EventLogEntry>> batches = new CopyOnWriteArrayList<>();
+    CountDownLatch written = new CountDownLatch(1);
+    try (EventLogQueue queue = new EventLogQueue(batch -> {
+      batches.add(batch);
+      written.countDown();
+    }, configuration(10, 2, EventLogQueue.OverflowPolicy.DROP), new MetricRegistry())) {
+      queue.offer(entry("1"));
+      queue.offer(entry("2"));
+      Assert.assertTrue(written.await(10, TimeUnit.SECONDS));
+      Assert.assertEquals(2, batches.get(0).size());
+    }
+  }
+
+  /**
+   * Events are dropped while the queue is full and the queued events are written on close.
+   */
+  @Test
+  public void testDropWhenFull() {
+    List<EventLogEntry> events = new CopyOnWriteArrayList<>();
+    MetricRegistry metricRegistry = new MetricRegistry();
+    EventLogQueue queue = new EventLogQueue(events::addAll,
+                                            configuration(2, 10, EventLogQueue.OverflowPolicy.DROP), metricRegistry);
+    Assert.assertTrue(queue.offer(entry("1")));
+    Assert.assertTrue(queue.offer(entry("2")));
+    Assert.assertFalse(queue.offer(entry("3")));
+    Assert.assertEquals(2, queue.size());
+    Assert.assertEquals(1L, metricRegistry.meter(MetricRegistry.name(EventLogQueue.class, "dropped")).getCount());
+
+    queue.close();
+    Assert.assertEquals(2, events.size());
+    Assert.assertEquals(0, queue.size());
+  }
+
+  /**
+   * With the CALLER_WRITES policy the events that don't fit in the queue are written by the calling thread.
+   */
+  @Test
+  public void testCallerWritesWhenFull() {
+    List<String> writerThreads = new CopyOnWriteArrayList<>();
+    try (EventLogQueue queue = new EventLogQueue(batch -> writerThreads.add(Thread.currentThread().getName()),
+                                                 configuration(1, 10, EventLogQueue.OverflowPolicy.CALLER_WRITES),
+                                                 new MetricRegistry())) {
+      Assert.assertTrue(queue.offer(entry("1")));
+      Assert.assertTrue(queue.offer(entry("2")));
+      Assert.assertEquals(1, writerThreads.size());
+      Assert.assertEquals(Thread.currentThread().getName(), writerThreads.get(0));
+    }
+  }
+
+  /**
+   * Batches written by the writer thread and by calling threads never overlap.
+   */
+  @Test
+  public void testWritesAreSerialized() throws Exception {
+    AtomicInteger concurrentWrites = new AtomicInteger();
+    AtomicInteger maxConcurrentWrites = new AtomicInteger();
+    ExecutorService callers = Executors.newFixedThreadPool(4);
+    try (EventLogQueue queue = new EventLogQueue(batch -> {
+      maxConcurrentWrites.accumulateAndGet(concurrentWrites.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      concurrentWrites.decrementAndGet();
+    }, configuration(2, 2, EventLogQueue.OverflowPolicy.CALLER_WRITES), new MetricRegistry())) {
+      List<Future<?>> offers = new ArrayList<>();
+      for (int i = 0; i < 40; i++) {
+        String identifier = Integer.toString(i);
+        offers.add(callers.submit(() -> queue.offer(entry(identifier))));
+      }
+      for (Future<?> offer : offers) {
+        offer.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      callers.shutdown();
+    }
+    Assert.assertEquals(1, maxConcurrentWrites.get());
+  }
+}
@@ -0,0 +1,105 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.datarepo.persistence.mappers.BaseMapperTest;
+import org.gbif.datarepo.persistence.model.AuditLogPage;
+import org.gbif.datarepo.persistence.model.DBLoggingEvent;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the keyset paging, filtering and batch loading of AuditLogService.
+ */
+public class AuditLogServiceTest extends BaseMapperTest {
+
+  //Five events sharing the same timestamp, the event 3 has a stack trace
+  private static final String[] EVENTS = {
+    "INSERT INTO logging_event (timestmp, formatted_message, logger_name, level_string, caller_filename, "
+    + "caller_class, caller_method, caller_line, event_id) "
+    + "SELECT 1000, 'message ' || i, 'logger', 'INFO', 'file', 'class', 'method', '1', i FROM generate_series(1, 5) i",
+    "INSERT INTO logging_event_property (event_id, mapped_key, mapped_value) "
+    + "SELECT i, 'event', CASE WHEN i % 2 = 0 THEN 'DELETE' ELSE 'CREATE' END FROM generate_series(1, 5) i",
+    "INSERT INTO logging_event_property (event_id, mapped_key, mapped_value) "
+    + "SELECT i, 'subject', 'testUser' FROM generate_series(1, 5) i",
+    "INSERT INTO logging_event_exception (event_id, i, trace_line) VALUES (3, 0, 'first'), (3, 1, 'second')"
+  };
+
+  private static AuditLogService auditLogService;
+
+  @BeforeClass
+  public static void init() throws SQLException {
+    try (Connection connection = DriverManager.getConnection(getJdbcUrl());
+         Statement statement = connection.createStatement()) {
+      for (String sql : EVENTS) {
+        statement.execute(sql);
+      }
+    }
+    auditLogService = buildInjector().getInstance(AuditLogService.class);
+  }
+
+  private static List<Long> eventIds(List<DBLoggingEvent> events) {
+    return events.stream().map(DBLoggingEvent::getEventId).collect(Collectors.toList());
+  }
+
+  /**
+   * Pages follow each other without gaps although all events share the same timestamp.
+   */
+  @Test
+  public void testPaging() {
+    AuditLogPage first = auditLogService.list(null, null, null, null, 2);
+    AuditLogPage second = auditLogService.list(null, null, null, first.getNext(), 2);
+    AuditLogPage third = auditLogService.list(null, null, null, second.getNext(), 2);
+    Assert.assertEquals(Arrays.asList(1L, 2L), eventIds(first.getResults()));
+    Assert.assertEquals(Arrays.asList(3L, 4L), eventIds(second.getResults()));
+    Assert.assertEquals(Collections.singletonList(5L), eventIds(third.getResults()));
+    Assert.assertNull(third.getNext());
+  }
+
+  /**
+   * MDC properties and stack traces are loaded for the whole page.
+   */
+  @Test
+  public void testDetails() {
+    DBLoggingEvent event = auditLogService.list(null, null, null, "1000:2", 1).getResults().get(0);
+    Assert.assertEquals("CREATE", event.getMdc("event").getValue());
+    Assert.assertEquals("testUser", event.getMdc("subject").getValue());
+    Assert.assertEquals(Arrays.asList("first", "second"), event.getStackTrace());
+  }
+
+  /**
+   * Events must match all the MDC entries and the time range.
+   */
+  @Test
+  public void testFilters() {
+    Assert.assertEquals(Arrays.asList(2L, 4L),
+                        eventIds(auditLogService.list(null, null, Collections.singletonMap("event", "DELETE"), null, 10)
+                                   .getResults()));
+    Assert.assertTrue(auditLogService.list(1001L, null, null, null, 10).getResults().isEmpty());
+  }
+
+  /**
+   * Streams all the events in order.
+   */
+  @Test
+  public void testStream() {
+    List<DBLoggingEvent> events = new ArrayList<>();
+    auditLogService.stream(null, 1000L, null, events::add);
+    Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), eventIds(events));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCursor() {
+    auditLogService.list(null, null, null, "invalid", 10);
+  }
+}
@@ -0,0 +1,64 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.api.vocabulary.License;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.DataPackageFile;
+import org.gbif.datarepo.citation.CitationGenerator;
+import org.gbif.datarepo.persistence.mappers.BaseMapperTest;
+import org.gbif.datarepo.persistence.mappers.DataPackageMapper;
+
+import java.util.Date;
+import java.util.UUID;
+
+import com.google.inject.Injector;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests that the citation templates of data packages stored without one are generated and stored.
+ */
+public class CitationBackfillTest extends BaseMapperTest {
+
+  private static DataRepoPersistenceService persistenceService;
+
+  private static DataPackageMapper dataPackageMapper;
+
+  @BeforeClass
+  public static void init() {
+    Injector injector = buildInjector();
+    persistenceService = injector.getInstance(DataRepoPersistenceService.class);
+    dataPackageMapper = injector.getInstance(DataPackageMapper.class);
+  }
+
+  private static DataPackage testDataPackage(String title) {
+    DataPackage dataPackage = new DataPackage();
+    dataPackage.setKey(UUID.randomUUID());
+    dataPackage.setDoi(new DOI(DOI.TEST_PREFIX, "dp." + dataPackage.getKey()));
+    dataPackage.setTitle(title);
+    dataPackage.setDescription("citation backfill test");
+    dataPackage.setCreated(new Date());
+    dataPackage.setCreatedBy("testUser");
+    dataPackage.setChecksum(dataPackage.getKey().toString());
+    dataPackage.setLicense(License.CC_BY_4_0);
+    dataPackage.addFile(new DataPackageFile("a.csv", "text/csv", "a.csv", 10L));
+    return dataPackage;
+  }
+
+  /**
+   * Only the data package without a template is backfilled, a second run has nothing to do.
+   */
+  @Test
+  public void testBackfillCitations() {
+    DataPackage legacy = persistenceService.create(testDataPackage("Legacy"), null);
+    persistenceService.create(testDataPackage("Current"), null);
+    dataPackageMapper.updateCitation(legacy.getKey(), null);
+    Assert.assertNull(persistenceService.getDataPackage(legacy.getKey()).getCitationTemplate());
+
+    Assert.assertEquals(1L, persistenceService.backfillCitations());
+    DataPackage backfilled = persistenceService.getDataPackage(legacy.getKey());
+    Assert.assertEquals(CitationGenerator.generateCitationTemplate(backfilled), backfilled.getCitationTemplate());
+    Assert.assertEquals(0L, persistenceService.backfillCitations());
+  }
+}
@@ -0,0 +1,144 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.datarepo.persistence.mappers.BaseMapperTest;
+import org.gbif.datarepo.persistence.model.CreateJob;
+import org.gbif.datarepo.persistence.model.CreateJobFile;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the queue of asynchronous data package creation jobs.
+ */
+public class CreateJobServiceTest extends BaseMapperTest {
+
+  //Jobs that haven't sent a heartbeat before the next second are stale
+  private static final long STALE_NOW = -1000L;
+
+  private static CreateJobService createJobService;
+
+  @BeforeClass
+  public static void init() {
+    createJobService = buildInjector().getInstance(CreateJobService.class);
+  }
+
+  @Before
+  public void clearJobs() throws SQLException {
+    try (Connection connection = DriverManager.getConnection(getJdbcUrl());
+         Statement statement = connection.createStatement()) {
+      statement.execute("DELETE FROM create_job");
+    }
+  }
+
+  private static CreateJob enqueue() {
+    CreateJob createJob = new CreateJob();
+    createJob.setKey(UUID.randomUUID());
+    createJob.setDataPackageKey(UUID.randomUUID());
+    createJob.setDataPackage("{\"title\":\"Birds of Denmark\"}");
+    createJob.setCreatedBy("testUser");
+    createJob.setFiles(Arrays.asList(new CreateJobFile("occurrence.txt", null, 10L, true),
+                                     new CreateJobFile("meta.xml", "http://example.org/meta.xml", 0L, false)));
+    createJobService.enqueue(createJob);
+    return createJob;
+  }
+
+  /**
+   * A queued job is retrieved with its files.
+   */
+  @Test
+  public void testEnqueue() {
+    CreateJob createJob = enqueue();
+    CreateJob queued = createJobService.get(createJob.getKey());
+    Assert.assertEquals(CreateJob.Status.QUEUED, queued.getStatus());
+    Assert.assertEquals(createJob.getDataPackageKey(), queued.getDataPackageKey());
+    Assert.assertEquals(createJob.getDataPackage(), queued.getDataPackage());
+    Assert.assertEquals(2, queued.getFiles().size());
+    Assert.assertNull(createJobService.get(UUID.randomUUID()));
+  }
+
+  /**
+   * Each claim gets a different job, in the order they were queued.
+   */
+  @Test
+  public void testClaim() {
+    CreateJob first = enqueue();
+    CreateJob second = enqueue();
+    CreateJob claimed = createJobService.claim();
+    Assert.assertEquals(first.getKey(), claimed.getKey());
+    Assert.assertEquals(CreateJob.Status.RUNNING, claimed.getStatus());
+    Assert.assertEquals(1, claimed.getAttempts());
+    Assert.assertEquals(second.getKey(), createJobService.claim().getKey());
+    Assert.assertNull(createJobService.claim());
+  }
+
+  /**
+   * The progress of files is recorded and the cancellation of a running job is noticed by its worker.
+   */
+  @Test
+  public void testProgressAndCancel() {
+    CreateJob createJob = enqueue();
+    createJobService.claim();
+    Assert.assertFalse(createJobService.reportProgress(createJob.getKey(),
+                                                       new CreateJobFile("meta.xml", null, 5L, false)));
+    Assert.assertTrue(createJobService.get(createJob.getKey()).getFiles().stream()
+                        .anyMatch(file -> "meta.xml".equals(file.getFileName()) && file.getBytes() == 5L));
+
+    Assert.assertTrue(createJobService.cancel(createJob.getKey()));
+    Assert.assertEquals(CreateJob.Status.RUNNING, createJobService.get(createJob.getKey()).getStatus());
+    Assert.assertTrue(createJobService.heartbeat(createJob.getKey()));
+    Assert.assertTrue(createJobService.finish(createJob.getKey(), CreateJob.Status.CANCELLED, null));
+    Assert.assertFalse(createJobService.cancel(createJob.getKey()));
+  }
+
+  /**
+   * Queued jobs are cancelled immediately and are not claimed.
+   */
+  @Test
+  public void testCancelQueued() {
+    CreateJob createJob = enqueue();
+    Assert.assertTrue(createJobService.cancel(createJob.getKey()));
+    Assert.assertEquals(CreateJob.Status.CANCELLED, createJobService.get(createJob.getKey()).getStatus());
+    Assert.assertNull(createJobService.claim());
+  }
+
+  /**
+   * A job can be finished only while it's running.
+   */
+  @Test
+  public void testFinish() {
+    CreateJob createJob = enqueue();
+    Assert.assertFalse(createJobService.finish(createJob.getKey(), CreateJob.Status.SUCCEEDED, null));
+    createJobService.claim();
+    Assert.assertTrue(createJobService.finish(createJob.getKey(), CreateJob.Status.FAILED, "error"));
+    CreateJob failed = createJobService.get(createJob.getKey());
+    Assert.assertEquals(CreateJob.Status.FAILED, failed.getStatus());
+    Assert.assertEquals("error", failed.getError());
+    Assert.assertNotNull(failed.getFinished());
+  }
+
+  /**
+   * Stale jobs are queued again until they reach the maximum number of attempts.
+   */
+  @Test
+  public void testRequeueStale() {
+    CreateJob createJob = enqueue();
+    createJobService.claim();
+    Assert.assertEquals(1, createJobService.requeueStale(STALE_NOW, 2));
+    Assert.assertEquals(CreateJob.Status.QUEUED, createJobService.get(createJob.getKey()).getStatus());
+    Assert.assertEquals(createJob.getKey(), createJobService.claim().getKey());
+    Assert.assertEquals(1, createJobService.requeueStale(STALE_NOW, 2));
+    CreateJob failed = createJobService.get(createJob.getKey());
+    Assert.assertEquals(CreateJob.Status.FAILED, failed.getStatus());
+    Assert.assertEquals(2, failed.getAttempts());
+    Assert.assertNull(createJobService.claim());
+  }
+}
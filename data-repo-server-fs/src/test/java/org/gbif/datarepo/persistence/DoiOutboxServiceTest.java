@@ -0,0 +1,162 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.datarepo.persistence.mappers.BaseMapperTest;
+import org.gbif.datarepo.persistence.model.DoiOperation;
+import org.gbif.datarepo.persistence.model.DoiSyncStatus;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the outbox of DOI operations.
+ */
+public class DoiOutboxServiceTest extends BaseMapperTest {
+
+  private static final long LEASE = 60000L;
+
+  private static final int BATCH_SIZE = 10;
+
+  private static DoiOutboxService doiOutboxService;
+
+  @BeforeClass
+  public static void init() {
+    doiOutboxService = buildInjector().getInstance(DoiOutboxService.class);
+  }
+
+  @Before
+  public void clearOutbox() throws SQLException {
+    try (Connection connection = DriverManager.getConnection(getJdbcUrl());
+         Statement statement = connection.createStatement()) {
+      statement.execute("DELETE FROM doi_outbox");
+    }
+  }
+
+  private static DoiOperation enqueue(UUID dataPackageKey, String doiSuffix, DoiOperation.Type type,
+                                      String metadata) {
+    DoiOperation doiOperation = new DoiOperation(dataPackageKey, new DOI(DOI.TEST_PREFIX, doiSuffix), type, metadata,
+                                                 "testUser");
+    doiOutboxService.enqueue(doiOperation);
+    return doiOperation;
+  }
+
+  private static List<Long> keys(List<DoiOperation> doiOperations) {
+    return doiOperations.stream().map(DoiOperation::getKey).collect(Collectors.toList());
+  }
+
+  /**
+   * Operations are claimed in order, an operation is not claimed while an older operation of its DOI is pending.
+   */
+  @Test
+  public void testClaim() {
+    UUID dataPackageKey = UUID.randomUUID();
+    DoiOperation register = enqueue(dataPackageKey, "dp.first", DoiOperation.Type.REGISTER, "<resource/>");
+    DoiOperation otherRegister = enqueue(UUID.randomUUID(), "dp.second", DoiOperation.Type.REGISTER, "<resource/>");
+    DoiOperation delete = enqueue(dataPackageKey, "dp.first", DoiOperation.Type.DELETE, null);
+
+    List<DoiOperation> claimed = doiOutboxService.claim(BATCH_SIZE, LEASE);
+    Assert.assertEquals(keys(Arrays.asList(register, otherRegister)), keys(claimed));
+    Assert.assertEquals(1, claimed.get(0).getAttempts());
+    Assert.assertEquals(DoiOperation.Status.PENDING, claimed.get(0).getStatus());
+    //Leased operations are not claimed again
+    Assert.assertTrue(doiOutboxService.claim(BATCH_SIZE, LEASE).isEmpty());
+
+    doiOutboxService.markSent(claimed.get(0));
+    claimed = doiOutboxService.claim(BATCH_SIZE, LEASE);
+    Assert.assertEquals(1, claimed.size());
+    Assert.assertEquals(delete.getKey(), claimed.get(0).getKey());
+    Assert.assertEquals(DoiOperation.Type.DELETE, claimed.get(0).getType());
+  }
+
+  /**
+   * Updates are merged into the registration or update of the same DOI while it hasn't been claimed.
+   */
+  @Test
+  public void testMergeUpdates() {
+    UUID dataPackageKey = UUID.randomUUID();
+    enqueue(dataPackageKey, "dp.merge", DoiOperation.Type.REGISTER, "<v1/>");
+    enqueue(dataPackageKey, "dp.merge", DoiOperation.Type.UPDATE, "<v2/>");
+    List<DoiOperation> claimed = doiOutboxService.claim(BATCH_SIZE, LEASE);
+    Assert.assertEquals(1, claimed.size());
+    Assert.assertEquals(DoiOperation.Type.REGISTER, claimed.get(0).getType());
+    Assert.assertEquals("<v2/>", claimed.get(0).getMetadata());
+
+    //The registration has been claimed, the next updates are merged into a new operation
+    enqueue(dataPackageKey, "dp.merge", DoiOperation.Type.UPDATE, "<v3/>");
+    enqueue(dataPackageKey, "dp.merge", DoiOperation.Type.UPDATE, "<v4/>");
+    Assert.assertEquals(2L, doiOutboxService.countPending());
+    doiOutboxService.markSent(claimed.get(0));
+    claimed = doiOutboxService.claim(BATCH_SIZE, LEASE);
+    Assert.assertEquals(1, claimed.size());
+    Assert.assertEquals(DoiOperation.Type.UPDATE, claimed.get(0).getType());
+    Assert.assertEquals("<v4/>", claimed.get(0).getMetadata());
+  }
+
+  /**
+   * The synchronization status follows the retries, failures and deliveries of the operations.
+   */
+  @Test
+  public void testSyncStatus() {
+    UUID dataPackageKey = UUID.randomUUID();
+    Assert.assertNull(doiOutboxService.getSyncStatus(dataPackageKey));
+    enqueue(dataPackageKey, "dp.status", DoiOperation.Type.REGISTER, "<resource/>");
+    Assert.assertEquals(DoiSyncStatus.Status.PENDING, doiOutboxService.getSyncStatus(dataPackageKey).getStatus());
+
+    doiOutboxService.retry(doiOutboxService.claim(BATCH_SIZE, LEASE).get(0), "registry unavailable", 0L);
+    DoiSyncStatus retrying = doiOutboxService.getSyncStatus(dataPackageKey);
+    Assert.assertEquals(DoiSyncStatus.Status.PENDING, retrying.getStatus());
+    Assert.assertEquals("registry unavailable", retrying.getError());
+    Assert.assertNotNull(retrying.getNextAttempt());
+
+    DoiOperation claimed = doiOutboxService.claim(BATCH_SIZE, LEASE).get(0);
+    Assert.assertEquals(2, claimed.getAttempts());
+    doiOutboxService.fail(claimed, "invalid metadata");
+    DoiSyncStatus failed = doiOutboxService.getSyncStatus(dataPackageKey);
+    Assert.assertEquals(DoiSyncStatus.Status.FAILED, failed.getStatus());
+    Assert.assertEquals(DoiOperation.Type.REGISTER, failed.getLastOperation());
+    Assert.assertEquals("invalid metadata", failed.getError());
+    Assert.assertEquals(0L, doiOutboxService.countPending());
+
+    enqueue(dataPackageKey, "dp.status", DoiOperation.Type.UPDATE, "<resource/>");
+    doiOutboxService.markSent(doiOutboxService.claim(BATCH_SIZE, LEASE).get(0));
+    DoiSyncStatus synced = doiOutboxService.getSyncStatus(dataPackageKey);
+    Assert.assertEquals(DoiSyncStatus.Status.SYNCED, synced.getStatus());
+    Assert.assertEquals(new DOI(DOI.TEST_PREFIX, "dp.status"), synced.getDoi());
+    Assert.assertNotNull(synced.getSynced());
+    Assert.assertNull(synced.getNextAttempt());
+
+    //Delivered operations are deleted once the retention period has passed
+    Assert.assertEquals(1, doiOutboxService.deleteSent(-1000L));
+  }
+
+  /**
+   * Once an operation has been claimed again the previous attempt can't renew its lease nor record its outcome.
+   */
+  @Test
+  public void testExpiredLease() {
+    enqueue(UUID.randomUUID(), "dp.lease", DoiOperation.Type.REGISTER, "<resource/>");
+    //The lease of the first attempt expires immediately
+    DoiOperation expired = doiOutboxService.claim(BATCH_SIZE, -1000L).get(0);
+    DoiOperation claimed = doiOutboxService.claim(BATCH_SIZE, LEASE).get(0);
+    Assert.assertEquals(expired.getKey(), claimed.getKey());
+    Assert.assertEquals(2, claimed.getAttempts());
+
+    Assert.assertFalse(doiOutboxService.renewLease(expired, LEASE));
+    doiOutboxService.markSent(expired);
+    Assert.assertEquals(1L, doiOutboxService.countPending());
+    Assert.assertTrue(doiOutboxService.renewLease(claimed, LEASE));
+    doiOutboxService.markSent(claimed);
+    Assert.assertEquals(0L, doiOutboxService.countPending());
+  }
+}
@@ -0,0 +1,67 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.datarepo.logging.LoggingEvent;
+import org.gbif.datarepo.persistence.mappers.BaseMapperTest;
+import org.gbif.datarepo.persistence.model.DBLoggingEvent;
+import org.gbif.datarepo.persistence.model.EventLogEntry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.inject.Injector;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests that the events written by EventLogService can be read back from the audit log.
+ */
+public class EventLogServiceTest extends BaseMapperTest {
+
+  private static EventLogService eventLogService;
+
+  private static AuditLogService auditLogService;
+
+  @BeforeClass
+  public static void init() {
+    Injector injector = buildInjector();
+    eventLogService = injector.getInstance(EventLogService.class);
+    auditLogService = injector.getInstance(AuditLogService.class);
+  }
+
+  private static EventLogEntry entry(LoggingEvent event, String subject, Long bytes) {
+    EventLogEntry entry = new EventLogEntry();
+    entry.setTimestamp(System.currentTimeMillis());
+    entry.setLoggerName(EventLogServiceTest.class.getName());
+    entry.setThreadName(Thread.currentThread().getName());
+    entry.setMessage(event.getMessage());
+    entry.setEvent(event.name());
+    entry.setIdentifier("10.5072/dp1");
+    entry.setSubject(subject);
+    entry.setBytes(bytes);
+    entry.setLatency(5L);
+    return entry;
+  }
+
+  /**
+   * A batch is written with its MDC properties, null values are not stored.
+   */
+  @Test
+  public void testWrite() {
+    eventLogService.write(Arrays.asList(entry(LoggingEvent.CREATE, "testUser", null),
+                                        entry(LoggingEvent.READ, null, 42L)));
+
+    List<DBLoggingEvent> reads = auditLogService.list(null, null, Collections.singletonMap("event", "READ"), null, 10)
+      .getResults();
+    Assert.assertEquals(1, reads.size());
+    Assert.assertEquals("42", reads.get(0).getMdc("bytes").getValue());
+    Assert.assertEquals("10.5072/dp1", reads.get(0).getMdc("identifier").getValue());
+    Assert.assertEquals(LoggingEvent.READ.getMessage(), reads.get(0).getFormattedMessage());
+
+    DBLoggingEvent create = auditLogService.list(null, null, Collections.singletonMap("event", "CREATE"), null, 10)
+      .getResults().get(0);
+    Assert.assertEquals("testUser", create.getMdc("subject").getValue());
+    Assert.assertNull(create.getMdc("bytes"));
+  }
+}
@@ -0,0 +1,119 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.persistence.mappers.BaseMapperTest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ru.yandex.qatools.embed.postgresql.EmbeddedPostgres;
+import ru.yandex.qatools.embed.postgresql.distribution.Version;
+
+/**
+ * Tests the routing of read only operations to a read replica, a second embedded Postgres plays the replica role.
+ */
+public class ReadReplicaTest extends BaseMapperTest {
+
+  private static final long READ_YOUR_WRITES_WINDOW = 500L;
+
+  private static EmbeddedPostgres replicaPostgres;
+
+  private static String replicaJdbcUrl;
+
+  private static DataRepoPersistenceService persistenceService;
+
+  private static ReadYourWrites readYourWrites;
+
+  /**
+   * Starts the replica database and creates the service using both databases.
+   */
+  @BeforeClass
+  public static void init() throws IOException {
+    replicaPostgres = new EmbeddedPostgres(Version.V9_4_10);
+    replicaJdbcUrl = replicaPostgres.start("localhost", new ServerSocket(0).getLocalPort(), "testdb", "user",
+                                           "password");
+    runLiquibase(replicaJdbcUrl);
+    Injector injector = Guice.createInjector(new DataPackageMyBatisModule(dbConfig("primaryTest", getJdbcUrl()),
+                                                                          dbConfig("replicaTest", replicaJdbcUrl),
+                                                                          READ_YOUR_WRITES_WINDOW, null, null));
+    persistenceService = injector.getInstance(DataRepoPersistenceService.class);
+    readYourWrites = injector.getInstance(ReadYourWrites.class);
+  }
+
+  @AfterClass
+  public static void stopReplica() {
+    Optional.ofNullable(replicaPostgres).ifPresent(EmbeddedPostgres::stop);
+  }
+
+  /**
+   * Inserts a data package that only exists in the replica.
+   */
+  private static UUID insertInReplica() throws SQLException {
+    UUID key = UUID.randomUUID();
+    try (Connection connection = DriverManager.getConnection(replicaJdbcUrl)) {
+      connection.prepareStatement("INSERT INTO data_package (key, title, created_by, modified_by, checksum, "
+                                  + "published_in) VALUES ('" + key + "', 'replica', 'testUser', 'testUser', "
+                                  + "md5('replica'), 'TestRepo')").executeUpdate();
+    }
+    return key;
+  }
+
+  /**
+   * Reads are served by the replica except within the read-your-writes window of a write.
+   */
+  @Test
+  public void testReadRouting() throws SQLException, InterruptedException {
+    UUID key = insertInReplica();
+    Assert.assertNotNull(persistenceService.getDataPackage(key));
+
+    //Any write pins the thread to the primary database
+    persistenceService.deleteTag(-1);
+    Assert.assertNull(persistenceService.getDataPackage(key));
+
+    Thread.sleep(READ_YOUR_WRITES_WINDOW * 2);
+    Assert.assertNotNull(persistenceService.getDataPackage(key));
+  }
+
+  /**
+   * A write pins its client in every thread, other clients keep reading from the replica.
+   */
+  @Test
+  public void testClientPinning() throws Exception {
+    UUID key = insertInReplica();
+    ExecutorService writer = Executors.newSingleThreadExecutor();
+    ExecutorService reader = Executors.newSingleThreadExecutor();
+    try {
+      writer.submit(() -> {
+        readYourWrites.setClient("writer");
+        persistenceService.deleteTag(-1);
+      }).get();
+      Assert.assertNull(reader.submit(() -> {
+        readYourWrites.setClient("writer");
+        return persistenceService.getDataPackage(key);
+      }).get());
+      Assert.assertNotNull(reader.submit(() -> {
+        readYourWrites.setClient("reader");
+        long replicaReads = readYourWrites.getReplicaReads();
+        DataPackage dataPackage = persistenceService.getDataPackage(key);
+        Assert.assertEquals(replicaReads + 1, readYourWrites.getReplicaReads());
+        return dataPackage;
+      }).get());
+    } finally {
+      writer.shutdown();
+      reader.shutdown();
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.api.vocabulary.License;
+import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.DataPackageFile;
+import org.gbif.datarepo.persistence.mappers.BaseMapperTest;
+import org.gbif.datarepo.persistence.mappers.RepositoryStatsMapper;
+import org.gbif.datarepo.persistence.model.RepositoryStatsEntry;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests that the counters maintained by each write match the counters recalculated from the stored data packages.
+ */
+public class RepositoryStatsTest extends BaseMapperTest {
+
+  private static DataRepoPersistenceService persistenceService;
+
+  private static RepositoryStatsMapper repositoryStatsMapper;
+
+  @BeforeClass
+  public static void init() {
+    Injector injector = buildInjector();
+    persistenceService = injector.getInstance(DataRepoPersistenceService.class);
+    repositoryStatsMapper = injector.getInstance(RepositoryStatsMapper.class);
+  }
+
+  /**
+   * Data packages are deleted directly by the base class, so the counters start from a rebuild.
+   */
+  @Before
+  public void resetStats() {
+    persistenceService.rebuildRepositoryStats();
+  }
+
+  private static DataPackage testDataPackage(String publishedIn, DataPackageFile... files) {
+    DataPackage dataPackage = new DataPackage();
+    dataPackage.setKey(UUID.randomUUID());
+    dataPackage.setDoi(new DOI(DOI.TEST_PREFIX, "dp." + dataPackage.getKey()));
+    dataPackage.setTitle("stats");
+    dataPackage.setDescription("repository stats test");
+    dataPackage.setCreated(new Date());
+    dataPackage.setCreatedBy("testUser");
+    dataPackage.setChecksum(dataPackage.getKey().toString());
+    dataPackage.setPublishedIn(publishedIn);
+    dataPackage.setLicense(License.CC_BY_4_0);
+    long size = 0;
+    for (DataPackageFile file : files) {
+      dataPackage.addFile(file);
+      size += file.getSize();
+    }
+    dataPackage.setSize(size);
+    return dataPackage;
+  }
+
+  private static DataPackageFile file(String fileName, String format, long size) {
+    return new DataPackageFile(fileName, format, fileName, size);
+  }
+
+  /**
+   * Asserts that the incremental counters are the counters recalculated from the data_package_stats view.
+   */
+  private static void assertStatsMatchRebuild() {
+    Set<RepositoryStatsEntry> incremental = new HashSet<>(repositoryStatsMapper.list());
+    persistenceService.rebuildRepositoryStats();
+    Assert.assertEquals(new HashSet<>(repositoryStatsMapper.list()), incremental);
+  }
+
+  @Test
+  public void testCreate() {
+    persistenceService.create(testDataPackage("TestRepo", file("a.csv", "text/csv", 10L),
+                                              file("b.xml", "text/xml", 20L)), null);
+    persistenceService.create(testDataPackage("OtherRepo", file("c.csv", "text/csv", 5L)), null);
+    persistenceService.create(testDataPackage("TestRepo"), null);
+    assertStatsMatchRebuild();
+    Assert.assertEquals(3L, persistenceService.getRepositoryStats().getNumOfDataPackages().longValue());
+    Assert.assertEquals(35L, persistenceService.getRepositoryStats().getTotalSize().longValue());
+  }
+
+  @Test
+  public void testUpdate() {
+    DataPackage dataPackage = persistenceService.create(testDataPackage("TestRepo", file("a.csv", "text/csv", 10L)),
+                                                        null);
+    persistenceService.create(testDataPackage("TestRepo", file("b.csv", "text/csv", 7L)), null);
+
+    DataPackage appended = testDataPackage("TestRepo", file("c.xml", "text/xml", 3L));
+    appended.setKey(dataPackage.getKey());
+    appended.setDoi(dataPackage.getDoi());
+    persistenceService.update(appended, DataRepository.UpdateMode.APPEND, null);
+    assertStatsMatchRebuild();
+
+    DataPackage overwritten = testDataPackage("OtherRepo", file("d.json", "application/json", 1L));
+    overwritten.setKey(dataPackage.getKey());
+    overwritten.setDoi(dataPackage.getDoi());
+    persistenceService.update(overwritten, DataRepository.UpdateMode.OVERWRITE, null);
+    assertStatsMatchRebuild();
+  }
+
+  @Test
+  public void testDeleteAndArchive() {
+    DataPackage deleted = persistenceService.create(testDataPackage("TestRepo", file("a.csv", "text/csv", 10L)),
+                                                    null);
+    DataPackage archived = persistenceService.create(testDataPackage("TestRepo", file("b.csv", "text/csv", 7L)),
+                                                     null);
+    persistenceService.create(testDataPackage("OtherRepo", file("c.xml", "text/xml", 3L)), null);
+
+    persistenceService.deleteDataPackage(deleted.getKey(), null);
+    assertStatsMatchRebuild();
+    persistenceService.archiveDataPackage(archived.getKey());
+    assertStatsMatchRebuild();
+    Assert.assertEquals(1L, persistenceService.getRepositoryStats().getNumOfDataPackages().longValue());
+    Assert.assertFalse(persistenceService.getRepositoryStats().getPublishedIn().containsKey("TestRepo"));
+  }
+
+  /**
+   * Rebuilds running on their own connection while data packages are created must neither fail the creations nor
+   * lose their contributions.
+   */
+  @Test
+  public void testConcurrentRebuild() throws Exception {
+    DataRepoPersistenceService rebuildService = Guice.createInjector(
+      new DataPackageMyBatisModule(dbConfig("rebuildTest", getJdbcUrl()), null, null))
+      .getInstance(DataRepoPersistenceService.class);
+    persistenceService.create(testDataPackage("TestRepo", file("a.csv", "text/csv", 10L)), null);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> rebuilds = executor.submit(() -> {
+        for (int i = 0; i < 20; i++) {
+          rebuildService.rebuildRepositoryStats();
+        }
+      });
+      for (int i = 0; i < 20; i++) {
+        persistenceService.create(testDataPackage("TestRepo", file("b.csv", "text/csv", 1L)), null);
+      }
+      rebuilds.get();
+    } finally {
+      executor.shutdown();
+    }
+    assertStatsMatchRebuild();
+    Assert.assertEquals(21L, persistenceService.getRepositoryStats().getNumOfDataPackages().longValue());
+  }
+}
@@ -0,0 +1,92 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.vocabulary.License;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.DataPackageFile;
+import org.gbif.datarepo.api.model.Identifier;
+import org.gbif.datarepo.persistence.mappers.BaseMapperTest;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the streaming of pages of data packages and identifiers, which are read in chunks.
+ */
+public class StreamTest extends BaseMapperTest {
+
+  private static final String CREATED_BY = "testUser";
+
+  //More than two chunks of identifiers
+  private static final int NUM_OF_IDENTIFIERS = 1203;
+
+  private static DataRepoPersistenceService persistenceService;
+
+  @BeforeClass
+  public static void init() {
+    persistenceService = buildInjector().getInstance(DataRepoPersistenceService.class);
+  }
+
+  private static DataPackage testDataPackage(int numOfIdentifiers) {
+    DataPackage dataPackage = new DataPackage();
+    dataPackage.setKey(UUID.randomUUID());
+    dataPackage.setDoi(new DOI(DOI.TEST_PREFIX, "dp." + dataPackage.getKey()));
+    dataPackage.setTitle("stream");
+    dataPackage.setDescription("stream test");
+    dataPackage.setCreated(new Date());
+    dataPackage.setCreatedBy(CREATED_BY);
+    dataPackage.setChecksum(dataPackage.getKey().toString());
+    dataPackage.setLicense(License.CC_BY_4_0);
+    dataPackage.addFile(new DataPackageFile("a.csv", "text/csv", "a.csv", 10L));
+    for (int i = 0; i < numOfIdentifiers; i++) {
+      Identifier identifier = new Identifier();
+      identifier.setIdentifier("http://example.org/" + dataPackage.getKey() + '/' + i);
+      identifier.setType(Identifier.Type.URL);
+      identifier.setRelationType(Identifier.RelationType.IsCitedBy);
+      dataPackage.addRelatedIdentifier(identifier);
+    }
+    return dataPackage;
+  }
+
+  /**
+   * A page spanning several chunks streams the same identifiers as the listing of the page.
+   */
+  @Test
+  public void testStreamIdentifiers() {
+    DataPackage dataPackage = persistenceService.create(testDataPackage(NUM_OF_IDENTIFIERS), null);
+    PagingRequest page = new PagingRequest(3, 1100);
+    List<Integer> streamed = new ArrayList<>();
+    PagingResponse<Identifier> response = persistenceService.streamIdentifiers(null, page, null, dataPackage.getKey(),
+                                                                               null, null, null, null,
+                                                                               identifier -> streamed
+                                                                                 .add(identifier.getKey()));
+    Assert.assertEquals(NUM_OF_IDENTIFIERS, response.getCount().intValue());
+    Assert.assertEquals(persistenceService.listIdentifiers(null, page, null, dataPackage.getKey(), null, null, null,
+                                                           null).getResults().stream()
+                          .map(Identifier::getKey).collect(Collectors.toList()), streamed);
+    Assert.assertEquals(1100, streamed.size());
+  }
+
+  /**
+   * Streaming without a page uses the default page instead of failing.
+   */
+  @Test
+  public void testStreamDataPackagesWithoutPage() {
+    persistenceService.create(testDataPackage(0), null);
+    List<DataPackage> streamed = new ArrayList<>();
+    PagingResponse<DataPackage> response = persistenceService.streamDataPackages(CREATED_BY, null, null, null, null,
+                                                                                 null, null, null, null, null, null,
+                                                                                 null, 0, streamed::add);
+    Assert.assertEquals(1L, response.getCount().longValue());
+    Assert.assertTrue(streamed.isEmpty());
+  }
+}
@@ -0,0 +1,129 @@
+package org.gbif.datarepo.persistence;
+
+import org.gbif.datarepo.persistence.mappers.BaseMapperTest;
+import org.gbif.datarepo.persistence.model.UsageStatsEntry;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the incremental rollup of logged events into the usage counters.
+ */
+public class UsageStatsServiceTest extends BaseMapperTest {
+
+  //2017-01-01T12:00:00Z
+  private static final long DAY_1 = 1483272000000L;
+
+  private static final long ONE_DAY = 86400000L;
+
+  private static UsageStatsService usageStatsService;
+
+  @BeforeClass
+  public static void init() {
+    usageStatsService = buildInjector().getInstance(UsageStatsService.class);
+  }
+
+  /**
+   * Each test starts with empty events log and counters.
+   */
+  @Before
+  public void clearEvents() throws SQLException {
+    try (Connection connection = DriverManager.getConnection(getJdbcUrl());
+         Statement statement = connection.createStatement()) {
+      statement.execute("DELETE FROM logging_event_exception");
+      statement.execute("DELETE FROM logging_event_property");
+      statement.execute("DELETE FROM logging_event");
+      statement.execute("DELETE FROM usage_stats");
+      statement.execute("UPDATE usage_stats_watermark SET last_event_id = 0");
+    }
+  }
+
+  /**
+   * Logs an event with its MDC properties, the subject is omitted if it is null.
+   */
+  private static void logEvent(long eventId, long timestamp, String event, String identifier, String subject)
+    throws SQLException {
+    try (Connection connection = DriverManager.getConnection(getJdbcUrl());
+         Statement statement = connection.createStatement()) {
+      statement.execute("INSERT INTO logging_event (timestmp, formatted_message, logger_name, level_string, "
+                        + "caller_filename, caller_class, caller_method, caller_line, event_id) VALUES ("
+                        + timestamp + ", 'message', 'logger', 'INFO', 'file', 'class', 'method', '1', " + eventId + ")");
+      statement.execute("INSERT INTO logging_event_property (event_id, mapped_key, mapped_value) VALUES ("
+                        + eventId + ", 'event', '" + event + "'), (" + eventId + ", 'identifier', '" + identifier + "')");
+      if (subject != null) {
+        statement.execute("INSERT INTO logging_event_property (event_id, mapped_key, mapped_value) VALUES ("
+                          + eventId + ", 'subject', '" + subject + "')");
+      }
+    }
+  }
+
+  private static long count(List<UsageStatsEntry> entries, String event) {
+    return entries.stream().filter(entry -> entry.getEvent().equals(event)).mapToLong(UsageStatsEntry::getCount).sum();
+  }
+
+  /**
+   * Counters are incremented by successive rollups.
+   */
+  @Test
+  public void testRollup() throws SQLException {
+    logEvent(1, DAY_1, "CREATE", "10.5072/dp1", "user1");
+    logEvent(2, DAY_1, "READ", "10.5072/dp1", null);
+    logEvent(3, DAY_1 + ONE_DAY, "READ", "10.5072/dp1", "user2");
+    logEvent(4, DAY_1 + ONE_DAY, "LIST", "10.5072/dp1", "user2");
+    Assert.assertEquals(4L, usageStatsService.rollup());
+
+    List<UsageStatsEntry> entries = usageStatsService.list("10.5072/dp1", null, null, null);
+    Assert.assertEquals(1L, count(entries, "CREATE"));
+    Assert.assertEquals(2L, count(entries, "READ"));
+    Assert.assertEquals(0L, count(entries, "LIST"));
+    Assert.assertEquals(1L, count(usageStatsService.list(null, "user2", null, null), "READ"));
+
+    logEvent(5, DAY_1 + 2 * ONE_DAY, "READ", "10.5072/dp1", "user2");
+    logEvent(6, DAY_1 + 2 * ONE_DAY, "READ", "10.5072/dp1", "user2");
+    Assert.assertEquals(6L, usageStatsService.rollup());
+    Assert.assertEquals(3L, count(usageStatsService.list(null, "user2", null, null), "READ"));
+    Assert.assertEquals(2L, count(usageStatsService.list("10.5072/dp1", null, new Date(DAY_1 + 2 * ONE_DAY), null),
+                                  "READ"));
+  }
+
+  /**
+   * An event with a lower id committed after a higher one is not skipped: the rollup waits for it.
+   */
+  @Test
+  public void testRollupWaitsForWriters() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (Connection writer = DriverManager.getConnection(getJdbcUrl());
+         Statement statement = writer.createStatement()) {
+      writer.setAutoCommit(false);
+      statement.execute("SELECT pg_advisory_xact_lock_shared(hashtext('logging_event'), 0)");
+      statement.execute("INSERT INTO logging_event (timestmp, formatted_message, logger_name, level_string, "
+                        + "caller_filename, caller_class, caller_method, caller_line, event_id) VALUES ("
+                        + DAY_1 + ", 'message', 'logger', 'INFO', 'file', 'class', 'method', '1', 1)");
+      statement.execute("INSERT INTO logging_event_property (event_id, mapped_key, mapped_value) VALUES "
+                        + "(1, 'event', 'READ'), (1, 'identifier', '10.5072/dp2')");
+      logEvent(2, DAY_1, "READ", "10.5072/dp2", null);
+
+      Future<Long> rollup = executor.submit(usageStatsService::rollup);
+      Thread.sleep(500);
+      Assert.assertFalse(rollup.isDone());
+      writer.commit();
+      Assert.assertEquals(2L, rollup.get(10, TimeUnit.SECONDS).longValue());
+    } finally {
+      executor.shutdown();
+    }
+    Assert.assertEquals(2L, count(usageStatsService.list("10.5072/dp2", null, null, null), "READ"));
+  }
+}
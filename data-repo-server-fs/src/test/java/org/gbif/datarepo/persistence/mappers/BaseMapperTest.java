@@ -56,7 +56,7 @@ public class BaseMapperTest {
     if (jdbcUrl == null) {
       embeddedPostgres = new EmbeddedPostgres(Version.V9_4_10);
       jdbcUrl = embeddedPostgres.start("localhost", new ServerSocket(0).getLocalPort(), "testdb", "user", "password");
-      runLiquibase();
+      runLiquibase(jdbcUrl);
     }
   }
 
@@ -75,7 +75,7 @@ public class BaseMapperTest {
   /**
    * Executes the liquibase master.xml change logs in the context ddl.
    */
-  private static void runLiquibase() {
+  protected static void runLiquibase(String jdbcUrl) {
     try {
       Class.forName("org.postgresql.Driver");
       try (Connection connection = DriverManager.getConnection(jdbcUrl)) {
@@ -102,15 +102,22 @@ public class BaseMapperTest {
    * Creates the MyBatis Guice injector.
    */
   public static Injector buildInjector() {
+    return Guice.createInjector(new DataPackageMyBatisModule(dbConfig("datapackagesTest", jdbcUrl), null, null));
+  }
+
+  /**
+   * Data source settings of a test pool.
+   */
+  protected static Properties dbConfig(String poolName, String jdbcUrl) {
     Properties properties = new Properties();
-    properties.setProperty("poolName", "datapackagesTest");
+    properties.setProperty("poolName", poolName);
     properties.setProperty("maximumPoolSize", "1");
     properties.setProperty("minimumIdle", "1");
     properties.setProperty("idleTimeout", "1000");
     properties.setProperty("connectionTimeout", "500");
     properties.setProperty("dataSourceClassName", "org.postgresql.ds.PGSimpleDataSource");
     properties.setProperty("dataSource.url", jdbcUrl);
-    return Guice.createInjector(new DataPackageMyBatisModule(properties, null, null));
+    return properties;
   }
 
 }
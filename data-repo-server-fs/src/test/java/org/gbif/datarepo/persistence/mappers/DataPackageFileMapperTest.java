@@ -1,12 +1,18 @@
 package org.gbif.datarepo.persistence.mappers;
 
 import org.gbif.api.model.common.DOI;
+import org.gbif.api.model.common.paging.PagingRequest;
 import org.gbif.api.vocabulary.License;
 import org.gbif.datarepo.api.model.Identifier;
 import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.DataPackageFacet;
 import org.gbif.datarepo.api.model.DataPackageFile;
 import org.gbif.datarepo.api.model.Tag;
+import org.gbif.datarepo.api.model.TagMode;
+import org.gbif.datarepo.persistence.model.FacetEntry;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -97,6 +103,7 @@ public class DataPackageFileMapperTest extends BaseMapperTest {
 
     TagMapper tagMapper = injector.getInstance(TagMapper.class);
     dataPackage.getTags().forEach(tagMapper::create);
+    dataPackageMapper.updateTags(dataPackage.getKey());
   }
 
   /**
@@ -106,8 +113,8 @@ public class DataPackageFileMapperTest extends BaseMapperTest {
     DataPackageMapper mapper = injector.getInstance(DataPackageMapper.class);
     DataPackage dataPackage = testDataPackage();
     mapper.create(dataPackage);
-    List<DataPackage> dataPackages = mapper.list(null, null, null, null, null, null, null, null, query, null);
-    Long count = mapper.count(null, null, null, null, null, null, null, query, null);
+    List<DataPackage> dataPackages = mapper.list(null, null, null, null, null, null, null, null, null, query, null);
+    Long count = mapper.count(null, null, null, null, null, null, null, null, query, null);
     Assert.assertTrue(assertion.apply(dataPackages, count));
   }
 
@@ -132,14 +139,14 @@ public class DataPackageFileMapperTest extends BaseMapperTest {
     DataPackage dataPackage = testDataPackage();
     insertDataPackage(dataPackage);
     DataPackageMapper mapper = injector.getInstance(DataPackageMapper.class);
-    List<DataPackage> packages = mapper.list(null, null, null, null, null, null, TEST_REPO_NAME, null, null, null);
-    Long packagesCount = mapper.count(null, null, null, null, null, TEST_REPO_NAME, null, null, null);
+    List<DataPackage> packages = mapper.list(null, null, null, null, null, null, null, TEST_REPO_NAME, null, null, null);
+    Long packagesCount = mapper.count(null, null, null, null, null, null, TEST_REPO_NAME, null, null, null);
     Assert.assertTrue("DataPackage not found in repository",
                       packages.stream().anyMatch(dp -> dp.getKey().equals(dataPackage.getKey())));
     Assert.assertTrue("DataPackage not found in repository", packagesCount > 0);
 
-    List<DataPackage> packagesNotInRepo = mapper.list(null, null, null, null, null, null, TEST_OTHER_REPO_NAME, null, null, null);
-    Long packagesNotInRepoCount = mapper.count(null, null, null, null, null, TEST_OTHER_REPO_NAME, null, null, null);
+    List<DataPackage> packagesNotInRepo = mapper.list(null, null, null, null, null, null, null, TEST_OTHER_REPO_NAME, null, null, null);
+    Long packagesNotInRepoCount = mapper.count(null, null, null, null, null, null, TEST_OTHER_REPO_NAME, null, null, null);
     Assert.assertTrue("No DataPackages must be found in this repository", packagesNotInRepo.stream().noneMatch(dp -> dp.getKey().equals(dataPackage.getKey())));
     Assert.assertTrue("No DataPackages must be found in this repository", packagesNotInRepoCount == 0);
   }
@@ -156,6 +163,60 @@ public class DataPackageFileMapperTest extends BaseMapperTest {
     Assert.assertEquals(dataPackage.getKey(), justCreated.getKey());
   }
 
+  /**
+   * Tests that a key, DOI and alternative identifier resolve to the same data package.
+   */
+  @Test
+  public void testResolve() {
+    DataPackageMapper mapper = injector.getInstance(DataPackageMapper.class);
+    DataPackage dataPackage = testDataPackage();
+    insertDataPackage(dataPackage);
+    Assert.assertEquals(dataPackage.getKey(), mapper.resolve(dataPackage.getKey(), null,
+                                                             dataPackage.getKey().toString()).getKey());
+    Assert.assertEquals(dataPackage.getKey(), mapper.resolve(null, dataPackage.getDoi().getDoiName(),
+                                                             dataPackage.getDoi().getDoiName()).getKey());
+    Assert.assertEquals(TEST_REPO_NAME, mapper.resolve(null, null, ALTERNATIVE_ID_TEST).getPublishedIn());
+    Assert.assertNull(mapper.resolve(null, null, UUID.randomUUID().toString()));
+  }
+
+  /**
+   * Tests that the export is read in chunks that start after the last key of the previous chunk.
+   */
+  @Test
+  public void testExport() {
+    DataPackageMapper mapper = injector.getInstance(DataPackageMapper.class);
+    insertDataPackage(testDataPackage());
+    DataPackage otherDataPackage = testDataPackage();
+    otherDataPackage.setKey(UUID.randomUUID());
+    otherDataPackage.setDoi(new DOI(DOI.TEST_PREFIX, "export." + otherDataPackage.getKey()));
+    otherDataPackage.getRelatedIdentifiers().clear();
+    insertDataPackage(otherDataPackage);
+
+    List<DataPackage> firstChunk = mapper.export(null, TEST_REPO_NAME, null, 1);
+    Assert.assertEquals(1, firstChunk.size());
+    List<DataPackage> secondChunk = mapper.export(null, TEST_REPO_NAME, firstChunk.get(0).getKey(), 1);
+    Assert.assertEquals(1, secondChunk.size());
+    Assert.assertEquals(Sets.newHashSet(DATA_PACKAGE_KEY_TEST, otherDataPackage.getKey()),
+                        Sets.newHashSet(firstChunk.get(0).getKey(), secondChunk.get(0).getKey()));
+    Assert.assertTrue(mapper.export(null, TEST_REPO_NAME, secondChunk.get(0).getKey(), 1).isEmpty());
+    Assert.assertTrue(mapper.export(null, "ThirdRepo", null, 1).isEmpty());
+  }
+
+  /**
+   * Tests the bulk check of alternative identifiers in use.
+   */
+  @Test
+  public void testListAlternativeIdentifiersInUse() {
+    insertDataPackage(testDataPackage());
+    IdentifierMapper identifierMapper = injector.getInstance(IdentifierMapper.class);
+    List<String> identifiersInUse = identifierMapper.listAlternativeIdentifiersInUse(
+      Arrays.asList(ALTERNATIVE_ID_TEST, UUID.randomUUID().toString()), TEST_REPO_NAME);
+    Assert.assertEquals(Collections.singletonList(ALTERNATIVE_ID_TEST), identifiersInUse);
+    //Identifiers used by data packages of other repositories are not in use
+    Assert.assertTrue(identifierMapper.listAlternativeIdentifiersInUse(Collections.singletonList(ALTERNATIVE_ID_TEST),
+                                                                       "ThirdRepo").isEmpty());
+  }
+
 
   /**
    * Tests methods create and delete.
@@ -177,10 +238,33 @@ public class DataPackageFileMapperTest extends BaseMapperTest {
     DataPackageMapper mapper = injector.getInstance(DataPackageMapper.class);
     DataPackage dataPackage = testDataPackage();
     mapper.create(dataPackage);
-    List<DataPackage> dataPackages = mapper.list("testUser", null, null, null, false, null, null, null, null, null);
+    List<DataPackage> dataPackages = mapper.list("testUser", null, null, null, false, null, null, null, null, null, null);
     Assert.assertTrue(dataPackages.size() >=  1);
   }
 
+  /**
+   * Tests that stream passes the same page of data packages as list to the result handler.
+   */
+  @Test
+  public void testStream() {
+    DataPackageMapper mapper = injector.getInstance(DataPackageMapper.class);
+    insertDataPackage(testDataPackage());
+    PagingRequest page = new PagingRequest(0, 10);
+    List<DataPackage> streamed = new ArrayList<>();
+    mapper.stream("testUser", page, null, null, false, null, null, null, null, null, null,
+                  resultContext -> streamed.add((DataPackage) resultContext.getResultObject()));
+    Assert.assertEquals(mapper.list("testUser", page, null, null, false, null, null, null, null, null, null)
+                          .stream().map(DataPackage::getKey).collect(Collectors.toList()),
+                        streamed.stream().map(DataPackage::getKey).collect(Collectors.toList()));
+    Assert.assertEquals(1, streamed.size());
+    Assert.assertEquals(1, streamed.get(0).getTags().size());
+
+    streamed.clear();
+    mapper.stream("testUser", new PagingRequest(1, 10), null, null, false, null, null, null, null, null, null,
+                  resultContext -> streamed.add((DataPackage) resultContext.getResultObject()));
+    Assert.assertTrue(streamed.isEmpty());
+  }
+
   /**
    * Tests methods create and list.
    */
@@ -191,7 +275,7 @@ public class DataPackageFileMapperTest extends BaseMapperTest {
     insertDataPackage(dataPackage);
     List<DataPackage> dataPackages = mapper.list(null, null, null, null, null,
                                                  dataPackage.getTags().stream()
-                                                   .map(Tag::getValue).collect(Collectors.toList()),
+                                                   .map(Tag::getValue).collect(Collectors.toList()), null,
                                                  null, null, null, null);
     Assert.assertTrue(dataPackages.size() >=  1);
   }
@@ -204,12 +288,46 @@ public class DataPackageFileMapperTest extends BaseMapperTest {
     DataPackageMapper mapper = injector.getInstance(DataPackageMapper.class);
     DataPackage dataPackage = testDataPackage();
     insertDataPackage(dataPackage);
-    List<DataPackage> dataPackages = mapper.list(null, null, null, null, null, Collections.singletonList("NoATag"), null, null, null, null);
-    Long count = mapper.count(null, null, null, null, Collections.singletonList("NoATag"), null, null, null, null);
+    List<DataPackage> dataPackages = mapper.list(null, null, null, null, null, Collections.singletonList("NoATag"), null, null, null, null, null);
+    Long count = mapper.count(null, null, null, null, Collections.singletonList("NoATag"), null, null, null, null, null);
     Assert.assertTrue(dataPackages.isEmpty());
     Assert.assertTrue(count ==  0);
   }
 
+  /**
+   * Tests that tag filters match any of the tags by default and all of them with TagMode.ALL.
+   */
+  @Test
+  public void testListByTagMode() {
+    DataPackageMapper mapper = injector.getInstance(DataPackageMapper.class);
+    insertDataPackage(testDataPackage());
+    List<String> tags = Arrays.asList("DataOne", "NoATag");
+    Assert.assertEquals(1L, mapper.count(null, null, null, null, tags, null, null, null, null, null).longValue());
+    Assert.assertEquals(1L, mapper.count(null, null, null, null, tags, TagMode.ANY, null, null, null, null)
+      .longValue());
+    Assert.assertEquals(0L, mapper.count(null, null, null, null, tags, TagMode.ALL, null, null, null, null)
+      .longValue());
+    Assert.assertEquals(1L, mapper.count(null, null, null, null, Collections.singletonList("DataOne"), TagMode.ALL,
+                                         null, null, null, null).longValue());
+  }
+
+  /**
+   * Tests that the facets requested are computed over the filtered data packages.
+   */
+  @Test
+  public void testFacets() {
+    DataPackageMapper mapper = injector.getInstance(DataPackageMapper.class);
+    DataPackage dataPackage = testDataPackage();
+    insertDataPackage(dataPackage);
+    List<FacetEntry> facets = mapper.facets(null, null, null, null, Collections.singletonList("DataOne"), null, null,
+                                            null, null, null, Arrays.asList("TAG", "LICENSE"), 10);
+    Assert.assertTrue(facets.stream().anyMatch(entry -> entry.getFacet() == DataPackageFacet.TAG
+                                                        && "DataOne".equals(entry.getName())
+                                                        && entry.getCount() >= 1));
+    Assert.assertTrue(facets.stream().anyMatch(entry -> entry.getFacet() == DataPackageFacet.LICENSE));
+    Assert.assertTrue(facets.stream().noneMatch(entry -> entry.getFacet() == DataPackageFacet.YEAR));
+  }
+
   /**
    * Tests methods create and count.
    */
@@ -218,7 +336,7 @@ public class DataPackageFileMapperTest extends BaseMapperTest {
     DataPackageMapper mapper = injector.getInstance(DataPackageMapper.class);
     DataPackage dataPackage = testDataPackage();
     mapper.create(dataPackage);
-    Assert.assertTrue(mapper.count("testUser", null, null, false, null, null, null, null, null) >= 1);
+    Assert.assertTrue(mapper.count("testUser", null, null, false, null, null, null, null, null, null) >= 1);
   }
 
   /**
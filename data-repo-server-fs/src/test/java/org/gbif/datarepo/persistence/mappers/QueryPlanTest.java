@@ -0,0 +1,300 @@
+package org.gbif.datarepo.persistence.mappers;
+
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.DataPackageFile;
+import org.gbif.datarepo.api.model.TagMode;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Injector;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Query plan regression tests: the statements of the MyBatis mappers are explained against a synthetic data set and
+ * must not fall back to sequential scans of the large tables.
+ * The number of data packages is 10K by default and can be changed using the system property
+ * queryPlanTest.dataPackages, the Maven profile query-plan runs the tests with 1M data packages.
+ * Sequential scans are cheaper than index scans on small tables, so with less than 1M data packages they are disabled
+ * in the planner: a sequential scan in the plan then means that no index can be used by the statement.
+ * Statements that read whole tables by design (export without a modified date, the repository stats rebuild and the
+ * unfiltered counts and facets) are not checked.
+ */
+public class QueryPlanTest extends BaseMapperTest {
+
+  private static final int DATA_PACKAGES = Integer.getInteger("queryPlanTest.dataPackages", 10_000);
+
+  private static final int PRODUCTION_DATA_PACKAGES = 1_000_000;
+
+  private static final String TEST_REPO_NAME = "TestRepo";
+
+  private static final String NAMESPACE = "org.gbif.datarepo.persistence.mappers.";
+
+  private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+  private static final ImmutableSet<String> LARGE_TABLES = ImmutableSet.of("data_package", "data_package_file",
+                                                                           "creator", "tag", "identifier",
+                                                                           "logging_event", "logging_event_property");
+
+  /**
+   * Synthetic data set: every package has a file and a creator, 1 in 5 has a tag, 1 in 10 an alternative identifier
+   * and is shared in other repository, 1 in 50 is deleted and 1 in 1000 contains a text/csv file.
+   */
+  private static final String[] DATA_SET = {
+    "INSERT INTO data_package (key, doi, title, description, license, created, modified, deleted, created_by, "
+    + "modified_by, checksum, size, published_in, share_in) "
+    + "SELECT md5(i::text)::uuid, '10.5072/dp-' || i, 'Synthetic data package ' || i, "
+    + "'Description of the synthetic data package ' || i, 'CC_BY_4_0', now() - i * interval '1 minute', "
+    + "now() - i * interval '1 minute', CASE WHEN i % 50 = 0 THEN now() END, 'user' || (i % 1000), "
+    + "'user' || (i % 1000), md5(i::text), i, '" + TEST_REPO_NAME + "', "
+    + "CASE WHEN i % 10 = 0 THEN ARRAY['OtherRepo']::varchar[] END FROM generate_series(1, ${size}) i",
+    "INSERT INTO data_package_file (data_package_key, file_name, checksum, size, format) "
+    + "SELECT md5(i::text)::uuid, 'file' || i || '.zip', md5(i::text), i, "
+    + "CASE WHEN i % 1000 = 0 THEN 'text/csv' ELSE 'application/zip' END FROM generate_series(1, ${size}) i",
+    "INSERT INTO creator (data_package_key, name, created_by) "
+    + "SELECT md5(i::text)::uuid, 'Creator ' || i, 'user' || (i % 1000) FROM generate_series(1, ${size}) i",
+    "INSERT INTO tag (data_package_key, value, created_by) "
+    + "SELECT md5(i::text)::uuid, 'tag' || (i % 1000), 'user' || (i % 1000) FROM generate_series(5, ${size}, 5) i",
+    "UPDATE data_package dp SET tags = ARRAY[t.value] FROM tag t WHERE t.data_package_key = dp.key",
+    "INSERT INTO identifier (identifier, data_package_key, type, relation_type, created_by) "
+    + "SELECT 'alt-' || i, md5(i::text)::uuid, 'GBIF_DATASET_KEY', 'IsAlternativeOf', 'user' || (i % 1000) "
+    + "FROM generate_series(10, ${size}, 10) i",
+    "INSERT INTO logging_event (timestmp, formatted_message, logger_name, level_string, caller_filename, "
+    + "caller_class, caller_method, caller_line) "
+    + "SELECT i, 'message ' || i, 'logger', 'INFO', 'file', 'class', 'method', '1' "
+    + "FROM generate_series(1, ${size} / 5) i",
+    "INSERT INTO logging_event_property (event_id, mapped_key, mapped_value) "
+    + "SELECT event_id, 'dataPackageKey', md5(event_id::text)::uuid::text FROM logging_event",
+    "ANALYZE"
+  };
+
+  //Guice injector used to instantiate Mappers.
+  private static Injector injector;
+
+  private static UUID dataPackageKey;
+
+  /**
+   * Loads the synthetic data set and initializes the MyBatis module.
+   */
+  @BeforeClass
+  public static void init() throws SQLException {
+    try (Connection connection = DriverManager.getConnection(getJdbcUrl());
+         Statement statement = connection.createStatement()) {
+      for (String sql : DATA_SET) {
+        statement.execute(sql.replace("${size}", Integer.toString(DATA_PACKAGES)));
+      }
+      try (ResultSet resultSet = statement.executeQuery("SELECT md5('42')::uuid")) {
+        resultSet.next();
+        dataPackageKey = (UUID) resultSet.getObject(1);
+      }
+    }
+    injector = buildInjector();
+  }
+
+  /**
+   * The synthetic data set is shared by all tests.
+   */
+  @Override
+  public void clearDB() {
+    //NOP
+  }
+
+  private static Map<String, Object> params(Object... keyValues) {
+    Map<String, Object> params = new HashMap<>();
+    for (int i = 0; i < keyValues.length; i += 2) {
+      params.put((String) keyValues[i], keyValues[i + 1]);
+    }
+    return params;
+  }
+
+  private static Map<String, Object> listParams(Object... keyValues) {
+    Map<String, Object> params = params(keyValues);
+    params.putIfAbsent("page", new PagingRequest(0, 20));
+    params.putIfAbsent("shareIn", TEST_REPO_NAME);
+    return params;
+  }
+
+  private static Map<String, Object> listParams(Map<String, Object> filter) {
+    Map<String, Object> params = listParams();
+    params.putAll(filter);
+    return params;
+  }
+
+  /**
+   * Explains the statement with the given parameters and asserts that the large tables are not scanned sequentially.
+   */
+  private static void assertNoSeqScan(String statementId, Object parameter) throws SQLException {
+    Configuration configuration = injector.getInstance(SqlSessionFactory.class).getConfiguration();
+    MappedStatement mappedStatement = configuration.getMappedStatement(NAMESPACE + statementId);
+    BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+    StringBuilder plan = new StringBuilder();
+    try (Connection connection = DriverManager.getConnection(getJdbcUrl())) {
+      if (DATA_PACKAGES < PRODUCTION_DATA_PACKAGES) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("SET enable_seqscan = off");
+        }
+      }
+      explain(connection, mappedStatement, parameter, boundSql, plan);
+    }
+    Matcher matcher = SEQ_SCAN.matcher(plan);
+    while (matcher.find()) {
+      Assert.assertFalse("Sequential scan in " + statementId + ":\n" + plan, LARGE_TABLES.contains(matcher.group(1)));
+    }
+  }
+
+  /**
+   * Appends the lines of the query plan of the statement.
+   */
+  private static void explain(Connection connection, MappedStatement mappedStatement, Object parameter,
+                              BoundSql boundSql, StringBuilder plan) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+      new DefaultParameterHandler(mappedStatement, parameter, boundSql).setParameters(statement);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          plan.append(resultSet.getString(1)).append('\n');
+        }
+      }
+    }
+  }
+
+  /**
+   * Lookups of a single data package and its details.
+   */
+  @Test
+  public void testDataPackageLookups() throws SQLException {
+    assertNoSeqScan("DataPackageMapper.getByDOI", params("doi", "10.5072/dp-42"));
+    assertNoSeqScan("DataPackageMapper.getByKey", params("dataPackageKey", dataPackageKey));
+    assertNoSeqScan("DataPackageMapper.getByAlternativeIdentifier", params("identifier", "alt-40"));
+    assertNoSeqScan("DataPackageMapper.listByKeys", params("keys", Arrays.asList(dataPackageKey, UUID.randomUUID())));
+    assertNoSeqScan("DataPackageMapper.resolve", params("dataPackageKey", dataPackageKey, "doi", "10.5072/dp-42",
+                                                        "identifier", "alt-40"));
+    assertNoSeqScan("DataPackageMapper.listDataPackageFiles", dataPackageKey);
+    assertNoSeqScan("DataPackageMapper.listTags", dataPackageKey);
+    assertNoSeqScan("DataPackageMapper.listCreators", dataPackageKey);
+  }
+
+  /**
+   * Batch lookups of many data packages and their details.
+   */
+  @Test
+  public void testDataPackageBatchLookups() throws SQLException {
+    List<UUID> keys = Arrays.asList(dataPackageKey, UUID.randomUUID());
+    assertNoSeqScan("DataPackageMapper.resolveAll", params("keys", keys,
+                                                           "dois", Arrays.asList("10.5072/dp-42", "10.5072/dp-43"),
+                                                           "identifiers", Arrays.asList("alt-40", "alt-41")));
+    assertNoSeqScan("DataPackageMapper.listFieldsByKeys", params("keys", keys));
+    assertNoSeqScan("DataPackageMapper.listFilesByKeys", params("keys", keys));
+    assertNoSeqScan("DataPackageMapper.listTagsByKeys", params("keys", keys));
+    assertNoSeqScan("DataPackageMapper.listCreatorsByKeys", params("keys", keys));
+  }
+
+  /**
+   * Listings, counts and facets using each one of the filters.
+   */
+  @Test
+  public void testDataPackageListings() throws SQLException {
+    Date now = new Date();
+    Date anHourAgo = new Date(now.getTime() - TimeUnit.HOURS.toMillis(1));
+    List<Map<String, Object>> filters = Arrays.asList(params("user", "user42"),
+                                                      params("fromDate", anHourAgo, "toDate", now),
+                                                      params("tags", Collections.singletonList("tag42")),
+                                                      params("tags", Arrays.asList("tag42", "tag43"),
+                                                             "tagMode", TagMode.ALL),
+                                                      params("formatId", "text/csv"),
+                                                      params("query", "4242"),
+                                                      params("publishedIn", TEST_REPO_NAME, "shareIn", "OtherRepo"),
+                                                      params("deleted", Boolean.TRUE));
+    assertNoSeqScan("DataPackageMapper.list", listParams());
+    for (Map<String, Object> filter : filters) {
+      assertNoSeqScan("DataPackageMapper.list", listParams(filter));
+      if (!filter.containsKey("deleted") && !filter.containsKey("publishedIn")) {
+        assertNoSeqScan("DataPackageMapper.count", listParams(filter));
+      }
+    }
+    assertNoSeqScan("DataPackageMapper.facets", listParams("tags", Collections.singletonList("tag42"),
+                                                           "facets", Arrays.asList("TAG", "FORMAT", "LICENSE"),
+                                                           "facetLimit", 10));
+    assertNoSeqScan("DataPackageMapper.export", params("repository", TEST_REPO_NAME, "modifiedSince", anHourAgo,
+                                                      "afterKey", dataPackageKey, "limit", 500));
+  }
+
+  /**
+   * Updates and deletes by key.
+   */
+  @Test
+  public void testDataPackageWrites() throws SQLException {
+    DataPackage dataPackage = new DataPackage();
+    dataPackage.setKey(dataPackageKey);
+    dataPackage.setTitle("Synthetic data package");
+    dataPackage.setCreatedBy("user42");
+    assertNoSeqScan("DataPackageMapper.update", dataPackage);
+    assertNoSeqScan("DataPackageMapper.archive", params("dataPackageKey", dataPackageKey));
+    assertNoSeqScan("DataPackageMapper.delete", params("dataPackageKey", dataPackageKey));
+    assertNoSeqScan("DataPackageFileMapper.get", params("dataPackageKey", dataPackageKey, "fileName", "file42.zip"));
+    assertNoSeqScan("DataPackageFileMapper.list", dataPackageKey);
+    assertNoSeqScan("DataPackageFileMapper.update",
+                    params("dataPackageKey", dataPackageKey,
+                           "dpf", new DataPackageFile("file42.zip", "application/zip", "checksum", 1)));
+    assertNoSeqScan("DataPackageFileMapper.delete", params("dataPackageKey", dataPackageKey, "fileName", "file42.zip"));
+    assertNoSeqScan("TagMapper.listByDataPackageKey", dataPackageKey);
+    assertNoSeqScan("DataPackageMapper.updateTags", params("dataPackageKey", dataPackageKey));
+    assertNoSeqScan("TagMapper.deleteAndUpdateTags", params("tagKey", 42));
+    assertNoSeqScan("CreatorMapper.listByDataPackageKey", dataPackageKey);
+    assertNoSeqScan("RepositoryStatsMapper.apply", params("dataPackageKey", dataPackageKey, "sign", 1));
+  }
+
+  /**
+   * Identifier lookups and listings.
+   */
+  @Test
+  public void testIdentifiers() throws SQLException {
+    PagingRequest page = new PagingRequest(0, 20);
+    assertNoSeqScan("IdentifierMapper.get", params("key", 42));
+    assertNoSeqScan("IdentifierMapper.list", params("identifier", "alt-40", "publishedIn", TEST_REPO_NAME,
+                                                    "page", page));
+    assertNoSeqScan("IdentifierMapper.list", params("dataPackageKey", dataPackageKey, "page", page));
+    assertNoSeqScan("IdentifierMapper.count", params("identifier", "alt-40", "publishedIn", TEST_REPO_NAME));
+    assertNoSeqScan("IdentifierMapper.listAlternativeIdentifiersInUse",
+                    params("identifiers", Arrays.asList("alt-40", "alt-50"), "publishedIn", TEST_REPO_NAME));
+    assertNoSeqScan("IdentifierMapper.deleteByDataPackage", params("dataPackageKey", dataPackageKey));
+  }
+
+  /**
+   * Audit log queries by date range and MDC values.
+   */
+  @Test
+  public void testLoggingEvents() throws SQLException {
+    PagingRequest page = new PagingRequest(0, 20);
+    Map<String, String> mdc = Collections.singletonMap("dataPackageKey", dataPackageKey.toString());
+    assertNoSeqScan("LoggingMapper.list", params("fromDate", 1000L, "toDate", 1100L, "page", page));
+    assertNoSeqScan("LoggingMapper.list", params("mdc", mdc, "page", page));
+    assertNoSeqScan("LoggingMapper.count", params("fromDate", 1000L, "toDate", 1100L));
+    assertNoSeqScan("LoggingMapper.count", params("mdc", mdc));
+    assertNoSeqScan("LoggingMapper.listAfter", params("fromDate", 1000L, "afterTimestamp", 1050L,
+                                                      "afterEventId", 1050L, "limit", 20));
+    assertNoSeqScan("LoggingMapper.listProperties", params("eventIds", Arrays.asList(42L, 43L)));
+  }
+}
@@ -1,20 +1,41 @@
 package org.gbif.datarepo.app;
 
 import org.gbif.api.model.common.GbifUserPrincipal;
+import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.persistence.UsageStatsService;
 import org.gbif.datarepo.auth.basic.BasicAuthenticator;
 import org.gbif.datarepo.auth.jwt.JwtAuthConfiguration;
+import org.gbif.datarepo.auth.OptionalAuthFilter;
+import org.gbif.datarepo.auth.ReadYourWritesFilter;
 import org.gbif.datarepo.auth.jwt.JwtCredentialsFilter;
-import org.gbif.datarepo.identifiers.orcid.OrcidPublicClient;
+import org.gbif.datarepo.impl.download.FileDownload;
+import org.gbif.datarepo.impl.jobs.CreateJobExecutor;
 import org.gbif.datarepo.inject.DataRepoModule;
 import org.gbif.datarepo.health.DataRepoHealthCheck;
 import org.gbif.datarepo.health.AuthenticatorHealthCheck;
+import org.gbif.datarepo.logging.EventLogQueue;
+import org.gbif.datarepo.logging.LoggingEvent;
+import org.gbif.datarepo.resource.AuditLogResource;
+import org.gbif.datarepo.resource.BulkIngestResource;
+import org.gbif.datarepo.resource.CreateJobResource;
+import org.gbif.datarepo.resource.DataPackageExportResource;
 import org.gbif.datarepo.resource.DataPackageResource;
+import org.gbif.datarepo.resource.DoiStatusResource;
 import org.gbif.datarepo.resource.RepositoryStatsResource;
+import org.gbif.datarepo.resource.UsageStatsResource;
+import org.gbif.datarepo.resource.admission.AdmissionController;
 import org.gbif.datarepo.resource.caching.Purger;
 import org.gbif.datarepo.resource.cors.CORSFilter;
+import org.gbif.datarepo.resource.validation.DataPackageValidator;
+import org.gbif.datarepo.tasks.BackfillCitationsTask;
+import org.gbif.datarepo.tasks.InvalidateAuthCacheTask;
+import org.gbif.datarepo.tasks.RebuildRepositoryStatsTask;
+import org.gbif.datarepo.tasks.RebuildSearchIndexTask;
+import org.gbif.datarepo.tasks.RollupUsageStatsTask;
 import org.gbif.discovery.lifecycle.DiscoveryLifeCycle;
 
 import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.DispatcherType;
 import javax.servlet.FilterRegistration;
 
@@ -72,20 +93,65 @@ public class DataRepoApplication extends Application<DataRepoConfigurationDW> {
     Authenticator<BasicCredentials, GbifUserPrincipal> authenticator = module.getBasicCredentialsAuthenticator();
     BasicCredentialAuthFilter<GbifUserPrincipal> userBasicCredentialAuthFilter =
       new BasicCredentialAuthFilter.Builder<GbifUserPrincipal>()
-        .setAuthenticator(module.getBasicCredentialsAuthenticator())
+        .setAuthenticator(authenticator)
+        .setAuthorizer((principal, role) -> principal.hasRole(role))
         .setRealm(BasicAuthenticator.GBIF_REALM).buildAuthFilter();
     JwtCredentialsFilter jwtCredentialsFilter = new JwtCredentialsFilter.Builder()
       .setConfiguration(authJwtConfiguration)
       .setAuthenticator(module.getJWTAuthenticator())
       .setRealm(BasicAuthenticator.GBIF_REALM).buildAuthFilter();
-    environment.jersey().register(new AuthDynamicFeature(new ChainedAuthFilter(Lists.newArrayList(jwtCredentialsFilter,
-                                                                                userBasicCredentialAuthFilter))));
+    ChainedAuthFilter authFilter = new ChainedAuthFilter(Lists.newArrayList(jwtCredentialsFilter,
+                                                                            userBasicCredentialAuthFilter));
+    environment.jersey().register(new AuthDynamicFeature(authFilter));
+    //Public resources know the user of the requests that carry credentials
+    environment.jersey().register(new OptionalAuthFilter(authFilter));
     environment.jersey().register(new AuthValueFactoryProvider.Binder<>(GbifUserPrincipal.class));
+    environment.jersey().register(new ReadYourWritesFilter(module.readYourWrites()));
+
+    if (!module.authCaches().isEmpty()) {
+      environment.admin().addTask(new InvalidateAuthCacheTask(module.authCaches()));
+    }
 
     //Health check
     environment.healthChecks().register("UserService", new AuthenticatorHealthCheck(authenticator));
   }
 
+  /**
+   * Registers the admin task and the periodic job that recalculate the repository statistics.
+   */
+  private static void registerStatsReconciliation(DataRepository dataRepository, Environment environment,
+                                                  long intervalMinutes) {
+    environment.admin().addTask(new RebuildRepositoryStatsTask(dataRepository));
+    if (intervalMinutes > 0) {
+      environment.lifecycle().scheduledExecutorService("repository-stats-%d").build()
+        .scheduleWithFixedDelay(() -> {
+          try {
+            dataRepository.rebuildStats();
+          } catch (Exception ex) {
+            LOG.error("Error rebuilding repository stats", ex);
+          }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+  }
+
+  /**
+   * Registers the admin task and the periodic job that aggregate logged events into the usage counters.
+   */
+  private static void registerUsageStatsRollup(UsageStatsService usageStatsService, Environment environment,
+                                               long intervalMinutes) {
+    environment.admin().addTask(new RollupUsageStatsTask(usageStatsService));
+    if (intervalMinutes > 0) {
+      environment.lifecycle().scheduledExecutorService("usage-stats-%d").build()
+        .scheduleWithFixedDelay(() -> {
+          try {
+            usageStatsService.rollup();
+          } catch (Exception ex) {
+            LOG.error("Error rolling up usage stats", ex);
+          }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+  }
+
   /**
    * Application entry point.
    */
@@ -113,12 +179,51 @@ public class DataRepoApplication extends Application<DataRepoConfigurationDW> {
     registerSecurityComponents(dataRepoModule, environment, configuration.getJwtAuthConfiguration());
 
     //Resources and required features
+    DataRepository dataRepository = dataRepoModule.dataRepository();
     environment.jersey().register(MultiPartFeature.class);
-    environment.jersey().register(new DataPackageResource(dataRepoModule.dataRepository(), configuration,
-                                                          environment.getValidator(),
-                                                          new OrcidPublicClient(),
-            new Purger(configuration.getDataRepoConfiguration().getGbifApiUrl())));
-    environment.jersey().register(new RepositoryStatsResource(dataRepoModule.dataRepository()));
+    Purger purger = dataRepoModule.purger();
+    EventLogQueue eventLogQueue = dataRepoModule.eventLogQueue();
+    CreateJobExecutor createJobExecutor = dataRepoModule.createJobExecutor(dataRepository, (createJob, dataPackage) -> {
+      eventLogQueue.log(LOG, LoggingEvent.CREATE, createJob::getCreatedBy, dataPackage.getDoi().getDoiName(), null,
+                        System.currentTimeMillis() - createJob.getCreated().getTime());
+      purger.purgeRoot();
+    });
+    AdmissionController admissionController = dataRepoModule.admissionController();
+    FileDownload fileDownload = dataRepoModule.fileDownload();
+    DataPackageValidator dataPackageValidator = new DataPackageValidator(environment.getValidator(),
+                                                                         dataRepoModule.orcidValidationService());
+    environment.jersey().register(new DataPackageResource(dataRepository, configuration, dataPackageValidator,
+                                                          purger, eventLogQueue,
+                                                          environment.getObjectMapper(), createJobExecutor,
+                                                          fileDownload, admissionController,
+                                                          dataRepoModule.downloadScheduler()));
+    environment.jersey().register(new CreateJobResource(dataRepoModule.createJobService()));
+    dataRepoModule.doiOutboxDispatcher();
+    environment.jersey().register(new DoiStatusResource(dataRepository, dataRepoModule.doiOutboxService()));
+    environment.jersey().register(new BulkIngestResource(dataRepository, dataPackageValidator, eventLogQueue,
+                                                         purger, environment.getObjectMapper(),
+                                                         configuration.getDataRepoConfiguration()
+                                                           .getIngestParallelism(), fileDownload,
+                                                         admissionController));
+    environment.jersey().register(new RepositoryStatsResource(dataRepository));
+    environment.jersey().register(new DataPackageExportResource(dataRepository,
+                                                                configuration.getDataRepoConfiguration()
+                                                                  .getDataPackageApiUrl(),
+                                                                environment.getObjectMapper()));
+    environment.jersey().register(new AuditLogResource(dataRepoModule.auditLogService(),
+                                                       environment.getObjectMapper()));
+    UsageStatsService usageStatsService = dataRepoModule.usageStatsService();
+    environment.jersey().register(new UsageStatsResource(usageStatsService));
+
+    //Repository and usage stats maintenance
+    registerStatsReconciliation(dataRepository, environment,
+                                configuration.getDataRepoConfiguration().getStatsReconciliationInterval());
+    registerUsageStatsRollup(usageStatsService, environment,
+                             configuration.getDataRepoConfiguration().getUsageStatsRollupInterval());
+    environment.admin().addTask(new BackfillCitationsTask(dataRepoModule.dataRepoPersistenceService()));
+    if (configuration.getDataRepoConfiguration().getSearchIndexPath() != null) {
+      environment.admin().addTask(new RebuildSearchIndexTask(dataRepository));
+    }
     if (configuration.getService().isDiscoverable()) {
       environment.lifecycle().manage(new DiscoveryLifeCycle(configuration.getService()));
     }
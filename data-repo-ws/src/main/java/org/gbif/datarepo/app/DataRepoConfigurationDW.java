@@ -1,7 +1,11 @@
 package org.gbif.datarepo.app;
 
+import org.gbif.datarepo.auth.AuthCacheConfiguration;
 import org.gbif.datarepo.auth.jwt.JwtAuthConfiguration;
 import org.gbif.datarepo.impl.conf.DataRepoConfiguration;
+import org.gbif.datarepo.resource.admission.AdmissionConfiguration;
+import org.gbif.datarepo.resource.caching.PurgerConfiguration;
+import org.gbif.datarepo.resource.download.DownloadSchedulerConfiguration;
 import org.gbif.discovery.conf.ServiceConfiguration;
 
 import javax.validation.Valid;
@@ -35,6 +39,22 @@ public class DataRepoConfigurationDW extends Configuration {
   @JsonProperty
   private JwtAuthConfiguration jwtAuthConfiguration;
 
+  @Valid
+  @JsonProperty
+  private PurgerConfiguration purger = new PurgerConfiguration();
+
+  @Valid
+  @JsonProperty
+  private AuthCacheConfiguration authCache = new AuthCacheConfiguration();
+
+  @Valid
+  @JsonProperty
+  private AdmissionConfiguration admission = new AdmissionConfiguration();
+
+  @Valid
+  @JsonProperty
+  private DownloadSchedulerConfiguration downloads = new DownloadSchedulerConfiguration();
+
   public DataRepoConfiguration getDataRepoConfiguration() {
     return dataRepoConfiguration;
   }
@@ -62,6 +82,51 @@ public class DataRepoConfigurationDW extends Configuration {
   public void setJwtAuthConfiguration(JwtAuthConfiguration jwtAuthConfiguration) {
     this.jwtAuthConfiguration = jwtAuthConfiguration;
   }
+
+  /**
+   * Varnish cache purges settings.
+   */
+  public PurgerConfiguration getPurger() {
+    return purger;
+  }
+
+  public void setPurger(PurgerConfiguration purger) {
+    this.purger = purger;
+  }
+
+  /**
+   * Settings of the cache of authenticated users.
+   */
+  public AuthCacheConfiguration getAuthCache() {
+    return authCache;
+  }
+
+  public void setAuthCache(AuthCacheConfiguration authCache) {
+    this.authCache = authCache;
+  }
+
+  /**
+   * Limits of the concurrent data package ingests.
+   */
+  public AdmissionConfiguration getAdmission() {
+    return admission;
+  }
+
+  public void setAdmission(AdmissionConfiguration admission) {
+    this.admission = admission;
+  }
+
+  /**
+   * Bandwidth limits of the file downloads.
+   */
+  public DownloadSchedulerConfiguration getDownloads() {
+    return downloads;
+  }
+
+  public void setDownloads(DownloadSchedulerConfiguration downloads) {
+    this.downloads = downloads;
+  }
+
     @Override
   public LoggingFactory getLoggingFactory() {
         return LOGGING_FACTORY;
@@ -0,0 +1,37 @@
+package org.gbif.datarepo.auth;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Settings of the cache of authenticated users.
+ */
+public class AuthCacheConfiguration {
+
+  @Min(0)
+  private long maximumSize = 10000;
+
+  @Min(1)
+  private long ttl = 300;
+
+  /**
+   * Maximum number of cached credentials of each authentication scheme, 0 disables the cache.
+   */
+  public long getMaximumSize() {
+    return maximumSize;
+  }
+
+  public void setMaximumSize(long maximumSize) {
+    this.maximumSize = maximumSize;
+  }
+
+  /**
+   * Seconds an authenticated user is cached, JWTs are not cached beyond their expiration.
+   */
+  public long getTtl() {
+    return ttl;
+  }
+
+  public void setTtl(long ttl) {
+    this.ttl = ttl;
+  }
+}
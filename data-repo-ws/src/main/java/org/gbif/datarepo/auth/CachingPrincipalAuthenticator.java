@@ -0,0 +1,149 @@
+package org.gbif.datarepo.auth;
+
+import org.gbif.api.model.common.GbifUserPrincipal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.dropwizard.auth.AuthenticationException;
+import io.dropwizard.auth.Authenticator;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Caches the users authenticated by another authenticator, so repeated requests with the same credentials don't query
+ * the users database.
+ * Credentials are cached by a salted SHA-256 hash, so secrets are not kept in memory. Only successful authentications
+ * are cached and each entry expires after the TTL or when the credentials expire, whatever happens first.
+ * Unlike Dropwizard's CachingAuthenticator, entries can have their own expiration and can be invalidated by user.
+ */
+public class CachingPrincipalAuthenticator<C> implements Authenticator<C, GbifUserPrincipal> {
+
+  private static final int SALT_LENGTH = 16;
+
+  /**
+   * Authenticated user and the time, in milliseconds, after which it must be authenticated again.
+   */
+  private static class CachedPrincipal {
+
+    private final GbifUserPrincipal principal;
+
+    private final long expiresAt;
+
+    CachedPrincipal(GbifUserPrincipal principal, long expiresAt) {
+      this.principal = principal;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private final Authenticator<C, GbifUserPrincipal> authenticator;
+
+  private final Function<C, String[]> secrets;
+
+  private final Function<C, Long> expiration;
+
+  private final long ttl;
+
+  private final byte[] salt = new byte[SALT_LENGTH];
+
+  private final Cache<String, CachedPrincipal> cache;
+
+  private final Meter hits;
+
+  private final Meter misses;
+
+  /**
+   * Full constructor.
+   * @param authenticator authenticator of the credentials that are not cached
+   * @param secrets values of the credentials hashed into the cache key
+   * @param expiration milliseconds since the epoch when the credentials expire, it returns null if they don't expire
+   * @param scheme name of the authentication scheme, used in the metrics names
+   */
+  public CachingPrincipalAuthenticator(Authenticator<C, GbifUserPrincipal> authenticator,
+                                       Function<C, String[]> secrets, Function<C, Long> expiration,
+                                       AuthCacheConfiguration configuration, MetricRegistry metricRegistry,
+                                       String scheme) {
+    this.authenticator = authenticator;
+    this.secrets = secrets;
+    this.expiration = expiration;
+    ttl = TimeUnit.SECONDS.toMillis(configuration.getTtl());
+    new SecureRandom().nextBytes(salt);
+    cache = CacheBuilder.newBuilder().maximumSize(configuration.getMaximumSize())
+      .expireAfterWrite(configuration.getTtl(), TimeUnit.SECONDS).build();
+    hits = metricRegistry.meter(name(CachingPrincipalAuthenticator.class, scheme, "hits"));
+    misses = metricRegistry.meter(name(CachingPrincipalAuthenticator.class, scheme, "misses"));
+    metricRegistry.register(name(CachingPrincipalAuthenticator.class, scheme, "hitRatio"), new RatioGauge() {
+      @Override
+      protected Ratio getRatio() {
+        return Ratio.of(hits.getOneMinuteRate(), hits.getOneMinuteRate() + misses.getOneMinuteRate());
+      }
+    });
+    metricRegistry.register(name(CachingPrincipalAuthenticator.class, scheme, "size"), (Gauge<Long>) cache::size);
+  }
+
+  /**
+   * Returns the cached user of the credentials, if it hasn't expired, or authenticates them.
+   */
+  @Override
+  public Optional<GbifUserPrincipal> authenticate(C credentials) throws AuthenticationException {
+    String key = key(credentials);
+    long now = System.currentTimeMillis();
+    CachedPrincipal cached = cache.getIfPresent(key);
+    if (cached != null) {
+      if (cached.expiresAt > now) {
+        hits.mark();
+        return Optional.of(cached.principal);
+      }
+      cache.invalidate(key);
+    }
+    misses.mark();
+    Optional<GbifUserPrincipal> principal = authenticator.authenticate(credentials);
+    if (principal.isPresent()) {
+      Long credentialsExpiration = expiration.apply(credentials);
+      long expiresAt = credentialsExpiration == null ? now + ttl : Math.min(now + ttl, credentialsExpiration);
+      if (expiresAt > now) {
+        cache.put(key, new CachedPrincipal(principal.get(), expiresAt));
+      }
+    }
+    return principal;
+  }
+
+  /**
+   * Salted hash of the secrets of the credentials, secrets are separated so their boundaries are part of the hash.
+   */
+  private String key(C credentials) {
+    Hasher hasher = Hashing.sha256().newHasher().putBytes(salt);
+    for (String secret : secrets.apply(credentials)) {
+      hasher.putString(secret, StandardCharsets.UTF_8).putByte((byte) 0);
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Removes the cached credentials of a user, e.g. after the password has been changed or the user has been blocked.
+   * @return the number of cached credentials removed
+   */
+  public int invalidate(String userName) {
+    int size = cache.asMap().size();
+    cache.asMap().values().removeIf(cached -> userName.equals(cached.principal.getName()));
+    return Math.max(0, size - cache.asMap().size());
+  }
+
+  /**
+   * Removes all the cached credentials.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+}
@@ -0,0 +1,46 @@
+package org.gbif.datarepo.auth;
+
+import java.io.IOException;
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Authenticates the requests that carry credentials to resources that don't require a user, e.g. the public reads, so
+ * the user is known to the filters and resources that use it. Requests with invalid credentials stay anonymous.
+ * It runs after the authentication filters of the resources that require a user and doesn't authenticate them again.
+ */
+@Priority(Priorities.AUTHENTICATION + 1)
+public class OptionalAuthFilter implements ContainerRequestFilter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OptionalAuthFilter.class);
+
+  private final ContainerRequestFilter authFilter;
+
+  /**
+   * Full constructor.
+   * @param authFilter filter that authenticates the credentials, it fails if they are missing or invalid
+   */
+  public OptionalAuthFilter(ContainerRequestFilter authFilter) {
+    this.authFilter = authFilter;
+  }
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) throws IOException {
+    if (requestContext.getSecurityContext().getUserPrincipal() == null
+        && (requestContext.getHeaderString(HttpHeaders.AUTHORIZATION) != null
+            || !requestContext.getCookies().isEmpty())) {
+      try {
+        authFilter.filter(requestContext);
+      } catch (WebApplicationException ex) {
+        LOG.debug("Request credentials not authenticated, the request is anonymous", ex);
+      }
+    }
+  }
+}
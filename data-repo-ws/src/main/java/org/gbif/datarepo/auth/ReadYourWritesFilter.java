@@ -0,0 +1,31 @@
+package org.gbif.datarepo.auth;
+
+import org.gbif.datarepo.persistence.ReadYourWrites;
+
+import java.security.Principal;
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+
+/**
+ * Sets the authenticated user as the client of the request thread, so the reads of a user that has just written are
+ * served by the primary database. Anonymous requests have no client.
+ * It runs after the authentication filters, including OptionalAuthFilter, so public reads that carry credentials have
+ * a client too.
+ */
+@Priority(Priorities.AUTHORIZATION)
+public class ReadYourWritesFilter implements ContainerRequestFilter {
+
+  private final ReadYourWrites readYourWrites;
+
+  public ReadYourWritesFilter(ReadYourWrites readYourWrites) {
+    this.readYourWrites = readYourWrites;
+  }
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    Principal principal = requestContext.getSecurityContext().getUserPrincipal();
+    readYourWrites.setClient(principal == null ? null : principal.getName());
+  }
+}
@@ -4,6 +4,8 @@ import org.gbif.api.model.common.GbifUserPrincipal;
 import org.gbif.api.service.common.IdentityAccessService;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import javax.annotation.Nullable;
 import javax.ws.rs.NotAuthorizedException;
 
 import com.google.common.base.Optional;
@@ -59,4 +61,18 @@ public class JwtAuthenticator implements Authenticator<String, GbifUserPrincipal
       throw new AuthenticationException("JWT token could not be verified", ex);
     }
   }
+
+  /**
+   * Expiration of a JWT token in milliseconds since the epoch, null if it has no expiration or can't be verified.
+   */
+  @Nullable
+  public Long getExpiration(String credentials) {
+    try {
+      Date expiration = Jwts.parser().setSigningKey(jwtSigningKey).parseClaimsJws(credentials).getBody()
+        .getExpiration();
+      return expiration == null ? null : expiration.getTime();
+    } catch (JwtException | IllegalArgumentException ex) {
+      return null;
+    }
+  }
 }
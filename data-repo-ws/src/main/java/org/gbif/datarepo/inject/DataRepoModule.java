@@ -3,23 +3,54 @@ package org.gbif.datarepo.inject;
 import org.gbif.api.model.common.GbifUserPrincipal;
 import org.gbif.api.service.common.IdentityAccessService;
 import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.api.model.DataPackage;
 import org.gbif.datarepo.app.DataRepoConfigurationDW;
+import org.gbif.datarepo.auth.AuthCacheConfiguration;
+import org.gbif.datarepo.auth.CachingPrincipalAuthenticator;
 import org.gbif.datarepo.auth.basic.BasicAuthenticator;
 import org.gbif.datarepo.auth.jwt.JwtAuthenticator;
 import org.gbif.datarepo.fs.DataRepoFileSystemService;
+import org.gbif.datarepo.identifiers.orcid.OrcidPublicClient;
+import org.gbif.datarepo.identifiers.orcid.OrcidValidationService;
+import org.gbif.datarepo.logging.EventLogQueue;
+import org.gbif.datarepo.persistence.AuditLogService;
+import org.gbif.datarepo.persistence.CreateJobService;
 import org.gbif.datarepo.persistence.DataPackageMyBatisModule;
 import org.gbif.datarepo.persistence.DataRepoPersistenceService;
+import org.gbif.datarepo.persistence.DoiOutboxService;
+import org.gbif.datarepo.persistence.EventLogService;
+import org.gbif.datarepo.persistence.ReadYourWrites;
+import org.gbif.datarepo.persistence.UsageStatsService;
+import org.gbif.datarepo.persistence.model.CreateJob;
 import org.gbif.datarepo.registry.DoiRegistrationWsClient;
+import org.gbif.datarepo.resource.admission.AdmissionController;
+import org.gbif.datarepo.resource.caching.Purger;
+import org.gbif.datarepo.resource.download.DownloadScheduler;
+import org.gbif.datarepo.impl.CachingDataRepository;
 import org.gbif.datarepo.impl.FileSystemDataRepository;
+import org.gbif.datarepo.impl.conf.DataPackageCacheConfiguration;
+import org.gbif.datarepo.impl.conf.DataRepoConfiguration;
+import org.gbif.datarepo.impl.conf.OrcidConfiguration;
+import org.gbif.datarepo.impl.download.FileDownload;
+import org.gbif.datarepo.impl.jobs.CreateJobExecutor;
+import org.gbif.datarepo.impl.jobs.DoiOutboxDispatcher;
+import org.gbif.datarepo.impl.search.DataPackageSearchIndex;
 import org.gbif.identity.inject.IdentityAccessModule;
 import org.gbif.registry.doi.registration.DoiRegistrationService;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import javax.ws.rs.client.Client;
 
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import io.dropwizard.auth.Authenticator;
 import io.dropwizard.auth.basic.BasicCredentials;
+import io.dropwizard.lifecycle.Managed;
 import io.dropwizard.setup.Environment;
 import org.apache.hadoop.fs.Path;
 
@@ -38,39 +69,82 @@ public class DataRepoModule {
 
   private DoiRegistrationService doiRegistrationService;
 
+  private Authenticator<BasicCredentials, GbifUserPrincipal> basicCredentialsAuthenticator;
+
+  private Authenticator<String, GbifUserPrincipal> jwtAuthenticator;
+
+  private final List<CachingPrincipalAuthenticator<?>> authCaches = new ArrayList<>();
+
   /**
    * Initializes mappers from the configuration settings and environment.
    */
   public DataRepoModule(DataRepoConfigurationDW configuration, Environment environment) {
     this.configuration = configuration;
     this.environment = environment;
-    DataPackageMyBatisModule dataPackageMyBatisModule = new DataPackageMyBatisModule(configuration
-                                                                                       .getDataRepoConfiguration()
-                                                                                       .getDbConfig(),
-                                                                                     environment.metrics(),
-                                                                                     environment.healthChecks());
+    DataRepoConfiguration dataRepoConfiguration = configuration.getDataRepoConfiguration();
+    DataPackageMyBatisModule dataPackageMyBatisModule =
+      new DataPackageMyBatisModule(dataRepoConfiguration.getDbConfig(), dataRepoConfiguration.getReplicaDbConfig(),
+                                   TimeUnit.SECONDS.toMillis(dataRepoConfiguration.getReadYourWritesWindow()),
+                                   environment.metrics(), environment.healthChecks());
     injector = Guice.createInjector(new IdentityAccessModule(this.configuration.getDataRepoConfiguration().getUsersDb()),
                                     dataPackageMyBatisModule);
   }
 
   private DataRepoFileSystemService getDataRepoFileSystemService() {
     return new DataRepoFileSystemService(new Path(configuration.getDataRepoConfiguration().getDataRepoPath()),
-                                         configuration.getDataRepoConfiguration().getFileSystem());
+                                         configuration.getDataRepoConfiguration().getFileSystem(),
+                                         environment.metrics());
   }
 
   /**
-   * Creates a new Authenticator instance using GBIF underlying services.
+   * Lazy creation of the Basic credentials Authenticator using GBIF underlying services.
+   * Authenticated users are cached unless the cache has been disabled (maximumSize = 0).
    */
   public Authenticator<BasicCredentials, GbifUserPrincipal> getBasicCredentialsAuthenticator() {
-    return new BasicAuthenticator(injector.getInstance(IdentityAccessService.class));
+    if (basicCredentialsAuthenticator == null) {
+      basicCredentialsAuthenticator = new BasicAuthenticator(injector.getInstance(IdentityAccessService.class));
+      AuthCacheConfiguration authCacheConfiguration = configuration.getAuthCache();
+      if (authCacheConfiguration.getMaximumSize() > 0) {
+        CachingPrincipalAuthenticator<BasicCredentials> authCache =
+          new CachingPrincipalAuthenticator<>(basicCredentialsAuthenticator,
+                                              credentials -> new String[]{credentials.getUsername(),
+                                                                          credentials.getPassword()},
+                                              credentials -> null, authCacheConfiguration, environment.metrics(),
+                                              "basic");
+        authCaches.add(authCache);
+        basicCredentialsAuthenticator = authCache;
+      }
+    }
+    return basicCredentialsAuthenticator;
   }
 
   /**
-   * Creates a new Authenticator instance using GBIF underlying services.
+   * Lazy creation of the JWT Authenticator using GBIF underlying services.
+   * Authenticated tokens are cached until they expire unless the cache has been disabled (maximumSize = 0).
    */
   public Authenticator<String, GbifUserPrincipal> getJWTAuthenticator() {
-    return new JwtAuthenticator(configuration.getJwtAuthConfiguration(),
-                                injector.getInstance(IdentityAccessService.class));
+    if (jwtAuthenticator == null) {
+      JwtAuthenticator authenticator = new JwtAuthenticator(configuration.getJwtAuthConfiguration(),
+                                                            injector.getInstance(IdentityAccessService.class));
+      jwtAuthenticator = authenticator;
+      AuthCacheConfiguration authCacheConfiguration = configuration.getAuthCache();
+      if (authCacheConfiguration.getMaximumSize() > 0) {
+        CachingPrincipalAuthenticator<String> authCache =
+          new CachingPrincipalAuthenticator<>(authenticator, token -> new String[]{token},
+                                              authenticator::getExpiration, authCacheConfiguration,
+                                              environment.metrics(), "jwt");
+        authCaches.add(authCache);
+        jwtAuthenticator = authCache;
+      }
+    }
+    return jwtAuthenticator;
+  }
+
+  /**
+   * Caches of the authenticators created so far, empty if the cache has been disabled.
+   */
+  public List<CachingPrincipalAuthenticator<?>> authCaches() {
+    return Collections.unmodifiableList(authCaches);
   }
 
   /**
@@ -83,19 +157,239 @@ public class DataRepoModule {
                                                           environment.getObjectMapper());
       doiRegistrationService = new DoiRegistrationWsClient(buildWebTarget(client,
                                                                           configuration.getDataRepoConfiguration()
-                                                                            .getGbifApiUrl()));
+                                                                            .getGbifApiUrl()),
+                                                           environment.metrics());
     }
     return doiRegistrationService;
   }
 
+  /**
+   * Clients pinned to the primary database after writing to it, used when a read replica is configured.
+   */
+  public ReadYourWrites readYourWrites() {
+    return injector.getInstance(ReadYourWrites.class);
+  }
+
+  /**
+   * Persistence service of the data packages database.
+   */
+  public DataRepoPersistenceService dataRepoPersistenceService() {
+    return injector.getInstance(DataRepoPersistenceService.class);
+  }
+
+  /**
+   * Service to query the audit log stored in the data packages database.
+   */
+  public AuditLogService auditLogService() {
+    return injector.getInstance(AuditLogService.class);
+  }
+
+  /**
+   * Service that maintains and queries the usage counters of data packages.
+   */
+  public UsageStatsService usageStatsService() {
+    return injector.getInstance(UsageStatsService.class);
+  }
+
+  /**
+   * Service to query and cancel the asynchronous data package creation jobs.
+   */
+  public CreateJobService createJobService() {
+    return injector.getInstance(CreateJobService.class);
+  }
+
+  /**
+   * Creates the executor of asynchronous data package creations, jobs are claimed once the application has started and
+   * the running jobs are queued again or finished when it stops.
+   * @param onCreated called with each data package created by a job
+   */
+  public CreateJobExecutor createJobExecutor(DataRepository dataRepository,
+                                             BiConsumer<CreateJob, DataPackage> onCreated) {
+    DataRepoConfiguration dataRepoConfiguration = configuration.getDataRepoConfiguration();
+    CreateJobExecutor createJobExecutor = new CreateJobExecutor(createJobService(), dataRepository,
+                                                                getDataRepoFileSystemService(),
+                                                                fileDownload(),
+                                                                onCreated, dataRepoConfiguration.getCreateJobs(),
+                                                                environment.metrics());
+    environment.lifecycle().manage(new Managed() {
+      @Override
+      public void start() {
+        createJobExecutor.start();
+      }
+
+      @Override
+      public void stop() {
+        createJobExecutor.close();
+      }
+    });
+    return createJobExecutor;
+  }
+
+  /**
+   * Outbox of the DOI operations of data packages.
+   */
+  public DoiOutboxService doiOutboxService() {
+    return injector.getInstance(DoiOutboxService.class);
+  }
+
+  /**
+   * Creates the dispatcher that delivers the DOI operations to the DOI registry, operations are delivered once the
+   * application has started and the dispatcher stops when it stops.
+   */
+  public DoiOutboxDispatcher doiOutboxDispatcher() {
+    DoiOutboxDispatcher doiOutboxDispatcher = new DoiOutboxDispatcher(doiOutboxService(), doiRegistrationService(),
+                                                                      configuration.getDataRepoConfiguration()
+                                                                        .getDoiOutbox(),
+                                                                      environment.metrics());
+    environment.lifecycle().manage(new Managed() {
+      @Override
+      public void start() {
+        doiOutboxDispatcher.start();
+      }
+
+      @Override
+      public void stop() {
+        doiOutboxDispatcher.close();
+      }
+    });
+    return doiOutboxDispatcher;
+  }
+
+  /**
+   * Creates the queue of data package events written asynchronously into the events log, pending events are written
+   * when the application stops.
+   */
+  public EventLogQueue eventLogQueue() {
+    EventLogQueue eventLogQueue = new EventLogQueue(injector.getInstance(EventLogService.class)::write,
+                                                    configuration.getDataRepoConfiguration().getEventLog(),
+                                                    environment.metrics());
+    environment.lifecycle().manage(new Managed() {
+      @Override
+      public void start() {
+        //NOP
+      }
+
+      @Override
+      public void stop() {
+        eventLogQueue.close();
+      }
+    });
+    return eventLogQueue;
+  }
+
+  /**
+   * Creates the validation service of ORCIDs, its client is closed when the application stops.
+   */
+  public OrcidValidationService orcidValidationService() {
+    OrcidConfiguration orcidConfiguration = configuration.getDataRepoConfiguration().getOrcid();
+    OrcidPublicClient orcidPublicClient = new OrcidPublicClient(orcidConfiguration.getApiUrl(),
+                                                                orcidConfiguration.getConnectTimeout(),
+                                                                orcidConfiguration.getReadTimeout(),
+                                                                environment.metrics());
+    OrcidValidationService orcidValidationService = new OrcidValidationService(orcidPublicClient, orcidConfiguration,
+                                                                               environment.metrics());
+    environment.lifecycle().manage(new Managed() {
+      @Override
+      public void start() {
+        //NOP
+      }
+
+      @Override
+      public void stop() throws Exception {
+        orcidValidationService.close();
+        orcidPublicClient.close();
+      }
+    });
+    return orcidValidationService;
+  }
+
+  /**
+   * Creates the purger of the Varnish cache, the pending purges are sent when the application stops.
+   */
+  public Purger purger() {
+    Purger purger = new Purger(configuration.getDataRepoConfiguration().getGbifApiUrl(), configuration.getPurger(),
+                               environment.metrics());
+    environment.lifecycle().manage(new Managed() {
+      @Override
+      public void start() {
+        //NOP
+      }
+
+      @Override
+      public void stop() {
+        purger.close();
+      }
+    });
+    return purger;
+  }
+
+  /**
+   * Creates the reader of the file locations, its probes and copies are reported to the metrics registry.
+   */
+  public FileDownload fileDownload() {
+    return new FileDownload(configuration.getDataRepoConfiguration().getFileSystem(), environment.metrics());
+  }
+
+  /**
+   * Creates the admission controller of the data package ingests.
+   */
+  public AdmissionController admissionController() {
+    return new AdmissionController(configuration.getAdmission(), environment.metrics());
+  }
+
+  /**
+   * Creates the scheduler of the bandwidth of the file downloads.
+   */
+  public DownloadScheduler downloadScheduler() {
+    return new DownloadScheduler(configuration.getDownloads(), environment.metrics());
+  }
+
+  /**
+   * Opens the search index if it has been configured, the index is closed when the application stops.
+   */
+  private DataPackageSearchIndex searchIndex() {
+    String searchIndexPath = configuration.getDataRepoConfiguration().getSearchIndexPath();
+    if (searchIndexPath == null) {
+      return null;
+    }
+    DataPackageSearchIndex searchIndex = new DataPackageSearchIndex(Paths.get(searchIndexPath),
+                                                                    configuration.getDataRepoConfiguration()
+                                                                      .getSearchIndexCommitInterval());
+    environment.lifecycle().manage(new Managed() {
+      @Override
+      public void start() {
+        //NOP
+      }
+
+      @Override
+      public void stop() throws Exception {
+        searchIndex.close();
+      }
+    });
+    return searchIndex;
+  }
+
   /**
    * Creates an instance of DataRepository that is backed by a file system.
+   * Data package lookups are cached unless the cache has been disabled (maximumWeight = 0).
+   * An empty search index is populated before the repository is returned.
    */
   public DataRepository dataRepository() {
-    return new FileSystemDataRepository(doiRegistrationService(),
-                                        injector.getInstance(DataRepoPersistenceService.class),
+    DataPackageSearchIndex searchIndex = searchIndex();
+    FileSystemDataRepository fileSystemDataRepository = new FileSystemDataRepository(doiRegistrationService(),
+                                        dataRepoPersistenceService(),
                                         getDataRepoFileSystemService(),
-                                        configuration.getDataRepoConfiguration().getDataRepoName());
+                                        configuration.getDataRepoConfiguration().getDataRepoName(),
+                                        searchIndex, environment.metrics());
+    if (searchIndex != null && searchIndex.isEmpty()) {
+      fileSystemDataRepository.rebuildSearchIndex();
+    }
+    DataPackageCacheConfiguration cacheConfiguration = configuration.getDataRepoConfiguration().getDataPackageCache();
+    if (cacheConfiguration.getMaximumWeight() > 0) {
+      return new CachingDataRepository(fileSystemDataRepository, cacheConfiguration, readYourWrites(),
+                                       environment.metrics());
+    }
+    return fileSystemDataRepository;
   }
 
 }
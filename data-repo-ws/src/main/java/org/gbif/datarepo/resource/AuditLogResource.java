@@ -0,0 +1,129 @@
+package org.gbif.datarepo.resource;
+
+import org.gbif.api.model.common.GbifUserPrincipal;
+import org.gbif.datarepo.persistence.AuditLogService;
+import org.gbif.datarepo.persistence.model.AuditLogPage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+
+import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.dropwizard.auth.Auth;
+
+import static org.gbif.datarepo.resource.PathsParams.AUDIT_LOG_PATH;
+
+/**
+ * Exposes the audit log of the repository: pages of events using a cursor and the streaming of time ranges as newline
+ * delimited JSON. Events can be filtered using MDC entries with the format key:value, e.g.: mdc=event:CREATE.
+ * Every method requires an authenticated principal, otherwise the authentication filters are not applied and the role
+ * can't be checked.
+ */
+@Path(AUDIT_LOG_PATH)
+@RolesAllowed(AuditLogResource.AUDIT_LOG_ROLE)
+public class AuditLogResource {
+
+  static final String AUDIT_LOG_ROLE = "REGISTRY_ADMIN";
+
+  private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+  private static final String MDC_SEPARATOR = ":";
+
+  private static final int LINE_SEPARATOR = '\n';
+
+  private final AuditLogService auditLogService;
+
+  private final ObjectWriter objectWriter;
+
+  /**
+   * Full constructor.
+   */
+  public AuditLogResource(AuditLogService auditLogService, ObjectMapper objectMapper) {
+    this.auditLogService = auditLogService;
+    objectWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  /**
+   * Lists a page of events, the next page is requested using the cursor returned in the response.
+   */
+  @GET
+  @Timed
+  @Produces(MediaType.APPLICATION_JSON)
+  public AuditLogPage list(@Nullable @QueryParam("fromDate") Date fromDate,
+                           @Nullable @QueryParam("toDate") Date toDate,
+                           @QueryParam("mdc") List<String> mdc,
+                           @Nullable @QueryParam("cursor") String cursor,
+                           @DefaultValue("20") @QueryParam("limit") int limit,
+                           @Auth GbifUserPrincipal principal) {
+    try {
+      return auditLogService.list(toMillis(fromDate), toMillis(toDate), parseMdc(mdc), cursor, limit);
+    } catch (IllegalArgumentException ex) {
+      throw new BadRequestException(ex.getMessage());
+    }
+  }
+
+  /**
+   * Streams all the events of a time range, one event per line.
+   */
+  @GET
+  @Path("export")
+  @Timed
+  @Produces(NDJSON_MEDIA_TYPE)
+  public StreamingOutput export(@Nullable @QueryParam("fromDate") Date fromDate,
+                                @Nullable @QueryParam("toDate") Date toDate,
+                                @QueryParam("mdc") List<String> mdc,
+                                @Auth GbifUserPrincipal principal) {
+    Map<String, String> mdcFilter = parseMdc(mdc);
+    return output -> {
+      try {
+        auditLogService.stream(toMillis(fromDate), toMillis(toDate), mdcFilter, event -> {
+          try {
+            objectWriter.writeValue(output, event);
+            output.write(LINE_SEPARATOR);
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        });
+      } catch (UncheckedIOException ex) {
+        throw ex.getCause();
+      }
+      output.flush();
+    };
+  }
+
+  @Nullable
+  private static Long toMillis(@Nullable Date date) {
+    return date == null ? null : date.getTime();
+  }
+
+  /**
+   * Parses the MDC filters, the value of a key:value entry can contain the separator.
+   */
+  private static Map<String, String> parseMdc(List<String> mdc) {
+    Map<String, String> mdcFilter = new HashMap<>();
+    for (String entry : mdc) {
+      int separator = entry.indexOf(MDC_SEPARATOR);
+      if (separator < 1) {
+        throw new BadRequestException("Invalid mdc filter " + entry + ", the expected format is key:value");
+      }
+      mdcFilter.put(entry.substring(0, separator), entry.substring(separator + 1));
+    }
+    return mdcFilter;
+  }
+}
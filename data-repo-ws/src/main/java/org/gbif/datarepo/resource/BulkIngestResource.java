@@ -0,0 +1,130 @@
+package org.gbif.datarepo.resource;
+
+import org.gbif.api.model.common.GbifUserPrincipal;
+import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.impl.download.FileDownload;
+import org.gbif.datarepo.impl.ingest.BulkIngest;
+import org.gbif.datarepo.impl.ingest.IngestResult;
+import org.gbif.datarepo.impl.ingest.ManifestReader;
+import org.gbif.datarepo.logging.EventLogQueue;
+import org.gbif.datarepo.logging.LoggingEvent;
+import org.gbif.datarepo.resource.admission.AdmissionController;
+import org.gbif.datarepo.resource.caching.Purger;
+import org.gbif.datarepo.resource.validation.DataPackageValidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.StreamingOutput;
+
+import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.dropwizard.auth.Auth;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.gbif.datarepo.resource.DataPackageResource.DATA_REPO_ACCESS_ROLE;
+import static org.gbif.datarepo.resource.PathsParams.INGEST_PATH;
+
+/**
+ * Creates the data packages of a manifest, see ManifestReader for the supported formats.
+ * The result of each entry is streamed as newline delimited JSON as soon as it's available. Entries already created by
+ * a previous ingest of the same manifest are reported as EXISTS, so a manifest can be posted again after a failure.
+ * Each entry is admitted by the AdmissionController on behalf of the user using the length of its files, entries that
+ * are not admitted within the queue timeout fail. The ingest parallelism shouldn't exceed the ingests allowed per user.
+ */
+@Path(INGEST_PATH)
+@RolesAllowed(DATA_REPO_ACCESS_ROLE)
+public class BulkIngestResource {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BulkIngestResource.class);
+
+  private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+  private static final String CSV_MEDIA_TYPE = "text/csv";
+
+  private static final int LINE_SEPARATOR = '\n';
+
+  private final BulkIngest bulkIngest;
+
+  private final EventLogQueue eventLogQueue;
+
+  private final Purger purger;
+
+  private final ObjectWriter objectWriter;
+
+  /**
+   * Full constructor.
+   */
+  public BulkIngestResource(DataRepository dataRepository, DataPackageValidator dataPackageValidator,
+                            EventLogQueue eventLogQueue, Purger purger, ObjectMapper objectMapper, int parallelism,
+                            FileDownload fileDownload, AdmissionController admissionController) {
+    bulkIngest = new BulkIngest(dataRepository, parallelism, dataPackageValidator::validate, fileDownload,
+                                admissionController::admit);
+    this.eventLogQueue = eventLogQueue;
+    this.purger = purger;
+    objectWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  /**
+   * Ingests a manifest with one JSON entry per line.
+   */
+  @POST
+  @Timed
+  @Consumes(NDJSON_MEDIA_TYPE)
+  @Produces(NDJSON_MEDIA_TYPE)
+  public StreamingOutput ingestNdjson(InputStream manifest, @Auth GbifUserPrincipal principal) {
+    return ingest(manifest, ManifestReader.Format.NDJSON, principal);
+  }
+
+  /**
+   * Ingests a CSV manifest.
+   */
+  @POST
+  @Timed
+  @Consumes(CSV_MEDIA_TYPE)
+  @Produces(NDJSON_MEDIA_TYPE)
+  public StreamingOutput ingestCsv(InputStream manifest, @Auth GbifUserPrincipal principal) {
+    return ingest(manifest, ManifestReader.Format.CSV, principal);
+  }
+
+  /**
+   * The ingest runs while the result is streamed, its entries are admitted one by one by the workers.
+   */
+  private StreamingOutput ingest(InputStream manifest, ManifestReader.Format format, GbifUserPrincipal principal) {
+    return output -> {
+      long[] created = {0L};
+      try (ManifestReader reader = new ManifestReader(new InputStreamReader(manifest, StandardCharsets.UTF_8),
+                                                      format)) {
+        bulkIngest.ingest(reader, principal.getName(), result -> {
+          if (IngestResult.Status.CREATED == result.getStatus()) {
+            created[0]++;
+            eventLogQueue.log(LOG, LoggingEvent.CREATE, principal, result.getDoi(), null, null);
+          }
+          try {
+            objectWriter.writeValue(output, result);
+            output.write(LINE_SEPARATOR);
+            output.flush();
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        });
+      } catch (UncheckedIOException ex) {
+        throw ex.getCause();
+      } finally {
+        if (created[0] > 0) {
+          purger.purgeRoot();
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,76 @@
+package org.gbif.datarepo.resource;
+
+import org.gbif.api.model.common.GbifUserPrincipal;
+import org.gbif.datarepo.persistence.CreateJobService;
+import org.gbif.datarepo.persistence.model.CreateJob;
+
+import java.util.UUID;
+import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response.Status;
+
+import com.codahale.metrics.annotation.Timed;
+import io.dropwizard.auth.Auth;
+
+import static org.gbif.datarepo.resource.DataPackageResource.DATA_REPO_ACCESS_ROLE;
+import static org.gbif.datarepo.resource.PathsParams.CREATE_JOBS_PATH;
+import static org.gbif.datarepo.resource.validation.ResourceValidations.buildWebException;
+
+/**
+ * Exposes the status and progress of the asynchronous data package creations, jobs are visible only to their creators.
+ */
+@Path(CREATE_JOBS_PATH)
+@Produces(MediaType.APPLICATION_JSON)
+@RolesAllowed(DATA_REPO_ACCESS_ROLE)
+public class CreateJobResource {
+
+  private final CreateJobService createJobService;
+
+  /**
+   * Full constructor.
+   */
+  public CreateJobResource(CreateJobService createJobService) {
+    this.createJobService = createJobService;
+  }
+
+  /**
+   * Retrieves a job with the bytes fetched of each file.
+   */
+  @GET
+  @Timed
+  @Path("{jobKey}")
+  public CreateJob get(@PathParam("jobKey") UUID jobKey, @Auth GbifUserPrincipal principal) {
+    return getOwnedOrNotFound(jobKey, principal);
+  }
+
+  /**
+   * Cancels a job, a running job stops the next time it reports its progress.
+   */
+  @DELETE
+  @Timed
+  @Path("{jobKey}")
+  public CreateJob cancel(@PathParam("jobKey") UUID jobKey, @Auth GbifUserPrincipal principal) {
+    CreateJob createJob = getOwnedOrNotFound(jobKey, principal);
+    if (createJob.getStatus().isFinished()) {
+      throw buildWebException(Status.CONFLICT, "Job " + jobKey + " has already finished");
+    }
+    createJobService.cancel(jobKey);
+    return createJobService.get(jobKey);
+  }
+
+  private CreateJob getOwnedOrNotFound(UUID jobKey, GbifUserPrincipal principal) {
+    CreateJob createJob = createJobService.get(jobKey);
+    if (createJob == null) {
+      throw buildWebException(Status.NOT_FOUND, String.format("Job %s not found", jobKey));
+    }
+    if (!createJob.getCreatedBy().equals(principal.getUser().getUserName())) {
+      throw buildWebException(Status.UNAUTHORIZED, "A job can be accessed only by its creator");
+    }
+    return createJob;
+  }
+}
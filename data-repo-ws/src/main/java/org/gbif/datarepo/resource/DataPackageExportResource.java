@@ -0,0 +1,92 @@
+package org.gbif.datarepo.resource;
+
+import org.gbif.datarepo.api.DataRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Date;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import static org.gbif.datarepo.resource.PathsParams.EXPORT_PATH;
+
+/**
+ * Exports all the data packages of the repository as newline delimited JSON, one data package per line.
+ * Data packages are read from the database in chunks, so the memory used doesn't depend on the size of the repository
+ * and no database connection is held while the response is written.
+ */
+@Path(EXPORT_PATH)
+public class DataPackageExportResource {
+
+  private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+  private static final String GZIP_ENCODING = "gzip";
+
+  private static final int LINE_SEPARATOR = '\n';
+
+  private final DataRepository dataRepository;
+
+  private final DataPackageUriBuilder uriBuilder;
+
+  private final ObjectWriter objectWriter;
+
+  /**
+   * Full constructor.
+   */
+  public DataPackageExportResource(DataRepository dataRepository, String dataPackageApiUrl,
+                                   ObjectMapper objectMapper) {
+    this.dataRepository = dataRepository;
+    uriBuilder = new DataPackageUriBuilder(dataPackageApiUrl);
+    objectWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  /**
+   * Streams the data packages, optionally modified since a date. The response is gzip compressed if the client
+   * accepts it.
+   */
+  @GET
+  @Timed
+  @Produces(NDJSON_MEDIA_TYPE)
+  public Response export(@Nullable @QueryParam("modifiedSince") Date modifiedSince,
+                         @Nullable @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
+    boolean gzip = acceptEncoding != null && acceptEncoding.contains(GZIP_ENCODING);
+    StreamingOutput streamingOutput = output -> {
+      OutputStream exportOutput = gzip ? new GZIPOutputStream(output) : output;
+      try {
+        dataRepository.export(modifiedSince, dataPackage -> {
+          try {
+            objectWriter.writeValue(exportOutput, dataPackage.inUrl(uriBuilder.build(dataPackage.getKey())));
+            exportOutput.write(LINE_SEPARATOR);
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        });
+      } catch (UncheckedIOException ex) {
+        throw ex.getCause();
+      }
+      if (gzip) {
+        ((GZIPOutputStream) exportOutput).finish();
+      }
+      exportOutput.flush();
+    };
+    Response.ResponseBuilder response = Response.ok(streamingOutput);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+    }
+    return response.build();
+  }
+}
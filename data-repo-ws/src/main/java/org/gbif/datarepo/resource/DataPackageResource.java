@@ -1,25 +1,37 @@
 package org.gbif.datarepo.resource;
 
-import org.gbif.api.model.common.DOI;
 import org.gbif.api.model.common.GbifUserPrincipal;
 import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.vocabulary.Language;
 import org.gbif.api.vocabulary.License;
-import org.gbif.datarepo.api.model.Creator;
+import org.gbif.datarepo.api.model.DataPackageFacet;
+import org.gbif.datarepo.api.model.DataPackageLookup;
+import org.gbif.datarepo.api.model.FacetedPagingResponse;
 import org.gbif.datarepo.api.model.DataPackageFile;
 import org.gbif.datarepo.api.model.FileInputContent;
 import org.gbif.datarepo.api.model.DataPackage;
 import org.gbif.datarepo.api.DataRepository;
 import org.gbif.datarepo.api.model.Identifier;
+import org.gbif.datarepo.api.model.TagMode;
 import org.gbif.datarepo.app.DataRepoConfigurationDW;
 import org.gbif.datarepo.citation.CitationGenerator;
-import org.gbif.datarepo.identifiers.orcid.OrcidPublicService;
-import org.gbif.datarepo.logging.EventLogger;
+import org.gbif.datarepo.logging.EventLogQueue;
+import org.gbif.datarepo.logging.LoggingEvent;
 import org.gbif.datarepo.registry.JacksonObjectMapperProvider;
 import org.gbif.datarepo.impl.download.FileDownload;
 import org.gbif.datarepo.impl.conf.DataRepoConfiguration;
+import org.gbif.datarepo.impl.jobs.CreateJobExecutor;
+import org.gbif.datarepo.persistence.model.CreateJob;
+import org.gbif.datarepo.resource.admission.AdmissionController;
 import org.gbif.datarepo.resource.caching.Purger;
+import org.gbif.datarepo.resource.download.DownloadScheduler;
+import org.gbif.datarepo.resource.validation.DataPackageValidator;
 
 import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.ByteStreams;
 import io.dropwizard.auth.Auth;
 import org.glassfish.jersey.media.multipart.FormDataBodyPart;
 import org.glassfish.jersey.media.multipart.FormDataMultiPart;
@@ -29,9 +41,6 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import javax.annotation.security.RolesAllowed;
 import javax.servlet.http.HttpServletRequest;
-import javax.validation.ConstraintViolation;
-import javax.validation.ValidationException;
-import javax.validation.Validator;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.BeanParam;
 import javax.ws.rs.Consumes;
@@ -47,12 +56,16 @@ import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -60,13 +73,16 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.gbif.datarepo.resource.PathsParams.FILE_PARAM;
 import static  org.gbif.datarepo.resource.validation.ResourceValidations.buildWebException;
 import static  org.gbif.datarepo.resource.validation.ResourceValidations.validateFiles;
 import static  org.gbif.datarepo.resource.validation.ResourceValidations.throwBadRequest;
+import static org.gbif.datarepo.resource.PathsParams.CREATE_JOBS_PATH;
 import static org.gbif.datarepo.resource.PathsParams.DATA_PACKAGES_PATH;
 import static org.gbif.datarepo.resource.PathsParams.RELATED_IDENTIFIERS_PATH;
 import static org.gbif.datarepo.resource.PathsParams.DP_FORM_PARAM;
@@ -88,7 +104,7 @@ public class DataPackageResource {
 
   private static final String FILE_ATTACHMENT = "attachment; filename=";
 
-  private static final String DATA_REPO_ACCESS_ROLE ="DATA_REPO_USER";
+  static final String DATA_REPO_ACCESS_ROLE = "DATA_REPO_USER";
 
   private final DataRepository dataRepository;
 
@@ -98,25 +114,46 @@ public class DataPackageResource {
 
   private final IdentifiersValidator identifiersValidator;
 
-  private final Validator validator;
-
-  private final OrcidPublicService orcidPublicService;
+  private final DataPackageValidator dataPackageValidator;
 
   private final Purger purger;
 
+  private final EventLogQueue eventLogQueue;
+
+  private final int defaultFacetLimit;
+
+  private final JsonFactory jsonFactory;
+
+  private final CreateJobExecutor createJobExecutor;
+
+  private final int batchLimit;
+
+  private final AdmissionController admissionController;
+
+  private final DownloadScheduler downloadScheduler;
+
   /**
    * Full constructor.
+   * @param fileDownload probes the file locations of the created data packages and their alternative identifiers
    */
-  public DataPackageResource(DataRepository dataRepository, DataRepoConfigurationDW configuration, Validator validator,
-                             OrcidPublicService orcidPublicService, Purger purger) {
+  public DataPackageResource(DataRepository dataRepository, DataRepoConfigurationDW configuration,
+                             DataPackageValidator dataPackageValidator, Purger purger, EventLogQueue eventLogQueue,
+                             ObjectMapper objectMapper, CreateJobExecutor createJobExecutor, FileDownload fileDownload,
+                             AdmissionController admissionController, DownloadScheduler downloadScheduler) {
     this.dataRepository = dataRepository;
     DataRepoConfiguration dataRepoConfiguration = configuration.getDataRepoConfiguration();
     uriBuilder = new DataPackageUriBuilder(dataRepoConfiguration.getDataPackageApiUrl());
-    downloadHandler = new FileDownload(dataRepoConfiguration.getFileSystem());
+    downloadHandler = fileDownload;
     identifiersValidator = new IdentifiersValidator(dataRepository, downloadHandler);
-    this.validator = validator;
-    this.orcidPublicService = orcidPublicService;
+    this.dataPackageValidator = dataPackageValidator;
     this.purger = purger;
+    this.eventLogQueue = eventLogQueue;
+    defaultFacetLimit = dataRepoConfiguration.getFacetLimit();
+    batchLimit = dataRepoConfiguration.getBatchLimit();
+    jsonFactory = objectMapper.getFactory();
+    this.createJobExecutor = createJobExecutor;
+    this.admissionController = admissionController;
+    this.downloadScheduler = downloadScheduler;
   }
 
   /**
@@ -127,13 +164,86 @@ public class DataPackageResource {
   @GET
   @Timed
   @Produces(MediaType.APPLICATION_JSON)
-  public PagingResponse<DataPackage> list(@Nullable @QueryParam("user") String user,
-                                          @Nullable @BeanParam PagingParam page,
-                                          @Nullable @QueryParam("fromDate") Date fromDate,
-                                          @Nullable @QueryParam("toDate") Date toDate,
-                                          @Nullable @QueryParam("tag") List<String> tags,
-                                          @Nullable @QueryParam("q") String q) {
-    return dataRepository.list(user, page, fromDate, toDate, false, tags, q, null);
+  public StreamingOutput list(@Nullable @QueryParam("user") String user,
+                              @Nullable @BeanParam PagingParam page,
+                              @Nullable @QueryParam("fromDate") Date fromDate,
+                              @Nullable @QueryParam("toDate") Date toDate,
+                              @Nullable @QueryParam("tag") List<String> tags,
+                              @Nullable @QueryParam("tagMode") String tagMode,
+                              @Nullable @QueryParam("q") String q,
+                              @Nullable @QueryParam("facet") List<String> facets,
+                              @Nullable @QueryParam("facetLimit") Integer facetLimit) {
+    if (facetLimit != null && facetLimit < 1) {
+      throw new BadRequestException("facetLimit must be greater than 0");
+    }
+    TagMode parsedTagMode = parseTagMode(tagMode);
+    Set<DataPackageFacet> parsedFacets = parseFacets(facets);
+    int facetsLimit = Optional.ofNullable(facetLimit).orElse(defaultFacetLimit);
+    return pagingResponseOutput((Consumer<DataPackage> consumer) ->
+                                  dataRepository.list(user, page, fromDate, toDate, false, tags, parsedTagMode, q,
+                                                      null, parsedFacets, facetsLimit, consumer));
+  }
+
+  /**
+   * Writes a paging response as it is produced by the lister: each result is written as soon as it's passed to the
+   * consumer and the paging fields, count and facets once the listing has finished. Hence, the memory used doesn't
+   * depend on the page size and the results are the first field of the response.
+   */
+  private <T> StreamingOutput pagingResponseOutput(Function<Consumer<T>, PagingResponse<T>> lister) {
+    return output -> {
+      try (JsonGenerator generator = jsonFactory.createGenerator(output)
+                                       .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("results");
+        PagingResponse<T> response;
+        try {
+          response = lister.apply(result -> {
+            try {
+              generator.writeObject(result);
+            } catch (IOException ex) {
+              throw new UncheckedIOException(ex);
+            }
+          });
+        } catch (UncheckedIOException ex) {
+          throw ex.getCause();
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("offset", response.getOffset());
+        generator.writeNumberField("limit", response.getLimit());
+        generator.writeBooleanField("endOfRecords", response.isEndOfRecords());
+        if (response.getCount() != null) {
+          generator.writeNumberField("count", response.getCount());
+        }
+        if (response instanceof FacetedPagingResponse) {
+          generator.writeObjectField("facets", ((FacetedPagingResponse<T>) response).getFacets());
+        }
+        generator.writeEndObject();
+      }
+    };
+  }
+
+  /**
+   * Parses the tagMode parameter, any or all, if it is not present data packages with any of the tags are listed.
+   */
+  private static TagMode parseTagMode(@Nullable String tagMode) {
+    return Optional.ofNullable(tagMode)
+      .map(tagModeParam -> TagMode.fromParamName(tagModeParam.trim())
+        .orElseThrow(() -> new BadRequestException("Unknown tagMode " + tagModeParam + ", expected any or all")))
+      .orElse(TagMode.ANY);
+  }
+
+  /**
+   * Parses the facet parameters, each one can contain several comma separated facet names.
+   */
+  private static Set<DataPackageFacet> parseFacets(@Nullable List<String> facets) {
+    Set<DataPackageFacet> dataPackageFacets = EnumSet.noneOf(DataPackageFacet.class);
+    Optional.ofNullable(facets).ifPresent(facetParams -> facetParams.stream()
+      .flatMap(facetParam -> Arrays.stream(facetParam.split(",")))
+      .map(String::trim)
+      .filter(facetName -> !facetName.isEmpty())
+      .forEach(facetName -> dataPackageFacets.add(DataPackageFacet.fromParamName(facetName)
+        .orElseThrow(() -> new BadRequestException("Unknown facet " + facetName)))));
+    return dataPackageFacets;
   }
 
   /**
@@ -145,30 +255,36 @@ public class DataPackageResource {
   @Timed
   @Produces(MediaType.APPLICATION_JSON)
   @Path("{dataPackageIdentifier}/" + RELATED_IDENTIFIERS_PATH)
-  public PagingResponse<Identifier> listIdentifiers(@Nullable @QueryParam("user") String user,
-                                                    @Nullable @BeanParam PagingParam page,
-                                                    @Nullable @QueryParam("identifier") String identifier,
-                                                    @Nullable @PathParam("dataPackageIdentifier") String dataPackageIdentifier,
-                                                    @Nullable @QueryParam("type") Identifier.Type type,
-                                                    @Nullable @QueryParam("relationType") Identifier.RelationType relationType,
-                                                    @Nullable @QueryParam("created") Date created) {
+  public StreamingOutput listIdentifiers(@Nullable @QueryParam("user") String user,
+                                         @Nullable @BeanParam PagingParam page,
+                                         @Nullable @QueryParam("identifier") String identifier,
+                                         @Nullable @PathParam("dataPackageIdentifier") String dataPackageIdentifier,
+                                         @Nullable @QueryParam("type") Identifier.Type type,
+                                         @Nullable @QueryParam("relationType") Identifier.RelationType relationType,
+                                         @Nullable @QueryParam("created") Date created) {
     DataPackage dataPackage = getOrNotFound(dataPackageIdentifier);
-    return dataRepository.listIdentifiers(user, page, identifier, dataPackage.getKey(), type, relationType, created);
+    return pagingResponseOutput((Consumer<Identifier> consumer) ->
+                                  dataRepository.listIdentifiers(user, page, identifier, dataPackage.getKey(), type,
+                                                                 relationType, created, consumer));
   }
 
 
   /**
    * Creates a new data package. The parameters: file(multiple values), metadata are required. Only authenticated
    * user are allowed to create data packages. A new DOI is created and assigned as a Identifier.
-   *
+   * If async is true the data package is created by a job: the job is returned with the status 202 Accepted and its
+   * location, uploaded files are stored before responding and file URLs are fetched by the job.
+   * Creations are admitted by the AdmissionController using the request Content-Length and the length of the file URLs,
+   * 503 Service Unavailable is returned when too many are running.
    */
   @POST
   @Timed
   @Consumes(MediaType.MULTIPART_FORM_DATA)
   @Produces(MediaType.APPLICATION_JSON)
   @RolesAllowed(DATA_REPO_ACCESS_ROLE)
-  public DataPackage create(FormDataMultiPart multiPart, @Auth GbifUserPrincipal principal,
-                            @Context HttpServletRequest request) throws IOException {
+  public Response create(FormDataMultiPart multiPart, @Auth GbifUserPrincipal principal,
+                         @QueryParam("async") boolean async, @Context HttpServletRequest request) throws IOException {
+    long start = System.nanoTime();
     //Validations
     List<FormDataBodyPart> files = multiPart.getFields(FILE_PARAM);
 
@@ -178,7 +294,10 @@ public class DataPackageResource {
                               .orElse(Collections.emptyList());
     //check that files + urlFiles are not empty
     validateFiles(files, urlFiles);
-    checkFileLocations(urlFiles);
+    long urlFilesLength = checkFileLocations(urlFiles);
+    //File URLs of async creations are fetched by the job executor, which limits its own concurrency
+    long length = Math.max(0L, request.getContentLengthLong()) + (async ? 0L : urlFilesLength);
+    AdmissionController.Permit permit = admissionController.admit(principal.getName(), length);
     try {
       DataPackage dataPackage = JacksonObjectMapperProvider.MAPPER
                                   .readValue(multiPart.getField(DP_FORM_PARAM).getValueAs(String.class),
@@ -187,64 +306,53 @@ public class DataPackageResource {
       validateDataPackage(dataPackage);
       dataPackage.setRelatedIdentifiers(identifiersValidator.validateIdentifiers(multiPart, dataPackage.getRelatedIdentifiers()));
       dataPackage.setCreatedBy(principal.getName());
+      if (async) {
+        CreateJob createJob = createJobExecutor.submit(dataPackage, streamFiles(files, urlFiles));
+        return Response.accepted(createJob).location(URI.create(CREATE_JOBS_PATH + '/' + createJob.getKey())).build();
+      }
       DataPackage newDataPackage = dataRepository.create(dataPackage, streamFiles(files, urlFiles), true);
-      EventLogger.logCreate(LOG, principal, newDataPackage.getDoi().getDoiName());
+      eventLogQueue.log(LOG, LoggingEvent.CREATE, principal, newDataPackage.getDoi().getDoiName(), null,
+                        elapsedMillis(start));
       purger.purgeRoot();
-      return newDataPackage.inUrl(uriBuilder.build(newDataPackage.getKey()));
+      return Response.ok(newDataPackage.inUrl(uriBuilder.build(newDataPackage.getKey()))).build();
     } catch (Exception ex) {
       LOG.error("Error creating data package", ex);
       throw buildWebException(ex, Status.INTERNAL_SERVER_ERROR, "Error creating data package");
+    } finally {
+      permit.close();
     }
   }
 
   /**
-   * Performs all bean validations defined in the class DataPackage.
+   * Performs all bean validations defined in the class DataPackage and validates that the ORCIDs of its creators exist.
    */
   private void validateDataPackage(DataPackage dataPackage) {
     try {
-      Set<ConstraintViolation<DataPackage>> violations = validator.validate(dataPackage);
-      if (!violations.isEmpty()) {
-        throwBadRequest("Invalid DataPackage definition: "
-                        + violations.stream()
-                          .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
-                          .collect(Collectors.joining(System.lineSeparator())));
-      }
-    } catch (ValidationException ex) {
+      dataPackageValidator.validate(dataPackage);
+    } catch (IllegalArgumentException ex) {
       throwBadRequest(ex.getMessage());
     }
-    validateOrcidsExist(dataPackage);
-  }
-
-  private void validateOrcidsExist(DataPackage dataPackage) {
-    if (dataPackage.getCreators() != null) {
-      dataPackage.getCreators().stream()
-        .filter(creator -> Creator.IdentifierScheme.ORCID == creator.getIdentifierScheme()
-                           && creator.getIdentifier() != null)
-        .collect(Collectors.toSet()).forEach(orcider -> {
-        if (!orcidPublicService.exists(orcider.getIdentifier())) {
-          throwBadRequest("The orcid " + orcider.getIdentifier() + " does not exist");
-        }
-      });
-    }
-
   }
 
   /**
    * Validates that the specified file locations are reachable form this service.
+   * @return the total length of the files, unknown lengths count as 0
    */
-  private void checkFileLocations(List<String> fileLocations) {
-    Optional.ofNullable(fileLocations).ifPresent(
-      locations -> locations.forEach(fileUri -> {
-        try {
-          if (!downloadHandler.exists(fileUri)) {
-            throw new BadRequestException("File location is not reachable " + fileUri);
-          }
-        } catch (IOException ex){
-          LOG.error("Error checking file existence", ex);
-          throw buildWebException(ex, Status.INTERNAL_SERVER_ERROR, "Error reading file " + fileUri);
+  private long checkFileLocations(List<String> fileLocations) {
+    long totalLength = 0;
+    for (String fileUri : fileLocations) {
+      try {
+        long length = downloadHandler.length(fileUri);
+        if (length == FileDownload.NOT_FOUND) {
+          throw new BadRequestException("File location is not reachable " + fileUri);
         }
-      })
-    );
+        totalLength += length;
+      } catch (IOException ex){
+        LOG.error("Error checking file existence", ex);
+        throw buildWebException(ex, Status.INTERNAL_SERVER_ERROR, "Error reading file " + fileUri);
+      }
+    }
+    return totalLength;
   }
 
   /**
@@ -273,20 +381,60 @@ public class DataPackageResource {
   }
 
   /**
-   * Retrieves a DataPackage by its DOI suffix.
+   * Retrieves a DataPackage by its DOI suffix, the citation is in the first supported language of the Accept-Language
+   * header.
    */
   @GET
   @Timed
   @Produces(MediaType.APPLICATION_JSON)
   @Path("{identifier}")
-  public DataPackage get(@PathParam("identifier") String identifier)  {
+  public DataPackage get(@PathParam("identifier") String identifier, @Context HttpHeaders headers)  {
+    long start = System.nanoTime();
     //Gets the data package, throws a NOT_FOUND error if it doesn't exist
-    DataPackage dataPackage = getOrNotFound(identifier);
-    EventLogger.logRead(LOG, dataPackage.getDoi().getDoiName());
+    DataPackage dataPackage = CitationGenerator.setCitation(getOrNotFound(identifier), citationLanguage(headers));
+    eventLogQueue.log(LOG, LoggingEvent.READ, null, dataPackage.getDoi().getDoiName(), null, elapsedMillis(start));
     return dataPackage;
   }
 
 
+  /**
+   * Retrieves many DataPackages by their keys, DOIs or alternative identifiers.
+   * The response has one element per identifier in the requested order, including the identifiers not found.
+   * Citations are in the first supported language of the Accept-Language header, as in get.
+   */
+  @POST
+  @Timed
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("batch")
+  public List<DataPackageLookup> getBatch(List<String> identifiers, @Context HttpHeaders headers) {
+    if (identifiers == null || identifiers.isEmpty()) {
+      throwBadRequest("At least one identifier is required");
+    }
+    if (identifiers.size() > batchLimit) {
+      throwBadRequest("At most " + batchLimit + " identifiers can be requested at once");
+    }
+    if (identifiers.contains(null)) {
+      throwBadRequest("Identifiers can't be null");
+    }
+    long start = System.nanoTime();
+    List<Optional<DataPackage>> dataPackages = dataRepository.getByIdentifiers(identifiers);
+    long elapsed = elapsedMillis(start);
+    Language language = citationLanguage(headers);
+    List<DataPackageLookup> lookups = new ArrayList<>(identifiers.size());
+    for (int i = 0; i < identifiers.size(); i++) {
+      DataPackage dataPackage = dataPackages.get(i)
+                                  .map(found -> CitationGenerator.setCitation(found, language)
+                                                  .inUrl(uriBuilder.build(found.getKey())))
+                                  .orElse(null);
+      if (dataPackage != null) {
+        eventLogQueue.log(LOG, LoggingEvent.READ, null, dataPackage.getDoi().getDoiName(), null, elapsed);
+      }
+      lookups.add(new DataPackageLookup(identifiers.get(i), dataPackage));
+    }
+    return lookups;
+  }
+
   /**
    * Retrieves a DataPackage by its DOI suffix.
    */
@@ -311,21 +459,36 @@ public class DataPackageResource {
 
   /**
    * Retrieves a file contained in a data package.
+   * The file is streamed at the bandwidth the DownloadScheduler allows to the client: the user, if the request is
+   * authenticated, or the IP address. Authentication is optional, requests that carry credentials are authenticated by
+   * the OptionalAuthFilter so users get the weight of their roles.
    */
   @GET
   @Timed
   @Produces(MediaType.APPLICATION_OCTET_STREAM + OCT_STREAM_QS)
   @Path("{identifier}/{fileName}")
-  public Response getFile(@PathParam("identifier") String identifier, @PathParam("fileName") String fileName)  {
+  public Response getFile(@PathParam("identifier") String identifier, @PathParam("fileName") String fileName,
+                          @Context SecurityContext securityContext, @Context HttpServletRequest request)  {
+    long start = System.nanoTime();
     DataPackage dataPackage = getOrNotFound(identifier);
     //Tries to get the file
     Optional<InputStream> fileInputStream = dataRepository.getFileInputStream(dataPackage.getKey(), fileName);
+    boolean authenticated = securityContext.getUserPrincipal() != null;
+    String client = authenticated ? securityContext.getUserPrincipal().getName()
+      : downloadScheduler.clientAddress(request::getHeader, request.getRemoteAddr());
+    int weight = downloadScheduler.weight(authenticated, securityContext::isUserInRole);
 
-    //Check file existence before send it in the Response
+    //Check file existence before send it in the Response, the event is logged once the file has been served
     return fileInputStream.map(inputStream ->  {
-        EventLogger.logRead(LOG, dataPackage.getDoi().getDoiName());
-        return Response.ok(inputStream).header(HttpHeaders.CONTENT_DISPOSITION,
-                                               FILE_ATTACHMENT + fileName).build();
+        StreamingOutput fileOutput = output -> {
+          try (InputStream input = downloadScheduler.schedule(client, weight, inputStream)) {
+            long bytes = ByteStreams.copy(input, output);
+            eventLogQueue.log(LOG, LoggingEvent.READ, null, dataPackage.getDoi().getDoiName(), bytes,
+                              elapsedMillis(start));
+          }
+        };
+        return Response.ok(fileOutput).header(HttpHeaders.CONTENT_DISPOSITION,
+                                              FILE_ATTACHMENT + fileName).build();
     }).orElse(Response.status(Status.NOT_FOUND).entity(String.format("File %s not found", fileName)).build());
   }
 
@@ -355,6 +518,7 @@ public class DataPackageResource {
   @Path("{identifier}")
   @RolesAllowed(DATA_REPO_ACCESS_ROLE)
   public void delete(@PathParam("identifier") String identifier, @Auth GbifUserPrincipal principal)  {
+    long start = System.nanoTime();
 
     //Checks that the DataPackage exists
     DataPackage dataPackage = getOrNotFound(identifier);
@@ -364,7 +528,8 @@ public class DataPackageResource {
 
     //Gets the data package, throws a NOT_FOUND error if it doesn't exist
     dataRepository.delete(dataPackage.getKey());
-    EventLogger.logDelete(LOG, principal, dataPackage.getDoi().getDoiName());
+    eventLogQueue.log(LOG, LoggingEvent.DELETE, principal, dataPackage.getDoi().getDoiName(), null,
+                      elapsedMillis(start));
     purger.purgeResource(identifier);
   }
 
@@ -411,57 +576,31 @@ public class DataPackageResource {
   }
 
   /**
-   * Gets a DataPackage form a DOI, throw HTTP NOT_FOUND exception if the elements is not found.
+   * Gets a DataPackage from a key, DOI or alternative identifier, throw HTTP NOT_FOUND exception if the elements is
+   * not found.
    */
   private DataPackage getOrNotFound(String identifier) {
-    return getDataPackageByIdentifier(identifier).orElseThrow(() -> buildWebException(Status.NOT_FOUND,
+    return dataRepository.getByIdentifier(identifier).orElseThrow(() -> buildWebException(Status.NOT_FOUND,
                                            String.format("Identifier %s not found in repository", identifier)))
       .inUrl(uriBuilder.build(identifier));
   }
 
   /**
-   * Tries to get a DataPackage by UUID, DOI or an alternative identifier.
+   * First language accepted by the client in which citations can be generated.
    */
-  private Optional<DataPackage> getDataPackageByIdentifier(String identifier) {
-    Optional<DataPackage> dataPackage = getByUUID(identifier);
-    if (!dataPackage.isPresent()) {
-      dataPackage = getByDOI(identifier);
-      if (!dataPackage.isPresent()) {
-        dataPackage = getByAlternativeIdentifier(identifier);
-      }
-    }
-    return  dataPackage;
-  }
-
-  /**
-   * Get a DataPackage by UUID.
-   */
-  private Optional<DataPackage> getByUUID(String identifier) {
-   try {
-     UUID dataPackageKey = UUID.fromString(identifier);
-     return dataRepository.get(dataPackageKey);
-   } catch (Exception ex) {
-     return Optional.empty();
-   }
-  }
-
-  /**
-   * Get a DataPackage by DOI.
-   */
-  private Optional<DataPackage> getByDOI(String identifier) {
-    try {
-      DOI doi = new DOI(identifier);
-      return dataRepository.get(doi);
-    } catch (Exception ex) {
-      return Optional.empty();
-    }
+  private static Language citationLanguage(HttpHeaders headers) {
+    return headers.getAcceptableLanguages().stream()
+      .map(locale -> Language.fromIsoCode(locale.getLanguage()))
+      .filter(CitationGenerator::isSupported)
+      .findFirst()
+      .orElse(CitationGenerator.DEFAULT_LANGUAGE);
   }
 
   /**
-   * Get a DataPackage by Alternative identifier.
+   * Milliseconds elapsed since a System.nanoTime() value.
    */
-  private Optional<DataPackage> getByAlternativeIdentifier(String identifier) {
-      return dataRepository.getByAlternativeIdentifier(identifier);
+  private static long elapsedMillis(long startNanos) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
   }
 
 }
@@ -0,0 +1,59 @@
+package org.gbif.datarepo.resource;
+
+import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.persistence.DoiOutboxService;
+import org.gbif.datarepo.persistence.model.DoiSyncStatus;
+
+import java.util.Optional;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response.Status;
+
+import com.codahale.metrics.annotation.Timed;
+
+import static org.gbif.datarepo.resource.PathsParams.DOI_STATUS_PATH;
+import static org.gbif.datarepo.resource.validation.ResourceValidations.buildWebException;
+
+/**
+ * Exposes whether the DOI operations of a data package have been delivered to the DOI registry.
+ */
+@Path(DOI_STATUS_PATH)
+@Produces(MediaType.APPLICATION_JSON)
+public class DoiStatusResource {
+
+  private final DataRepository dataRepository;
+
+  private final DoiOutboxService doiOutboxService;
+
+  /**
+   * Full constructor.
+   */
+  public DoiStatusResource(DataRepository dataRepository, DoiOutboxService doiOutboxService) {
+    this.dataRepository = dataRepository;
+    this.doiOutboxService = doiOutboxService;
+  }
+
+  /**
+   * Retrieves the DOI synchronization status of a data package identified by its key, DOI or alternative identifier.
+   * Data packages without DOI operations in the outbox, e.g. registered before it existed, are reported as synced.
+   */
+  @GET
+  @Timed
+  @Path("{identifier}")
+  public DoiSyncStatus get(@PathParam("identifier") String identifier) {
+    DataPackage dataPackage = dataRepository.getByIdentifier(identifier)
+      .orElseThrow(() -> buildWebException(Status.NOT_FOUND,
+                                           String.format("Identifier %s not found in repository", identifier)));
+    return Optional.ofNullable(doiOutboxService.getSyncStatus(dataPackage.getKey())).orElseGet(() -> {
+      DoiSyncStatus doiSyncStatus = new DoiSyncStatus();
+      doiSyncStatus.setDataPackageKey(dataPackage.getKey());
+      doiSyncStatus.setDoi(dataPackage.getDoi());
+      doiSyncStatus.setStatus(DoiSyncStatus.Status.SYNCED);
+      return doiSyncStatus;
+    });
+  }
+}
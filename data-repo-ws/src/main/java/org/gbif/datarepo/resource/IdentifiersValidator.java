@@ -77,17 +77,20 @@ public class IdentifiersValidator {
     IdentifiersUsage identifiersUsage = processRelatedIdentifiers(multiPart, identifiers);
     if (!identifiersUsage.getAlternativeIdentifiersInUse().isEmpty()) {
       ResourceValidations.throwBadRequest("Identifiers are used as alternative identifiers in another data package: "
-                                          + identifiers.stream().map(Identifier::getIdentifier)
+                                          + identifiersUsage.getAlternativeIdentifiersInUse().stream()
+                                            .map(Identifier::getIdentifier)
                                             .collect(Collectors.joining(" , ")));
     }
     return identifiersUsage.getRelatedIdentifiers();
   }
   /**
-   * Is the identifier an alternative identifier and it is being used by any other DataPackage.
+   * Alternative identifiers that are being used by any other DataPackage, checked in bulk.
    */
-  private boolean isInUse(Identifier identifier) {
-   return Identifier.RelationType.IsAlternativeOf == identifier.getRelationType()
-          && dataRepository.isAlternativeIdentifierInUse(identifier);
+  private Set<Identifier> alternativeIdentifiersInUse(Collection<Identifier> identifiers) {
+    return dataRepository.getAlternativeIdentifiersInUse(identifiers.stream()
+                                                           .filter(identifier -> Identifier.RelationType.IsAlternativeOf
+                                                                                 == identifier.getRelationType())
+                                                           .collect(Collectors.toList()));
   }
 
   /**
@@ -125,32 +128,26 @@ public class IdentifiersValidator {
   private IdentifiersUsage processRelatedIdentifiers(Collection<Identifier> identifiers) {
     Set<Identifier> relatedIdentifiers = new HashSet<>();
     Optional.ofNullable(identifiers).ifPresent(relatedIdentifiers::addAll);
-    Set<Identifier> identifiersInUse = new HashSet<>(relatedIdentifiers.stream().filter(this::isInUse)
-                                                       .collect(Collectors.toSet()));
-    return new IdentifiersUsage(relatedIdentifiers, identifiersInUse);
+    return new IdentifiersUsage(relatedIdentifiers, new HashSet<>(alternativeIdentifiersInUse(relatedIdentifiers)));
   }
 
   /**
    * Collects and validates an identifiersFile.
    */
   private IdentifiersUsage processRelatedIdentifiers(InputStream identifiersFile) {
-    Set<Identifier> relatedIdentifiers = new HashSet<>();
-    Set<Identifier> identifiersInUse = new HashSet<>();
+    Set<Identifier> identifiers = new HashSet<>();
     try(BufferedReader reader = new BufferedReader(new InputStreamReader(identifiersFile, StandardCharsets.UTF_8))) {
       String line;
       while((line = reader.readLine()) != null){
-        asIdentifier(line).ifPresent(relatedIdentifier -> {
-                                       if (isInUse(relatedIdentifier)) {
-                                         identifiersInUse.add(relatedIdentifier);
-                                       } else {
-                                         relatedIdentifiers.add(relatedIdentifier);
-                                       }
-                                     });
-
+        asIdentifier(line).ifPresent(identifiers::add);
       }
     } catch (IOException ex) {
       throw new IllegalStateException(ex);
     }
+    Set<Identifier> identifiersInUse = new HashSet<>(alternativeIdentifiersInUse(identifiers));
+    Set<Identifier> relatedIdentifiers = identifiers.stream()
+                                          .filter(identifier -> !identifiersInUse.contains(identifier))
+                                          .collect(Collectors.toSet());
     return new IdentifiersUsage(relatedIdentifiers, identifiersInUse);
   }
 
@@ -20,6 +20,36 @@ public final class PathsParams {
    */
   public static final String REPO_STATS_PATH = DATA_PACKAGES_PATH + "/stats";
 
+  /**
+   * Data packages usage stats path.
+   */
+  public static final String USAGE_STATS_PATH = DATA_PACKAGES_PATH + "/usage";
+
+  /**
+   * Data packages export path.
+   */
+  public static final String EXPORT_PATH = DATA_PACKAGES_PATH + "/export";
+
+  /**
+   * Asynchronous data package creation jobs path.
+   */
+  public static final String CREATE_JOBS_PATH = DATA_PACKAGES_PATH + "/jobs";
+
+  /**
+   * DOI synchronization status path.
+   */
+  public static final String DOI_STATUS_PATH = DATA_PACKAGES_PATH + "/doiStatus";
+
+  /**
+   * Data packages bulk ingest path.
+   */
+  public static final String INGEST_PATH = DATA_PACKAGES_PATH + "/ingest";
+
+  /**
+   * Audit log path.
+   */
+  public static final String AUDIT_LOG_PATH = "audit_log";
+
   /**
    * DataPackage content file parameter.
    */
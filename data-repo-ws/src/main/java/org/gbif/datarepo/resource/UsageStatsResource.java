@@ -0,0 +1,54 @@
+package org.gbif.datarepo.resource;
+
+import org.gbif.api.model.common.GbifUserPrincipal;
+import org.gbif.datarepo.persistence.UsageStatsService;
+import org.gbif.datarepo.persistence.model.UsageStatsEntry;
+
+import java.util.Date;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+import com.codahale.metrics.annotation.Timed;
+import io.dropwizard.auth.Auth;
+
+import static org.gbif.datarepo.resource.PathsParams.USAGE_STATS_PATH;
+
+/**
+ * Daily usage counts of data packages: READ, CREATE and DELETE events aggregated from the events log.
+ * Counts are available for the same users that can read the audit log, the @Auth principal applies the authentication
+ * filters that the role check requires.
+ */
+@Path(USAGE_STATS_PATH)
+@Produces(MediaType.APPLICATION_JSON)
+@RolesAllowed(AuditLogResource.AUDIT_LOG_ROLE)
+public class UsageStatsResource {
+
+  private final UsageStatsService usageStatsService;
+
+  /**
+   * Default constructor.
+   */
+  public UsageStatsResource(UsageStatsService usageStatsService) {
+    this.usageStatsService = usageStatsService;
+  }
+
+  /**
+   * Daily counts per event, optionally filtered by the data package identifier used in the events (its DOI), user
+   * and a range of days.
+   */
+  @GET
+  @Timed
+  public List<UsageStatsEntry> list(@Nullable @QueryParam("identifier") String identifier,
+                                    @Nullable @QueryParam("user") String user,
+                                    @Nullable @QueryParam("fromDate") Date fromDate,
+                                    @Nullable @QueryParam("toDate") Date toDate,
+                                    @Auth GbifUserPrincipal principal) {
+    return usageStatsService.list(identifier, user, fromDate, toDate);
+  }
+}
@@ -0,0 +1,95 @@
+package org.gbif.datarepo.resource.admission;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Limits of the data package ingests that run concurrently.
+ */
+public class AdmissionConfiguration {
+
+  @Min(1)
+  private int maxInFlight = 16;
+
+  @Min(1)
+  private int maxInFlightPerUser = 4;
+
+  @Min(1)
+  private long maxInFlightBytes = 32L * 1024 * 1024 * 1024;
+
+  @Min(1)
+  private long maxInFlightBytesPerUser = 8L * 1024 * 1024 * 1024;
+
+  @Min(0)
+  private long queueTimeout = 2000;
+
+  @Min(1)
+  private long retryAfter = 30;
+
+  /**
+   * Maximum number of ingests running at the same time.
+   */
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  public void setMaxInFlight(int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Maximum number of ingests of the same user running at the same time.
+   */
+  public int getMaxInFlightPerUser() {
+    return maxInFlightPerUser;
+  }
+
+  public void setMaxInFlightPerUser(int maxInFlightPerUser) {
+    this.maxInFlightPerUser = maxInFlightPerUser;
+  }
+
+  /**
+   * Maximum number of bytes being ingested at the same time, an ingest larger than the limit is admitted only when no
+   * other ingest is running.
+   */
+  public long getMaxInFlightBytes() {
+    return maxInFlightBytes;
+  }
+
+  public void setMaxInFlightBytes(long maxInFlightBytes) {
+    this.maxInFlightBytes = maxInFlightBytes;
+  }
+
+  /**
+   * Maximum number of bytes being ingested by the same user at the same time, an ingest larger than the limit is
+   * admitted only when no other ingest of the user is running.
+   */
+  public long getMaxInFlightBytesPerUser() {
+    return maxInFlightBytesPerUser;
+  }
+
+  public void setMaxInFlightBytesPerUser(long maxInFlightBytesPerUser) {
+    this.maxInFlightBytesPerUser = maxInFlightBytesPerUser;
+  }
+
+  /**
+   * Milliseconds an ingest waits to be admitted before it's rejected, 0 rejects it immediately.
+   */
+  public long getQueueTimeout() {
+    return queueTimeout;
+  }
+
+  public void setQueueTimeout(long queueTimeout) {
+    this.queueTimeout = queueTimeout;
+  }
+
+  /**
+   * Seconds sent in the Retry-After header of rejected ingests.
+   */
+  public long getRetryAfter() {
+    return retryAfter;
+  }
+
+  public void setRetryAfter(long retryAfter) {
+    this.retryAfter = retryAfter;
+  }
+}
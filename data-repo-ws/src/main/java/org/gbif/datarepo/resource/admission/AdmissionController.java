@@ -0,0 +1,175 @@
+package org.gbif.datarepo.resource.admission;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.ServiceUnavailableException;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Limits the number of ingests and bytes being ingested at the same time, globally and per user.
+ * An ingest that can't be admitted waits up to the queue timeout for others to finish, it's rejected with a 503
+ * Service Unavailable and a Retry-After header if the limits are still reached.
+ */
+public class AdmissionController {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AdmissionController.class);
+
+  /**
+   * Ingests and bytes in flight of a user, or of all users.
+   */
+  private static class InFlight {
+
+    private int ingests;
+
+    private long bytes;
+
+    private boolean admits(long requestedBytes, int maxIngests, long maxBytes) {
+      return ingests < maxIngests && (ingests == 0 || bytes + requestedBytes <= maxBytes);
+    }
+
+    private void add(int ingests, long bytes) {
+      this.ingests += ingests;
+      this.bytes += bytes;
+    }
+  }
+
+  /**
+   * Admission of an ingest, it must be closed when the ingest finishes.
+   */
+  public final class Permit implements AutoCloseable {
+
+    private final String user;
+
+    private final long bytes;
+
+    private boolean released;
+
+    private Permit(String user, long bytes) {
+      this.user = user;
+      this.bytes = bytes;
+    }
+
+    /**
+     * Releases the admitted ingest and bytes, further calls have no effect.
+     */
+    @Override
+    public void close() {
+      synchronized (AdmissionController.this) {
+        if (!released) {
+          released = true;
+          release(user, bytes);
+        }
+      }
+    }
+  }
+
+  private final AdmissionConfiguration configuration;
+
+  private final InFlight total = new InFlight();
+
+  private final Map<String, InFlight> users = new HashMap<>();
+
+  private int waiting;
+
+  private final Meter admitted;
+
+  private final Meter rejected;
+
+  private final Timer queueTime;
+
+  /**
+   * Full constructor.
+   */
+  public AdmissionController(AdmissionConfiguration configuration, MetricRegistry metricRegistry) {
+    this.configuration = configuration;
+    admitted = metricRegistry.meter(name(AdmissionController.class, "admitted"));
+    rejected = metricRegistry.meter(name(AdmissionController.class, "rejected"));
+    queueTime = metricRegistry.timer(name(AdmissionController.class, "queueTime"));
+    metricRegistry.register(name(AdmissionController.class, "inFlight"), (Gauge<Integer>) this::inFlight);
+    metricRegistry.register(name(AdmissionController.class, "inFlightBytes"), (Gauge<Long>) this::inFlightBytes);
+    metricRegistry.register(name(AdmissionController.class, "waiting"), (Gauge<Integer>) this::waiting);
+  }
+
+  /**
+   * Admits an ingest of a user, waiting up to the queue timeout if the limits are reached.
+   * @param bytes expected size of the ingest, 0 if unknown
+   * @throws ServiceUnavailableException if the ingest can't be admitted
+   */
+  public Permit admit(String user, long bytes) {
+    long start = System.nanoTime();
+    long deadline = start + TimeUnit.MILLISECONDS.toNanos(configuration.getQueueTimeout());
+    synchronized (this) {
+      waiting++;
+      try {
+        while (!admits(user, bytes)) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            rejected.mark();
+            LOG.info("Ingest of {} bytes by user {} rejected, {} ingests and {} bytes in flight", bytes, user,
+                     total.ingests, total.bytes);
+            throw new ServiceUnavailableException(configuration.getRetryAfter());
+          }
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        rejected.mark();
+        throw new ServiceUnavailableException(configuration.getRetryAfter());
+      } finally {
+        waiting--;
+      }
+      total.add(1, bytes);
+      users.computeIfAbsent(user, key -> new InFlight()).add(1, bytes);
+    }
+    admitted.mark();
+    queueTime.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    return new Permit(user, bytes);
+  }
+
+  private boolean admits(String user, long bytes) {
+    InFlight userInFlight = users.get(user);
+    return total.admits(bytes, configuration.getMaxInFlight(), configuration.getMaxInFlightBytes())
+           && (userInFlight == null || userInFlight.admits(bytes, configuration.getMaxInFlightPerUser(),
+                                                           configuration.getMaxInFlightBytesPerUser()));
+  }
+
+  private synchronized void release(String user, long bytes) {
+    total.add(-1, -bytes);
+    InFlight userInFlight = users.get(user);
+    userInFlight.add(-1, -bytes);
+    if (userInFlight.ingests == 0) {
+      users.remove(user);
+    }
+    notifyAll();
+  }
+
+  /**
+   * Number of ingests in flight.
+   */
+  public synchronized int inFlight() {
+    return total.ingests;
+  }
+
+  /**
+   * Number of bytes being ingested.
+   */
+  public synchronized long inFlightBytes() {
+    return total.bytes;
+  }
+
+  /**
+   * Number of ingests waiting to be admitted.
+   */
+  public synchronized int waiting() {
+    return waiting;
+  }
+}
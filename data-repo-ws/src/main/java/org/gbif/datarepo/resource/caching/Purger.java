@@ -1,70 +1,300 @@
 package org.gbif.datarepo.resource.caching;
 
-import org.apache.http.HttpResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
+import static com.codahale.metrics.MetricRegistry.name;
 
 /**
- * Utility class to purge the Varnish cache by sending a PURGE request to a path.
+ * Purges the Varnish cache by sending BAN requests from a background thread, purging costs the caller an enqueue only.
+ * Purges requested during a coalesce window are sent together when the window ends: a single BAN for the root path and
+ * the distinct paths banned in batches using a regular expression. If too many paths are pending, a single BAN of all
+ * the data package paths replaces them. Failed BANs are retried with an exponential backoff.
  */
-public class Purger {
-
-    private static final Logger LOG = LoggerFactory.getLogger(Purger.class);
-    private final String DP_PATH = "data_packages/";
-    private final CloseableHttpClient httpClient;
-    private final String dataRepoApiUrl;
-
-    /**
-     * Full constructor.
-     * @param apiUrl full url to the data repo url.
-     */
-    public Purger(String apiUrl) {
-        httpClient = HttpClients.createDefault();
-        this.dataRepoApiUrl = apiUrl + DP_PATH;
+public class Purger implements Closeable {
+
+  /**
+   * Sends a BAN of a URL expression.
+   */
+  interface BanClient {
+    void ban(String url) throws IOException;
+  }
+
+  private static final Logger LOG = LoggerFactory.getLogger(Purger.class);
+
+  private static final String DP_PATH = "data_packages/";
+
+  private static final String BAN_URL_HEADER = "x-ban-url";
+
+  //Regular expression that matches all the data package paths
+  private static final String ALL_PATHS = ".*";
+
+  private static final Pattern REGEX_SPECIAL_CHARS = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
+  private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+  private final String dataRepoApiUrl;
+
+  private final BanClient banClient;
+
+  private final CloseableHttpClient httpClient;
+
+  private final PurgerConfiguration configuration;
+
+  private final AtomicBoolean rootPending = new AtomicBoolean();
+
+  private final Set<String> pendingPaths = ConcurrentHashMap.newKeySet();
+
+  //Set when the pending paths reached the capacity, all the data package paths are banned instead
+  private final AtomicBoolean allPathsPending = new AtomicBoolean();
+
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+  //BANs waiting to be retried
+  private final AtomicInteger retrying = new AtomicInteger();
+
+  private final ScheduledThreadPoolExecutor executor;
+
+  private volatile boolean closed;
+
+  private final Meter requested;
+
+  private final Meter overflowed;
+
+  private final Meter sent;
+
+  private final Meter failed;
+
+  /**
+   * Full constructor.
+   * @param apiUrl full url to the data repo url.
+   */
+  public Purger(String apiUrl, PurgerConfiguration configuration, MetricRegistry metricRegistry) {
+    this(apiUrl, configuration, metricRegistry, HttpClients.custom()
+      .setDefaultRequestConfig(RequestConfig.custom()
+                                 .setConnectTimeout(configuration.getConnectTimeout())
+                                 .setConnectionRequestTimeout(configuration.getConnectTimeout())
+                                 .setSocketTimeout(configuration.getSocketTimeout())
+                                 .build())
+      .build(), null);
+  }
+
+  /**
+   * Creates a purger that sends the BANs through a client, used in tests.
+   */
+  Purger(String apiUrl, PurgerConfiguration configuration, MetricRegistry metricRegistry, BanClient banClient) {
+    this(apiUrl, configuration, metricRegistry, null, banClient);
+  }
+
+  private Purger(String apiUrl, PurgerConfiguration configuration, MetricRegistry metricRegistry,
+                 CloseableHttpClient httpClient, BanClient banClient) {
+    dataRepoApiUrl = apiUrl + DP_PATH;
+    this.configuration = configuration;
+    this.httpClient = httpClient;
+    this.banClient = banClient != null ? banClient : this::sendBan;
+    requested = metricRegistry.meter(name(Purger.class, "requested"));
+    overflowed = metricRegistry.meter(name(Purger.class, "overflowed"));
+    sent = metricRegistry.meter(name(Purger.class, "sent"));
+    failed = metricRegistry.meter(name(Purger.class, "failed"));
+    metricRegistry.register(name(Purger.class, "pending"), (Gauge<Integer>) this::pending);
+    metricRegistry.register(name(Purger.class, "retrying"), (Gauge<Integer>) retrying::get);
+    executor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setNameFormat("cache-purger-%d")
+                                                    .setDaemon(true).build());
+    //close() sends the pending purges without waiting for the scheduled ones
+    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+  }
+
+  /**
+   * Purges a single resource and the root path that lists all resources.
+   * If the pending paths reached the capacity, all the data package paths are purged instead.
+   */
+  public void purgeResource(String path) {
+    purgeRoot();
+    if (allPathsPending.get()) {
+      //covered by the pending BAN of all the paths
+      return;
+    }
+    if (pendingPaths.size() >= configuration.getCapacity()) {
+      overflowed.mark();
+      if (allPathsPending.compareAndSet(false, true)) {
+        LOG.warn("Purge queue is full, all the data package paths are purged instead of {} paths",
+                 pendingPaths.size() + 1);
+      }
+      return;
     }
+    pendingPaths.add(path);
+    scheduleFlush();
+  }
 
+  /**
+   * Purges the relative root path.
+   */
+  public void purgeRoot() {
+    requested.mark();
+    rootPending.set(true);
+    scheduleFlush();
+  }
 
-    /**
-     * Purge a single path.
-     * @param path to purge
-     */
-    private void purgePath(String path) {
-        try {
-            String urlToBan = dataRepoApiUrl + path;
-            LOG.debug("Purging url {}", urlToBan);
-            HttpResponse response = httpClient.execute(RequestBuilder.create("BAN").setUri(dataRepoApiUrl)
-                    .addHeader("X-Ban-URL", urlToBan).build());
-            LOG.debug("BAN Response {}", response);
-        } catch (IOException ex) {
-            LOG.error("Error purging root path");
-        }
+  /**
+   * Number of purges waiting to be sent, a root purge and a purge of all the paths count as one.
+   */
+  public int pending() {
+    int paths = allPathsPending.get() ? 1 : pendingPaths.size();
+    return paths + (rootPending.get() ? 1 : 0);
+  }
+
+  /**
+   * Schedules a flush at the end of the coalesce window unless one is already scheduled.
+   */
+  private void scheduleFlush() {
+    if (closed) {
+      flush();
+    } else if (flushScheduled.compareAndSet(false, true)) {
+      try {
+        executor.schedule(this::flush, configuration.getCoalesceWindow(), TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException ex) {
+        //The purger is being closed and the pending purges will be sent by close()
+        flushScheduled.set(false);
+      }
     }
+  }
 
-    /**
-     * Purges a single resource and the root path that lists all resources.
-     */
-    public void purgeResource(String path) {
-        purgeRoot();
-        purgePath(path);
+  /**
+   * Sends the pending root BAN and the pending paths in batches, or a single BAN of all the paths if they overflowed.
+   */
+  private void flush() {
+    flushScheduled.set(false);
+    if (rootPending.getAndSet(false)) {
+      ban(dataRepoApiUrl, 0);
     }
+    if (allPathsPending.get()) {
+      //the pending paths are cleared before the flag, paths purged in between are covered by this BAN
+      pendingPaths.clear();
+      allPathsPending.set(false);
+      ban(dataRepoApiUrl + ALL_PATHS, 0);
+    }
+    List<String> batch = new ArrayList<>(configuration.getMaxPathsPerBan());
+    Iterator<String> paths = pendingPaths.iterator();
+    while (paths.hasNext()) {
+      batch.add(paths.next());
+      paths.remove();
+      if (batch.size() == configuration.getMaxPathsPerBan()) {
+        ban(banUrl(batch), 0);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      ban(banUrl(batch), 0);
+    }
+  }
+
+  /**
+   * URL expression that bans a list of paths, the paths are escaped so they only match themselves.
+   */
+  private String banUrl(List<String> paths) {
+    if (paths.size() == 1) {
+      return dataRepoApiUrl + escape(paths.get(0));
+    }
+    return dataRepoApiUrl + paths.stream().map(Purger::escape).collect(Collectors.joining("|", "(", ")"));
+  }
 
-    /**
-     * Purges the relative root path.
-     */
-    public void purgeRoot() {
+  /**
+   * Escapes the regular expression special characters of a path.
+   */
+  private static String escape(String path) {
+    return REGEX_SPECIAL_CHARS.matcher(path).replaceAll("\\\\$0");
+  }
+
+  /**
+   * Sends a BAN, if it fails a retry is scheduled until the maximum number of retries is reached.
+   */
+  private void ban(String url, int attempt) {
+    try {
+      LOG.debug("Purging url {}", url);
+      banClient.ban(url);
+      sent.mark();
+    } catch (IOException ex) {
+      if (attempt < configuration.getMaxRetries() && !closed) {
+        long delay = configuration.getRetryBackoff() << attempt;
+        LOG.warn("Error purging url {}, retrying in {} ms", url, delay, ex);
+        retrying.incrementAndGet();
         try {
-            LOG.debug("Purging url {}", dataRepoApiUrl);
-            HttpResponse response = httpClient.execute(RequestBuilder.create("BAN").setUri(dataRepoApiUrl)
-                    .addHeader("x-ban-url", dataRepoApiUrl).build());
-            LOG.debug("BAN Response {}", response);
-        } catch (IOException ex) {
-            LOG.error("Error purging root path");
+          executor.schedule(() -> {
+            retrying.decrementAndGet();
+            ban(url, attempt + 1);
+          }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException rex) {
+          retrying.decrementAndGet();
+          failed.mark();
         }
+      } else {
+        failed.mark();
+        LOG.error("Error purging url {}", url, ex);
+      }
+    }
+  }
+
+  /**
+   * Sends a BAN request to Varnish.
+   */
+  private void sendBan(String url) throws IOException {
+    try (CloseableHttpResponse response = httpClient.execute(RequestBuilder.create("BAN").setUri(dataRepoApiUrl)
+                                                               .addHeader(BAN_URL_HEADER, url).build())) {
+      EntityUtils.consumeQuietly(response.getEntity());
+      LOG.debug("BAN Response {}", response);
+      if (response.getStatusLine().getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+        throw new IOException("BAN failed with status " + response.getStatusLine());
+      }
     }
+  }
 
+  /**
+   * Stops the background thread and sends the pending purges once.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOG.warn("Cache purger didn't finish in {} seconds", CLOSE_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    if (httpClient != null) {
+      try {
+        httpClient.close();
+      } catch (IOException ex) {
+        LOG.warn("Error closing the cache purger HTTP client", ex);
+      }
+    }
+  }
 }
@@ -0,0 +1,108 @@
+package org.gbif.datarepo.resource.caching;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Settings of the asynchronous purges of the Varnish cache.
+ */
+public class PurgerConfiguration {
+
+  @Min(1)
+  private long coalesceWindow = 1000;
+
+  @Min(1)
+  private int maxPathsPerBan = 50;
+
+  @Min(1)
+  private int capacity = 10000;
+
+  @Min(0)
+  private int maxRetries = 3;
+
+  @Min(1)
+  private long retryBackoff = 500;
+
+  @Min(1)
+  private int connectTimeout = 2000;
+
+  @Min(1)
+  private int socketTimeout = 5000;
+
+  /**
+   * Milliseconds during which purge requests are collected before the BANs are sent, all the root purges of a window
+   * are sent as a single BAN.
+   */
+  public long getCoalesceWindow() {
+    return coalesceWindow;
+  }
+
+  public void setCoalesceWindow(long coalesceWindow) {
+    this.coalesceWindow = coalesceWindow;
+  }
+
+  /**
+   * Maximum number of paths banned by a single BAN request.
+   */
+  public int getMaxPathsPerBan() {
+    return maxPathsPerBan;
+  }
+
+  public void setMaxPathsPerBan(int maxPathsPerBan) {
+    this.maxPathsPerBan = maxPathsPerBan;
+  }
+
+  /**
+   * Maximum number of paths waiting to be banned, once it's reached all the data package paths are banned instead.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public void setCapacity(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Number of times a failed BAN is sent again.
+   */
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  public void setMaxRetries(int maxRetries) {
+    this.maxRetries = maxRetries;
+  }
+
+  /**
+   * Milliseconds before the first retry of a failed BAN, doubled on each retry.
+   */
+  public long getRetryBackoff() {
+    return retryBackoff;
+  }
+
+  public void setRetryBackoff(long retryBackoff) {
+    this.retryBackoff = retryBackoff;
+  }
+
+  /**
+   * Milliseconds to wait for a connection to Varnish.
+   */
+  public int getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public void setConnectTimeout(int connectTimeout) {
+    this.connectTimeout = connectTimeout;
+  }
+
+  /**
+   * Milliseconds to wait for the response of a BAN.
+   */
+  public int getSocketTimeout() {
+    return socketTimeout;
+  }
+
+  public void setSocketTimeout(int socketTimeout) {
+    this.socketTimeout = socketTimeout;
+  }
+}
@@ -0,0 +1,241 @@
+package org.gbif.datarepo.resource.download;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.RateLimiter;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Throttles the streams of the downloaded files so heavy clients don't starve the rest.
+ * Each client, a user or an IP address, has a token bucket shared by all its downloads. The total bandwidth is divided
+ * among the clients that are downloading in proportion to their weights, the share of each client is recalculated
+ * when a client starts or finishes downloading. The total bandwidth is also enforced by a global bucket.
+ */
+public class DownloadScheduler {
+
+  //Maximum number of bytes read before the buckets are checked
+  private static final int CHUNK_SIZE = 64 * 1024;
+
+  /**
+   * Downloads in progress of a client.
+   */
+  private static class Client {
+
+    private final String id;
+
+    private final int weight;
+
+    private final Meter throughput;
+
+    private int downloads;
+
+    //Null when the client isn't limited
+    private volatile RateLimiter rateLimiter;
+
+    private Client(String id, int weight, Meter throughput) {
+      this.id = id;
+      this.weight = weight;
+      this.throughput = throughput;
+    }
+  }
+
+  /**
+   * Stream of a download, it registers the client while it's open.
+   */
+  private final class ThrottledInputStream extends FilterInputStream {
+
+    private final Client client;
+
+    private boolean closed;
+
+    private ThrottledInputStream(InputStream input, Client client) {
+      super(input);
+      this.client = client;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int value = super.read();
+      if (value >= 0) {
+        acquire(client, 1);
+      }
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, Math.min(length, CHUNK_SIZE));
+      if (read > 0) {
+        acquire(client, read);
+      }
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        if (!closed) {
+          closed = true;
+          unregister(client);
+        }
+      }
+    }
+  }
+
+  private final DownloadSchedulerConfiguration configuration;
+
+  private final MetricRegistry metricRegistry;
+
+  //Null when the total bandwidth isn't limited
+  private final RateLimiter globalRateLimiter;
+
+  private final Map<String, Client> clients = new HashMap<>();
+
+  private long totalWeight;
+
+  private final Meter throughput;
+
+  /**
+   * Full constructor.
+   */
+  public DownloadScheduler(DownloadSchedulerConfiguration configuration, MetricRegistry metricRegistry) {
+    this.configuration = configuration;
+    this.metricRegistry = metricRegistry;
+    globalRateLimiter = configuration.getMaxBytesPerSecond() > 0 ?
+      RateLimiter.create(configuration.getMaxBytesPerSecond()) : null;
+    throughput = metricRegistry.meter(name(DownloadScheduler.class, "bytes"));
+    metricRegistry.register(name(DownloadScheduler.class, "clients"), (Gauge<Integer>) this::clients);
+  }
+
+  /**
+   * Identifies an anonymous client by its address, taken from the client address header if it has been configured.
+   */
+  public String clientAddress(Function<String, String> headers, String remoteAddress) {
+    String forwardedFor = configuration.getClientAddressHeader() == null ?
+      null : headers.apply(configuration.getClientAddressHeader());
+    if (forwardedFor != null) {
+      String address = forwardedFor.split(",")[0].trim();
+      if (!address.isEmpty()) {
+        return address;
+      }
+    }
+    return remoteAddress;
+  }
+
+  /**
+   * Weight of a client, the default weight for anonymous clients.
+   * @param authenticated whether the client is an authenticated user
+   * @param isUserInRole tests the roles of the user
+   */
+  public int weight(boolean authenticated, Predicate<String> isUserInRole) {
+    if (!authenticated) {
+      return configuration.getDefaultWeight();
+    }
+    return configuration.getRoleWeights().entrySet().stream()
+      .filter(roleWeight -> isUserInRole.test(roleWeight.getKey()))
+      .mapToInt(Map.Entry::getValue)
+      .max().orElse(configuration.getDefaultWeight());
+  }
+
+  /**
+   * Throttles the stream of a download of a client, the client is downloading until the stream is closed.
+   * @param client user name or IP address of the client
+   */
+  public InputStream schedule(String client, int weight, InputStream input) {
+    return new ThrottledInputStream(input, register(client, weight));
+  }
+
+  private synchronized Client register(String id, int weight) {
+    Client client = clients.get(id);
+    if (client == null) {
+      client = new Client(id, weight, metricRegistry.meter(clientMetricName(id)));
+      clients.put(id, client);
+      totalWeight += weight;
+      rebalance();
+    }
+    client.downloads++;
+    return client;
+  }
+
+  private synchronized void unregister(Client client) {
+    client.downloads--;
+    if (client.downloads == 0) {
+      clients.remove(client.id);
+      metricRegistry.remove(clientMetricName(client.id));
+      totalWeight -= client.weight;
+      rebalance();
+    }
+  }
+
+  private static String clientMetricName(String client) {
+    return name(DownloadScheduler.class, "clients", client, "bytes");
+  }
+
+  /**
+   * Sets the rate of each client to its share of the total bandwidth, capped by the bandwidth per client.
+   */
+  private void rebalance() {
+    for (Client client : clients.values()) {
+      double rate = rate(client.weight);
+      if (Double.isInfinite(rate)) {
+        client.rateLimiter = null;
+      } else if (client.rateLimiter == null) {
+        client.rateLimiter = RateLimiter.create(rate);
+      } else {
+        client.rateLimiter.setRate(rate);
+      }
+    }
+  }
+
+  private double rate(int weight) {
+    double share = configuration.getMaxBytesPerSecond() > 0 ?
+      (double) configuration.getMaxBytesPerSecond() * weight / totalWeight : Double.POSITIVE_INFINITY;
+    double cap = configuration.getClientBytesPerSecond() > 0 ?
+      (double) configuration.getClientBytesPerSecond() * weight : Double.POSITIVE_INFINITY;
+    return Math.min(share, cap);
+  }
+
+  /**
+   * Waits until the client and the total bandwidth allow the bytes read to be served.
+   */
+  private void acquire(Client client, int bytes) {
+    RateLimiter rateLimiter = client.rateLimiter;
+    if (rateLimiter != null) {
+      rateLimiter.acquire(bytes);
+    }
+    if (globalRateLimiter != null) {
+      globalRateLimiter.acquire(bytes);
+    }
+    client.throughput.mark(bytes);
+    throughput.mark(bytes);
+  }
+
+  /**
+   * Number of clients downloading.
+   */
+  public synchronized int clients() {
+    return clients.size();
+  }
+
+  /**
+   * Bytes per second currently allowed to a client, null if the client isn't downloading or isn't limited.
+   */
+  @Nullable
+  synchronized Double clientRate(String client) {
+    Client downloading = clients.get(client);
+    return downloading == null || downloading.rateLimiter == null ? null : downloading.rateLimiter.getRate();
+  }
+}
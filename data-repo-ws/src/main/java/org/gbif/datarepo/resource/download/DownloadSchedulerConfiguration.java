@@ -0,0 +1,84 @@
+package org.gbif.datarepo.resource.download;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Bandwidth limits of the data package file downloads.
+ */
+public class DownloadSchedulerConfiguration {
+
+  @Min(0)
+  private long maxBytesPerSecond;
+
+  @Min(0)
+  private long clientBytesPerSecond;
+
+  @Min(1)
+  private int defaultWeight = 1;
+
+  @NotNull
+  private Map<String, Integer> roleWeights = new HashMap<>();
+
+  private String clientAddressHeader;
+
+  /**
+   * Bytes per second served by all the downloads together, shared among the clients by their weights.
+   * 0 doesn't limit the total bandwidth.
+   */
+  public long getMaxBytesPerSecond() {
+    return maxBytesPerSecond;
+  }
+
+  public void setMaxBytesPerSecond(long maxBytesPerSecond) {
+    this.maxBytesPerSecond = maxBytesPerSecond;
+  }
+
+  /**
+   * Bytes per second served to a client of weight 1, multiplied by the weight of each client.
+   * 0 limits clients only by their share of the total bandwidth.
+   */
+  public long getClientBytesPerSecond() {
+    return clientBytesPerSecond;
+  }
+
+  public void setClientBytesPerSecond(long clientBytesPerSecond) {
+    this.clientBytesPerSecond = clientBytesPerSecond;
+  }
+
+  /**
+   * Weight of the anonymous clients and of the users that have none of the weighted roles.
+   */
+  public int getDefaultWeight() {
+    return defaultWeight;
+  }
+
+  public void setDefaultWeight(int defaultWeight) {
+    this.defaultWeight = defaultWeight;
+  }
+
+  /**
+   * Weights of the users by role, a user with several weighted roles gets the highest weight.
+   */
+  public Map<String, Integer> getRoleWeights() {
+    return roleWeights;
+  }
+
+  public void setRoleWeights(Map<String, Integer> roleWeights) {
+    this.roleWeights = roleWeights;
+  }
+
+  /**
+   * Header set by the reverse proxy with the address of the client, e.g. X-Forwarded-For. The first address of the
+   * header identifies anonymous clients, the remote address of the request is used if it's not set.
+   */
+  public String getClientAddressHeader() {
+    return clientAddressHeader;
+  }
+
+  public void setClientAddressHeader(String clientAddressHeader) {
+    this.clientAddressHeader = clientAddressHeader;
+  }
+}
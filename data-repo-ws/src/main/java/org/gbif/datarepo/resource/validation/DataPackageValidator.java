@@ -0,0 +1,70 @@
+package org.gbif.datarepo.resource.validation;
+
+import org.gbif.datarepo.api.model.Creator;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.identifiers.orcid.OrcidValidationService;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+
+/**
+ * Validates the metadata of a data package before it's created: the bean validations defined in the class
+ * DataPackage and the existence of the ORCIDs of its creators.
+ * It's shared by all the services that create data packages, so all of them accept the same metadata.
+ */
+public class DataPackageValidator {
+
+  private final Validator validator;
+
+  private final OrcidValidationService orcidValidationService;
+
+  /**
+   * Full constructor.
+   */
+  public DataPackageValidator(Validator validator, OrcidValidationService orcidValidationService) {
+    this.validator = validator;
+    this.orcidValidationService = orcidValidationService;
+  }
+
+  /**
+   * Validates the metadata of a data package.
+   * @throws IllegalArgumentException with the description of the errors if the data package is invalid
+   */
+  public void validate(DataPackage dataPackage) {
+    try {
+      Set<ConstraintViolation<DataPackage>> violations = validator.validate(dataPackage);
+      if (!violations.isEmpty()) {
+        throw new IllegalArgumentException("Invalid DataPackage definition: "
+                                           + violations.stream()
+                                             .map(violation -> violation.getPropertyPath() + " "
+                                                               + violation.getMessage())
+                                             .collect(Collectors.joining(System.lineSeparator())));
+      }
+    } catch (ValidationException ex) {
+      throw new IllegalArgumentException(ex.getMessage(), ex);
+    }
+    validateOrcidsExist(dataPackage);
+  }
+
+  /**
+   * Validates that the ORCIDs of the creators exist, all of them are looked up concurrently.
+   */
+  private void validateOrcidsExist(DataPackage dataPackage) {
+    if (dataPackage.getCreators() != null) {
+      List<String> missingOrcids = orcidValidationService.findMissing(dataPackage.getCreators().stream()
+        .filter(creator -> Creator.IdentifierScheme.ORCID == creator.getIdentifierScheme()
+                           && creator.getIdentifier() != null)
+        .map(Creator::getIdentifier)
+        .collect(Collectors.toList()));
+      if (missingOrcids.size() == 1) {
+        throw new IllegalArgumentException("The orcid " + missingOrcids.get(0) + " does not exist");
+      } else if (!missingOrcids.isEmpty()) {
+        throw new IllegalArgumentException("The orcids " + String.join(", ", missingOrcids) + " do not exist");
+      }
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package org.gbif.datarepo.tasks;
+
+import org.gbif.datarepo.persistence.DataRepoPersistenceService;
+
+import java.io.PrintWriter;
+
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.servlets.tasks.Task;
+
+/**
+ * Admin task that stores the citation templates of the data packages that don't have one, e.g. data packages created
+ * before the templates were stored, so their citations are no longer generated each time they are read.
+ * Usage: POST http://host:adminPort/tasks/backfill-citations
+ */
+public class BackfillCitationsTask extends Task {
+
+  private static final String TASK_NAME = "backfill-citations";
+
+  private final DataRepoPersistenceService persistenceService;
+
+  /**
+   * Full constructor.
+   */
+  public BackfillCitationsTask(DataRepoPersistenceService persistenceService) {
+    super(TASK_NAME);
+    this.persistenceService = persistenceService;
+  }
+
+  @Override
+  public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
+    output.println("Citations backfilled: " + persistenceService.backfillCitations() + " data packages");
+  }
+}
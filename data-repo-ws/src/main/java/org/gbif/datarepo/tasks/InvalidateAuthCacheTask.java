@@ -0,0 +1,45 @@
+package org.gbif.datarepo.tasks;
+
+import org.gbif.datarepo.auth.CachingPrincipalAuthenticator;
+
+import java.io.PrintWriter;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.servlets.tasks.Task;
+
+/**
+ * Admin task that removes the cached credentials of a user, or of all users if no user is specified.
+ * Usage: POST http://host:adminPort/tasks/invalidate-auth-cache?user=userName
+ */
+public class InvalidateAuthCacheTask extends Task {
+
+  private static final String TASK_NAME = "invalidate-auth-cache";
+
+  private static final String USER_PARAM = "user";
+
+  private final List<CachingPrincipalAuthenticator<?>> authCaches;
+
+  /**
+   * Full constructor.
+   */
+  public InvalidateAuthCacheTask(List<CachingPrincipalAuthenticator<?>> authCaches) {
+    super(TASK_NAME);
+    this.authCaches = authCaches;
+  }
+
+  @Override
+  public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
+    ImmutableList<String> users = parameters.get(USER_PARAM).asList();
+    if (users.isEmpty()) {
+      authCaches.forEach(CachingPrincipalAuthenticator::invalidateAll);
+      output.println("Authentication caches invalidated");
+    } else {
+      for (String user : users) {
+        int invalidated = authCaches.stream().mapToInt(authCache -> authCache.invalidate(user)).sum();
+        output.println("Cached credentials of user " + user + " invalidated: " + invalidated);
+      }
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package org.gbif.datarepo.tasks;
+
+import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.api.model.RepositoryStats;
+
+import java.io.PrintWriter;
+
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.servlets.tasks.Task;
+
+/**
+ * Admin task that recalculates the repository statistics from the stored data packages.
+ * Usage: POST http://host:adminPort/tasks/rebuild-repository-stats
+ */
+public class RebuildRepositoryStatsTask extends Task {
+
+  private static final String TASK_NAME = "rebuild-repository-stats";
+
+  private final DataRepository dataRepository;
+
+  /**
+   * Full constructor.
+   */
+  public RebuildRepositoryStatsTask(DataRepository dataRepository) {
+    super(TASK_NAME);
+    this.dataRepository = dataRepository;
+  }
+
+  @Override
+  public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
+    RepositoryStats repositoryStats = dataRepository.rebuildStats();
+    output.println("Repository stats rebuilt: " + repositoryStats.getNumOfDataPackages() + " data packages, "
+                   + repositoryStats.getNumOfFiles() + " files, " + repositoryStats.getTotalSize() + " bytes");
+  }
+}
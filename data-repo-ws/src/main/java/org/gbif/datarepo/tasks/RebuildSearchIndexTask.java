@@ -0,0 +1,32 @@
+package org.gbif.datarepo.tasks;
+
+import org.gbif.datarepo.api.DataRepository;
+
+import java.io.PrintWriter;
+
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.servlets.tasks.Task;
+
+/**
+ * Admin task that re-creates the full text search index from the stored data packages.
+ * Usage: POST http://host:adminPort/tasks/rebuild-search-index
+ */
+public class RebuildSearchIndexTask extends Task {
+
+  private static final String TASK_NAME = "rebuild-search-index";
+
+  private final DataRepository dataRepository;
+
+  /**
+   * Full constructor.
+   */
+  public RebuildSearchIndexTask(DataRepository dataRepository) {
+    super(TASK_NAME);
+    this.dataRepository = dataRepository;
+  }
+
+  @Override
+  public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
+    output.println("Search index rebuilt: " + dataRepository.rebuildSearchIndex() + " data packages");
+  }
+}
@@ -0,0 +1,32 @@
+package org.gbif.datarepo.tasks;
+
+import org.gbif.datarepo.persistence.UsageStatsService;
+
+import java.io.PrintWriter;
+
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.servlets.tasks.Task;
+
+/**
+ * Admin task that aggregates the recently logged events into the usage counters.
+ * Usage: POST http://host:adminPort/tasks/rollup-usage-stats
+ */
+public class RollupUsageStatsTask extends Task {
+
+  private static final String TASK_NAME = "rollup-usage-stats";
+
+  private final UsageStatsService usageStatsService;
+
+  /**
+   * Full constructor.
+   */
+  public RollupUsageStatsTask(UsageStatsService usageStatsService) {
+    super(TASK_NAME);
+    this.usageStatsService = usageStatsService;
+  }
+
+  @Override
+  public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
+    output.println("Usage stats rolled up to event " + usageStatsService.rollup());
+  }
+}
@@ -0,0 +1,90 @@
+package org.gbif.datarepo.auth;
+
+import org.gbif.api.model.common.GbifUserPrincipal;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import io.dropwizard.auth.Authenticator;
+import io.dropwizard.auth.basic.BasicCredentials;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_USER;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the caching, expiration and invalidation of authenticated users.
+ */
+public class CachingPrincipalAuthenticatorTest {
+
+  private static final BasicCredentials CREDENTIALS = new BasicCredentials(TEST_USER.getName(), TEST_USER.getName());
+
+  private Authenticator<BasicCredentials, GbifUserPrincipal> authenticator;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    authenticator = mock(Authenticator.class);
+    when(authenticator.authenticate(any(BasicCredentials.class))).thenReturn(Optional.absent());
+    when(authenticator.authenticate(CREDENTIALS)).thenReturn(Optional.of(TEST_USER));
+  }
+
+  private CachingPrincipalAuthenticator<BasicCredentials> cachingAuthenticator(Long expiration) {
+    return new CachingPrincipalAuthenticator<>(authenticator,
+                                               credentials -> new String[]{credentials.getUsername(),
+                                                                           credentials.getPassword()},
+                                               credentials -> expiration, new AuthCacheConfiguration(),
+                                               new MetricRegistry(), "basic");
+  }
+
+  /**
+   * Authenticated users are cached, failed authentications are not.
+   */
+  @Test
+  public void testCaching() throws Exception {
+    CachingPrincipalAuthenticator<BasicCredentials> cachingAuthenticator = cachingAuthenticator(null);
+    Assert.assertEquals(TEST_USER, cachingAuthenticator.authenticate(CREDENTIALS).get());
+    Assert.assertEquals(TEST_USER, cachingAuthenticator.authenticate(CREDENTIALS).get());
+    verify(authenticator, times(1)).authenticate(CREDENTIALS);
+
+    BasicCredentials wrongPassword = new BasicCredentials(TEST_USER.getName(), "wrong");
+    Assert.assertFalse(cachingAuthenticator.authenticate(wrongPassword).isPresent());
+    Assert.assertFalse(cachingAuthenticator.authenticate(wrongPassword).isPresent());
+    verify(authenticator, times(2)).authenticate(wrongPassword);
+  }
+
+  /**
+   * Users are authenticated again once their credentials expire.
+   */
+  @Test
+  public void testExpiredCredentials() throws Exception {
+    CachingPrincipalAuthenticator<BasicCredentials> cachingAuthenticator =
+      cachingAuthenticator(System.currentTimeMillis() - 1);
+    cachingAuthenticator.authenticate(CREDENTIALS);
+    cachingAuthenticator.authenticate(CREDENTIALS);
+    verify(authenticator, times(2)).authenticate(CREDENTIALS);
+  }
+
+  /**
+   * Invalidated users are authenticated again.
+   */
+  @Test
+  public void testInvalidation() throws Exception {
+    CachingPrincipalAuthenticator<BasicCredentials> cachingAuthenticator = cachingAuthenticator(null);
+    cachingAuthenticator.authenticate(CREDENTIALS);
+    Assert.assertEquals(0, cachingAuthenticator.invalidate("other"));
+    cachingAuthenticator.authenticate(CREDENTIALS);
+    verify(authenticator, times(1)).authenticate(CREDENTIALS);
+    Assert.assertEquals(1, cachingAuthenticator.invalidate(TEST_USER.getName()));
+    cachingAuthenticator.authenticate(CREDENTIALS);
+    verify(authenticator, times(2)).authenticate(CREDENTIALS);
+    cachingAuthenticator.invalidateAll();
+    cachingAuthenticator.authenticate(CREDENTIALS);
+    verify(authenticator, times(3)).authenticate(CREDENTIALS);
+  }
+}
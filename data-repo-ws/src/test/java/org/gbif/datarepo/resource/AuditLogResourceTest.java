@@ -0,0 +1,117 @@
+package org.gbif.datarepo.resource;
+
+import org.gbif.api.model.common.GbifUserPrincipal;
+import org.gbif.datarepo.auth.basic.BasicAuthenticator;
+import org.gbif.datarepo.persistence.AuditLogService;
+import org.gbif.datarepo.persistence.model.AuditLogPage;
+
+import java.util.Collections;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import io.dropwizard.auth.AuthDynamicFeature;
+import io.dropwizard.auth.AuthValueFactoryProvider;
+import io.dropwizard.auth.basic.BasicCredentialAuthFilter;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.testing.junit.ResourceTestRule;
+import org.glassfish.jersey.server.filter.RolesAllowedDynamicFeature;
+import org.glassfish.jersey.test.grizzly.GrizzlyWebTestContainerFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+import static org.gbif.datarepo.resource.PathsParams.AUDIT_LOG_PATH;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_BASIC_CREDENTIALS;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_DATA_REPO_BASIC_CREDENTIALS;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_DATA_REPO_USER;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_DATA_REPO_USER_CREDENTIALS;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_USER;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_USER_CREDENTIALS;
+
+/**
+ * Tests that the audit log is only available to administrators.
+ */
+public class AuditLogResourceTest {
+
+  //Mock authenticator, it authenticates the administrator and the data repo user
+  private static final BasicAuthenticator AUTHENTICATOR = mock(BasicAuthenticator.class);
+
+  private static final AuditLogService AUDIT_LOG_SERVICE = mock(AuditLogService.class);
+
+  //Grizzly is required since he in-memory Jersey test container does not support all features,
+  // such as the @Context injection used by BasicAuthFactory and OAuthFactory.
+  @ClassRule
+  public static ResourceTestRule resource = ResourceTestRule.builder()
+    .setTestContainerFactory(new GrizzlyWebTestContainerFactory())
+    //Authentication and roles
+    .addProvider(new AuthDynamicFeature(new BasicCredentialAuthFilter.Builder<GbifUserPrincipal>()
+                                          .setAuthenticator(AUTHENTICATOR)
+                                          .setAuthorizer((principal, role) -> principal.hasRole(role))
+                                          .setRealm(BasicAuthenticator.GBIF_REALM).buildAuthFilter()))
+    .addProvider(RolesAllowedDynamicFeature.class)
+    .addProvider(new AuthValueFactoryProvider.Binder<>(GbifUserPrincipal.class))
+    //Test resource
+    .addResource(new AuditLogResource(AUDIT_LOG_SERVICE, Jackson.newObjectMapper()))
+    .build();
+
+  @Before
+  public void setup() throws Exception {
+    when(AUTHENTICATOR.authenticate(eq(TEST_BASIC_CREDENTIALS)))
+      .thenReturn(com.google.common.base.Optional.of(TEST_USER));
+    when(AUTHENTICATOR.authenticate(eq(TEST_DATA_REPO_BASIC_CREDENTIALS)))
+      .thenReturn(com.google.common.base.Optional.of(TEST_DATA_REPO_USER));
+    when(AUDIT_LOG_SERVICE.list(any(Long.class), any(Long.class), anyMapOf(String.class, String.class), anyString(),
+                                anyInt()))
+      .thenReturn(new AuditLogPage(Collections.emptyList(), null));
+  }
+
+  /**
+   * Executed after each test, resets all the mock instances.
+   */
+  @After
+  public void tearDownTestCase() {
+    reset(AUTHENTICATOR, AUDIT_LOG_SERVICE);
+  }
+
+  private static Response list(String credentials) {
+    return resource.getJerseyTest().target(AUDIT_LOG_PATH).request(MediaType.APPLICATION_JSON)
+      .header(HttpHeaders.AUTHORIZATION, credentials).get();
+  }
+
+  /**
+   * Anonymous requests must authenticate.
+   */
+  @Test
+  public void testListAnonymous() {
+    Response response = resource.getJerseyTest().target(AUDIT_LOG_PATH).request(MediaType.APPLICATION_JSON).get();
+    Assert.assertEquals(Response.Status.UNAUTHORIZED.getStatusCode(), response.getStatus());
+  }
+
+  /**
+   * Users without the administrator role are rejected.
+   */
+  @Test
+  public void testListForbidden() {
+    Assert.assertEquals(Response.Status.FORBIDDEN.getStatusCode(), list(TEST_DATA_REPO_USER_CREDENTIALS).getStatus());
+  }
+
+  /**
+   * Administrators read the audit log.
+   */
+  @Test
+  public void testListAdmin() {
+    Assert.assertEquals(Response.Status.OK.getStatusCode(), list(TEST_USER_CREDENTIALS).getStatus());
+  }
+}
@@ -0,0 +1,220 @@
+package org.gbif.datarepo.resource;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.api.model.common.GbifUserPrincipal;
+import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.FileInputContent;
+import org.gbif.datarepo.auth.basic.BasicAuthenticator;
+import org.gbif.datarepo.identifiers.orcid.OrcidValidationService;
+import org.gbif.datarepo.impl.download.FileDownload;
+import org.gbif.datarepo.impl.ingest.IngestResult;
+import org.gbif.datarepo.logging.EventLogQueue;
+import org.gbif.datarepo.resource.admission.AdmissionConfiguration;
+import org.gbif.datarepo.resource.admission.AdmissionController;
+import org.gbif.datarepo.resource.caching.Purger;
+import org.gbif.datarepo.resource.validation.DataPackageValidator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.validation.Validation;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.auth.AuthDynamicFeature;
+import io.dropwizard.auth.AuthValueFactoryProvider;
+import io.dropwizard.auth.basic.BasicCredentialAuthFilter;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.testing.junit.ResourceTestRule;
+import org.glassfish.jersey.test.grizzly.GrizzlyWebTestContainerFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+import static org.gbif.datarepo.resource.PathsParams.INGEST_PATH;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_BASIC_CREDENTIALS;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_USER;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_USER_CREDENTIALS;
+
+/**
+ * Tests the NDJSON and CSV manifests ingest of BulkIngestResource and the streaming of its results.
+ */
+public class BulkIngestResourceTest {
+
+  private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+  private static final String CSV_MEDIA_TYPE = "text/csv";
+
+  private static final String EXISTING_ORCID = "0000-0001-5473-3208";
+
+  private static final String MISSING_ORCID = "0000-0002-1825-0097";
+
+  private static final String NDJSON_MANIFEST =
+    "{\"id\":\"dp1\",\"dataPackage\":{\"title\":\"Birds\",\"description\":\"Birds\",\"license\":\"CC_BY_4_0\","
+    + "\"creators\":[{\"name\":\"Jimi Hendrix\",\"identifier\":\"" + EXISTING_ORCID + "\","
+    + "\"identifierScheme\":\"ORCID\"}]},"
+    + "\"fileUrls\":[\"http://example.org/birds.zip\"]}\n"
+    + "{\"id\":\"dp2\",\"dataPackage\":{\"title\":\"Fishes\",\"description\":\"Fishes\",\"license\":\"CC_BY_4_0\","
+    + "\"creators\":[{\"name\":\"Josiah Carberry\",\"identifier\":\"" + MISSING_ORCID + "\","
+    + "\"identifierScheme\":\"ORCID\"}]},"
+    + "\"fileUrls\":[\"http://example.org/fishes.zip\"]}\n"
+    + "{\"id\":\"dp3\",\"dataPackage\":{\"title\":\"No license\",\"description\":\"No license\"},"
+    + "\"fileUrls\":[\"http://example.org/license.zip\"]}\n";
+
+  private static final String CSV_MANIFEST =
+    "id,title,description,license,tags,fileUrls\n"
+    + "dp1,Birds,Birds of Denmark,CC_BY_4_0,DataOne|Birds,http://example.org/birds.zip\n"
+    + "dp2,Fishes,Fishes of Denmark,CC_BY_4_0,,http://example.org/fishes.zip|http://example.org/meta.xml\n";
+
+  private static final ObjectMapper OBJECT_MAPPER = Jackson.newObjectMapper();
+
+  //Mock authenticator, it always authenticates against the same user
+  private static final BasicAuthenticator AUTHENTICATOR = mock(BasicAuthenticator.class);
+
+  private static final DataRepository DATA_REPOSITORY = mock(DataRepository.class);
+
+  private static final OrcidValidationService ORCID_VALIDATION_SERVICE = mock(OrcidValidationService.class);
+
+  //Data packages created by the repository mock
+  private static final Map<UUID, DataPackage> CREATED = new ConcurrentHashMap<>();
+
+  //Grizzly is required since he in-memory Jersey test container does not support all features,
+  // such as the @Context injection used by BasicAuthFactory and OAuthFactory.
+  @ClassRule
+  public static ResourceTestRule resource = ResourceTestRule.builder()
+    .setTestContainerFactory(new GrizzlyWebTestContainerFactory())
+    //Authentication
+    .addProvider(new AuthDynamicFeature(new BasicCredentialAuthFilter.Builder<GbifUserPrincipal>()
+                                          .setAuthenticator(AUTHENTICATOR)
+                                          .setRealm(BasicAuthenticator.GBIF_REALM).buildAuthFilter()))
+    .addProvider(new AuthValueFactoryProvider.Binder<>(GbifUserPrincipal.class))
+    //Test resource
+    .addResource(new BulkIngestResource(DATA_REPOSITORY,
+                                        new DataPackageValidator(Validation.buildDefaultValidatorFactory()
+                                                                   .getValidator(), ORCID_VALIDATION_SERVICE),
+                                        mock(EventLogQueue.class), mock(Purger.class), OBJECT_MAPPER, 2,
+                                        mock(FileDownload.class),
+                                        new AdmissionController(new AdmissionConfiguration(), new MetricRegistry())))
+    .build();
+
+  /**
+   * The repository mock keeps the created data packages in memory, only MISSING_ORCID doesn't exist.
+   */
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setup() throws Exception {
+    CREATED.clear();
+    when(AUTHENTICATOR.authenticate(eq(TEST_BASIC_CREDENTIALS)))
+      .thenReturn(com.google.common.base.Optional.of(TEST_USER));
+    when(DATA_REPOSITORY.get(any(UUID.class)))
+      .thenAnswer(invocation -> Optional.ofNullable(CREATED.get((UUID) invocation.getArguments()[0])));
+    when(DATA_REPOSITORY.create(any(DataPackage.class), anyListOf(FileInputContent.class), anyBoolean()))
+      .thenAnswer(invocation -> {
+        DataPackage dataPackage = (DataPackage) invocation.getArguments()[0];
+        dataPackage.setDoi(new DOI(DOI.TEST_PREFIX, dataPackage.getKey().toString()));
+        CREATED.put(dataPackage.getKey(), dataPackage);
+        return dataPackage;
+      });
+    when(ORCID_VALIDATION_SERVICE.findMissing(anyCollectionOf(String.class)))
+      .thenAnswer(invocation -> ((Collection<String>) invocation.getArguments()[0]).stream()
+        .filter(MISSING_ORCID::equals)
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * Executed after each test, resets all the mock instances.
+   */
+  @After
+  public void tearDownTestCase() {
+    reset(AUTHENTICATOR, DATA_REPOSITORY, ORCID_VALIDATION_SERVICE);
+  }
+
+  /**
+   * Posts a manifest and reads each line of the streamed response as a result, indexed by the line of its entry.
+   */
+  private static Map<Long, IngestResult> ingest(String manifest, String mediaType) throws IOException {
+    Response response = resource.getJerseyTest().target(INGEST_PATH).request(NDJSON_MEDIA_TYPE)
+      .header(HttpHeaders.AUTHORIZATION, TEST_USER_CREDENTIALS)
+      .post(Entity.entity(manifest, mediaType));
+    Assert.assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.readEntity(InputStream.class),
+                                                                          StandardCharsets.UTF_8))) {
+      return reader.lines().map(line -> {
+        try {
+          return OBJECT_MAPPER.readValue(line, IngestResult.class);
+        } catch (IOException ex) {
+          throw new IllegalStateException(ex);
+        }
+      }).collect(Collectors.toMap(IngestResult::getLine, Function.identity()));
+    }
+  }
+
+  /**
+   * Valid NDJSON entries are created, entries with missing ORCIDs or invalid metadata fail with the same errors
+   * returned by the create service. A second ingest reports the created entries as existing.
+   */
+  @Test
+  public void testIngestNdjson() throws IOException {
+    Map<Long, IngestResult> results = ingest(NDJSON_MANIFEST, NDJSON_MEDIA_TYPE);
+    Assert.assertEquals(3, results.size());
+    Assert.assertEquals(IngestResult.Status.CREATED, results.get(1L).getStatus());
+    Assert.assertEquals(TEST_USER.getName(), CREATED.get(results.get(1L).getKey()).getCreatedBy());
+    Assert.assertEquals(IngestResult.Status.FAILED, results.get(2L).getStatus());
+    Assert.assertEquals("The orcid " + MISSING_ORCID + " does not exist", results.get(2L).getError());
+    Assert.assertEquals(IngestResult.Status.FAILED, results.get(3L).getStatus());
+    Assert.assertTrue(results.get(3L).getError().startsWith("Invalid DataPackage definition"));
+    Assert.assertEquals(1, CREATED.size());
+
+    results = ingest(NDJSON_MANIFEST, NDJSON_MEDIA_TYPE);
+    Assert.assertEquals(IngestResult.Status.EXISTS, results.get(1L).getStatus());
+    Assert.assertEquals(1, CREATED.size());
+  }
+
+  /**
+   * CSV entries are created and their results streamed as NDJSON.
+   */
+  @Test
+  public void testIngestCsv() throws IOException {
+    Map<Long, IngestResult> results = ingest(CSV_MANIFEST, CSV_MEDIA_TYPE);
+    Assert.assertEquals(2, results.size());
+    Assert.assertEquals(IngestResult.Status.CREATED, results.get(2L).getStatus());
+    Assert.assertEquals(IngestResult.Status.CREATED, results.get(3L).getStatus());
+    Assert.assertEquals("dp2", results.get(3L).getId());
+    Assert.assertEquals(2, CREATED.get(results.get(2L).getKey()).getTags().size());
+    Assert.assertEquals(2, CREATED.size());
+  }
+
+  /**
+   * Anonymous requests are rejected.
+   */
+  @Test
+  public void testIngestUnauthorized() {
+    Response response = resource.getJerseyTest().target(INGEST_PATH).request(NDJSON_MEDIA_TYPE)
+      .post(Entity.entity(CSV_MANIFEST, CSV_MEDIA_TYPE));
+    Assert.assertEquals(Response.Status.UNAUTHORIZED.getStatusCode(), response.getStatus());
+  }
+}
@@ -0,0 +1,128 @@
+package org.gbif.datarepo.resource;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.datarepo.api.DataRepository;
+import org.gbif.datarepo.api.model.DataPackage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.testing.junit.ResourceTestRule;
+import org.glassfish.jersey.test.grizzly.GrizzlyWebTestContainerFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+
+import static org.gbif.datarepo.resource.PathsParams.EXPORT_PATH;
+
+/**
+ * Tests the newline delimited JSON export of DataPackageExportResource.
+ */
+public class DataPackageExportResourceTest {
+
+  private static final String API_URL = "http://localhost:8080/data_packages/";
+
+  private static final ObjectMapper OBJECT_MAPPER = Jackson.newObjectMapper();
+
+  private static final DataRepository DATA_REPOSITORY = mock(DataRepository.class);
+
+  private static final UUID FIRST_KEY = UUID.randomUUID();
+
+  private static final UUID SECOND_KEY = UUID.randomUUID();
+
+  @ClassRule
+  public static ResourceTestRule resource = ResourceTestRule.builder()
+    .setTestContainerFactory(new GrizzlyWebTestContainerFactory())
+    .addResource(new DataPackageExportResource(DATA_REPOSITORY, API_URL, OBJECT_MAPPER))
+    .build();
+
+  private static DataPackage testDataPackage(UUID key) {
+    DataPackage dataPackage = new DataPackage();
+    dataPackage.setKey(key);
+    dataPackage.setDoi(new DOI(DOI.TEST_PREFIX, "export." + key));
+    dataPackage.setTitle("export");
+    dataPackage.addFile("test.xml", "checksum", "text/xml", 1);
+    return dataPackage;
+  }
+
+  /**
+   * The repository exports two data packages to the consumer.
+   */
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    reset(DATA_REPOSITORY);
+    doAnswer(invocation -> {
+      Consumer<DataPackage> consumer = (Consumer<DataPackage>) invocation.getArguments()[1];
+      consumer.accept(testDataPackage(FIRST_KEY));
+      consumer.accept(testDataPackage(SECOND_KEY));
+      return null;
+    }).when(DATA_REPOSITORY).export(isNull(Date.class), any(Consumer.class));
+  }
+
+  /**
+   * Reads each line of the response as a data package.
+   */
+  private static List<DataPackage> readLines(InputStream inputStream) throws IOException {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+      return reader.lines().map(line -> {
+        try {
+          return OBJECT_MAPPER.readValue(line, DataPackage.class);
+        } catch (IOException ex) {
+          throw new IllegalStateException(ex);
+        }
+      }).collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Each data package is written in its own line with the URLs of its files.
+   */
+  @Test
+  public void testExport() throws IOException {
+    Response response = resource.getJerseyTest().target(EXPORT_PATH).request().get();
+    Assert.assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    Assert.assertNull(response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+    List<DataPackage> dataPackages = readLines(response.readEntity(InputStream.class));
+    Assert.assertEquals(2, dataPackages.size());
+    Assert.assertEquals(FIRST_KEY, dataPackages.get(0).getKey());
+    Assert.assertEquals(SECOND_KEY, dataPackages.get(1).getKey());
+    Assert.assertEquals(1, dataPackages.get(0).getFiles().size());
+    Assert.assertEquals(API_URL + FIRST_KEY + "/test.xml",
+                        dataPackages.get(0).getFiles().iterator().next().getFileName());
+  }
+
+  /**
+   * The export is gzip compressed when the client accepts it.
+   */
+  @Test
+  public void testGzipExport() throws IOException {
+    Response response = resource.getJerseyTest().target(EXPORT_PATH).request()
+      .header(HttpHeaders.ACCEPT_ENCODING, "gzip").get();
+    Assert.assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    Assert.assertEquals("gzip", response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+    List<DataPackage> dataPackages = readLines(new GZIPInputStream(response.readEntity(InputStream.class)));
+    Assert.assertEquals(2, dataPackages.size());
+    Assert.assertEquals(SECOND_KEY, dataPackages.get(1).getKey());
+  }
+}
@@ -2,17 +2,30 @@ package org.gbif.datarepo.resource;
 
 import org.gbif.api.model.common.GbifUserPrincipal;
 import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.vocabulary.UserRole;
 import org.gbif.datarepo.api.model.Identifier;
 import org.gbif.datarepo.app.DataRepoConfigurationDW;
+import org.gbif.datarepo.auth.OptionalAuthFilter;
 import org.gbif.datarepo.auth.basic.BasicAuthenticator;
 import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.api.model.DataPackageLookup;
 import org.gbif.datarepo.fs.DataRepoFileSystemService;
 import org.gbif.datarepo.identifiers.orcid.OrcidPublicService;
+import org.gbif.datarepo.identifiers.orcid.OrcidValidationService;
+import org.gbif.datarepo.logging.EventLogQueue;
 import org.gbif.datarepo.persistence.DataRepoPersistenceService;
 import org.gbif.datarepo.persistence.mappers.BaseMapperTest;
 import org.gbif.datarepo.impl.conf.DataRepoConfiguration;
+import org.gbif.datarepo.impl.conf.OrcidConfiguration;
 import org.gbif.datarepo.impl.FileSystemDataRepository;
+import org.gbif.datarepo.impl.download.FileDownload;
+import org.gbif.datarepo.impl.jobs.CreateJobExecutor;
+import org.gbif.datarepo.resource.admission.AdmissionConfiguration;
+import org.gbif.datarepo.resource.admission.AdmissionController;
 import org.gbif.datarepo.resource.caching.Purger;
+import org.gbif.datarepo.resource.download.DownloadScheduler;
+import org.gbif.datarepo.resource.download.DownloadSchedulerConfiguration;
+import org.gbif.datarepo.resource.validation.DataPackageValidator;
 import org.gbif.datarepo.test.mocks.DoiRegistrationServiceMock;
 import org.gbif.doi.service.DoiException;
 
@@ -23,7 +36,16 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 
 import javax.validation.Validation;
 import javax.ws.rs.WebApplicationException;
@@ -32,11 +54,16 @@ import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Optional;
+import com.google.common.io.ByteStreams;
 import com.google.inject.Injector;
 import io.dropwizard.auth.AuthDynamicFeature;
+import io.dropwizard.auth.AuthFilter;
 import io.dropwizard.auth.AuthValueFactoryProvider;
 import io.dropwizard.auth.basic.BasicCredentialAuthFilter;
+import io.dropwizard.auth.basic.BasicCredentials;
+import io.dropwizard.jackson.Jackson;
 import io.dropwizard.testing.junit.ResourceTestRule;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.RandomStringUtils;
@@ -61,6 +88,8 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 import static org.gbif.datarepo.resource.PathsParams.DATA_PACKAGES_PATH;
 import static org.gbif.datarepo.resource.PathsParams.RELATED_IDENTIFIERS_PATH;
@@ -92,9 +121,25 @@ public class DataPackageResourceTest extends BaseMapperTest {
   private static final GenericType<PagingResponse<Identifier>> GENERIC_RELATED_IDENTIFIER_PAGING_RESPONSE =
     new GenericType<PagingResponse<Identifier>>(){};
 
+  private static final GenericType<List<DataPackageLookup>> GENERIC_DATA_PACKAGE_LOOKUPS =
+    new GenericType<List<DataPackageLookup>>(){};
+
   //Mock authenticator, it always authenticates against the same user
   private static final BasicAuthenticator AUTHENTICATOR = mock(BasicAuthenticator.class);
 
+  private static final AuthFilter<BasicCredentials, GbifUserPrincipal> AUTH_FILTER =
+    new BasicCredentialAuthFilter.Builder<GbifUserPrincipal>()
+      .setAuthenticator(AUTHENTICATOR)
+      .setAuthorizer((principal, role) -> principal.hasRole(role))
+      .setRealm(BasicAuthenticator.GBIF_REALM).buildAuthFilter();
+
+  //Weight of the downloads of administrators
+  private static final int ADMIN_WEIGHT = 5;
+
+  //Spied to verify the clients and weights of the downloads
+  private static final DownloadScheduler DOWNLOAD_SCHEDULER = spy(new DownloadScheduler(downloadConfiguration(),
+                                                                                        new MetricRegistry()));
+
   private static DataPackage testDataPackage;
 
   //Temporary local folder to store files generated for test cases
@@ -159,10 +204,19 @@ public class DataPackageResourceTest extends BaseMapperTest {
     return configuration;
   }
 
-  private static OrcidPublicService mockOrcidService() {
+  /**
+   * Download configuration that weights the administrators.
+   */
+  private static DownloadSchedulerConfiguration downloadConfiguration() {
+    DownloadSchedulerConfiguration downloadConfiguration = new DownloadSchedulerConfiguration();
+    downloadConfiguration.setRoleWeights(Collections.singletonMap(UserRole.REGISTRY_ADMIN.name(), ADMIN_WEIGHT));
+    return downloadConfiguration;
+  }
+
+  private static OrcidValidationService mockOrcidService() {
     OrcidPublicService mockOrcidPublicService = mock(OrcidPublicService.class);
     when(mockOrcidPublicService.exists(any())).thenReturn(Boolean.TRUE);
-    return mockOrcidPublicService;
+    return new OrcidValidationService(mockOrcidPublicService, new OrcidConfiguration(), new MetricRegistry());
   }
 
   //Grizzly is required since he in-memory Jersey test container does not support all features,
@@ -172,10 +226,9 @@ public class DataPackageResourceTest extends BaseMapperTest {
     .setTestContainerFactory(new GrizzlyWebTestContainerFactory())
     //required to send multiple files
     .addProvider(MultiPartFeature.class)
-    //Authentication
-    .addProvider(new AuthDynamicFeature(new BasicCredentialAuthFilter.Builder<GbifUserPrincipal>()
-                                          .setAuthenticator(AUTHENTICATOR)
-                                          .setRealm(BasicAuthenticator.GBIF_REALM).buildAuthFilter()))
+    //Authentication, optional for the public reads and downloads
+    .addProvider(new AuthDynamicFeature(AUTH_FILTER))
+    .addProvider(new OptionalAuthFilter(AUTH_FILTER))
     .addProvider(new AuthValueFactoryProvider.Binder<>(GbifUserPrincipal.class))
     //Test resource
     .addResource(new DataPackageResource(new FileSystemDataRepository(new DoiRegistrationServiceMock(),
@@ -187,8 +240,16 @@ public class DataPackageResourceTest extends BaseMapperTest {
                                                                     configuration().getDataRepoConfiguration()
                                                                     .getFileSystem()),
                                                                       TEST_REPO_NAME),
-                                         configuration(), Validation.buildDefaultValidatorFactory().getValidator(),
-                                         mockOrcidService(), mock(Purger.class)))
+                                         configuration(),
+                                         new DataPackageValidator(Validation.buildDefaultValidatorFactory()
+                                                                    .getValidator(), mockOrcidService()),
+                                         mock(Purger.class),
+                                         mock(EventLogQueue.class), Jackson.newObjectMapper(),
+                                         mock(CreateJobExecutor.class),
+                                         new FileDownload(configuration().getDataRepoConfiguration().getFileSystem(),
+                                                          new MetricRegistry()),
+                                         new AdmissionController(new AdmissionConfiguration(), new MetricRegistry()),
+                                         DOWNLOAD_SCHEDULER))
     .build();
 
   /**
@@ -234,7 +295,7 @@ public class DataPackageResourceTest extends BaseMapperTest {
   public void tearDownTestCase() {
     // we have to reset the mock after each test because from the
     // @ClassRule, or use a @Rule as mentioned below.
-    reset(AUTHENTICATOR);
+    reset(AUTHENTICATOR, DOWNLOAD_SCHEDULER);
   }
 
   /**
@@ -292,21 +353,51 @@ public class DataPackageResourceTest extends BaseMapperTest {
   }
 
 
+  /**
+   * Tests that the data packages retrieved in batch have their citations in the language requested by the client.
+   */
+  @Test
+  public void testGetBatchCitationLanguage() {
+    String missing = UUID.randomUUID().toString();
+    List<DataPackageLookup> lookups = resource.getJerseyTest().target(DATA_PACKAGES_PATH + "/batch").request()
+      .header(HttpHeaders.ACCEPT_LANGUAGE, "es")
+      .post(Entity.json(Arrays.asList(testDataPackage.getKey().toString(), missing)), GENERIC_DATA_PACKAGE_LOOKUPS);
+    Assert.assertEquals(2, lookups.size());
+    Assert.assertTrue(lookups.get(0).isFound());
+    assertThat(lookups.get(0).getDataPackage().getCitation()).contains("consultado a través de GBIF.org");
+    Assert.assertFalse(lookups.get(1).isFound());
+  }
+
   /**
    * Tests that is not possible to create a DataPackage that contains a alternative identifier that is already in used.
+   * The DOI reserved for the data package is released.
    */
   @Test
   public void testDuplicateAlternativeIdentifier() throws Exception {
+    long releasedDois = countReleasedDois();
     try {
       createTestDataPackage(dataBodyPartOfJsonContent(new String(Files.readAllBytes(Paths.get(JSON_CREATE_TEST_FILE))),
                                                       DP_FORM_PARAM));
     } catch (WebApplicationException ex) {
       assertThat(Response.Status.BAD_REQUEST.getStatusCode() == ex.getResponse().getStatus());
+      Assert.assertEquals(releasedDois + 1, countReleasedDois());
       return;
     }
     Assert.fail("An BadRequest exception was expected");
   }
 
+  /**
+   * Number of DOI deletions in the DOI outbox.
+   */
+  private static long countReleasedDois() throws SQLException {
+    try (Connection connection = DriverManager.getConnection(getJdbcUrl());
+         Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM doi_outbox WHERE operation = 'DELETE'")) {
+      resultSet.next();
+      return resultSet.getLong(1);
+    }
+  }
+
   /**
    * Tests a call that must return a BadRequest response.
    */
@@ -388,6 +479,27 @@ public class DataPackageResourceTest extends BaseMapperTest {
     }
   }
 
+  /**
+   * Downloads of users are scheduled by user name with the weight of their role, anonymous downloads by IP address with
+   * the default weight.
+   */
+  @Test
+  public void testGetFileWeights() throws IOException {
+    String filePath = Paths.get(DATA_PACKAGES_PATH, testDataPackage.getKey().toString(), CONTENT_TEST_FILE).toString();
+    try (InputStream downloadFile = resource.getJerseyTest().target(filePath).request()
+                                      .header(HttpHeaders.AUTHORIZATION, TEST_USER_CREDENTIALS).get(InputStream.class);
+         InputStream contentFile = new FileInputStream(Paths.get(TEST_DATA_PACKAGE_DIR, CONTENT_TEST_FILE).toFile())) {
+      assertThat(downloadFile).hasSameContentAs(contentFile);
+    }
+    verify(DOWNLOAD_SCHEDULER).schedule(Matchers.eq(TEST_USER.getName()), Matchers.eq(ADMIN_WEIGHT),
+                                        any(InputStream.class));
+    try (InputStream downloadFile = resource.getJerseyTest().target(filePath).request().get(InputStream.class)) {
+      ByteStreams.exhaust(downloadFile);
+    }
+    int defaultWeight = new DownloadSchedulerConfiguration().getDefaultWeight();
+    verify(DOWNLOAD_SCHEDULER).schedule(Matchers.anyString(), Matchers.eq(defaultWeight), any(InputStream.class));
+  }
+
   /**
    * Tests that a DataPackage can be deleted.
    */
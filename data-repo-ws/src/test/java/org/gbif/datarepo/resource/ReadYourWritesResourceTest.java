@@ -0,0 +1,229 @@
+package org.gbif.datarepo.resource;
+
+import org.gbif.api.model.common.GbifUserPrincipal;
+import org.gbif.datarepo.api.model.DataPackage;
+import org.gbif.datarepo.app.DataRepoConfigurationDW;
+import org.gbif.datarepo.auth.OptionalAuthFilter;
+import org.gbif.datarepo.auth.ReadYourWritesFilter;
+import org.gbif.datarepo.auth.basic.BasicAuthenticator;
+import org.gbif.datarepo.fs.DataRepoFileSystemService;
+import org.gbif.datarepo.identifiers.orcid.OrcidValidationService;
+import org.gbif.datarepo.impl.FileSystemDataRepository;
+import org.gbif.datarepo.impl.conf.DataRepoConfiguration;
+import org.gbif.datarepo.impl.download.FileDownload;
+import org.gbif.datarepo.impl.jobs.CreateJobExecutor;
+import org.gbif.datarepo.logging.EventLogQueue;
+import org.gbif.datarepo.persistence.DataPackageMyBatisModule;
+import org.gbif.datarepo.persistence.DataRepoPersistenceService;
+import org.gbif.datarepo.persistence.ReadYourWrites;
+import org.gbif.datarepo.persistence.mappers.BaseMapperTest;
+import org.gbif.datarepo.resource.admission.AdmissionConfiguration;
+import org.gbif.datarepo.resource.admission.AdmissionController;
+import org.gbif.datarepo.resource.caching.Purger;
+import org.gbif.datarepo.resource.download.DownloadScheduler;
+import org.gbif.datarepo.resource.download.DownloadSchedulerConfiguration;
+import org.gbif.datarepo.resource.validation.DataPackageValidator;
+import org.gbif.datarepo.test.mocks.DoiRegistrationServiceMock;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import javax.validation.Validation;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import io.dropwizard.auth.AuthDynamicFeature;
+import io.dropwizard.auth.AuthFilter;
+import io.dropwizard.auth.AuthValueFactoryProvider;
+import io.dropwizard.auth.basic.BasicCredentialAuthFilter;
+import io.dropwizard.auth.basic.BasicCredentials;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.testing.junit.ResourceTestRule;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.glassfish.jersey.media.multipart.FormDataMultiPart;
+import org.glassfish.jersey.media.multipart.MultiPart;
+import org.glassfish.jersey.media.multipart.MultiPartFeature;
+import org.glassfish.jersey.test.grizzly.GrizzlyWebTestContainerFactory;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import ru.yandex.qatools.embed.postgresql.EmbeddedPostgres;
+import ru.yandex.qatools.embed.postgresql.distribution.Version;
+
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+import static org.gbif.datarepo.resource.PathsParams.DATA_PACKAGES_PATH;
+import static org.gbif.datarepo.resource.PathsParams.DP_FORM_PARAM;
+import static org.gbif.datarepo.resource.PathsParams.FILE_PARAM;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.CONTENT_TEST_FILE;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.JSON_CREATE_TEST_FILE;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_BASIC_CREDENTIALS;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_DATA_PACKAGE_DIR;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_USER;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_USER_CREDENTIALS;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.dataBodyPartOf;
+
+/**
+ * Tests that a user reads the data packages it has just created while the read replica lags behind the primary
+ * database. A second embedded Postgres plays the replica role and never receives the writes of the primary.
+ */
+public class ReadYourWritesResourceTest extends BaseMapperTest {
+
+  private static final String TEST_REPO_NAME = "TestRepo";
+
+  //Long enough to cover the whole test
+  private static final long READ_YOUR_WRITES_WINDOW = 60000L;
+
+  //Mock authenticator, it always authenticates against the same user
+  private static final BasicAuthenticator AUTHENTICATOR = mock(BasicAuthenticator.class);
+
+  private static final AuthFilter<BasicCredentials, GbifUserPrincipal> AUTH_FILTER =
+    new BasicCredentialAuthFilter.Builder<GbifUserPrincipal>()
+      .setAuthenticator(AUTHENTICATOR)
+      .setRealm(BasicAuthenticator.GBIF_REALM).buildAuthFilter();
+
+  private static EmbeddedPostgres replicaPostgres;
+
+  //Temporary local folder used as the repository directory
+  private static Path temporaryFolder;
+
+  private static Injector injector;
+
+  /**
+   * Starts both databases and creates the persistence layer that routes the reads to the replica.
+   */
+  private static Injector injector() {
+    try {
+      if (injector == null) {
+        if (!hasInitiated()) {
+          initDB();
+        }
+        replicaPostgres = new EmbeddedPostgres(Version.V9_4_10);
+        String replicaJdbcUrl = replicaPostgres.start("localhost", new ServerSocket(0).getLocalPort(), "testdb",
+                                                      "user", "password");
+        runLiquibase(replicaJdbcUrl);
+        injector = Guice.createInjector(new DataPackageMyBatisModule(dbConfig("primaryTest", getJdbcUrl()),
+                                                                     dbConfig("replicaTest", replicaJdbcUrl),
+                                                                     READ_YOUR_WRITES_WINDOW, null, null));
+      }
+      return injector;
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static DataRepoConfigurationDW configuration() {
+    try {
+      temporaryFolder = Files.createTempDirectory(RandomStringUtils.randomAlphanumeric(3));
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+    DataRepoConfigurationDW configuration = new DataRepoConfigurationDW();
+    DataRepoConfiguration dataRepoConfiguration = new DataRepoConfiguration();
+    dataRepoConfiguration.setDoiCommonPrefix("10.5072");
+    dataRepoConfiguration.setGbifApiUrl("http://localhost:8080/");
+    dataRepoConfiguration.setDataPackageApiUrl("http://localhost:8080/data_packages/");
+    dataRepoConfiguration.setDataRepoPath("file://" + temporaryFolder + '/');
+    configuration.setDataRepoConfiguration(dataRepoConfiguration);
+    return configuration;
+  }
+
+  private static DataPackageResource dataPackageResource() {
+    DataRepoConfigurationDW configuration = configuration();
+    DataRepoConfiguration dataRepoConfiguration = configuration.getDataRepoConfiguration();
+    return new DataPackageResource(new FileSystemDataRepository(new DoiRegistrationServiceMock(),
+                                                                injector().getInstance(DataRepoPersistenceService.class),
+                                                                new DataRepoFileSystemService(
+                                                                  new org.apache.hadoop.fs.Path(dataRepoConfiguration
+                                                                                                  .getDataRepoPath()),
+                                                                  dataRepoConfiguration.getFileSystem()),
+                                                                TEST_REPO_NAME),
+                                   configuration,
+                                   new DataPackageValidator(Validation.buildDefaultValidatorFactory().getValidator(),
+                                                            mock(OrcidValidationService.class)),
+                                   mock(Purger.class), mock(EventLogQueue.class), Jackson.newObjectMapper(),
+                                   mock(CreateJobExecutor.class),
+                                   new FileDownload(dataRepoConfiguration.getFileSystem(), new MetricRegistry()),
+                                   new AdmissionController(new AdmissionConfiguration(), new MetricRegistry()),
+                                   new DownloadScheduler(new DownloadSchedulerConfiguration(), new MetricRegistry()));
+  }
+
+  //Grizzly is required since he in-memory Jersey test container does not support all features,
+  // such as the @Context injection used by BasicAuthFactory and OAuthFactory.
+  @ClassRule
+  public static ResourceTestRule resource = ResourceTestRule.builder()
+    .setTestContainerFactory(new GrizzlyWebTestContainerFactory())
+    //required to send multiple files
+    .addProvider(MultiPartFeature.class)
+    //Authentication, optional for the public reads, and the client of the reads
+    .addProvider(new AuthDynamicFeature(AUTH_FILTER))
+    .addProvider(new OptionalAuthFilter(AUTH_FILTER))
+    .addProvider(new AuthValueFactoryProvider.Binder<>(GbifUserPrincipal.class))
+    .addProvider(new ReadYourWritesFilter(injector().getInstance(ReadYourWrites.class)))
+    //Test resource
+    .addResource(dataPackageResource())
+    .build();
+
+  @AfterClass
+  public static void destroy() throws IOException {
+    if (temporaryFolder != null && temporaryFolder.toFile().exists()) {
+      FileUtils.deleteDirectory(temporaryFolder.toFile());
+    }
+    Optional.ofNullable(replicaPostgres).ifPresent(EmbeddedPostgres::stop);
+    tearDown();
+  }
+
+  @Before
+  public void setup() throws Exception {
+    when(AUTHENTICATOR.authenticate(eq(TEST_BASIC_CREDENTIALS)))
+      .thenReturn(com.google.common.base.Optional.of(TEST_USER));
+  }
+
+  /**
+   * Executed after each test, resets all the mock instances.
+   */
+  @After
+  public void tearDownTestCase() {
+    reset(AUTHENTICATOR);
+  }
+
+  private static Response get(DataPackage dataPackage, String credentials) {
+    return resource.getJerseyTest().target(Paths.get(DATA_PACKAGES_PATH, dataPackage.getKey().toString()).toString())
+      .request().header(HttpHeaders.AUTHORIZATION, credentials).get();
+  }
+
+  /**
+   * The data package created by a user is read from the primary database when the user requests it, anonymous reads
+   * are served by the replica that doesn't contain it yet.
+   */
+  @Test
+  public void testCreateThenGet() throws Exception {
+    DataPackage created;
+    try (MultiPart multiPart = new FormDataMultiPart()
+      .bodyPart(dataBodyPartOf(JSON_CREATE_TEST_FILE, DP_FORM_PARAM))
+      .bodyPart(dataBodyPartOf(TEST_DATA_PACKAGE_DIR + CONTENT_TEST_FILE, FILE_PARAM))) {
+      created = resource.getJerseyTest().target(DATA_PACKAGES_PATH).register(MultiPartFeature.class).request()
+        .header(HttpHeaders.AUTHORIZATION, TEST_USER_CREDENTIALS)
+        .post(Entity.entity(multiPart, multiPart.getMediaType()), DataPackage.class);
+    }
+    //Reads on any request thread
+    for (int i = 0; i < 4; i++) {
+      Assert.assertEquals(Response.Status.OK.getStatusCode(), get(created, TEST_USER_CREDENTIALS).getStatus());
+      Assert.assertEquals(Response.Status.NOT_FOUND.getStatusCode(), get(created, null).getStatus());
+    }
+  }
+}
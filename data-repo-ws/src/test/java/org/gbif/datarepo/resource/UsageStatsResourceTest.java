@@ -0,0 +1,114 @@
+package org.gbif.datarepo.resource;
+
+import org.gbif.api.model.common.GbifUserPrincipal;
+import org.gbif.datarepo.auth.basic.BasicAuthenticator;
+import org.gbif.datarepo.persistence.UsageStatsService;
+import org.gbif.datarepo.persistence.model.UsageStatsEntry;
+
+import java.util.Collections;
+import java.util.Date;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import io.dropwizard.auth.AuthDynamicFeature;
+import io.dropwizard.auth.AuthValueFactoryProvider;
+import io.dropwizard.auth.basic.BasicCredentialAuthFilter;
+import io.dropwizard.testing.junit.ResourceTestRule;
+import org.glassfish.jersey.server.filter.RolesAllowedDynamicFeature;
+import org.glassfish.jersey.test.grizzly.GrizzlyWebTestContainerFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+import static org.gbif.datarepo.resource.PathsParams.USAGE_STATS_PATH;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_BASIC_CREDENTIALS;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_DATA_REPO_BASIC_CREDENTIALS;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_DATA_REPO_USER;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_DATA_REPO_USER_CREDENTIALS;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_USER;
+import static org.gbif.datarepo.test.utils.ResourceTestUtils.TEST_USER_CREDENTIALS;
+
+/**
+ * Tests that the usage stats are only available to the users that can read the audit log.
+ */
+public class UsageStatsResourceTest {
+
+  //Mock authenticator, it authenticates the administrator and the data repo user
+  private static final BasicAuthenticator AUTHENTICATOR = mock(BasicAuthenticator.class);
+
+  private static final UsageStatsService USAGE_STATS_SERVICE = mock(UsageStatsService.class);
+
+  //Grizzly is required since he in-memory Jersey test container does not support all features,
+  // such as the @Context injection used by BasicAuthFactory and OAuthFactory.
+  @ClassRule
+  public static ResourceTestRule resource = ResourceTestRule.builder()
+    .setTestContainerFactory(new GrizzlyWebTestContainerFactory())
+    //Authentication and roles
+    .addProvider(new AuthDynamicFeature(new BasicCredentialAuthFilter.Builder<GbifUserPrincipal>()
+                                          .setAuthenticator(AUTHENTICATOR)
+                                          .setAuthorizer((principal, role) -> principal.hasRole(role))
+                                          .setRealm(BasicAuthenticator.GBIF_REALM).buildAuthFilter()))
+    .addProvider(RolesAllowedDynamicFeature.class)
+    .addProvider(new AuthValueFactoryProvider.Binder<>(GbifUserPrincipal.class))
+    //Test resource
+    .addResource(new UsageStatsResource(USAGE_STATS_SERVICE))
+    .build();
+
+  @Before
+  public void setup() throws Exception {
+    when(AUTHENTICATOR.authenticate(eq(TEST_BASIC_CREDENTIALS)))
+      .thenReturn(com.google.common.base.Optional.of(TEST_USER));
+    when(AUTHENTICATOR.authenticate(eq(TEST_DATA_REPO_BASIC_CREDENTIALS)))
+      .thenReturn(com.google.common.base.Optional.of(TEST_DATA_REPO_USER));
+    when(USAGE_STATS_SERVICE.list(anyString(), anyString(), any(Date.class), any(Date.class)))
+      .thenReturn(Collections.<UsageStatsEntry>emptyList());
+  }
+
+  /**
+   * Executed after each test, resets all the mock instances.
+   */
+  @After
+  public void tearDownTestCase() {
+    reset(AUTHENTICATOR, USAGE_STATS_SERVICE);
+  }
+
+  private static Response list(String credentials) {
+    return resource.getJerseyTest().target(USAGE_STATS_PATH).request(MediaType.APPLICATION_JSON)
+      .header(HttpHeaders.AUTHORIZATION, credentials).get();
+  }
+
+  /**
+   * Anonymous requests must authenticate.
+   */
+  @Test
+  public void testListAnonymous() {
+    Response response = resource.getJerseyTest().target(USAGE_STATS_PATH).request(MediaType.APPLICATION_JSON).get();
+    Assert.assertEquals(Response.Status.UNAUTHORIZED.getStatusCode(), response.getStatus());
+  }
+
+  /**
+   * Users without the administrator role are rejected.
+   */
+  @Test
+  public void testListForbidden() {
+    Assert.assertEquals(Response.Status.FORBIDDEN.getStatusCode(), list(TEST_DATA_REPO_USER_CREDENTIALS).getStatus());
+  }
+
+  /**
+   * Administrators read the usage stats.
+   */
+  @Test
+  public void testListAdmin() {
+    Assert.assertEquals(Response.Status.OK.getStatusCode(), list(TEST_USER_CREDENTIALS).getStatus());
+  }
+}
@@ -0,0 +1,90 @@
+package org.gbif.datarepo.resource.admission;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.core.HttpHeaders;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the global and per user limits of the admission of ingests.
+ */
+public class AdmissionControllerTest {
+
+  private static AdmissionConfiguration configuration() {
+    AdmissionConfiguration configuration = new AdmissionConfiguration();
+    configuration.setMaxInFlight(3);
+    configuration.setMaxInFlightPerUser(2);
+    configuration.setMaxInFlightBytes(100);
+    configuration.setMaxInFlightBytesPerUser(60);
+    configuration.setQueueTimeout(0);
+    return configuration;
+  }
+
+  private static void assertRejected(AdmissionController admissionController, String user, long bytes) {
+    try {
+      admissionController.admit(user, bytes);
+      Assert.fail("Ingest of " + bytes + " bytes by " + user + " should have been rejected");
+    } catch (ServiceUnavailableException ex) {
+      Assert.assertEquals("30", ex.getResponse().getHeaderString(HttpHeaders.RETRY_AFTER));
+    }
+  }
+
+  /**
+   * Ingests are rejected when the global or user limits of ingests are reached.
+   */
+  @Test
+  public void testInFlightLimits() {
+    AdmissionController admissionController = new AdmissionController(configuration(), new MetricRegistry());
+    AdmissionController.Permit permit = admissionController.admit("u1", 0);
+    admissionController.admit("u1", 0);
+    assertRejected(admissionController, "u1", 0);
+    admissionController.admit("u2", 0);
+    assertRejected(admissionController, "u3", 0);
+    Assert.assertEquals(3, admissionController.inFlight());
+    permit.close();
+    permit.close();
+    Assert.assertEquals(2, admissionController.inFlight());
+    admissionController.admit("u1", 0);
+  }
+
+  /**
+   * Ingests are rejected when the global or user limits of bytes are reached, a large ingest is admitted alone.
+   */
+  @Test
+  public void testInFlightBytesLimits() {
+    AdmissionController admissionController = new AdmissionController(configuration(), new MetricRegistry());
+    AdmissionController.Permit large = admissionController.admit("u1", 500);
+    assertRejected(admissionController, "u2", 1);
+    large.close();
+    admissionController.admit("u1", 50);
+    assertRejected(admissionController, "u1", 20);
+    admissionController.admit("u2", 40);
+    assertRejected(admissionController, "u3", 20);
+    Assert.assertEquals(90, admissionController.inFlightBytes());
+  }
+
+  /**
+   * Waiting ingests are admitted when other ingests finish before the queue timeout.
+   */
+  @Test
+  public void testQueueing() throws Exception {
+    AdmissionConfiguration configuration = configuration();
+    configuration.setQueueTimeout(TimeUnit.SECONDS.toMillis(10));
+    AdmissionController admissionController = new AdmissionController(configuration, new MetricRegistry());
+    AdmissionController.Permit first = admissionController.admit("u1", 0);
+    admissionController.admit("u1", 0);
+    CompletableFuture<AdmissionController.Permit> queued =
+      CompletableFuture.supplyAsync(() -> admissionController.admit("u1", 0));
+    while (admissionController.waiting() == 0) {
+      Thread.sleep(10);
+    }
+    Assert.assertFalse(queued.isDone());
+    first.close();
+    Assert.assertNotNull(queued.get(10, TimeUnit.SECONDS));
+    Assert.assertEquals(2, admissionController.inFlight());
+  }
+}
@@ -0,0 +1,102 @@
+package org.gbif.datarepo.resource.caching;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the coalescing and retries of the cache purges.
+ */
+public class PurgerTest {
+
+  private static final String API_URL = "http://api.gbif.org/v1/";
+
+  private static final String ROOT_URL = API_URL + "data_packages/";
+
+  private static PurgerConfiguration configuration() {
+    PurgerConfiguration configuration = new PurgerConfiguration();
+    configuration.setCoalesceWindow(60000);
+    configuration.setMaxPathsPerBan(2);
+    configuration.setRetryBackoff(1);
+    return configuration;
+  }
+
+  /**
+   * Purges requested in the same window are sent once, paths are banned in batches.
+   */
+  @Test
+  public void testCoalescing() {
+    List<String> bans = new CopyOnWriteArrayList<>();
+    Purger purger = new Purger(API_URL, configuration(), new MetricRegistry(), bans::add);
+    for (int i = 0; i < 100; i++) {
+      purger.purgeRoot();
+    }
+    purger.purgeResource("10.5072/dp.1");
+    purger.purgeResource("10.5072/dp.1");
+    purger.purgeResource("10.5072/dp.2");
+    purger.purgeResource("10.5072/dp.3");
+    Assert.assertEquals(4, purger.pending());
+    Assert.assertTrue(bans.isEmpty());
+    purger.close();
+    Assert.assertEquals(3, bans.size());
+    Assert.assertEquals(ROOT_URL, bans.get(0));
+    Assert.assertTrue(bans.stream().anyMatch(ban -> ban.contains("|") && ban.contains("10\\.5072/dp\\.")));
+    Assert.assertEquals(0, purger.pending());
+  }
+
+  /**
+   * A single path is escaped as the batched paths are, so it doesn't ban other paths.
+   */
+  @Test
+  public void testSinglePathEscaped() {
+    List<String> bans = new CopyOnWriteArrayList<>();
+    Purger purger = new Purger(API_URL, configuration(), new MetricRegistry(), bans::add);
+    purger.purgeResource("10.5072/dp.1");
+    purger.close();
+    Assert.assertEquals(Arrays.asList(ROOT_URL, ROOT_URL + "10\\.5072/dp\\.1"), bans);
+  }
+
+  /**
+   * Paths purged once the capacity is reached are not dropped, all the paths are banned instead.
+   */
+  @Test
+  public void testOverflow() {
+    List<String> bans = new CopyOnWriteArrayList<>();
+    PurgerConfiguration configuration = configuration();
+    configuration.setCapacity(2);
+    Purger purger = new Purger(API_URL, configuration, new MetricRegistry(), bans::add);
+    purger.purgeResource("10.5072/dp.1");
+    purger.purgeResource("10.5072/dp.2");
+    purger.purgeResource("10.5072/dp.3");
+    Assert.assertEquals(2, purger.pending());
+    purger.close();
+    Assert.assertEquals(Arrays.asList(ROOT_URL, ROOT_URL + ".*"), bans);
+  }
+
+  /**
+   * Failed BANs are sent again.
+   */
+  @Test
+  public void testRetries() throws InterruptedException {
+    AtomicInteger attempts = new AtomicInteger();
+    PurgerConfiguration configuration = configuration();
+    configuration.setCoalesceWindow(1);
+    Purger purger = new Purger(API_URL, configuration, new MetricRegistry(), url -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw new IOException("Varnish unavailable");
+      }
+    });
+    purger.purgeRoot();
+    for (int i = 0; i < 100 && attempts.get() < 3; i++) {
+      Thread.sleep(50);
+    }
+    purger.close();
+    Assert.assertEquals(3, attempts.get());
+  }
+}
@@ -0,0 +1,83 @@
+package org.gbif.datarepo.resource.download;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the shares of bandwidth of the clients downloading files.
+ */
+public class DownloadSchedulerTest {
+
+  private static final byte[] CONTENT = "data package file content".getBytes(StandardCharsets.UTF_8);
+
+  private static DownloadSchedulerConfiguration configuration() {
+    DownloadSchedulerConfiguration configuration = new DownloadSchedulerConfiguration();
+    configuration.setMaxBytesPerSecond(3000);
+    configuration.setRoleWeights(ImmutableMap.of("REGISTRY_ADMIN", 2, "HARVESTER", 1));
+    return configuration;
+  }
+
+  /**
+   * The total bandwidth is shared among the clients downloading by their weights.
+   */
+  @Test
+  public void testWeightedShares() throws IOException {
+    DownloadScheduler downloadScheduler = new DownloadScheduler(configuration(), new MetricRegistry());
+    InputStream user = downloadScheduler.schedule("user", 2, new ByteArrayInputStream(CONTENT));
+    Assert.assertEquals(3000, downloadScheduler.clientRate("user"), 0.1);
+    InputStream anonymous = downloadScheduler.schedule("10.0.0.1", 1, new ByteArrayInputStream(CONTENT));
+    InputStream anonymous2 = downloadScheduler.schedule("10.0.0.1", 1, new ByteArrayInputStream(CONTENT));
+    Assert.assertEquals(2, downloadScheduler.clients());
+    Assert.assertEquals(2000, downloadScheduler.clientRate("user"), 0.1);
+    Assert.assertEquals(1000, downloadScheduler.clientRate("10.0.0.1"), 0.1);
+    anonymous.close();
+    Assert.assertEquals(1000, downloadScheduler.clientRate("10.0.0.1"), 0.1);
+    anonymous2.close();
+    Assert.assertNull(downloadScheduler.clientRate("10.0.0.1"));
+    Assert.assertEquals(3000, downloadScheduler.clientRate("user"), 0.1);
+    user.close();
+    Assert.assertEquals(0, downloadScheduler.clients());
+  }
+
+  /**
+   * Client rates are capped by the bandwidth per client, unlimited streams are not throttled.
+   */
+  @Test
+  public void testClientLimits() throws IOException {
+    DownloadSchedulerConfiguration configuration = configuration();
+    configuration.setClientBytesPerSecond(500);
+    DownloadScheduler downloadScheduler = new DownloadScheduler(configuration, new MetricRegistry());
+    try (InputStream input = downloadScheduler.schedule("user", 2, new ByteArrayInputStream(CONTENT))) {
+      Assert.assertEquals(1000, downloadScheduler.clientRate("user"), 0.1);
+    }
+
+    DownloadScheduler unlimited = new DownloadScheduler(new DownloadSchedulerConfiguration(), new MetricRegistry());
+    try (InputStream input = unlimited.schedule("user", 1, new ByteArrayInputStream(CONTENT))) {
+      Assert.assertNull(unlimited.clientRate("user"));
+      Assert.assertArrayEquals(CONTENT, ByteStreams.toByteArray(input));
+    }
+  }
+
+  /**
+   * Weights of users come from their roles, anonymous clients are identified by the forwarded address.
+   */
+  @Test
+  public void testClients() {
+    DownloadSchedulerConfiguration configuration = configuration();
+    configuration.setClientAddressHeader("X-Forwarded-For");
+    DownloadScheduler downloadScheduler = new DownloadScheduler(configuration, new MetricRegistry());
+    Assert.assertEquals(2, downloadScheduler.weight(true, role -> true));
+    Assert.assertEquals(1, downloadScheduler.weight(true, role -> false));
+    Assert.assertEquals(1, downloadScheduler.weight(false, role -> true));
+    Assert.assertEquals("10.0.0.1", downloadScheduler.clientAddress(header -> "10.0.0.1, 10.0.0.2", "127.0.0.1"));
+    Assert.assertEquals("127.0.0.1", downloadScheduler.clientAddress(header -> null, "127.0.0.1"));
+  }
+}
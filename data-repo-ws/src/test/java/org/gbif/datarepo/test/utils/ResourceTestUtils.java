@@ -45,8 +45,16 @@ public class ResourceTestUtils {
 
   public static final BasicCredentials TEST_BASIC_CREDENTIALS = basicCredentials();
 
+  public static final GbifUserPrincipal TEST_DATA_REPO_USER = testDataRepoUser();
+
+  public static final String TEST_DATA_REPO_USER_CREDENTIALS = encodedTestDataRepoUserCredentials();
+
+  public static final BasicCredentials TEST_DATA_REPO_BASIC_CREDENTIALS = dataRepoBasicCredentials();
+
   private static final String TEST_USER_NAME = "test";
 
+  private static final String TEST_DATA_REPO_USER_NAME = "datarepo";
+
   /**
    * Private constructor.
    */
@@ -67,6 +75,17 @@ public class ResourceTestUtils {
     return new GbifUserPrincipal(user);
   }
 
+  /**
+   * Creates a test user that is not an administrator, user name and password are identical.
+   */
+  private static GbifUserPrincipal testDataRepoUser() {
+    GbifUser user = new GbifUser();
+    user.setUserName(TEST_DATA_REPO_USER_NAME);
+    user.setPasswordHash(TEST_DATA_REPO_USER_NAME);
+    user.addRole(UserRole.DATA_REPO_USER);
+    return new GbifUserPrincipal(user);
+  }
+
   /**
    * Creates a Base64 encoded user credentials.
    */
@@ -74,6 +93,14 @@ public class ResourceTestUtils {
     return "Basic " + new String(Base64.encode((TEST_USER_NAME + ':' + TEST_USER_NAME).getBytes()));
   }
 
+  /**
+   * Creates a Base64 encoded credentials of the user that is not an administrator.
+   */
+  private static String encodedTestDataRepoUserCredentials() {
+    return "Basic "
+           + new String(Base64.encode((TEST_DATA_REPO_USER_NAME + ':' + TEST_DATA_REPO_USER_NAME).getBytes()));
+  }
+
   /**
    * Creates a test instance from BasicCredentials using the test user data.
    */
@@ -81,6 +108,14 @@ public class ResourceTestUtils {
     return new BasicCredentials(TEST_USER.getUser().getUserName(), TEST_USER.getUser().getPasswordHash());
   }
 
+  /**
+   * Creates a test instance from BasicCredentials using the data of the user that is not an administrator.
+   */
+  private static BasicCredentials dataRepoBasicCredentials() {
+    return new BasicCredentials(TEST_DATA_REPO_USER.getUser().getUserName(),
+                                TEST_DATA_REPO_USER.getUser().getPasswordHash());
+  }
+
   /**
    * Creates a Form param whose content is a file stream.
    */
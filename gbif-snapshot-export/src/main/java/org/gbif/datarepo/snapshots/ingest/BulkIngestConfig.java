@@ -0,0 +1,65 @@
+package org.gbif.datarepo.snapshots.ingest;
+
+import org.gbif.datarepo.impl.conf.DataRepoConfiguration;
+import org.gbif.datarepo.impl.ingest.ManifestReader;
+
+/**
+ * Configuration settings to ingest a manifest of data packages into the DataRepo.
+ */
+public class BulkIngestConfig {
+
+  private DataRepoConfiguration dataRepoConfiguration;
+  private String manifest;
+  private ManifestReader.Format format = ManifestReader.Format.NDJSON;
+  private String results;
+  private String createdBy = "gbif-snapshot";
+
+  public DataRepoConfiguration getDataRepoConfiguration() {
+    return dataRepoConfiguration;
+  }
+
+  public void setDataRepoConfiguration(DataRepoConfiguration dataRepoConfiguration) {
+    this.dataRepoConfiguration = dataRepoConfiguration;
+  }
+
+  /**
+   * Local path of the manifest.
+   */
+  public String getManifest() {
+    return manifest;
+  }
+
+  public void setManifest(String manifest) {
+    this.manifest = manifest;
+  }
+
+  public ManifestReader.Format getFormat() {
+    return format;
+  }
+
+  public void setFormat(ManifestReader.Format format) {
+    this.format = format;
+  }
+
+  /**
+   * Local path where the result of each entry is written as newline delimited JSON.
+   */
+  public String getResults() {
+    return results;
+  }
+
+  public void setResults(String results) {
+    this.results = results;
+  }
+
+  /**
+   * User set as creator of the data packages, it's also part of the keys derived from the entry ids.
+   */
+  public String getCreatedBy() {
+    return createdBy;
+  }
+
+  public void setCreatedBy(String createdBy) {
+    this.createdBy = createdBy;
+  }
+}
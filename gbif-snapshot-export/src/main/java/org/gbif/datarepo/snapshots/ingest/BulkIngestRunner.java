@@ -0,0 +1,85 @@
+package org.gbif.datarepo.snapshots.ingest;
+
+import org.gbif.datarepo.impl.ingest.BulkIngest;
+import org.gbif.datarepo.impl.ingest.IngestResult;
+import org.gbif.datarepo.impl.ingest.ManifestReader;
+import org.gbif.datarepo.inject.DataRepoFsModule;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Command line ingest of a manifest of data packages, a manifest can be run again to retry the failed entries.
+ */
+class BulkIngestRunner {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final Logger LOG = LoggerFactory.getLogger(BulkIngestRunner.class);
+
+  static {
+    OBJECT_MAPPER.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    OBJECT_MAPPER.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  }
+
+  private final BulkIngestConfig config;
+
+  private final BulkIngest bulkIngest;
+
+  private BulkIngestRunner(BulkIngestConfig config) {
+    this.config = config;
+    DataRepoFsModule dataRepoFsModule = new DataRepoFsModule(config.getDataRepoConfiguration(), null, null);
+    bulkIngest = new BulkIngest(dataRepoFsModule.dataRepository(OBJECT_MAPPER),
+                                config.getDataRepoConfiguration().getIngestParallelism(), dataPackage -> { });
+  }
+
+  /**
+   * Ingests the manifest and writes the result of each entry.
+   */
+  private void run() throws IOException {
+    ObjectWriter resultWriter = OBJECT_MAPPER.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    Map<IngestResult.Status, Long> counts = new EnumMap<>(IngestResult.Status.class);
+    try (ManifestReader reader = new ManifestReader(Files.newBufferedReader(Paths.get(config.getManifest()),
+                                                                            StandardCharsets.UTF_8),
+                                                    config.getFormat());
+         Writer writer = Files.newBufferedWriter(Paths.get(config.getResults()), StandardCharsets.UTF_8)) {
+      long processed = bulkIngest.ingest(reader, config.getCreatedBy(), result -> {
+        counts.merge(result.getStatus(), 1L, Long::sum);
+        try {
+          resultWriter.writeValue(writer, result);
+          writer.write('\n');
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+      LOG.info("{} entries ingested: {}", processed, counts);
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Runs the ingest using a configuration YAML file as parameter.
+   */
+  public static void main(String[] arg) throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper(new YAMLFactory());
+    BulkIngestConfig config = objectMapper.readValue(new File(arg[0]), BulkIngestConfig.class);
+    new BulkIngestRunner(config).run();
+  }
+}